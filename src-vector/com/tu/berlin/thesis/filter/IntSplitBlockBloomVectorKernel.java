@@ -0,0 +1,44 @@
+package com.tu.berlin.thesis.filter;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector kernel of IntSplitBlockBloomFilter: one 8 x 32-bit lane vector per block.
+ *
+ * mask  = 1 << ((broadcast(x) * SALT) >>> 27)     (one bit per lane)
+ * insert: block |= mask
+ * test  : (block & mask) == mask in every lane
+ *
+ * Lives in its own source root (src-vector), so src compiles with plain javac;
+ * IntSplitBlockBloomFilter loads it reflectively when it is on the class path.
+ * Compile (against the src classes) and run with --add-modules jdk.incubator.vector.
+ */
+final class IntSplitBlockBloomVectorKernel implements IntSplitBlockBloomFilter.Kernel {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_256;
+    private static final IntVector SALTS = IntVector.fromArray(SPECIES, IntSplitBlockBloomFilter.SALT, 0);
+    private static final IntVector ONES = IntVector.broadcast(SPECIES, 1);
+
+    /** False without a native 256-bit unit: the vector ops would be emulated, slower than the scalar loop. */
+    static boolean isSupported() {
+        return IntVector.SPECIES_PREFERRED.vectorBitSize() >= SPECIES.vectorBitSize();
+    }
+
+    private static IntVector mask(int x) {
+        IntVector shifts = IntVector.broadcast(SPECIES, x).mul(SALTS).lanewise(VectorOperators.LSHR, 27);
+        return ONES.lanewise(VectorOperators.LSHL, shifts);
+    }
+
+    @Override
+    public void insert(int[] words, int base, int x) {
+        IntVector.fromArray(SPECIES, words, base).or(mask(x)).intoArray(words, base);
+    }
+
+    @Override
+    public boolean test(int[] words, int base, int x) {
+        IntVector mask = mask(x);
+        return IntVector.fromArray(SPECIES, words, base).and(mask).eq(mask).allTrue();
+    }
+}
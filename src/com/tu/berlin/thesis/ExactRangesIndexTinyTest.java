@@ -0,0 +1,149 @@
+package com.tu.berlin.thesis;
+
+import com.tu.berlin.thesis.data.FilterFile;
+import com.tu.berlin.thesis.rangetree.ExactRangesIndex;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import static com.tu.berlin.thesis.TinyChecks.check;
+
+public class ExactRangesIndexTinyTest {
+
+    public static void main(String[] args) throws IOException {
+        Random rnd = new Random(250);
+
+        // -----------------------------
+        // Eytzinger predecessor == binary search, every tree shape (full, partial last level)
+        // -----------------------------
+        boolean same = true;
+        for (int n = 0; n <= 70; n++) {
+            same &= agrees(randomRanges(rnd, n, 5), rnd, 2000);
+        }
+        check("0..70 ranges: contains == binary search", same);
+        check("70k ranges (look-ahead loads): contains == binary search",
+                agrees(randomRanges(rnd, 70_000, 1000), rnd, 500_000));
+
+        ExactRangesIndex extreme = new ExactRangesIndex();
+        extreme.build(new int[]{Integer.MIN_VALUE, 0, Integer.MAX_VALUE - 1},
+                new int[]{Integer.MIN_VALUE, 5, Integer.MAX_VALUE}, 3);
+        check("MIN_VALUE / MAX_VALUE bounds", extreme.contains(Integer.MIN_VALUE) && !extreme.contains(Integer.MIN_VALUE + 1)
+                && !extreme.contains(-1) && extreme.contains(0) && extreme.contains(5) && !extreme.contains(6)
+                && extreme.contains(Integer.MAX_VALUE));
+
+        // -----------------------------
+        // Memory: one layout only, 8 bytes per range
+        // -----------------------------
+        int[][] r = randomRanges(rnd, 1000, 10);
+        ExactRangesIndex index = new ExactRangesIndex();
+        index.build(r[0], r[1], 1000);
+        check("approxBytesUsed == (count + 1) * 8", index.approxBytesUsed() == 1001 * 8L);
+
+        // -----------------------------
+        // Files: version 2 holds the Eytzinger words, version 1 (starts, ends) still maps
+        // -----------------------------
+        Path dir = Files.createTempDirectory("ranges");
+        Path v2 = dir.resolve("v2.depf");
+        Path v1 = dir.resolve("v1.depf");
+        try {
+            index.save(v2);
+            ExactRangesIndex mapped = ExactRangesIndex.map(v2);
+            check("v2 file = header + count + 1 longs", Files.size(v2) == 16 + 8 + 1001 * 8L
+                    && mapped.approxBytesUsed() == index.approxBytesUsed());
+            check("mapped Eytzinger == in-memory", sameAnswers(index, mapped, r, rnd));
+
+            try (FilterFile.Writer w = FilterFile.create(v1, FilterFile.TYPE_RANGES, 1000)) {
+                w.writeInts(r[0], 1000);
+                w.writeInts(r[1], 1000);
+            }
+            setVersion(v1, 1);
+            ExactRangesIndex old = ExactRangesIndex.map(v1);
+            check("version 1 file (sorted sections) == in-memory",
+                    sameAnswers(index, old, r, rnd) && old.approxBytesUsed() == 1000 * 8L);
+        } finally {
+            Files.deleteIfExists(v1);
+            Files.deleteIfExists(v2);
+            Files.deleteIfExists(dir);
+        }
+
+        // -----------------------------
+        // Above EYTZINGER_MAX_RANGES: sorted layout, same answers
+        // -----------------------------
+        int big = (1 << 21) + 1;
+        int[][] many = randomRanges(rnd, big, 4);
+        check("2M + 1 ranges: sorted layout, contains == binary search",
+                agrees(many, rnd, 200_000) && bytesOf(many) == big * 8L);
+
+        TinyChecks.done("ExactRangesIndexTinyTest");
+    }
+
+    // {starts, ends}: n sorted ranges, widths and gaps in [0, spread)
+    private static int[][] randomRanges(Random rnd, int n, int spread) {
+        int[] starts = new int[n];
+        int[] ends = new int[n];
+        int at = -n * spread;
+        for (int i = 0; i < n; i++) {
+            starts[i] = at;
+            ends[i] = at + rnd.nextInt(spread);
+            at = ends[i] + 2 + rnd.nextInt(spread);
+        }
+        return new int[][]{starts, ends};
+    }
+
+    private static boolean agrees(int[][] ranges, Random rnd, int probes) {
+        int n = ranges[0].length;
+        int[] starts = ranges[0].clone(); // build() may keep the arrays
+        int[] ends = ranges[1].clone();
+        ExactRangesIndex index = new ExactRangesIndex();
+        index.build(ranges[0], ranges[1], n);
+        int low = n == 0 ? -10 : starts[0] - 10;
+        int span = n == 0 ? 20 : ends[n - 1] - starts[0] + 20;
+        for (int p = 0; p < probes; p++) {
+            int key = low + rnd.nextInt(span);
+            if (index.contains(key) != binarySearch(starts, ends, key)) return false;
+        }
+        for (int i = 0; i < n; i++) {
+            if (!index.contains(starts[i]) || !index.contains(ends[i])) return false;
+            if (index.contains(starts[i] - 1) != binarySearch(starts, ends, starts[i] - 1)) return false;
+            if (index.contains(ends[i] + 1) != binarySearch(starts, ends, ends[i] + 1)) return false;
+        }
+        return true;
+    }
+
+    private static boolean binarySearch(int[] starts, int[] ends, int key) {
+        int pos = Arrays.binarySearch(starts, key);
+        int i = pos >= 0 ? pos : -pos - 2;
+        return i >= 0 && key <= ends[i];
+    }
+
+    private static long bytesOf(int[][] ranges) {
+        ExactRangesIndex index = new ExactRangesIndex();
+        index.build(ranges[0], ranges[1], ranges[0].length);
+        return index.approxBytesUsed();
+    }
+
+    private static boolean sameAnswers(ExactRangesIndex a, ExactRangesIndex b, int[][] ranges, Random rnd) {
+        int low = ranges[0][0] - 10;
+        int span = ranges[1][ranges[1].length - 1] - low + 20;
+        for (int p = 0; p < 100_000; p++) {
+            int key = low + rnd.nextInt(span);
+            if (a.contains(key) != b.contains(key)) return false;
+        }
+        return b.isMapped() && b.getRangeCount() == a.getRangeCount();
+    }
+
+    private static void setVersion(Path p, int version) throws IOException {
+        try (FileChannel ch = FileChannel.open(p, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(version);
+            b.flip();
+            ch.write(b, 4);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.tu.berlin.thesis;
+
+import com.tu.berlin.thesis.data.FilterFile;
+import com.tu.berlin.thesis.filter.IntBloomFilter;
+import com.tu.berlin.thesis.filter.RangesProbeFilter;
+import com.tu.berlin.thesis.rangetree.ExactRangesIndex;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static com.tu.berlin.thesis.TinyChecks.check;
+
+public class FilterFileTinyTest {
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Files.createTempDirectory("filterfile");
+        try {
+            run(dir);
+        } finally {
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path p : (Iterable<Path>) files::iterator) Files.deleteIfExists(p);
+            }
+            Files.deleteIfExists(dir);
+        }
+        TinyChecks.done("FilterFileTinyTest");
+    }
+
+    private static void run(Path dir) throws IOException {
+        Random rnd = new Random(230);
+
+        // -----------------------------
+        // Raw sections: alignment after an odd int count, arrays larger than the write buffer
+        // -----------------------------
+        int[] ints = new int[3];
+        long[] longs = new long[300_000]; // 2.4 MB, several buffer flushes
+        for (int i = 0; i < ints.length; i++) ints[i] = rnd.nextInt();
+        for (int i = 0; i < longs.length; i++) longs[i] = rnd.nextLong();
+        Path raw = dir.resolve("raw.bin");
+        try (FilterFile.Writer w = FilterFile.create(raw, FilterFile.TYPE_BLOOM, 7L, -1L)) {
+            w.writeInts(ints, ints.length);
+            w.writeLongs(longs, longs.length);
+        }
+        boolean rawOk;
+        try (FilterFile.Reader r = FilterFile.open(raw, FilterFile.TYPE_BLOOM)) {
+            IntBuffer ib = r.mapInts(ints.length);
+            LongBuffer lb = r.mapLongs(longs.length);
+            rawOk = r.fieldCount() == 2 && r.field(0) == 7L && r.field(1) == -1L;
+            for (int i = 0; i < ints.length; i++) rawOk &= ib.get(i) == ints[i];
+            for (int i = 0; i < longs.length; i++) rawOk &= lb.get(i) == longs[i];
+        }
+        check("fields + int / long sections round trip (aligned, > write buffer)", rawOk
+                && Files.size(raw) == 16 + 2 * 8 + 16 + longs.length * 8L);
+
+        // -----------------------------
+        // Bloom: mapped filter answers like the original, and is read-only
+        // -----------------------------
+        for (boolean doubleHashing : new boolean[]{false, true}) {
+            IntBloomFilter bloom = doubleHashing ? new IntBloomFilter(20_000, 0.01) : new IntBloomFilter(1 << 18, 5);
+            for (int i = 0; i < 20_000; i++) bloom.add(rnd.nextInt());
+            Path p = dir.resolve("bloom" + doubleHashing + ".depf");
+            bloom.save(p);
+            IntBloomFilter mapped = IntBloomFilter.map(p);
+            boolean same = mapped.isMapped() && mapped.getSizeBits() == bloom.getSizeBits()
+                    && mapped.getNumHashFunctions() == bloom.getNumHashFunctions()
+                    && mapped.isDoubleHashing() == doubleHashing;
+            for (int i = 0; i < 200_000; i++) {
+                int key = rnd.nextInt();
+                same &= mapped.mightContain(key) == bloom.mightContain(key);
+            }
+            check("Bloom (" + (doubleHashing ? "double hashing" : "classic") + ") save / map == original", same);
+            check("mapped Bloom cannot be saved again", throwsIse(() -> mapped.save(dir.resolve("again.depf"))));
+        }
+
+        // -----------------------------
+        // Ranges: exact / grouped / approximate filters, and a bare ExactRangesIndex file
+        // -----------------------------
+        int[] keys = new int[5000];
+        for (int i = 0; i < keys.length; i++) keys[i] = rnd.nextInt(40_000) - 20_000;
+        RangesProbeFilter[] filters = {RangesProbeFilter.exact(keys.length), RangesProbeFilter.grouped(keys.length, 64),
+                RangesProbeFilter.approximate(keys.length, Integer.MAX_VALUE, 100)};
+        for (RangesProbeFilter f : filters) {
+            for (int key : keys) f.add(key);
+            f.build();
+            Path p = dir.resolve(f.name() + ".depf");
+            f.save(p);
+            RangesProbeFilter mapped = RangesProbeFilter.map(p);
+            boolean same = mapped.isMapped() && mapped.name().equals(f.name())
+                    && mapped.getRangeCount() == f.getRangeCount()
+                    && mapped.getExactRangeCount() == f.getExactRangeCount()
+                    && mapped.getGroupedRangeCount() == f.getGroupedRangeCount();
+            for (int key = -21_000; key <= 21_000; key++) same &= mapped.mightContain(key) == f.mightContain(key);
+            check(f.name() + ": save / map == original", same);
+        }
+        check("mapped ranges are read-only", throwsIse(() -> RangesProbeFilter.map(dir.resolve("exact_ranges.depf")).add(1)));
+        check("built ranges: key buffer released, not mapped, add() rejected",
+                !filters[0].isMapped() && filters[0].buildBytesUsed() == filters[0].approxBytesUsed()
+                        && throwsIse(() -> filters[0].add(1)));
+
+        ExactRangesIndex bare = new ExactRangesIndex();
+        bare.build(new int[]{-10, 5, 100}, new int[]{-3, 5, 200}, 3);
+        Path barePath = dir.resolve("bare.depf");
+        bare.save(barePath);
+        RangesProbeFilter fromBare = RangesProbeFilter.map(barePath);
+        check("ExactRangesIndex.save loads as exact ranges", fromBare.name().equals("exact_ranges")
+                && fromBare.mightContain(-10) && fromBare.mightContain(5) && !fromBare.mightContain(6)
+                && fromBare.mightContain(150) && !fromBare.mightContain(201));
+
+        ExactRangesIndex none = new ExactRangesIndex();
+        none.build(new int[0], new int[0], 0);
+        Path nonePath = dir.resolve("none.depf");
+        none.save(nonePath);
+        check("empty index round trip", ExactRangesIndex.map(nonePath).getRangeCount() == 0
+                && !ExactRangesIndex.map(nonePath).contains(0));
+
+        // -----------------------------
+        // Broken files fail with IOException, not garbage
+        // -----------------------------
+        Path bloomPath = dir.resolve("bloomtrue.depf");
+        check("truncated Bloom bitset", failsWith(truncated(bloomPath, dir, 100), true, "truncated"));
+        check("truncated header / fields", failsWith(truncatedTo(bloomPath, dir, 10), true, "truncated")
+                && failsWith(truncatedTo(bloomPath, dir, 30), true, "truncated"));
+        check("truncated ranges file", failsWith(truncated(dir.resolve("exact_ranges.depf"), dir, 4), false, "truncated"));
+        check("bad magic", failsWith(patched(bloomPath, dir, 0, 0x12345678), true, "not a filter file"));
+        check("newer version", failsWith(patched(bloomPath, dir, 4, FilterFile.VERSION + 1), true, "version"));
+        check("wrong type", failsWith(bloomPath, false, "type"));
+        check("corrupt Bloom header", failsWith(patched(bloomPath, dir, 24, 0), true, "corrupt"));
+    }
+
+    // copy of src without its last `cut` bytes
+    private static Path truncated(Path src, Path dir, long cut) throws IOException {
+        return truncatedTo(src, dir, Files.size(src) - cut);
+    }
+
+    // copy of src cut to `size` bytes
+    private static Path truncatedTo(Path src, Path dir, long size) throws IOException {
+        Path p = dir.resolve("cut-" + size + "-" + src.getFileName());
+        Files.copy(src, p);
+        try (FileChannel ch = FileChannel.open(p, StandardOpenOption.WRITE)) {
+            ch.truncate(size);
+        }
+        return p;
+    }
+
+    // copy of src with the int at `offset` replaced
+    private static Path patched(Path src, Path dir, int offset, int value) throws IOException {
+        Path p = dir.resolve("patched-" + offset + "-" + src.getFileName());
+        Files.copy(src, p);
+        try (FileChannel ch = FileChannel.open(p, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(value);
+            b.flip();
+            ch.write(b, offset);
+        }
+        return p;
+    }
+
+    private static boolean failsWith(Path p, boolean asBloom, String message) {
+        try {
+            if (asBloom) IntBloomFilter.map(p);
+            else RangesProbeFilter.map(p);
+            return false;
+        } catch (IOException e) {
+            System.out.println("  " + e.getMessage());
+            return e.getMessage().contains(message);
+        }
+    }
+
+    private interface IoAction {
+        void run() throws IOException;
+    }
+
+    private static boolean throwsIse(IoAction action) throws IOException {
+        try {
+            action.run();
+            return false;
+        } catch (IllegalStateException e) {
+            return true;
+        }
+    }
+}
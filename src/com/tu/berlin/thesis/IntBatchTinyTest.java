@@ -0,0 +1,73 @@
+package com.tu.berlin.thesis;
+
+import com.tu.berlin.thesis.operators.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.tu.berlin.thesis.TinyChecks.check;
+
+public class IntBatchTinyTest {
+
+    public static void main(String[] args) {
+        List<int[]> build = TinyChecks.randomRows(3, 400, 0, 300);
+        List<int[]> probe = TinyChecks.randomProbe(4, 3000, -50, 500);
+        List<int[]> expected = TinyChecks.nestedLoopJoin(build, probe, 0, 1);
+
+        // -----------------------------
+        // Scan: batches carry the same rows as next()
+        // -----------------------------
+        check("scan batches == rows",
+                TinyChecks.sameRows(TinyChecks.drainBatches(new IntScanOperator(probe, 100)), probe));
+        check("batch -> row adapter round trip",
+                TinyChecks.sameRows(TinyChecks.drain(new IntBatchToRowAdapter(new IntScanOperator(probe, 7))), probe));
+
+        // -----------------------------
+        // Key filter compacts the selection vector
+        // -----------------------------
+        IntBatchKeyFilterOperator filter = new IntBatchKeyFilterOperator(new IntScanOperator(probe), 1, k -> (k & 1) == 0);
+        List<int[]> even = TinyChecks.drainBatches(filter);
+        List<int[]> evenExpected = new ArrayList<>();
+        for (int[] p : probe) if ((p[1] & 1) == 0) evenExpected.add(p);
+        check("key filter keeps matching rows", TinyChecks.sameRows(even, evenExpected));
+        check("key filter counters", filter.getPasses() == evenExpected.size()
+                && filter.getRejects() == probe.size() - evenExpected.size());
+
+        // -----------------------------
+        // Every join: nextBatch() == next() == reference
+        // -----------------------------
+        for (int mode = 0; mode < 2; mode++) {
+            String how = mode == 0 ? "batches" : "rows";
+            check("plain join " + how, TinyChecks.sameRows(run(new IntHashJoinOperator(
+                    new IntScanOperator(build), new IntScanOperator(probe), 0, 1), mode), expected));
+            check("bloom join " + how, TinyChecks.sameRows(run(new IntHashJoinWithBloomFilter(
+                    new IntScanOperator(build), new IntScanOperator(probe), 0, 1, 1 << 12, 3), mode), expected));
+            check("exact ranges join " + how, TinyChecks.sameRows(run(new IntHashJoinWithExactRanges(
+                    new IntScanOperator(build), new IntScanOperator(probe), 0, 1, 400, 8), mode), expected));
+            check("approx ranges join " + how, TinyChecks.sameRows(run(new IntHashJoinWithApproximateRanges(
+                    new IntScanOperator(build), new IntScanOperator(probe), 0, 1, 400, 16, 4), mode), expected));
+            check("streamed ranges join " + how, TinyChecks.sameRows(run(new IntHashJoinWithApproximateRangesStreamed(
+                    new IntScanOperator(build), new IntScanOperator(probe), 0, 1, 400, 16, 4), mode), expected));
+        }
+
+        // -----------------------------
+        // next() first, then nextBatch() continues where it stopped
+        // -----------------------------
+        IntHashJoinOperator join = new IntHashJoinOperator(new IntScanOperator(build), new IntScanOperator(probe), 0, 1);
+        List<int[]> mixed = new ArrayList<>();
+        join.open();
+        for (int i = 0; i < 10; i++) mixed.add(join.next());
+        IntBatch b;
+        while ((b = join.nextBatch()) != null) {
+            for (int i = 0; i < b.size; i++) mixed.add(b.materializeRow(i));
+        }
+        join.close();
+        check("next() then nextBatch() loses no row", TinyChecks.sameRows(mixed, expected));
+
+        TinyChecks.done("IntBatchTinyTest");
+    }
+
+    private static <T extends IntOperator & IntBatchOperator> List<int[]> run(T join, int mode) {
+        return mode == 0 ? TinyChecks.drainBatches(join) : TinyChecks.drain(join);
+    }
+}
@@ -0,0 +1,91 @@
+package com.tu.berlin.thesis;
+
+import com.tu.berlin.thesis.filter.IntBlockedBloomFilter;
+import com.tu.berlin.thesis.operators.IntHashJoinWithBloomFilter;
+import com.tu.berlin.thesis.operators.IntScanOperator;
+
+import java.util.List;
+import java.util.Random;
+
+import static com.tu.berlin.thesis.TinyChecks.check;
+
+public class IntBlockedBloomTinyTest {
+
+    public static void main(String[] args) {
+        Random rnd = new Random(190);
+
+        // -----------------------------
+        // Size rounds up to a power-of-two block count; bad arguments are rejected
+        // -----------------------------
+        IntBlockedBloomFilter small = new IntBlockedBloomFilter(3 * IntBlockedBloomFilter.BLOCK_BITS + 1, 4);
+        check("4 blocks for 3 blocks + 1 bit", small.getBlockCount() == 4
+                && small.getSizeBits() == 4L * IntBlockedBloomFilter.BLOCK_BITS);
+        check("k outside [1, 16] rejected", throwsIae(() -> new IntBlockedBloomFilter(1024, 17))
+                && throwsIae(() -> new IntBlockedBloomFilter(1024, 0)) && throwsIae(() -> new IntBlockedBloomFilter(0, 3)));
+
+        // -----------------------------
+        // No false negatives; measured FPR close to the Poisson block-load estimate
+        // -----------------------------
+        int n = 50_000;
+        IntBlockedBloomFilter bloom = new IntBlockedBloomFilter(10L * n, 7);
+        int[] keys = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = rnd.nextInt() & ~1; // even keys only: odd probes are certain misses
+            bloom.add(keys[i]);
+        }
+        boolean noFalseNegatives = true;
+        for (int key : keys) noFalseNegatives &= bloom.mightContain(key);
+        check("no false negatives", noFalseNegatives);
+
+        int probes = 400_000;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            if (bloom.mightContain(rnd.nextInt() | 1)) falsePositives++;
+        }
+        double measured = falsePositives / (double) probes;
+        double estimated = bloom.estimateFalsePositiveRate(n);
+        System.out.println("  blocked Bloom FPR measured=" + measured + " estimated=" + estimated);
+        check("measured FPR within 25% of the estimate", Math.abs(measured - estimated) < 0.25 * estimated);
+
+        // -----------------------------
+        // merge(per-worker filters) == one filter over all keys
+        // -----------------------------
+        IntBlockedBloomFilter a = new IntBlockedBloomFilter(10L * n, 7);
+        IntBlockedBloomFilter b = new IntBlockedBloomFilter(10L * n, 7);
+        for (int i = 0; i < n; i++) (i % 2 == 0 ? a : b).add(keys[i]);
+        a.merge(b);
+        boolean mergedSame = true;
+        for (int i = 0; i < 100_000; i++) {
+            int key = rnd.nextInt();
+            mergedSame &= a.mightContain(key) == bloom.mightContain(key);
+        }
+        check("merge == single filter", mergedSame);
+        check("merge with different k rejected", throwsIae(() -> a.merge(new IntBlockedBloomFilter(10L * n, 6))));
+
+        // -----------------------------
+        // Bloom join with the blocked layout == nested-loop join (serial and parallel)
+        // -----------------------------
+        List<int[]> build = TinyChecks.randomRows(191, 2000, 0, 5000);
+        List<int[]> probe = TinyChecks.randomProbe(192, 8000, -1000, 9000);
+        List<int[]> expected = TinyChecks.nestedLoopJoin(build, probe, 0, 1);
+        for (int workers : new int[]{1, 3}) {
+            IntHashJoinWithBloomFilter join = new IntHashJoinWithBloomFilter(
+                    new IntScanOperator(build), new IntScanOperator(probe), 0, 1, 1 << 15, 5);
+            join.setBlockedBloom(true);
+            TinyChecks.setParallelism(join, workers, workers, 512, true);
+            check("blocked Bloom join, " + workers + " worker(s) == nested loop",
+                    join.isBlockedBloom() && TinyChecks.sameRows(TinyChecks.drain(join), expected));
+        }
+
+        TinyChecks.done("IntBlockedBloomTinyTest");
+    }
+
+    private static boolean throwsIae(Runnable r) {
+        try {
+            r.run();
+            return false;
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+}
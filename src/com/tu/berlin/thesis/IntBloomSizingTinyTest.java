@@ -0,0 +1,112 @@
+package com.tu.berlin.thesis;
+
+import com.tu.berlin.thesis.filter.IntBloomFilter;
+import com.tu.berlin.thesis.operators.IntHashJoinWithBloomFilter;
+import com.tu.berlin.thesis.operators.IntScanOperator;
+
+import java.util.List;
+import java.util.Random;
+
+import static com.tu.berlin.thesis.TinyChecks.check;
+
+public class IntBloomSizingTinyTest {
+
+    public static void main(String[] args) {
+        Random rnd = new Random(220);
+
+        // -----------------------------
+        // m = -n ln p / (ln 2)^2, k = round(m / n * ln 2)
+        // -----------------------------
+        check("1M keys at 1%: 9585059 bits, k = 7", IntBloomFilter.optimalBits(1_000_000, 0.01) == 9_585_059L
+                && IntBloomFilter.optimalHashFunctions(1_000_000, 9_585_059L) == 7);
+        check("1M keys at 0.1%: ~14.38 bits per key, k = 10",
+                Math.abs(IntBloomFilter.optimalBits(1_000_000, 0.001) / 1e6 - 14.378) < 0.01
+                        && IntBloomFilter.optimalHashFunctions(1_000_000, IntBloomFilter.optimalBits(1_000_000, 0.001)) == 10);
+        check("at least 64 bits, k at least 1", IntBloomFilter.optimalBits(1, 0.5) == 64
+                && IntBloomFilter.optimalHashFunctions(1_000_000, 64) == 1);
+        check("bad n / p rejected", throwsIae(() -> IntBloomFilter.optimalBits(0, 0.01))
+                && throwsIae(() -> IntBloomFilter.optimalBits(10, 0.0)) && throwsIae(() -> IntBloomFilter.optimalBits(10, 1.0))
+                && throwsIae(() -> IntBloomFilter.withDoubleHashing(0, 3)));
+
+        // -----------------------------
+        // Measured FPR near the target; no false negatives
+        // -----------------------------
+        int n = 100_000;
+        int[] keys = new int[n];
+        for (int i = 0; i < n; i++) keys[i] = rnd.nextInt() & ~1; // even keys only: odd probes are certain misses
+        for (double target : new double[]{0.05, 0.01, 0.001}) {
+            IntBloomFilter bloom = new IntBloomFilter(n, target);
+            for (int key : keys) bloom.add(key);
+            boolean noFalseNegatives = true;
+            for (int key : keys) noFalseNegatives &= bloom.mightContain(key);
+            int probes = 1_000_000;
+            int fp = 0;
+            for (int i = 0; i < probes; i++) if (bloom.mightContain(rnd.nextInt() | 1)) fp++;
+            double measured = fp / (double) probes;
+            System.out.println("  target=" + target + " measured=" + measured + " k=" + bloom.getNumHashFunctions());
+            check("target " + target + ": double hashing, no false negatives, FPR within 20%", bloom.isDoubleHashing()
+                    && noFalseNegatives && Math.abs(measured - target) < 0.2 * target);
+        }
+
+        // -----------------------------
+        // Any k (beyond the 10 multipliers of the classic scheme), m beyond 2^31 bits
+        // -----------------------------
+        IntBloomFilter manyHashes = IntBloomFilter.withDoubleHashing(1 << 16, 24);
+        for (int i = 0; i < 100; i++) manyHashes.add(keys[i]);
+        boolean allFound = true;
+        for (int i = 0; i < 100; i++) allFound &= manyHashes.mightContain(keys[i]);
+        check("k = 24 works", allFound && manyHashes.getNumHashFunctions() == 24);
+
+        long hugeBits = (1L << 31) + 4096;
+        IntBloomFilter huge = IntBloomFilter.withDoubleHashing(hugeBits, 3);
+        huge.add(42);
+        check("m > 2^31 bits: long-indexed bitset", huge.getSizeBits() == hugeBits
+                && huge.approxBytesUsed() == hugeBits / 8 && huge.mightContain(42));
+        huge = null;
+
+        // -----------------------------
+        // emptyCopy + merge == one filter over all keys (per-worker filters)
+        // -----------------------------
+        IntBloomFilter whole = new IntBloomFilter(n, 0.01);
+        IntBloomFilter a = whole.emptyCopy();
+        IntBloomFilter b = whole.emptyCopy();
+        for (int i = 0; i < n; i++) {
+            whole.add(keys[i]);
+            (i % 2 == 0 ? a : b).add(keys[i]);
+        }
+        a.merge(b);
+        boolean mergedSame = a.getSizeBits() == whole.getSizeBits() && a.isDoubleHashing();
+        for (int i = 0; i < 200_000; i++) {
+            int key = rnd.nextInt();
+            mergedSame &= a.mightContain(key) == whole.mightContain(key);
+        }
+        check("emptyCopy + merge == single filter", mergedSame);
+        check("merge with different k rejected",
+                throwsIae(() -> a.merge(IntBloomFilter.withDoubleHashing(a.getSizeBits(), a.getNumHashFunctions() + 1))));
+
+        // -----------------------------
+        // Bloom join sized by target FPR, serial and parallel build
+        // -----------------------------
+        List<int[]> build = TinyChecks.randomRows(221, 3000, 0, 6000);
+        List<int[]> probe = TinyChecks.randomProbe(222, 10000, -2000, 10000);
+        List<int[]> expected = TinyChecks.nestedLoopJoin(build, probe, 0, 1);
+        for (int workers : new int[]{1, 3}) {
+            IntHashJoinWithBloomFilter join = new IntHashJoinWithBloomFilter(
+                    new IntScanOperator(build), new IntScanOperator(probe), 0, 1, build.size(), 0.01);
+            TinyChecks.setParallelism(join, workers, 1, 256, true);
+            check("FPR-sized Bloom join, " + workers + " build worker(s) == nested loop",
+                    TinyChecks.sameRows(TinyChecks.drain(join), expected));
+        }
+
+        TinyChecks.done("IntBloomSizingTinyTest");
+    }
+
+    private static boolean throwsIae(Runnable r) {
+        try {
+            r.run();
+            return false;
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.tu.berlin.thesis;
+
+import com.tu.berlin.thesis.data.IntCSVReader;
+import com.tu.berlin.thesis.operators.IntCSVScanOperator;
+import com.tu.berlin.thesis.operators.IntHashJoinWithBloomFilter;
+import com.tu.berlin.thesis.operators.IntHashJoinWithExactRanges;
+import com.tu.berlin.thesis.operators.IntScanOperator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.tu.berlin.thesis.TinyChecks.check;
+
+public class IntCSVScanTinyTest {
+
+    public static void main(String[] args) throws IOException {
+        Path csv = Files.createTempFile("scan", ".csv");
+        try {
+            // -----------------------------
+            // Scan == IntCSVReader.readCSV, across buffer refills
+            // -----------------------------
+            List<int[]> probe = TinyChecks.randomProbe(91, 30000, -5000, 20000); // > 64K chars
+            write(csv, "id,key,payload", probe, "\n", true);
+            check("scan == readCSV", TinyChecks.sameSequence(
+                    TinyChecks.drain(new IntCSVScanOperator(csv.toString())), IntCSVReader.readCSV(csv.toString())));
+
+            write(csv, "id,key,payload", probe, "\r\n", false);
+            check("CRLF, no final newline", TinyChecks.sameSequence(
+                    TinyChecks.drain(new IntCSVScanOperator(csv.toString())), probe));
+
+            int[] wide = new int[20000]; // one line longer than the buffer
+            for (int i = 0; i < wide.length; i++) wide[i] = -i * 7919;
+            String header = "c" + ",c".repeat(wide.length - 1);
+            write(csv, header, List.of(wide, new int[wide.length]), "\n", true);
+            List<int[]> wideRows = TinyChecks.drain(new IntCSVScanOperator(csv.toString()));
+            check("line longer than the buffer", wideRows.size() == 2 && Arrays.equals(wideRows.get(0), wide));
+
+            // -----------------------------
+            // Pushed-down join filter: only the key field of rejected lines is parsed
+            // -----------------------------
+            write(csv, "id,key,payload", probe, "\n", true);
+            List<int[]> build = TinyChecks.randomRows(92, 2000, 0, 4000);
+            List<int[]> expected = TinyChecks.nestedLoopJoin(build, probe, 0, 1);
+
+            IntCSVScanOperator scan = new IntCSVScanOperator(csv.toString());
+            IntHashJoinWithExactRanges ranges = new IntHashJoinWithExactRanges(
+                    new IntScanOperator(build), scan, 0, 1, build.size(), 8);
+            ranges.setFilterPushdown(true);
+            check("ranges pushdown == nested loop", TinyChecks.sameRows(TinyChecks.drain(ranges), expected));
+            check("scan rejected the misses", scan.getRuntimeFilterRejects() > probe.size() / 2
+                    && ranges.getRangeRejects() >= scan.getRuntimeFilterRejects());
+
+            IntCSVScanOperator scan2 = new IntCSVScanOperator(csv.toString());
+            IntHashJoinWithBloomFilter bloom = new IntHashJoinWithBloomFilter(
+                    new IntScanOperator(build), scan2, 0, 1, 1 << 15, 3);
+            bloom.setFilterPushdown(true);
+            check("bloom pushdown == nested loop", TinyChecks.sameRows(TinyChecks.drain(bloom), expected));
+
+            // -----------------------------
+            // Strict fields: like Integer.parseInt, header's column count
+            // -----------------------------
+            write(csv, "a,b", List.of(new int[]{Integer.MIN_VALUE, Integer.MAX_VALUE}), "\n", true);
+            check("MIN_VALUE / MAX_VALUE", Arrays.equals(TinyChecks.drain(new IntCSVScanOperator(csv.toString())).get(0),
+                    new int[]{Integer.MIN_VALUE, Integer.MAX_VALUE}));
+
+            String[] bad = {"1,", ",2", "-,2", "+,2", "1,2,3", "1", "2147483648,0", "0,-2147483649", "1,2 ", "1,0x2"};
+            for (String line : bad) {
+                Files.write(csv, ("a,b\n" + line + "\n").getBytes(StandardCharsets.US_ASCII));
+                String scanError = null;
+                String readerError = null;
+                try {
+                    TinyChecks.drain(new IntCSVScanOperator(csv.toString()));
+                } catch (NumberFormatException e) {
+                    scanError = e.getMessage();
+                }
+                try {
+                    IntCSVReader.readColumnar(csv.toString());
+                } catch (NumberFormatException e) {
+                    readerError = e.getMessage();
+                }
+                check("rejects \"" + line + "\" (scan and columnar reader, same message)",
+                        scanError != null && scanError.equals(readerError));
+            }
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+
+        TinyChecks.done("IntCSVScanTinyTest");
+    }
+
+    private static void write(Path file, String header, List<int[]> rows, String eol, boolean finalEol)
+            throws IOException {
+        StringBuilder sb = new StringBuilder(header).append(eol);
+        for (int i = 0; i < rows.size(); i++) {
+            int[] r = rows.get(i);
+            for (int c = 0; c < r.length; c++) {
+                if (c > 0) sb.append(',');
+                sb.append(r[c]);
+            }
+            if (finalEol || i < rows.size() - 1) sb.append(eol);
+        }
+        Files.write(file, sb.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,75 @@
+package com.tu.berlin.thesis;
+
+import com.tu.berlin.thesis.data.IntCSVReader;
+import com.tu.berlin.thesis.data.IntColumnarTable;
+import com.tu.berlin.thesis.operators.IntColumnarScanOperator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.tu.berlin.thesis.TinyChecks.check;
+
+public class IntColumnarTinyTest {
+
+    public static void main(String[] args) throws IOException {
+        List<int[]> rows = TinyChecks.randomRows(5, 2500, -100, 400);
+        IntColumnarTable table = IntColumnarTable.fromRows(rows);
+
+        // -----------------------------
+        // Scan: rows, batches, projection
+        // -----------------------------
+        check("table shape", table.getRowCount() == 2500 && table.getColumnCount() == 3);
+        check("row scan == input", TinyChecks.sameRows(TinyChecks.drain(new IntColumnarScanOperator(table)), rows));
+        check("batch scan == input", TinyChecks.sameRows(
+                TinyChecks.drainBatches(new IntColumnarScanOperator(table, new int[]{0, 1, 2}, 300)), rows));
+
+        List<int[]> projected = new ArrayList<>();
+        for (int[] r : rows) projected.add(new int[]{r[2], r[0]});
+        check("projection {2, 0}", TinyChecks.sameRows(
+                TinyChecks.drain(new IntColumnarScanOperator(table, new int[]{2, 0})), projected));
+
+        IntColumnarScanOperator filtered = new IntColumnarScanOperator(table, new int[]{0, 1, 2}, 64);
+        filtered.pushRuntimeFilter(0, k -> k >= 0);
+        List<int[]> nonNegative = new ArrayList<>();
+        for (int[] r : rows) if (r[0] >= 0) nonNegative.add(r);
+        check("runtime filter in batch mode", TinyChecks.sameRows(TinyChecks.drainBatches(filtered), nonNegative)
+                && filtered.getRuntimeFilterRejects() == rows.size() - nonNegative.size());
+
+        // -----------------------------
+        // readColumnar: same values as readCSV, strict field parsing
+        // -----------------------------
+        Path csv = Files.createTempFile("columnar", ".csv");
+        try {
+            Files.write(csv, List.of("a,b,c", "1,-2,3", "2147483647,-2147483648,+7", "0,0,0"));
+            IntColumnarTable read = IntCSVReader.readColumnar(csv.toString());
+            check("readColumnar == readCSV", read.getRowCount() == 3
+                    && TinyChecks.sameRows(rowsOf(read), IntCSVReader.readCSV(csv.toString())));
+
+            String[] bad = {"1,,3", "1,-,3", "1,2", "1,2,3,4", "1,2,", "1,2147483648,3", "1,-2147483649,3", "1,2x,3"};
+            for (String line : bad) {
+                Files.write(csv, List.of("a,b,c", line));
+                boolean rejected;
+                try {
+                    IntCSVReader.readColumnar(csv.toString());
+                    rejected = false;
+                } catch (NumberFormatException e) {
+                    rejected = true;
+                }
+                check("rejects \"" + line + "\"", rejected);
+            }
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+
+        TinyChecks.done("IntColumnarTinyTest");
+    }
+
+    private static List<int[]> rowsOf(IntColumnarTable t) {
+        List<int[]> out = new ArrayList<>();
+        for (int r = 0; r < t.getRowCount(); r++) out.add(t.row(r));
+        return out;
+    }
+}
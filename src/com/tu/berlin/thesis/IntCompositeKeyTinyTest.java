@@ -0,0 +1,106 @@
+package com.tu.berlin.thesis;
+
+import com.tu.berlin.thesis.hashtable.LongHashTable;
+import com.tu.berlin.thesis.operators.IntCompositeKeyHashJoin;
+import com.tu.berlin.thesis.operators.IntScanOperator;
+import com.tu.berlin.thesis.operators.LongStreamingApproximateRangeSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static com.tu.berlin.thesis.TinyChecks.check;
+
+public class IntCompositeKeyTinyTest {
+
+    public static void main(String[] args) {
+
+        // -----------------------------
+        // LongHashTable: keys differing only in the high word, chains, growth
+        // -----------------------------
+        LongHashTable table = new LongHashTable(4);
+        for (int i = 0; i < 3000; i++) {
+            long key = ((long) (i % 7) << 32) | (i % 50);
+            table.put(key, new int[]{i});
+        }
+        boolean chainsOk = table.size() == 3000;
+        int distinct = 0;
+        for (int hi = 0; hi < 7; hi++) {
+            for (int lo = 0; lo < 50; lo++) {
+                int slot = table.findSlot(((long) hi << 32) | lo);
+                if (slot == LongHashTable.NO_SLOT) continue;
+                distinct++;
+                int prev = -1;
+                for (int e = table.firstEntry(slot); e != LongHashTable.NO_ENTRY; e = table.nextEntry(e)) {
+                    int i = table.row(e)[0];
+                    chainsOk &= i % 7 == hi && i % 50 == lo && i > prev;
+                    prev = i;
+                }
+            }
+        }
+        check("long keys chain in insertion order", chainsOk && distinct == 350 && table.distinctKeys() == 350);
+        check("absent long key", table.findSlot(1L << 40) == LongHashTable.NO_SLOT);
+
+        // -----------------------------
+        // Composite (hi, lo) join: every prefilter variant == nested loop
+        // -----------------------------
+        Random r = new Random(101);
+        List<int[]> build = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) build.add(new int[]{r.nextInt(20) - 10, r.nextInt(400) - 200, i});
+        List<int[]> probe = new ArrayList<>();
+        for (int i = 0; i < 6000; i++) probe.add(new int[]{i, r.nextInt(30) - 15, r.nextInt(600) - 300});
+        List<int[]> expected = new ArrayList<>();
+        for (int[] p : probe) {
+            for (int[] b : build) {
+                if (b[0] != p[1] || b[1] != p[2]) continue;
+                int[] c = Arrays.copyOf(b, b.length + p.length);
+                System.arraycopy(p, 0, c, b.length, p.length);
+                expected.add(c);
+            }
+        }
+
+        check("no prefilter == nested loop", TinyChecks.sameRows(TinyChecks.drain(new IntCompositeKeyHashJoin(
+                new IntScanOperator(build), new IntScanOperator(probe), 0, 1, 1, 2, build.size())), expected));
+        IntCompositeKeyHashJoin exact = join(build, probe, Integer.MAX_VALUE);
+        check("exact ranges == nested loop", TinyChecks.sameRows(TinyChecks.drain(exact), expected)
+                && exact.getRangeRejects() > 0);
+        IntCompositeKeyHashJoin approx = join(build, probe, 8);
+        check("approximate ranges == nested loop", TinyChecks.sameRows(TinyChecks.drain(approx), expected)
+                && approx.getRangeCount() == 8);
+
+        IntCompositeKeyHashJoin streamed = join(build, probe, 8);
+        streamed.setStreamedRanges(true);
+        check("streamed ranges == nested loop", TinyChecks.sameRows(TinyChecks.drain(streamed), expected)
+                && streamed.getRangeCount() <= 8 && streamed.getRangeRejects() > 0);
+
+        boolean rejected;
+        try {
+            join(build, probe, Integer.MAX_VALUE).setStreamedRanges(true);
+            rejected = false;
+        } catch (IllegalStateException e) {
+            rejected = true;
+        }
+        check("streamed ranges need a target", rejected);
+
+        // -----------------------------
+        // Streaming range set: bounded, no false negatives across the sign boundary
+        // -----------------------------
+        LongStreamingApproximateRangeSet set = new LongStreamingApproximateRangeSet(16);
+        long[] keys = new long[5000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = r.nextLong() >> 20;
+            set.insert(keys[i]);
+        }
+        boolean all = set.getRangeCount() <= 16;
+        for (long k : keys) all &= set.contains(k);
+        check("streaming set keeps <= 16 ranges, contains every key", all);
+
+        TinyChecks.done("IntCompositeKeyTinyTest");
+    }
+
+    private static IntCompositeKeyHashJoin join(List<int[]> build, List<int[]> probe, int target) {
+        return new IntCompositeKeyHashJoin(new IntScanOperator(build), new IntScanOperator(probe),
+                0, 1, 1, 2, build.size(), target);
+    }
+}
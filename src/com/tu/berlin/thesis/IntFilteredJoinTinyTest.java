@@ -0,0 +1,189 @@
+package com.tu.berlin.thesis;
+
+import com.tu.berlin.thesis.filter.IntBloomFilter;
+import com.tu.berlin.thesis.filter.IntXorFilter;
+import com.tu.berlin.thesis.filter.ProbeFilter;
+import com.tu.berlin.thesis.filter.RangesProbeFilter;
+import com.tu.berlin.thesis.operators.IntBatchOperator;
+import com.tu.berlin.thesis.operators.IntFilteredHashJoin;
+import com.tu.berlin.thesis.operators.IntHashJoinWithApproximateRanges;
+import com.tu.berlin.thesis.operators.IntHashJoinWithApproximateRangesStreamed;
+import com.tu.berlin.thesis.operators.IntHashJoinWithBloomFilter;
+import com.tu.berlin.thesis.operators.IntHashJoinWithExactRanges;
+import com.tu.berlin.thesis.operators.IntOperator;
+import com.tu.berlin.thesis.operators.IntScanOperator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+import static com.tu.berlin.thesis.TinyChecks.check;
+
+public class IntFilteredJoinTinyTest {
+
+    public static void main(String[] args) {
+        List<int[]> build = TinyChecks.randomRows(111, 2000, 0, 3000);
+        List<int[]> probe = TinyChecks.randomProbe(112, 10000, -2000, 8000);
+        List<int[]> expected = TinyChecks.nestedLoopJoin(build, probe, 0, 1);
+
+        // -----------------------------
+        // Re-open with the constructor's filter: fed once, reused
+        // -----------------------------
+        ProbeFilter[] filters = {new IntBloomFilter(build.size(), 0.01), new IntXorFilter(build.size(), 8),
+                RangesProbeFilter.grouped(build.size(), 32)};
+        for (ProbeFilter f : filters) {
+            IntFilteredHashJoin join = new IntFilteredHashJoin(
+                    new IntScanOperator(build), new IntScanOperator(probe), 0, 1, build.size(), f);
+            List<int[]> first = TinyChecks.drain(join);
+            long bytes = join.getFilterBytes();
+            List<int[]> second = TinyChecks.drain(join);
+            check(f.name() + ": re-open == first run == nested loop", TinyChecks.sameRows(first, expected)
+                    && TinyChecks.sameSequence(first, second) && join.getFilterBytes() == bytes);
+        }
+
+        // a changed build input is caught instead of probing a stale filter
+        List<int[]> changing = new ArrayList<>(build);
+        IntFilteredHashJoin stale = new IntFilteredHashJoin(new IntScanOperator(changing),
+                new IntScanOperator(probe), 0, 1, build.size(), new IntBloomFilter(build.size(), 0.01));
+        TinyChecks.drain(stale);
+        for (int i = 0; i < 20; i++) changing.add(new int[]{-1000 - 7 * i, -1, -1}); // not all Bloom false positives
+        boolean rejected;
+        try {
+            TinyChecks.drain(stale);
+            rejected = false;
+        } catch (IllegalStateException e) {
+            rejected = true;
+        }
+        check("stale filter rejected on re-open", rejected);
+
+        // -----------------------------
+        // Filter factory: a fresh filter per open
+        // -----------------------------
+        List<int[]> growing = new ArrayList<>(build);
+        IntFilteredHashJoin fresh = IntFilteredHashJoin.withFilterFactory(new IntScanOperator(growing),
+                new IntScanOperator(probe), 0, 1, build.size(), () -> new IntXorFilter(build.size(), 8));
+        ProbeFilter before = fresh.getFilter();
+        boolean firstOk = TinyChecks.sameRows(TinyChecks.drain(fresh), expected) && fresh.getFilter() == before;
+        growing.addAll(TinyChecks.randomRows(113, 500, -2000, 1000));
+        boolean secondOk = TinyChecks.sameRows(TinyChecks.drain(fresh), TinyChecks.nestedLoopJoin(growing, probe, 0, 1));
+        check("factory: first open uses the initial filter", firstOk);
+        check("factory: changed build input, new filter, correct result", secondOk && fresh.getFilter() != before);
+
+        // -----------------------------
+        // Pushdown: the filter runs once per probe row, in the scan only
+        // -----------------------------
+        for (int workers = 1; workers <= 2; workers++) {
+            CountingFilter counted = new CountingFilter(RangesProbeFilter.grouped(build.size(), 32));
+            IntScanOperator scan = new IntScanOperator(probe);
+            IntFilteredHashJoin pushed = new IntFilteredHashJoin(
+                    new IntScanOperator(build), scan, 0, 1, build.size(), counted);
+            pushed.setFilterPushdown(true);
+            pushed.setProbeParallelism(workers, 1000, true);
+            String how = workers == 1 ? "serial" : "parallel";
+            check(how + " pushdown == nested loop", TinyChecks.sameRows(TinyChecks.drain(pushed), expected));
+            check(how + " pushdown: one filter test per probe row", counted.tests == probe.size());
+            check(how + " pushdown: passes + rejects == probe rows, lookups == passes",
+                    pushed.getFilterPasses() + pushed.getFilterRejects() == probe.size()
+                            && pushed.getHashLookups() == pushed.getFilterPasses()
+                            && pushed.getFilterRejects() == scan.getRuntimeFilterRejects());
+        }
+
+        IntFilteredHashJoin autoPushed = new IntFilteredHashJoin(
+                new IntScanOperator(build), new IntScanOperator(probe), 0, 1, build.size(), null);
+        autoPushed.setAutoFilter(500);
+        autoPushed.setFilterPushdown(true);
+        check("auto filter + pushdown == nested loop", TinyChecks.sameRows(TinyChecks.drain(autoPushed), expected));
+
+        // -----------------------------
+        // Legacy joins: a pushed filter is not tested again in the join
+        // -----------------------------
+        // the scan takes the filter but keeps every row: a join-side test would drop rows before their lookup
+        boolean legacySame = true;
+        boolean lookupPerRow = true;
+        for (String name : new String[]{"bloom", "exact", "approx", "streamed"}) {
+            for (String how : new String[]{"rows", "batches", "parallel"}) {
+                IntOperator join = pushedLegacyJoin(name, build, new KeepAllScan(probe));
+                if (how.equals("parallel")) TinyChecks.setParallelism(join, 1, 2, 1000, true);
+                List<int[]> got = how.equals("batches")
+                        ? TinyChecks.drainBatches((IntBatchOperator) join) : TinyChecks.drain(join);
+                legacySame &= TinyChecks.sameRows(got, expected);
+                lookupPerRow &= hashLookups(join) == probe.size();
+            }
+        }
+        check("legacy joins, pushed filter == nested loop", legacySame);
+        check("legacy joins, pushed filter: one hash lookup per scanned row (rows, batches, parallel)", lookupPerRow);
+
+        // every open() builds a new filter: a build input that grew between opens is covered
+        boolean legacyReopen = true;
+        for (String name : new String[]{"bloom", "exact", "approx", "streamed"}) {
+            List<int[]> grows = new ArrayList<>(build);
+            IntOperator join = pushedLegacyJoin(name, grows, new IntScanOperator(probe));
+            legacyReopen &= TinyChecks.sameRows(TinyChecks.drain(join), expected);
+            grows.addAll(TinyChecks.randomRows(114, 500, -2000, 1000));
+            legacyReopen &= TinyChecks.sameRows(TinyChecks.drain(join), TinyChecks.nestedLoopJoin(grows, probe, 0, 1));
+        }
+        check("legacy joins, build input grows between opens == nested loop", legacyReopen);
+
+        TinyChecks.done("IntFilteredJoinTinyTest");
+    }
+
+    private static IntOperator pushedLegacyJoin(String name, List<int[]> build, IntScanOperator probe) {
+        switch (name) {
+            case "bloom":
+                IntHashJoinWithBloomFilter bloom = new IntHashJoinWithBloomFilter(
+                        new IntScanOperator(build), probe, 0, 1, 1 << 14, 3);
+                bloom.setFilterPushdown(true);
+                return bloom;
+            case "exact":
+                IntHashJoinWithExactRanges exact = new IntHashJoinWithExactRanges(
+                        new IntScanOperator(build), probe, 0, 1, build.size(), 8);
+                exact.setFilterPushdown(true);
+                return exact;
+            case "approx":
+                IntHashJoinWithApproximateRanges approx = new IntHashJoinWithApproximateRanges(
+                        new IntScanOperator(build), probe, 0, 1, build.size(), 16, 4);
+                approx.setFilterPushdown(true);
+                return approx;
+            default:
+                IntHashJoinWithApproximateRangesStreamed streamed = new IntHashJoinWithApproximateRangesStreamed(
+                        new IntScanOperator(build), probe, 0, 1, build.size(), 16, 4);
+                streamed.setFilterPushdown(true);
+                return streamed;
+        }
+    }
+
+    private static int hashLookups(IntOperator join) {
+        if (join instanceof IntHashJoinWithBloomFilter) return ((IntHashJoinWithBloomFilter) join).getHashLookups();
+        if (join instanceof IntHashJoinWithExactRanges) return ((IntHashJoinWithExactRanges) join).getHashLookups();
+        if (join instanceof IntHashJoinWithApproximateRanges) {
+            return ((IntHashJoinWithApproximateRanges) join).getHashLookups();
+        }
+        return ((IntHashJoinWithApproximateRangesStreamed) join).getHashLookups();
+    }
+
+    // accepts a pushed filter, but every row passes it
+    private static final class KeepAllScan extends IntScanOperator {
+        KeepAllScan(List<int[]> data) { super(data); }
+
+        @Override public void pushRuntimeFilter(int keyIndex, IntPredicate filter) {
+            super.pushRuntimeFilter(keyIndex, key -> true);
+        }
+    }
+
+    // counts mightContain calls (single-threaded scans only)
+    private static final class CountingFilter implements ProbeFilter {
+        private final ProbeFilter inner;
+        int tests = 0;
+
+        CountingFilter(ProbeFilter inner) { this.inner = inner; }
+
+        @Override public void add(int key) { inner.add(key); }
+        @Override public void build() { inner.build(); }
+        @Override public boolean mightContain(int key) {
+            tests++;
+            return inner.mightContain(key);
+        }
+        @Override public String name() { return inner.name(); }
+        @Override public long approxBytesUsed() { return inner.approxBytesUsed(); }
+    }
+}
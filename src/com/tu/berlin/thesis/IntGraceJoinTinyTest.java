@@ -0,0 +1,132 @@
+package com.tu.berlin.thesis;
+
+import com.tu.berlin.thesis.filter.IntBloomFilter;
+import com.tu.berlin.thesis.filter.IntXorFilter;
+import com.tu.berlin.thesis.filter.ProbeFilter;
+import com.tu.berlin.thesis.filter.RangesProbeFilter;
+import com.tu.berlin.thesis.operators.IntGraceHashJoinOperator;
+import com.tu.berlin.thesis.operators.IntScanOperator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.tu.berlin.thesis.TinyChecks.check;
+
+public class IntGraceJoinTinyTest {
+
+    public static void main(String[] args) throws IOException {
+        List<int[]> build = TinyChecks.randomRows(41, 20000, 0, 15000); // ~64 bytes per row
+        List<int[]> probe = TinyChecks.randomProbe(42, 20000, -2000, 20000);
+        List<int[]> expected = TinyChecks.nestedLoopJoin(build, probe, 0, 1);
+        Path spill = Files.createTempDirectory("grace-tiny");
+
+        try {
+            // -----------------------------
+            // Fits the budget: plain in-memory join
+            // -----------------------------
+            IntGraceHashJoinOperator inMemory = grace(build, probe, 1L << 30, null, spill);
+            check("in memory == nested loop", TinyChecks.sameRows(TinyChecks.drain(inMemory), expected)
+                    && !inMemory.isSpilled());
+
+            // -----------------------------
+            // Hybrid: partition 0 (~1/64 of the rows) stays resident, the rest spills
+            // -----------------------------
+            IntGraceHashJoinOperator hybrid = grace(build, probe, 100_000, null, spill);
+            List<int[]> out = new ArrayList<>();
+            hybrid.open();
+            boolean resident = hybrid.isPartition0Resident();
+            int[] row;
+            while ((row = hybrid.next()) != null) out.add(row);
+            hybrid.close();
+            check("hybrid == nested loop", TinyChecks.sameRows(out, expected));
+            check("hybrid spilled with partition 0 resident", hybrid.isSpilled() && resident
+                    && hybrid.getSpilledBuildRows() < build.size() && hybrid.getRepartitions() == 0);
+            check("spill files removed", isEmpty(spill));
+
+            // -----------------------------
+            // Partitions larger than the budget are split again with a new seed
+            // -----------------------------
+            IntGraceHashJoinOperator recursive = grace(build, probe, 5_000, null, spill);
+            check("recursive repartitioning == nested loop",
+                    TinyChecks.sameRows(TinyChecks.drain(recursive), expected));
+            check("every level-0 partition was split", recursive.getRepartitions() >= recursive.getPartitionCount()
+                    && recursive.getSpilledBuildRows() == build.size());
+
+            // one heavy key cannot be split: recursion stops, result still complete
+            List<int[]> skewed = new ArrayList<>(build.subList(0, 2000));
+            for (int i = 0; i < 3000; i++) skewed.add(new int[]{7, i, i});
+            List<int[]> skewedProbe = TinyChecks.randomProbe(43, 3000, 0, 3000);
+            IntGraceHashJoinOperator heavy = grace(skewed, skewedProbe, 4_000, null, spill);
+            check("heavy key terminates == nested loop", TinyChecks.sameRows(TinyChecks.drain(heavy),
+                    TinyChecks.nestedLoopJoin(skewed, skewedProbe, 0, 1)) && isEmpty(spill));
+
+            // -----------------------------
+            // Prefilter: its collected keys count against the budget, misses never spill
+            // -----------------------------
+            IntGraceHashJoinOperator noFilter = grace(build, probe, 2_000_000, null, spill);
+            TinyChecks.drain(noFilter);
+            IntGraceHashJoinOperator withRanges = grace(build, probe, 2_000_000,
+                    RangesProbeFilter.exact(1_000_000), spill); // 4 MB key buffer
+            check("prefilter key buffer forces spilling", TinyChecks.sameRows(TinyChecks.drain(withRanges), expected)
+                    && !noFilter.isSpilled() && withRanges.isSpilled());
+
+            IntGraceHashJoinOperator bloom = grace(build, probe, 100_000, new IntBloomFilter(build.size(), 0.01), spill);
+            check("bloom prefilter == nested loop", TinyChecks.sameRows(TinyChecks.drain(bloom), expected)
+                    && bloom.getSpilledProbeRows() < probe.size() - bloom.getFilterRejects());
+
+            // -----------------------------
+            // Re-open: the prefilter is fed once, so it neither fails nor grows past the budget
+            // -----------------------------
+            IntGraceHashJoinOperator xor = grace(build, probe, 100_000, new IntXorFilter(build.size(), 8), spill);
+            List<int[]> first = TinyChecks.drain(xor);
+            check("xor prefilter: re-open == first run == nested loop", TinyChecks.sameRows(first, expected)
+                    && TinyChecks.sameSequence(first, TinyChecks.drain(xor)) && isEmpty(spill));
+
+            // 20000 rows * 64 bytes + an 80 KB key buffer fit; the keys fed twice would not
+            IntGraceHashJoinOperator tight = grace(build, probe, 1_400_000, RangesProbeFilter.exact(build.size()), spill);
+            boolean firstFits = TinyChecks.sameRows(TinyChecks.drain(tight), expected) && !tight.isSpilled();
+            check("ranges prefilter: re-open stays in memory", firstFits
+                    && TinyChecks.sameRows(TinyChecks.drain(tight), expected) && !tight.isSpilled());
+
+            List<int[]> growing = new ArrayList<>(build);
+            IntGraceHashJoinOperator fresh = IntGraceHashJoinOperator.withFilterFactory(new IntScanOperator(growing),
+                    new IntScanOperator(probe), 0, 1, 100_000, () -> new IntXorFilter(growing.size(), 8));
+            fresh.setSpillDirectory(spill);
+            boolean firstOk = TinyChecks.sameRows(TinyChecks.drain(fresh), expected);
+            growing.addAll(TinyChecks.randomRows(44, 500, -2000, 1000));
+            check("factory: changed build input, new filter, correct result", firstOk
+                    && TinyChecks.sameRows(TinyChecks.drain(fresh), TinyChecks.nestedLoopJoin(growing, probe, 0, 1)));
+
+            // -----------------------------
+            // close() in the middle of the probe removes the spill files
+            // -----------------------------
+            IntGraceHashJoinOperator early = grace(build, probe, 5_000, null, spill);
+            early.open();
+            for (int i = 0; i < 100; i++) early.next();
+            early.close();
+            check("early close removes spill files", isEmpty(spill));
+        } finally {
+            Files.deleteIfExists(spill);
+        }
+
+        TinyChecks.done("IntGraceJoinTinyTest");
+    }
+
+    private static IntGraceHashJoinOperator grace(List<int[]> build, List<int[]> probe, long budget,
+                                                  ProbeFilter prefilter, Path spill) {
+        IntGraceHashJoinOperator join = new IntGraceHashJoinOperator(
+                new IntScanOperator(build), new IntScanOperator(probe), 0, 1, budget, prefilter);
+        join.setSpillDirectory(spill);
+        return join;
+    }
+
+    private static boolean isEmpty(Path dir) throws IOException {
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.findAny().isEmpty();
+        }
+    }
+}
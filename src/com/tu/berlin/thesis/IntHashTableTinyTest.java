@@ -0,0 +1,76 @@
+package com.tu.berlin.thesis;
+
+import com.tu.berlin.thesis.hashtable.IntHashTable;
+import com.tu.berlin.thesis.operators.IntHashJoinOperator;
+import com.tu.berlin.thesis.operators.IntScanOperator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.tu.berlin.thesis.TinyChecks.check;
+
+public class IntHashTableTinyTest {
+
+    public static void main(String[] args) {
+
+        // -----------------------------
+        // Duplicates chain in insertion order, growth keeps every key
+        // -----------------------------
+        IntHashTable table = new IntHashTable(4);
+        Map<Integer, List<Integer>> reference = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            int key = (i * 7919) % 1300 - 600; // negative keys and duplicates
+            table.put(key, new int[]{key, i});
+            reference.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+        }
+        check("size counts every row", table.size() == 5000);
+        check("distinct keys", table.distinctKeys() == reference.size());
+
+        boolean chainsOk = true;
+        for (Map.Entry<Integer, List<Integer>> e : reference.entrySet()) {
+            int slot = table.findSlot(e.getKey());
+            if (slot == IntHashTable.NO_SLOT || table.matchCount(slot) != e.getValue().size()) {
+                chainsOk = false;
+                break;
+            }
+            int idx = 0;
+            for (int entry = table.firstEntry(slot); entry != IntHashTable.NO_ENTRY; entry = table.nextEntry(entry)) {
+                chainsOk &= table.row(entry)[1] == e.getValue().get(idx++);
+            }
+        }
+        check("chains hold every duplicate in insertion order", chainsOk);
+        check("absent key -> NO_SLOT", table.findSlot(100_000) == IntHashTable.NO_SLOT);
+
+        // -----------------------------
+        // Bulk load over several segments
+        // -----------------------------
+        int[][] rows = new int[1000][];
+        for (int i = 0; i < rows.length; i++) rows[i] = new int[]{i % 300, i};
+        IntHashTable bulk = IntHashTable.forBulkLoad(rows, rows.length, 3, 300);
+        for (int i = 0; i < rows.length; i++) bulk.insertEntry(rows[i][0], i);
+        bulk.finishBulkLoad();
+        boolean bulkOk = bulk.distinctKeys() == 300;
+        for (int k = 0; k < 300; k++) {
+            int slot = bulk.findSlot(k);
+            bulkOk &= slot != IntHashTable.NO_SLOT && bulk.matchCount(slot) == (k < 100 ? 4 : 3);
+        }
+        check("bulk load (8 segments)", bulkOk);
+
+        table.clear();
+        check("clear empties the table", table.size() == 0 && table.findSlot(0) == IntHashTable.NO_SLOT);
+
+        // -----------------------------
+        // Join on top of it matches a nested-loop join
+        // -----------------------------
+        List<int[]> build = TinyChecks.randomRows(1, 300, 0, 100);
+        List<int[]> probe = TinyChecks.randomProbe(2, 500, -20, 140);
+        List<int[]> joined = TinyChecks.drain(new IntHashJoinOperator(
+                new IntScanOperator(build), new IntScanOperator(probe), 0, 1));
+        check("IntHashJoinOperator == nested-loop join",
+                TinyChecks.sameRows(joined, TinyChecks.nestedLoopJoin(build, probe, 0, 1)));
+
+        TinyChecks.done("IntHashTableTinyTest");
+    }
+}
@@ -0,0 +1,128 @@
+package com.tu.berlin.thesis;
+
+import com.tu.berlin.thesis.operators.IntHashJoinAggregateOperator;
+import com.tu.berlin.thesis.operators.IntHashJoinAggregateOperator.Aggregate;
+import com.tu.berlin.thesis.operators.IntScanOperator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.tu.berlin.thesis.TinyChecks.check;
+
+public class IntJoinAggregateTinyTest {
+
+    public static void main(String[] args) {
+        // joined row: build {key, i, payload} = columns 0..2, probe {i, key, payload} = columns 3..5
+        List<int[]> build = TinyChecks.randomRows(171, 600, 0, 200);
+        List<int[]> probe = TinyChecks.randomProbe(172, 4000, -30, 260);
+        List<int[]> joined = TinyChecks.nestedLoopJoin(build, probe, 0, 1);
+
+        // -----------------------------
+        // Every grouping path == aggregating the materialized join
+        // -----------------------------
+        check("no grouping", same(build, probe, joined, new int[]{},
+                "count", "sum 2", "sum 5", "min 2", "max 5"));
+        check("probe-only groups + aggregates (weighted by match count)", same(build, probe, joined, new int[]{5},
+                "count", "sum 5", "min 3", "max 3"));
+        check("build-side groups (group id per build entry)", same(build, probe, joined, new int[]{2},
+                "count", "sum 1", "sum 5", "min 5", "max 1"));
+        check("two groups across both sides", same(build, probe, joined, new int[]{2, 5},
+                "count", "sum 1", "max 3"));
+        check("two build-side groups (packed long key)", same(build, probe, joined, new int[]{0, 2},
+                "count", "min 3"));
+
+        // -----------------------------
+        // Long accumulator does not overflow, int accumulator wraps like int arithmetic
+        // -----------------------------
+        List<int[]> bigBuild = new ArrayList<>();
+        List<int[]> bigProbe = new ArrayList<>();
+        for (int i = 0; i < 3; i++) bigBuild.add(new int[]{7, i});
+        for (int i = 0; i < 4; i++) bigProbe.add(new int[]{i, 7, Integer.MAX_VALUE});
+        int[] sums = single(new IntHashJoinAggregateOperator(new IntScanOperator(bigBuild), new IntScanOperator(bigProbe),
+                0, 1, 4, new int[]{}, Aggregate.sum(4), new Aggregate(IntHashJoinAggregateOperator.Function.SUM, 4, false)));
+        check("long SUM of 12 x MAX_VALUE", IntHashJoinAggregateOperator.readLong(sums, 0) == 12L * Integer.MAX_VALUE
+                && sums[2] == 12 * Integer.MAX_VALUE);
+
+        // -----------------------------
+        // Empty join: no row, also without grouping; re-open repeats the result
+        // -----------------------------
+        List<int[]> noMatch = TinyChecks.randomProbe(173, 100, 1000, 50);
+        check("empty join -> no row", TinyChecks.drain(new IntHashJoinAggregateOperator(new IntScanOperator(build),
+                new IntScanOperator(noMatch), 0, 1, 600, new int[]{}, Aggregate.count())).isEmpty());
+
+        IntHashJoinAggregateOperator twice = new IntHashJoinAggregateOperator(new IntScanOperator(build),
+                new IntScanOperator(probe), 0, 1, 600, new int[]{2}, Aggregate.count(), Aggregate.sum(5));
+        List<int[]> first = TinyChecks.drain(twice);
+        int firstMatches = twice.getActualMatches();
+        check("re-open == first run", TinyChecks.sameSequence(first, TinyChecks.drain(twice))
+                && firstMatches == joined.size() && twice.getGroupCount() == first.size());
+
+        TinyChecks.done("IntJoinAggregateTinyTest");
+    }
+
+    private static int[] single(IntHashJoinAggregateOperator op) {
+        List<int[]> rows = TinyChecks.drain(op);
+        return rows.size() == 1 ? rows.get(0) : new int[3];
+    }
+
+    // specs: "count" or "<fn> <column>"; COUNT / SUM long, MIN / MAX int accumulators
+    private static boolean same(List<int[]> build, List<int[]> probe, List<int[]> joined, int[] groups, String... specs) {
+        Aggregate[] aggs = new Aggregate[specs.length];
+        for (int a = 0; a < specs.length; a++) {
+            String[] s = specs[a].split(" ");
+            int col = s.length > 1 ? Integer.parseInt(s[1]) : -1;
+            switch (s[0]) {
+                case "count": aggs[a] = Aggregate.count(); break;
+                case "sum": aggs[a] = Aggregate.sum(col); break;
+                case "min": aggs[a] = Aggregate.min(col); break;
+                default: aggs[a] = Aggregate.max(col); break;
+            }
+        }
+        List<int[]> actual = TinyChecks.drain(new IntHashJoinAggregateOperator(
+                new IntScanOperator(build), new IntScanOperator(probe), 0, 1, build.size(), groups, aggs));
+
+        // reference: group the joined rows, then lay out like the operator's output
+        Map<List<Integer>, long[]> ref = new LinkedHashMap<>();
+        for (int[] row : joined) {
+            List<Integer> key = new ArrayList<>();
+            for (int g : groups) key.add(row[g]);
+            long[] acc = ref.computeIfAbsent(key, k -> {
+                long[] init = new long[specs.length];
+                for (int a = 0; a < specs.length; a++) {
+                    if (specs[a].startsWith("min")) init[a] = Integer.MAX_VALUE;
+                    if (specs[a].startsWith("max")) init[a] = Integer.MIN_VALUE;
+                }
+                return init;
+            });
+            for (int a = 0; a < specs.length; a++) {
+                String[] s = specs[a].split(" ");
+                long v = s.length > 1 ? row[Integer.parseInt(s[1])] : 0;
+                switch (s[0]) {
+                    case "count": acc[a]++; break;
+                    case "sum": acc[a] += v; break;
+                    case "min": acc[a] = Math.min(acc[a], v); break;
+                    default: acc[a] = Math.max(acc[a], v); break;
+                }
+            }
+        }
+        List<int[]> expected = new ArrayList<>();
+        for (Map.Entry<List<Integer>, long[]> e : ref.entrySet()) {
+            List<Integer> out = new ArrayList<>(e.getKey());
+            for (int a = 0; a < specs.length; a++) {
+                long v = e.getValue()[a];
+                if (specs[a].startsWith("min") || specs[a].startsWith("max")) {
+                    out.add((int) v);
+                } else {
+                    out.add((int) (v >>> 32));
+                    out.add((int) v);
+                }
+            }
+            int[] r = new int[out.size()];
+            for (int i = 0; i < r.length; i++) r[i] = out.get(i);
+            expected.add(r);
+        }
+        return TinyChecks.sameRows(actual, expected);
+    }
+}
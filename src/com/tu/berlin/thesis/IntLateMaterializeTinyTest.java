@@ -0,0 +1,83 @@
+package com.tu.berlin.thesis;
+
+import com.tu.berlin.thesis.data.IntColumnarTable;
+import com.tu.berlin.thesis.filter.IntBloomFilter;
+import com.tu.berlin.thesis.filter.IntXorFilter;
+import com.tu.berlin.thesis.operators.IntLateMaterializeOperator;
+import com.tu.berlin.thesis.operators.IntRowIdHashJoin;
+import com.tu.berlin.thesis.operators.IntRowIdPairs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.tu.berlin.thesis.TinyChecks.check;
+
+public class IntLateMaterializeTinyTest {
+
+    public static void main(String[] args) {
+        List<int[]> buildRows = TinyChecks.randomRows(51, 3000, 0, 500); // ~6 rows per key
+        List<int[]> probeRows = TinyChecks.randomProbe(52, 4000, -100, 800);
+        IntColumnarTable build = IntColumnarTable.fromRows(buildRows);
+        IntColumnarTable probe = IntColumnarTable.fromRows(probeRows);
+        List<int[]> expected = TinyChecks.nestedLoopJoin(buildRows, probeRows, 0, 1);
+
+        // -----------------------------
+        // Row id pairs: a tiny buffer splits duplicate chains across calls
+        // -----------------------------
+        IntRowIdHashJoin join = new IntRowIdHashJoin(build, 0, probe, 1, null, 7);
+        List<int[]> pairs = new ArrayList<>();
+        join.open();
+        IntRowIdPairs p;
+        boolean bounded = true;
+        while ((p = join.nextPairs()) != null) {
+            bounded &= p.size > 0 && p.size <= p.capacity();
+            for (int i = 0; i < p.size; i++) pairs.add(new int[]{p.buildIds[i], p.probeIds[i]});
+        }
+        join.close();
+
+        boolean keysMatch = true;
+        boolean probeOrder = true;
+        for (int i = 0; i < pairs.size(); i++) {
+            int[] pair = pairs.get(i);
+            keysMatch &= build.get(pair[0], 0) == probe.get(pair[1], 1);
+            if (i > 0) {
+                int[] prev = pairs.get(i - 1);
+                probeOrder &= prev[1] < pair[1] || (prev[1] == pair[1] && prev[0] < pair[0]);
+            }
+        }
+        check("pair count == nested loop matches", pairs.size() == expected.size());
+        check("every pair joins equal keys", keysMatch);
+        check("probe row order, build rows of a key in row order", probeOrder);
+        check("buffers non-empty and within capacity", bounded);
+
+        // -----------------------------
+        // Late materialization == early (nested-loop) join, any projection
+        // -----------------------------
+        check("all columns == nested loop", TinyChecks.sameRows(TinyChecks.drain(new IntLateMaterializeOperator(
+                join, build, new int[]{0, 1, 2}, probe, new int[]{0, 1, 2})), expected));
+        check("all columns, batches == nested loop", TinyChecks.sameRows(TinyChecks.drainBatches(
+                new IntLateMaterializeOperator(join, build, new int[]{0, 1, 2}, probe, new int[]{0, 1, 2})), expected));
+
+        List<int[]> projected = new ArrayList<>();
+        for (int[] r : expected) projected.add(new int[]{r[2], r[3]});
+        check("build payload + probe id only", TinyChecks.sameRows(TinyChecks.drain(new IntLateMaterializeOperator(
+                join, build, new int[]{2}, probe, new int[]{0})), projected));
+
+        IntRowIdHashJoin filtered = new IntRowIdHashJoin(build, 0, probe, 1, new IntBloomFilter(500, 0.01), 64);
+        check("bloom prefilter == nested loop", TinyChecks.sameRows(TinyChecks.drain(new IntLateMaterializeOperator(
+                filtered, build, new int[]{0, 1, 2}, probe, new int[]{0, 1, 2})), expected)
+                && filtered.getFilterRejects() > 0);
+
+        IntRowIdHashJoin xor = new IntRowIdHashJoin(build, 0, probe, 1, new IntXorFilter(500, 8), 64);
+        List<int[]> first = TinyChecks.drain(new IntLateMaterializeOperator(xor, build, new int[]{0}, probe, new int[]{0}));
+        check("xor prefilter fed once: re-open == first run", TinyChecks.sameSequence(first,
+                TinyChecks.drain(new IntLateMaterializeOperator(xor, build, new int[]{0}, probe, new int[]{0}))));
+
+        int[] dst = new int[3];
+        IntLateMaterializeOperator.gather(new int[]{10, 11, 12, 13}, new int[]{3, 0, 3}, 3, dst);
+        check("gather", Arrays.equals(dst, new int[]{13, 10, 13}));
+
+        TinyChecks.done("IntLateMaterializeTinyTest");
+    }
+}
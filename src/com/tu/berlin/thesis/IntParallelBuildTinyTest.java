@@ -0,0 +1,64 @@
+package com.tu.berlin.thesis;
+
+import com.tu.berlin.thesis.hashtable.IntHashTable;
+import com.tu.berlin.thesis.operators.IntOperator;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.tu.berlin.thesis.TinyChecks.check;
+
+public class IntParallelBuildTinyTest {
+
+    public static void main(String[] args) {
+        // many duplicates per key, so chain order is observable
+        List<int[]> build = TinyChecks.randomRows(21, 20000, -500, 3000);
+        List<int[]> probe = TinyChecks.randomProbe(22, 6000, -1000, 5000);
+
+        Map<String, IntOperator> serial = TinyChecks.parallelJoins(build, probe);
+        Map<String, IntOperator> parallel = TinyChecks.parallelJoins(build, probe);
+        List<int[]> expected = TinyChecks.nestedLoopJoin(build, probe, 0, 1);
+
+        // -----------------------------
+        // Parallel build (odd morsel size, more morsels than workers) produces
+        // the same table: same matches, duplicates in build input order
+        // -----------------------------
+        for (String name : serial.keySet()) {
+            List<int[]> reference = TinyChecks.drain(serial.get(name));
+            IntOperator join = parallel.get(name);
+            TinyChecks.setParallelism(join, 4, 1, 777, true);
+            List<int[]> out = TinyChecks.drain(join);
+            check(name + ": serial build == nested loop", TinyChecks.sameRows(reference, expected));
+            check(name + ": parallel build == serial build, same order", TinyChecks.sameSequence(out, reference));
+        }
+
+        // one worker and a morsel larger than the input behave like the serial build
+        Map<String, IntOperator> single = TinyChecks.parallelJoins(build, probe);
+        IntOperator plain = single.get("plain");
+        TinyChecks.setParallelism(plain, 1, 1, 1 << 20, true);
+        check("1 worker, one morsel == nested loop", TinyChecks.sameRows(TinyChecks.drain(plain), expected));
+
+        boolean rejected;
+        try {
+            TinyChecks.setParallelism(single.get("bloom"), 0, 1, 100, true);
+            rejected = false;
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        check("workers < 1 rejected", rejected);
+
+        // -----------------------------
+        // Segment count grows with the build: no segment needs more than 2^24 slots
+        // -----------------------------
+        int small = IntHashTable.segmentBitsFor(1_000_000, 3); // 2 workers -> 8 segments
+        int large = IntHashTable.segmentBitsFor(200_000_000, 3);
+        check("small build keeps the workers' segment bits", small == 3);
+        check("200M keys: more segments, each at most half full",
+                large > 3 && (200_000_000L >> large) <= IntHashTable.maxKeysPerSegment(large) / 2);
+        check("all segments together as many slots as the serial table (2^30)",
+                (long) IntHashTable.maxSegmentSlots(IntHashTable.MAX_SEGMENT_BITS) << IntHashTable.MAX_SEGMENT_BITS == 1L << 30
+                        && IntHashTable.maxSegmentSlots(0) == 1 << 30);
+
+        TinyChecks.done("IntParallelBuildTinyTest");
+    }
+}
@@ -0,0 +1,86 @@
+package com.tu.berlin.thesis;
+
+import com.tu.berlin.thesis.filter.CascadeProbeFilter;
+import com.tu.berlin.thesis.filter.IntBloomFilter;
+import com.tu.berlin.thesis.filter.RangesProbeFilter;
+import com.tu.berlin.thesis.operators.IntFilteredHashJoin;
+import com.tu.berlin.thesis.operators.IntHashJoinWithBloomFilter;
+import com.tu.berlin.thesis.operators.IntOperator;
+import com.tu.berlin.thesis.operators.IntScanOperator;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.tu.berlin.thesis.TinyChecks.check;
+
+public class IntParallelProbeTinyTest {
+
+    public static void main(String[] args) {
+        List<int[]> build = TinyChecks.randomRows(31, 5000, 0, 4000);
+        List<int[]> probe = TinyChecks.randomProbe(32, 30000, -2000, 9000);
+
+        Map<String, IntOperator> serial = TinyChecks.parallelJoins(build, probe);
+        Map<String, IntOperator> ordered = TinyChecks.parallelJoins(build, probe);
+        Map<String, IntOperator> unordered = TinyChecks.parallelJoins(build, probe);
+
+        // -----------------------------
+        // ordered: exactly the serial output sequence; unordered: same rows
+        // -----------------------------
+        for (String name : serial.keySet()) {
+            List<int[]> reference = TinyChecks.drain(serial.get(name));
+
+            IntOperator o = ordered.get(name);
+            TinyChecks.setParallelism(o, 2, 4, 501, true);
+            check(name + ": ordered parallel probe == serial sequence",
+                    TinyChecks.sameSequence(TinyChecks.drain(o), reference));
+
+            IntOperator u = unordered.get(name);
+            TinyChecks.setParallelism(u, 1, 4, 333, false);
+            check(name + ": unordered parallel probe == serial rows",
+                    TinyChecks.sameRows(TinyChecks.drain(u), reference));
+        }
+
+        // -----------------------------
+        // per-worker counters are merged into the join's metrics
+        // -----------------------------
+        IntHashJoinWithBloomFilter s = (IntHashJoinWithBloomFilter) serial.get("bloom");
+        IntHashJoinWithBloomFilter p = (IntHashJoinWithBloomFilter) unordered.get("bloom");
+        check("merged metrics == serial metrics", s.getBloomPasses() == p.getBloomPasses()
+                && s.getBloomRejects() == p.getBloomRejects()
+                && s.getHashLookups() == p.getHashLookups()
+                && s.getActualMatches() == p.getActualMatches());
+
+        CascadeProbeFilter serialCascade = cascade(build.size());
+        CascadeProbeFilter parallelCascade = cascade(build.size());
+        TinyChecks.drain(new IntFilteredHashJoin(new IntScanOperator(build), new IntScanOperator(probe),
+                0, 1, build.size(), serialCascade));
+        IntFilteredHashJoin cascaded = new IntFilteredHashJoin(new IntScanOperator(build), new IntScanOperator(probe),
+                0, 1, build.size(), parallelCascade);
+        cascaded.setProbeParallelism(4, 97, false);
+        TinyChecks.drain(cascaded);
+        boolean sameStages = true;
+        for (int i = 0; i < 2; i++) {
+            sameStages &= serialCascade.getStagePasses(i) == parallelCascade.getStagePasses(i)
+                    && serialCascade.getStageRejects(i) == parallelCascade.getStageRejects(i);
+        }
+        check("cascade stage counters: per-worker counts merged == serial counts", sameStages
+                && parallelCascade.getStagePasses(0) + parallelCascade.getStageRejects(0) == probe.size());
+
+        // -----------------------------
+        // close() with morsels still in flight does not hang, re-open starts over
+        // -----------------------------
+        IntOperator early = TinyChecks.parallelJoins(build, probe).get("plain");
+        TinyChecks.setParallelism(early, 1, 4, 64, true);
+        early.open();
+        for (int i = 0; i < 10; i++) early.next();
+        early.close();
+        check("close after 10 rows, then a full re-run",
+                TinyChecks.sameSequence(TinyChecks.drain(early), TinyChecks.drain(serial.get("plain"))));
+
+        TinyChecks.done("IntParallelProbeTinyTest");
+    }
+
+    private static CascadeProbeFilter cascade(int buildKeys) {
+        return new CascadeProbeFilter(RangesProbeFilter.grouped(buildKeys, 16), new IntBloomFilter(buildKeys, 0.01));
+    }
+}
@@ -0,0 +1,100 @@
+package com.tu.berlin.thesis;
+
+import com.tu.berlin.thesis.operators.IntOperator;
+import com.tu.berlin.thesis.operators.IntRowPredicate;
+import com.tu.berlin.thesis.operators.IntScanOperator;
+import com.tu.berlin.thesis.operators.IntSelectionOperator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.tu.berlin.thesis.TinyChecks.check;
+import static com.tu.berlin.thesis.operators.IntRowPredicate.*;
+
+public class IntPredicatePushdownTinyTest {
+
+    public static void main(String[] args) {
+        // joined row: build {key, i, payload} = columns 0..2, probe {i, key, payload} = columns 3..5
+        List<int[]> build = TinyChecks.randomRows(181, 800, 0, 400);
+        List<int[]> probe = TinyChecks.randomProbe(182, 3000, -50, 500);
+        List<int[]> joined = TinyChecks.nestedLoopJoin(build, probe, 0, 1);
+
+        // -----------------------------
+        // Predicate compiles to interval compares
+        // -----------------------------
+        int[] row = {5, Integer.MIN_VALUE, Integer.MAX_VALUE};
+        check("interval edges (MIN / MAX, empty -> FALSE)", between(0, 5, 5).test(row) && le(1, Integer.MIN_VALUE).test(row)
+                && ge(2, Integer.MAX_VALUE).test(row) && !gt(2, 0).test(new int[]{0, 0, 0})
+                && lt(0, Integer.MIN_VALUE) == FALSE && gt(0, Integer.MAX_VALUE) == FALSE && ne(0, 4).test(row));
+        check("and() flattens nested conjuncts", and(and(eq(0, 1), eq(1, 2)), eq(2, 3), TRUE).conjuncts().size() == 3
+                && and(eq(0, 1), FALSE) == FALSE && and() == TRUE);
+
+        IntRowPredicate buildOnly = and(lt(2, 50), ge(0, 20));
+        IntRowPredicate mixed = and(lt(2, 50), ge(5, 30));
+        IntRowPredicate crossOr = or(lt(2, 10), gt(5, 90));
+
+        // -----------------------------
+        // Every join: pushed == not pushed == filtered nested-loop join; residual keeps only probe parts
+        // -----------------------------
+        boolean allSame = true;
+        boolean residuals = true;
+        boolean pushedRejects = true;
+        for (IntRowPredicate p : new IntRowPredicate[]{buildOnly, mixed, crossOr, FALSE}) {
+            List<int[]> expected = filter(joined, p);
+            // fresh joins per run: a filter fed under one pushed predicate does not cover another's build rows
+            Map<String, IntOperator> keptJoins = TinyChecks.parallelJoins(build, probe);
+            for (Map.Entry<String, IntOperator> e : TinyChecks.parallelJoins(build, probe).entrySet()) {
+                IntSelectionOperator pushed = new IntSelectionOperator(e.getValue(), p);
+                List<int[]> got = TinyChecks.drain(pushed);
+                IntSelectionOperator kept = new IntSelectionOperator(keptJoins.get(e.getKey()), p);
+                kept.setPushdown(false);
+                allSame &= TinyChecks.sameRows(got, expected) && TinyChecks.sameRows(TinyChecks.drain(kept), expected);
+
+                if (p == buildOnly) {
+                    residuals &= pushed.getResidualPredicate() == TRUE;
+                    pushedRejects &= pushed.getPushedRejects() == count(build, p, false) && pushed.getRejects() == 0;
+                } else if (p == mixed) {
+                    residuals &= pushed.getResidualPredicate().maxColumn() == 5
+                            && pushed.getResidualPredicate().conjuncts().size() == 1;
+                    pushedRejects &= pushed.getPushedRejects() == count(build, lt(2, 50), false);
+                } else if (p == crossOr) {
+                    residuals &= pushed.getResidualPredicate() == crossOr && pushed.getPushedRejects() == 0;
+                }
+            }
+        }
+        check("every join: pushed == kept == filtered reference", allSame);
+        check("residual = conjuncts reading probe columns", residuals);
+        check("pushed conjuncts reject build rows below the join", pushedRejects);
+
+        // -----------------------------
+        // Close removes the pushed predicate; non-join child keeps everything
+        // -----------------------------
+        IntOperator join = TinyChecks.parallelJoins(build, probe).get("plain");
+        TinyChecks.drain(new IntSelectionOperator(join, buildOnly));
+        check("predicate removed on close", TinyChecks.sameRows(TinyChecks.drain(join), joined));
+
+        IntSelectionOperator overScan = new IntSelectionOperator(new IntScanOperator(build), lt(2, 50));
+        check("over a scan: evaluated in place", TinyChecks.sameRows(TinyChecks.drain(overScan), filter(build, lt(2, 50)))
+                && overScan.getResidualPredicate().conjuncts().size() == 1 && overScan.getPushedRejects() == 0);
+
+        IntSelectionOperator emptyBuild = new IntSelectionOperator(TinyChecks.parallelJoins(new ArrayList<>(), probe)
+                .get("plain"), buildOnly);
+        check("empty build side: no rows, whole predicate residual",
+                TinyChecks.drain(emptyBuild).isEmpty() && emptyBuild.getResidualPredicate() == buildOnly);
+
+        TinyChecks.done("IntPredicatePushdownTinyTest");
+    }
+
+    private static List<int[]> filter(List<int[]> rows, IntRowPredicate p) {
+        List<int[]> out = new ArrayList<>();
+        for (int[] r : rows) if (p.test(r)) out.add(r);
+        return out;
+    }
+
+    private static int count(List<int[]> rows, IntRowPredicate p, boolean value) {
+        int n = 0;
+        for (int[] r : rows) if (p.test(r) == value) n++;
+        return n;
+    }
+}
@@ -0,0 +1,90 @@
+package com.tu.berlin.thesis;
+
+import com.tu.berlin.thesis.filter.IntBloomFilter;
+import com.tu.berlin.thesis.filter.IntXorFilter;
+import com.tu.berlin.thesis.filter.ProbeFilter;
+import com.tu.berlin.thesis.filter.RangesProbeFilter;
+import com.tu.berlin.thesis.operators.IntRadixHashJoinOperator;
+import com.tu.berlin.thesis.operators.IntScanOperator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.tu.berlin.thesis.TinyChecks.check;
+
+public class IntRadixJoinTinyTest {
+
+    public static void main(String[] args) {
+        List<int[]> build = TinyChecks.randomRows(11, 3000, -1000, 5000);
+        List<int[]> probe = TinyChecks.randomProbe(12, 8000, -3000, 12000);
+        List<int[]> expected = TinyChecks.nestedLoopJoin(build, probe, 0, 1);
+
+        // -----------------------------
+        // Partitioning (incl. negative keys) never loses or duplicates a match
+        // -----------------------------
+        int[][] configs = {{0, 0}, {4, 1}, {3, 2}, {10, 2}};
+        for (int[] c : configs) {
+            IntRadixHashJoinOperator join = new IntRadixHashJoinOperator(new IntScanOperator(build),
+                    new IntScanOperator(probe), 0, 1, build.size(), c[0], c[1], null);
+            check("bits=" + c[0] + " passes=" + c[1] + " == nested loop",
+                    TinyChecks.sameRows(TinyChecks.drain(join), expected)
+                            && join.getPartitionCount() == 1 << (c[0] * c[1]));
+        }
+
+        // -----------------------------
+        // Prefilter drops probe rows before partitioning, result unchanged
+        // -----------------------------
+        IntRadixHashJoinOperator bloom = new IntRadixHashJoinOperator(new IntScanOperator(build),
+                new IntScanOperator(probe), 0, 1, build.size(), new IntBloomFilter(build.size(), 0.01));
+        check("bloom prefilter == nested loop", TinyChecks.sameRows(TinyChecks.drain(bloom), expected));
+        check("bloom prefilter counts every probe row",
+                bloom.getFilterPasses() + bloom.getFilterRejects() == probe.size() && bloom.getFilterRejects() > 0);
+
+        IntRadixHashJoinOperator ranges = new IntRadixHashJoinOperator(new IntScanOperator(build),
+                new IntScanOperator(probe), 0, 1, build.size(), new RangesProbeFilter(build.size(), 16, 8));
+        check("ranges prefilter == nested loop", TinyChecks.sameRows(TinyChecks.drain(ranges), expected));
+        check("ranges prefilter rejects keys outside the build domain", ranges.getFilterRejects() > 0);
+
+        // -----------------------------
+        // Re-open: the prefilter is fed once; a factory gives each open a new one
+        // -----------------------------
+        ProbeFilter[] filters = {new IntXorFilter(build.size(), 8), RangesProbeFilter.grouped(build.size(), 32)};
+        for (ProbeFilter f : filters) {
+            IntRadixHashJoinOperator join = new IntRadixHashJoinOperator(new IntScanOperator(build),
+                    new IntScanOperator(probe), 0, 1, build.size(), f);
+            List<int[]> first = TinyChecks.drain(join);
+            long bytes = f.approxBytesUsed();
+            check(f.name() + ": re-open == first run == nested loop", TinyChecks.sameRows(first, expected)
+                    && TinyChecks.sameSequence(first, TinyChecks.drain(join)) && f.approxBytesUsed() == bytes);
+        }
+
+        List<int[]> growing = new ArrayList<>(build);
+        IntRadixHashJoinOperator fresh = IntRadixHashJoinOperator.withFilterFactory(new IntScanOperator(growing),
+                new IntScanOperator(probe), 0, 1, build.size(), () -> new IntXorFilter(build.size(), 8));
+        boolean firstOk = TinyChecks.sameRows(TinyChecks.drain(fresh), expected);
+        growing.addAll(TinyChecks.randomRows(13, 500, -3000, 1000));
+        check("factory: changed build input, new filter, correct result", firstOk
+                && TinyChecks.sameRows(TinyChecks.drain(fresh), TinyChecks.nestedLoopJoin(growing, probe, 0, 1)));
+
+        // -----------------------------
+        // Default fanout
+        // -----------------------------
+        check("small build -> one partition", IntRadixHashJoinOperator.defaultTotalBits(1000) == 0);
+        check("4M keys -> 2 passes, <= 8K keys per partition",
+                IntRadixHashJoinOperator.defaultPasses(1 << 22) == 2
+                        && ((long) IntRadixHashJoinOperator.TARGET_PARTITION_KEYS
+                        << IntRadixHashJoinOperator.defaultTotalBits(1 << 22)) >= 1 << 22);
+
+        boolean rejected;
+        try {
+            new IntRadixHashJoinOperator(new IntScanOperator(build), new IntScanOperator(probe),
+                    0, 1, 10, 11, 2, null);
+            rejected = false;
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        check("more than 20 radix bits rejected", rejected);
+
+        TinyChecks.done("IntRadixJoinTinyTest");
+    }
+}
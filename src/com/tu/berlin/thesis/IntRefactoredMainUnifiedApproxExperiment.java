@@ -1,9 +1,16 @@
 package com.tu.berlin.thesis;
 
 import com.tu.berlin.thesis.data.IntCSVReader;
+import com.tu.berlin.thesis.filter.IntBloomFilter;
+import com.tu.berlin.thesis.filter.IntXorFilter;
+import com.tu.berlin.thesis.filter.ProbeFilter;
+import com.tu.berlin.thesis.filter.RangesProbeFilter;
 import com.tu.berlin.thesis.operators.*;
 
 import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -12,10 +19,143 @@ import java.util.Map;
 public class IntRefactoredMainUnifiedApproxExperiment {
 
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("filters")) {
+            System.out.println("=== EXP INT: Filter footprint, Bloom vs Xor vs Exact Ranges ===");
+            runExperiment_FilterFootprint("controlled_fixeddata");
+            return;
+        }
+        if (args.length > 0 && args[0].equals("persist")) {
+            System.out.println("=== EXP INT: Filter persistence, build vs memory-mapped load ===");
+            runExperiment_FilterPersistence("controlled_fixeddata");
+            return;
+        }
         System.out.println("=== EXP INT: Fixed Data, Variable Range Grouping ===");
         runExperiment_Int("controlled_fixeddata");
     }
 
+    /**
+     * Bytes per key, measured false-positive rate and probe time of the static
+     * filters on the same data (IntFilteredHashJoin, only the filter differs).
+     * Exact ranges have no false positives, so their passes are the true hits.
+     */
+    private static void runExperiment_FilterFootprint(String suffix) {
+        int buildSize = 3_000_000;
+        int probeSize = 10_000_000;
+        double selectivity = 0.05;
+        int[] bloomBitsPerKey = {8, 10, 16};
+        double[] bloomTargetFpr = {0.01, 0.001};
+        int[] xorFingerprintBits = {8, 16};
+
+        String prefix = "fixeddata_largegap_ob_B" + buildSize
+                + "_P" + probeSize
+                + "_S" + (int) (selectivity * 100);
+        String outName = "experiment_filter_footprint_" + suffix + ".csv";
+
+        try (PrintWriter w = new PrintWriter(outName)) {
+            w.println("filter,bytes,bytes_per_key,passes,rejects,fpr_measured,build_ms,probe_ms");
+
+            generateFixedDataIfMissing(buildSize, probeSize, selectivity, prefix);
+            List<int[]> dates = IntCSVReader.readCSV("data/" + prefix + "_dates_int.csv");
+            List<int[]> sales = IntCSVReader.readCSV("data/" + prefix + "_sales_int.csv");
+
+            FilterRunTimed exact = runFilteredBuildAndProbe(dates, sales, RangesProbeFilter.exact(dates.size()));
+            int keys = exact.distinctKeys;
+
+            List<FilterRunTimed> runs = new java.util.ArrayList<>();
+            runs.add(exact);
+            for (int bpk : bloomBitsPerKey) {
+                int k = Math.max(1, (int) Math.round(Math.log(2) * bpk));
+                runs.add(runFilteredBuildAndProbe(dates, sales, new IntBloomFilter(bpk * keys, k)));
+            }
+            for (double fpr : bloomTargetFpr) {
+                runs.add(runFilteredBuildAndProbe(dates, sales, new IntBloomFilter((long) keys, fpr)));
+            }
+            for (int bits : xorFingerprintBits) {
+                runs.add(runFilteredBuildAndProbe(dates, sales, new IntXorFilter(dates.size(), bits)));
+            }
+
+            for (FilterRunTimed r : runs) {
+                long misses = (long) r.passes + r.rejects - exact.passes;
+                double fpr = misses == 0 ? 0.0 : (double) (r.passes - exact.passes) / misses;
+                w.println(r.name + "," + r.bytes + "," + fmt3((double) r.bytes / keys) + ","
+                        + r.passes + "," + r.rejects + "," + fmt(fpr) + ","
+                        + fmt(r.buildMs) + "," + fmt(r.probeMs));
+            }
+
+            System.out.println("DONE -> " + outName);
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Filters built once, saved (FilterFile) and memory-mapped back: save / map time
+     * against the build time, and probe time of the mapped copy against the in-heap one.
+     * The mapped copy must pass exactly the same probe rows.
+     */
+    private static void runExperiment_FilterPersistence(String suffix) {
+        int buildSize = 3_000_000;
+        int probeSize = 10_000_000;
+        double selectivity = 0.05;
+        int approxTargetRanges = 64;
+
+        String prefix = "fixeddata_largegap_ob_B" + buildSize
+                + "_P" + probeSize
+                + "_S" + (int) (selectivity * 100);
+        String outName = "experiment_filter_persistence_" + suffix + ".csv";
+
+        try (PrintWriter w = new PrintWriter(outName)) {
+            w.println("filter,bytes,file_bytes,build_ms,save_ms,map_ms,probe_ms,probe_ms_mapped,passes,passes_mapped");
+
+            generateFixedDataIfMissing(buildSize, probeSize, selectivity, prefix);
+            List<int[]> dates = IntCSVReader.readCSV("data/" + prefix + "_dates_int.csv");
+            List<int[]> sales = IntCSVReader.readCSV("data/" + prefix + "_sales_int.csv");
+
+            ProbeFilter[] filters = {
+                    new IntBloomFilter((long) dates.size(), 0.01),
+                    RangesProbeFilter.exact(dates.size()),
+                    RangesProbeFilter.approximate(dates.size(), Integer.MAX_VALUE, approxTargetRanges)
+            };
+
+            for (ProbeFilter filter : filters) {
+                FilterRunTimed built = runFilteredBuildAndProbe(dates, sales, filter);
+                Path file = Paths.get("data", prefix + "_" + built.name + ".filter");
+
+                long s0 = System.nanoTime();
+                if (filter instanceof IntBloomFilter) {
+                    ((IntBloomFilter) filter).save(file);
+                } else {
+                    ((RangesProbeFilter) filter).save(file);
+                }
+                long s1 = System.nanoTime();
+                ProbeFilter mapped;
+                if (filter instanceof IntBloomFilter) {
+                    mapped = IntBloomFilter.map(file);
+                } else {
+                    mapped = RangesProbeFilter.map(file);
+                }
+                long s2 = System.nanoTime();
+
+                FilterRunTimed loaded = runFilteredBuildAndProbe(dates, sales, mapped, true);
+                if (loaded.passes != built.passes) {
+                    System.out.println("  WARNING: mapped " + built.name + " passes " + loaded.passes
+                            + " != " + built.passes);
+                }
+
+                w.println(built.name + "," + built.bytes + "," + Files.size(file) + ","
+                        + fmt(built.buildMs) + "," + fmt((s1 - s0) / 1_000_000.0) + ","
+                        + fmt((s2 - s1) / 1_000_000.0) + "," + fmt(built.probeMs) + ","
+                        + fmt(loaded.probeMs) + "," + built.passes + "," + loaded.passes);
+            }
+
+            System.out.println("DONE -> " + outName);
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
     private static void runExperiment_Int(String suffix) {
 
         //int[] buildSizes = {1_000_000};
@@ -153,7 +293,8 @@ public class IntRefactoredMainUnifiedApproxExperiment {
         IntHashJoinOperator join = new IntHashJoinOperator(
                 new IntScanOperator(dates),
                 new IntScanOperator(sales),
-                0, 1
+                0, 1,
+                dates.size()
         );
 
         long b0 = System.nanoTime();
@@ -178,7 +319,8 @@ public class IntRefactoredMainUnifiedApproxExperiment {
                 new IntScanOperator(sales),
                 0, 1,
                 mBits,
-                k
+                k,
+                dates.size()
         );
 
         long b0 = System.nanoTime();
@@ -200,6 +342,42 @@ public class IntRefactoredMainUnifiedApproxExperiment {
         );
     }
 
+    private static FilterRunTimed runFilteredBuildAndProbe(List<int[]> dates, List<int[]> sales, ProbeFilter filter) {
+        return runFilteredBuildAndProbe(dates, sales, filter, false);
+    }
+
+    private static FilterRunTimed runFilteredBuildAndProbe(List<int[]> dates, List<int[]> sales,
+                                                           ProbeFilter filter, boolean prebuilt) {
+        IntFilteredHashJoin join = new IntFilteredHashJoin(
+                new IntScanOperator(dates),
+                new IntScanOperator(sales),
+                0, 1,
+                dates.size(),
+                filter
+        );
+        join.setPrebuiltFilter(prebuilt);
+
+        long b0 = System.nanoTime();
+        join.open();
+        long b1 = System.nanoTime();
+
+        long p0 = System.nanoTime();
+        while (join.next() != null) { }
+        long p1 = System.nanoTime();
+
+        join.close();
+
+        return new FilterRunTimed(
+                join.getFilterName(),
+                (b1 - b0) / 1_000_000.0,
+                (p1 - p0) / 1_000_000.0,
+                join.getFilterPasses(),
+                join.getFilterRejects(),
+                join.getFilterBytes(),
+                join.getBuildDistinctKeys()
+        );
+    }
+
     private static RangeRunTimed runExactRangesBuildAndProbe(
             List<int[]> dates,
             List<int[]> sales,
@@ -579,6 +757,27 @@ public class IntRefactoredMainUnifiedApproxExperiment {
         }
     }
 
+    private static final class FilterRunTimed {
+        final String name;
+        final double buildMs;
+        final double probeMs;
+        final int passes;
+        final int rejects;
+        final long bytes;
+        final int distinctKeys;
+
+        FilterRunTimed(String name, double buildMs, double probeMs,
+                       int passes, int rejects, long bytes, int distinctKeys) {
+            this.name = name;
+            this.buildMs = buildMs;
+            this.probeMs = probeMs;
+            this.passes = passes;
+            this.rejects = rejects;
+            this.bytes = bytes;
+            this.distinctKeys = distinctKeys;
+        }
+    }
+
     private static final class ApproxStreamedRunTimed {
         final double buildMs;
         final double probeMs;
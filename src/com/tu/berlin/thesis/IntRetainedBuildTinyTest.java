@@ -0,0 +1,183 @@
+package com.tu.berlin.thesis;
+
+import com.tu.berlin.thesis.filter.IntCountingBloomFilter;
+import com.tu.berlin.thesis.hashtable.IntHashTable;
+import com.tu.berlin.thesis.operators.IntHashJoinWithBloomFilter;
+import com.tu.berlin.thesis.operators.IntRowPredicate;
+import com.tu.berlin.thesis.operators.IntScanOperator;
+import com.tu.berlin.thesis.operators.IntSelectionOperator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.tu.berlin.thesis.TinyChecks.check;
+
+public class IntRetainedBuildTinyTest {
+
+    public static void main(String[] args) {
+
+        // -----------------------------
+        // Retained build + pushed predicates: every query sees the whole build side
+        // -----------------------------
+        // build rows (i, i), probe rows (i, i): joined row = build columns 0..1, probe columns 2..3
+        List<int[]> build = new ArrayList<>();
+        List<int[]> probe = new ArrayList<>();
+        for (int i = 0; i < 10; i++) build.add(new int[]{i, i});
+        for (int i = 0; i < 12; i++) probe.add(new int[]{i, i});
+
+        IntHashJoinWithBloomFilter j = new IntHashJoinWithBloomFilter(
+                new IntScanOperator(build), new IntScanOperator(probe), 0, 1, 1024, 3);
+        j.setCountingBloom(true);
+        j.setRetainBuild(true);
+
+        IntSelectionOperator below5 = new IntSelectionOperator(j, IntRowPredicate.lt(1, 5));
+        check("lt(1, 5) -> keys 0..4", keys(TinyChecks.drain(below5)).equals(Arrays.asList(0, 1, 2, 3, 4))
+                && below5.getResidualPredicate() != IntRowPredicate.TRUE && below5.getPushedRejects() == 0);
+        check("then ge(1, 5) -> keys 5..9",
+                keys(TinyChecks.drain(new IntSelectionOperator(j, IntRowPredicate.ge(1, 5)))).equals(Arrays.asList(5, 6, 7, 8, 9)));
+        check("then no predicate -> all 10 rows", TinyChecks.drain(j).size() == 10);
+
+        // incremental updates between queries, then a predicate again
+        j.insertBuildRow(new int[]{10, 10});
+        check("insert -> 11 rows", TinyChecks.drain(j).size() == 11);
+        check("deleteBuildRow of an absent row -> false", !j.deleteBuildRow(new int[]{3, 4}));
+        boolean deleted = j.deleteBuildRow(new int[]{3, 3}) && j.deleteBuildKey(7) == 1;
+        check("deletes, then lt(1, 5) -> keys 0, 1, 2, 4", deleted
+                && keys(TinyChecks.drain(new IntSelectionOperator(j, IntRowPredicate.lt(1, 5)))).equals(Arrays.asList(0, 1, 2, 4)));
+
+        // a build filtered without retaining is not kept once retaining is switched on
+        IntHashJoinWithBloomFilter later = new IntHashJoinWithBloomFilter(
+                new IntScanOperator(build), new IntScanOperator(probe), 0, 1, 1024, 3);
+        IntSelectionOperator pushed = new IntSelectionOperator(later, IntRowPredicate.lt(1, 5));
+        check("not retained: predicate pushed below the join", TinyChecks.drain(pushed).size() == 5
+                && pushed.getPushedRejects() == 5 && pushed.getResidualPredicate() == IntRowPredicate.TRUE);
+        later.setRetainBuild(true);
+        check("retain switched on afterwards -> rebuilt, 10 rows", TinyChecks.drain(later).size() == 10);
+
+        boolean needsRetain;
+        try {
+            new IntHashJoinWithBloomFilter(new IntScanOperator(build), new IntScanOperator(probe), 0, 1, 1024, 3)
+                    .insertBuildRow(new int[]{1, 1});
+            needsRetain = false;
+        } catch (IllegalStateException e) {
+            needsRetain = true;
+        }
+        check("updates without a retained build rejected", needsRetain);
+
+        // plain re-opens start from an empty filter: a later delete really clears the key
+        IntHashJoinWithBloomFilter reopened = new IntHashJoinWithBloomFilter(
+                new IntScanOperator(build), new IntScanOperator(probe), 0, 1, 1024, 3);
+        reopened.setCountingBloom(true);
+        TinyChecks.drain(reopened);
+        TinyChecks.drain(reopened);
+        reopened.setRetainBuild(true);
+        TinyChecks.drain(reopened);
+        int rejectsBefore = reopened.getBloomRejects();
+        boolean gone = reopened.deleteBuildKey(5) == 1;
+        check("open / close twice, retain, delete key 5 -> Bloom rejects it",
+                gone && TinyChecks.drain(reopened).size() == 9 && reopened.getBloomRejects() - rejectsBefore == 3);
+
+        // -----------------------------
+        // Backward-shift delete: random inserts / removes at high load against a HashMap
+        // -----------------------------
+        Random rnd = new Random(240);
+        IntHashTable table = new IntHashTable(16);
+        Map<Integer, List<int[]>> reference = new HashMap<>();
+        boolean consistent = true;
+        int live = 0;
+        int maxLive = 0;
+        for (int round = 0; round < 40; round++) {
+            for (int op = 0; op < 500; op++) {
+                int key = rnd.nextInt(300) * 1024; // same low bits: long probe runs
+                int choice = rnd.nextInt(4);
+                if (choice < 2) {
+                    int[] row = {key, rnd.nextInt(3)};
+                    table.put(key, row);
+                    reference.computeIfAbsent(key, k -> new ArrayList<>()).add(row);
+                    maxLive = Math.max(maxLive, ++live);
+                } else if (choice == 2) {
+                    List<int[]> rows = reference.remove(key);
+                    int removed = table.removeKey(key);
+                    consistent &= removed == (rows == null ? 0 : rows.size());
+                    live -= removed;
+                } else {
+                    int[] row = {key, rnd.nextInt(3)};
+                    List<int[]> rows = reference.get(key);
+                    int at = -1;
+                    for (int r = 0; rows != null && r < rows.size(); r++) {
+                        if (Arrays.equals(rows.get(r), row)) { at = r; break; }
+                    }
+                    consistent &= table.removeRow(key, row) == (at >= 0);
+                    if (at >= 0) {
+                        rows.remove(at);
+                        if (rows.isEmpty()) reference.remove(key);
+                        live--;
+                    }
+                }
+            }
+            consistent &= table.distinctKeys() == reference.size() && table.liveSize() == live;
+            for (int k = 0; k < 300; k++) {
+                int key = k * 1024;
+                int slot = table.findSlot(key);
+                List<int[]> rows = reference.get(key);
+                if (rows == null) {
+                    consistent &= slot == IntHashTable.NO_SLOT;
+                    continue;
+                }
+                consistent &= slot != IntHashTable.NO_SLOT && table.matchCount(slot) == rows.size();
+                int idx = 0;
+                for (int e = table.firstEntry(slot); e != IntHashTable.NO_ENTRY; e = table.nextEntry(e)) {
+                    consistent &= table.row(e) == rows.get(idx++);
+                }
+            }
+        }
+        check("removeKey / removeRow keep every key reachable, chains in order", consistent);
+        check("removed entry ids are reused: ids never exceed the peak row count", table.size() == maxLive);
+
+        IntHashTable churn = new IntHashTable(16);
+        for (int i = 0; i < 100; i++) churn.put(i, new int[]{i});
+        long bytes = churn.approxBytesUsed();
+        for (int i = 100; i < 1_000_000; i++) {
+            churn.removeKey(i - 100);
+            churn.put(i, new int[]{i});
+        }
+        check("1M insert / delete pairs at 100 live rows: no growth", churn.approxBytesUsed() == bytes
+                && churn.size() == 100 && churn.liveSize() == 100 && churn.row(churn.firstEntry(churn.findSlot(999_999)))[0] == 999_999);
+
+        // -----------------------------
+        // Counting Bloom: remove clears, saturated counters stick
+        // -----------------------------
+        IntCountingBloomFilter counting = new IntCountingBloomFilter(1 << 12, 4);
+        for (int i = 0; i < 3; i++) counting.add(77);
+        boolean removes = counting.remove(77) && counting.remove(77) && counting.mightContain(77)
+                && counting.remove(77) && !counting.mightContain(77) && !counting.remove(77);
+        check("3 adds, 3 removes -> gone; a 4th remove -> false", removes && counting.getSaturatedCounters() == 0);
+
+        for (int i = 0; i < 20; i++) counting.add(99);
+        boolean sticky = counting.getSaturatedCounters() == 4;
+        for (int i = 0; i < 20; i++) sticky &= counting.remove(99);
+        check("15+ adds saturate; removes never clear a saturated counter", sticky && counting.mightContain(99));
+
+        IntCountingBloomFilter a = new IntCountingBloomFilter(1 << 12, 4);
+        IntCountingBloomFilter b = a.emptyCopy();
+        for (int i = 0; i < 10; i++) {
+            a.add(5);
+            b.add(5);
+        }
+        a.merge(b);
+        check("merge saturates at COUNTER_MAX", a.getSaturatedCounters() == 4 && a.mightContain(5));
+
+        TinyChecks.done("IntRetainedBuildTinyTest");
+    }
+
+    private static List<Integer> keys(List<int[]> rows) {
+        List<Integer> keys = new ArrayList<>();
+        for (int[] r : rows) keys.add(r[0]);
+        keys.sort(null);
+        return keys;
+    }
+}
@@ -0,0 +1,64 @@
+package com.tu.berlin.thesis;
+
+import com.tu.berlin.thesis.operators.IntAntiJoinOperator;
+import com.tu.berlin.thesis.operators.IntScanOperator;
+import com.tu.berlin.thesis.operators.IntSemiJoinOperator;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.tu.berlin.thesis.TinyChecks.check;
+
+public class IntSemiAntiJoinTinyTest {
+
+    public static void main(String[] args) {
+        // dense build keys (few ranges) and sparse ones (many ranges)
+        List<int[]> dense = TinyChecks.randomRows(71, 5000, 0, 1000);
+        List<int[]> sparse = TinyChecks.randomRows(72, 3000, 0, 1_000_000);
+        List<int[]> probe = TinyChecks.randomProbe(73, 8000, -200, 1400);
+        List<int[]> sparseProbe = TinyChecks.randomProbe(74, 8000, 0, 1_000_000);
+        for (int i = 0; i < 1000; i++) sparseProbe.add(new int[]{-i, sparse.get(i)[0], 0}); // some hits
+
+        for (int mode = 0; mode < 2; mode++) {
+            List<int[]> build = mode == 0 ? dense : sparse;
+            List<int[]> p = mode == 0 ? probe : sparseProbe;
+            String how = mode == 0 ? "dense" : "sparse";
+
+            Set<Integer> keys = new HashSet<>();
+            for (int[] b : build) keys.add(b[0]);
+            List<int[]> matching = new ArrayList<>();
+            List<int[]> missing = new ArrayList<>();
+            for (int[] r : p) (keys.contains(r[1]) ? matching : missing).add(r);
+
+            // -----------------------------
+            // Each probe row at most once, in probe order, unchanged
+            // -----------------------------
+            IntSemiJoinOperator semi = new IntSemiJoinOperator(
+                    new IntScanOperator(build), new IntScanOperator(p), 0, 1, build.size(), 64);
+            check(how + ": semi-join == probe rows with a match, in order",
+                    TinyChecks.sameSequence(TinyChecks.drain(semi), matching));
+            IntAntiJoinOperator anti = new IntAntiJoinOperator(
+                    new IntScanOperator(build), new IntScanOperator(p), 0, 1, build.size(), 64);
+            check(how + ": anti-join == probe rows without a match, in order",
+                    TinyChecks.sameSequence(TinyChecks.drain(anti), missing));
+            check(how + ": batch mode == row mode", TinyChecks.sameRows(TinyChecks.drainBatches(
+                    new IntSemiJoinOperator(new IntScanOperator(build), new IntScanOperator(p), 0, 1,
+                            build.size(), 64)), matching));
+
+            // -----------------------------
+            // Dense keys: ranges alone, no hash lookups; sparse: hash set
+            // -----------------------------
+            if (mode == 0) {
+                check("dense: range-only, zero hash lookups", semi.isRangeOnly() && semi.getHashLookups() == 0
+                        && semi.getRangeLookups() == p.size());
+            } else {
+                check("sparse: falls back to the key set", !semi.isRangeOnly() && semi.getHashLookups() > 0
+                        && semi.getRangeCount() > 64);
+            }
+        }
+
+        TinyChecks.done("IntSemiAntiJoinTinyTest");
+    }
+}
@@ -0,0 +1,70 @@
+package com.tu.berlin.thesis;
+
+import com.tu.berlin.thesis.operators.IntScanOperator;
+import com.tu.berlin.thesis.operators.IntSortMergeJoinOperator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.tu.berlin.thesis.TinyChecks.check;
+
+public class IntSortMergeTinyTest {
+
+    public static void main(String[] args) {
+        // clustered build keys (gaps between clusters), probe keys spread wider
+        List<int[]> build = new ArrayList<>();
+        for (int[] r : TinyChecks.randomRows(61, 4000, 0, 300)) {
+            build.add(new int[]{(r[0] / 30) * 1000 + r[0] % 30, r[1], r[2]});
+        }
+        List<int[]> probe = TinyChecks.randomProbe(62, 6000, -500, 11000);
+        List<int[]> expected = TinyChecks.nestedLoopJoin(build, probe, 0, 1);
+
+        // -----------------------------
+        // Unsorted inputs: sorted internally, output in key order
+        // -----------------------------
+        IntSortMergeJoinOperator join = new IntSortMergeJoinOperator(
+                new IntScanOperator(build), new IntScanOperator(probe), 0, 1);
+        List<int[]> out = TinyChecks.drain(join);
+        check("sort-merge == nested loop", TinyChecks.sameRows(out, expected));
+
+        boolean keyOrder = true;
+        for (int i = 1; i < out.size(); i++) keyOrder &= out.get(i - 1)[0] <= out.get(i)[0];
+        check("output in join key order", keyOrder);
+        check("gaps between clusters skipped", join.getGapSkips() > 0
+                && join.getActualMatches() == expected.size());
+        check("10 exact ranges", join.getRangeCount() == 10);
+
+        // -----------------------------
+        // Inputs declared sorted: only verified
+        // -----------------------------
+        List<int[]> sortedBuild = new ArrayList<>(build);
+        sortedBuild.sort(Comparator.comparingInt(r -> r[0]));
+        List<int[]> sortedProbe = new ArrayList<>(probe);
+        sortedProbe.sort(Comparator.comparingInt(r -> r[1]));
+        List<int[]> presorted = TinyChecks.drain(new IntSortMergeJoinOperator(new IntScanOperator(sortedBuild),
+                new IntScanOperator(sortedProbe), 0, 1, build.size(), true, true));
+        check("declared-sorted inputs == nested loop", TinyChecks.sameRows(presorted, expected));
+
+        boolean rejected;
+        try {
+            TinyChecks.drain(new IntSortMergeJoinOperator(new IntScanOperator(build),
+                    new IntScanOperator(sortedProbe), 0, 1, build.size(), true, true));
+            rejected = false;
+        } catch (IllegalStateException e) {
+            rejected = true;
+        }
+        check("unsorted input declared sorted is rejected", rejected);
+
+        // -----------------------------
+        // Edge cases: empty build, no overlap
+        // -----------------------------
+        check("empty build -> no rows", TinyChecks.drain(new IntSortMergeJoinOperator(
+                new IntScanOperator(new ArrayList<>()), new IntScanOperator(probe), 0, 1)).isEmpty());
+        List<int[]> far = TinyChecks.randomProbe(63, 500, 20000, 100);
+        check("disjoint key domains -> no rows", TinyChecks.drain(new IntSortMergeJoinOperator(
+                new IntScanOperator(build), new IntScanOperator(far), 0, 1)).isEmpty());
+
+        TinyChecks.done("IntSortMergeTinyTest");
+    }
+}
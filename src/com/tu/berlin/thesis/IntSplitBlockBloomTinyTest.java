@@ -0,0 +1,91 @@
+package com.tu.berlin.thesis;
+
+import com.tu.berlin.thesis.filter.IntSplitBlockBloomFilter;
+
+import java.util.Random;
+
+import static com.tu.berlin.thesis.TinyChecks.check;
+
+/**
+ * Runs with or without the src-vector kernel on the class path; with it, also
+ * pass --add-modules jdk.incubator.vector to compare both kernels.
+ */
+public class IntSplitBlockBloomTinyTest {
+
+    public static void main(String[] args) {
+        Random rnd = new Random(200);
+        int n = 50_000;
+        long bits = 12L * n;
+
+        IntSplitBlockBloomFilter auto = new IntSplitBlockBloomFilter(bits);
+        IntSplitBlockBloomFilter scalar = new IntSplitBlockBloomFilter(bits, false);
+        System.out.println("  vector kernel loaded: " + auto.isVectorized());
+        check("allowVector = false -> scalar kernel", !scalar.isVectorized());
+        check("power-of-two block count", Integer.bitCount(auto.getBlockCount()) == 1
+                && auto.getSizeBits() >= bits && auto.getSizeBits() < 2 * bits);
+
+        // -----------------------------
+        // No false negatives; both kernels set the same bits
+        // -----------------------------
+        int[] keys = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = rnd.nextInt() & ~1; // even keys only: odd probes are certain misses
+            auto.add(keys[i]);
+            scalar.add(keys[i]);
+        }
+        boolean noFalseNegatives = true;
+        for (int key : keys) noFalseNegatives &= auto.mightContain(key) && scalar.mightContain(key);
+        check("no false negatives", noFalseNegatives);
+
+        int probes = 400_000;
+        int[] probeKeys = new int[probes];
+        boolean kernelsAgree = true;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            probeKeys[i] = rnd.nextInt() | 1;
+            boolean hit = scalar.mightContain(probeKeys[i]);
+            kernelsAgree &= hit == auto.mightContain(probeKeys[i]);
+            if (hit) falsePositives++;
+        }
+        check("vector kernel == scalar kernel", kernelsAgree);
+        double measured = falsePositives / (double) probes;
+        double estimated = scalar.estimateFalsePositiveRate(n);
+        System.out.println("  split-block FPR measured=" + measured + " estimated=" + estimated);
+        check("measured FPR within 25% of the estimate", Math.abs(measured - estimated) < 0.25 * estimated);
+
+        // -----------------------------
+        // Batch forms == mightContain per key
+        // -----------------------------
+        int batch = 1024;
+        int[] mixed = new int[batch];
+        for (int i = 0; i < batch; i++) mixed[i] = i % 2 == 0 ? keys[i] : probeKeys[i];
+        int[] selection = new int[batch];
+        int selected = auto.mightContainAll(mixed, batch, selection);
+        int[] sel = new int[batch / 2];
+        for (int i = 0; i < sel.length; i++) sel[i] = 2 * i + 1; // odd rows: probe keys
+        int kept = auto.filterSelection(mixed, sel, sel.length);
+        boolean batchSame = true;
+        int expectSelected = 0;
+        int expectKept = 0;
+        for (int i = 0; i < batch; i++) {
+            if (!auto.mightContain(mixed[i])) continue;
+            batchSame &= selection[expectSelected++] == i;
+            if (i % 2 == 1) batchSame &= sel[expectKept++] == i;
+        }
+        check("mightContainAll / filterSelection == per-key tests",
+                batchSame && selected == expectSelected && kept == expectKept);
+
+        // -----------------------------
+        // merge(per-worker filters) == one filter over all keys
+        // -----------------------------
+        IntSplitBlockBloomFilter a = new IntSplitBlockBloomFilter(bits);
+        IntSplitBlockBloomFilter b = new IntSplitBlockBloomFilter(bits, false);
+        for (int i = 0; i < n; i++) (i % 2 == 0 ? a : b).add(keys[i]);
+        a.merge(b);
+        boolean mergedSame = true;
+        for (int key : probeKeys) mergedSame &= a.mightContain(key) == scalar.mightContain(key);
+        check("merge == single filter", mergedSame);
+
+        TinyChecks.done("IntSplitBlockBloomTinyTest");
+    }
+}
@@ -0,0 +1,117 @@
+package com.tu.berlin.thesis;
+
+import com.tu.berlin.thesis.filter.IntBloomFilter;
+import com.tu.berlin.thesis.filter.IntXorFilter;
+import com.tu.berlin.thesis.filter.RangesProbeFilter;
+import com.tu.berlin.thesis.operators.IntScanOperator;
+import com.tu.berlin.thesis.operators.IntStarJoinOperator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static com.tu.berlin.thesis.TinyChecks.check;
+
+public class IntStarJoinTinyTest {
+
+    public static void main(String[] args) {
+        // dimension keys: d0 covers almost the fact domain, d1 half of it, d2 a small slice
+        List<int[]> d0 = TinyChecks.randomRows(81, 900, 0, 1000);
+        List<int[]> d1 = TinyChecks.randomRows(82, 600, 0, 500);
+        List<int[]> d2 = TinyChecks.randomRows(83, 100, 0, 60); // duplicates -> combinations
+        List<int[]> fact = new ArrayList<>();
+        Random r = new Random(84);
+        for (int i = 0; i < 20000; i++) {
+            fact.add(new int[]{i, r.nextInt(1000), r.nextInt(1000), r.nextInt(1000)});
+        }
+        List<List<int[]>> dims = Arrays.asList(d0, d1, d2);
+        List<int[]> expected = starJoin(fact, dims);
+
+        // -----------------------------
+        // Output == nested loops over every dimension, with and without filters
+        // -----------------------------
+        IntStarJoinOperator plain = star(fact, dims, false);
+        check("no filters == nested loops", TinyChecks.sameRows(TinyChecks.drain(plain), expected));
+
+        IntStarJoinOperator filtered = star(fact, dims, true);
+        List<int[]> out = TinyChecks.drain(filtered);
+        check("filters == nested loops", TinyChecks.sameRows(out, expected));
+        check("row layout: dimensions in declaration order, then the fact row",
+                out.stream().allMatch(row -> row[0] == row[10] && row[3] == row[11] && row[6] == row[12]));
+
+        // -----------------------------
+        // Adaptive order: the most selective filter (d2) ends up first
+        // -----------------------------
+        check("filter order adapted, d2 first", filtered.getReorderCount() > 0 && filtered.getFilterOrder()[0] == 2);
+        check("filter rejects save hash lookups", filtered.getHashLookups() < plain.getHashLookups()
+                && filtered.getFilterRejects() > 0);
+        check("d0 tested less than every fact row", filtered.getFilterTests(0) < fact.size());
+
+        // -----------------------------
+        // Re-open: filters are fed once; a factory dimension gets a new filter per open
+        // -----------------------------
+        check("re-open with fed filters == nested loops", TinyChecks.sameRows(TinyChecks.drain(filtered), expected));
+
+        List<int[]> growing = new ArrayList<>(d2);
+        List<IntStarJoinOperator.Dimension> xorDims = new ArrayList<>();
+        xorDims.add(new IntStarJoinOperator.Dimension(new IntScanOperator(d0), 0, 1, d0.size(),
+                new IntXorFilter(d0.size(), 8)));
+        xorDims.add(IntStarJoinOperator.Dimension.withFilterFactory(new IntScanOperator(growing), 0, 3, 200,
+                () -> new IntXorFilter(200, 8)));
+        IntStarJoinOperator xor = new IntStarJoinOperator(new IntScanOperator(fact), xorDims);
+        boolean firstOk = TinyChecks.sameRows(TinyChecks.drain(xor), starJoin(fact, Arrays.asList(d0, null, growing)));
+        growing.addAll(TinyChecks.randomRows(85, 100, 60, 100));
+        check("xor filters: re-open after the factory dimension changed == nested loops", firstOk
+                && TinyChecks.sameRows(TinyChecks.drain(xor), starJoin(fact, Arrays.asList(d0, null, growing))));
+
+        boolean rejected;
+        try {
+            new IntStarJoinOperator(new IntScanOperator(fact), new ArrayList<>());
+            rejected = false;
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        check("no dimensions rejected", rejected);
+
+        TinyChecks.done("IntStarJoinTinyTest");
+    }
+
+    // dimension i joins fact column i + 1
+    private static IntStarJoinOperator star(List<int[]> fact, List<List<int[]>> dims, boolean filters) {
+        List<IntStarJoinOperator.Dimension> list = new ArrayList<>();
+        for (int i = 0; i < dims.size(); i++) {
+            List<int[]> d = dims.get(i);
+            list.add(new IntStarJoinOperator.Dimension(new IntScanOperator(d), 0, i + 1, d.size(),
+                    !filters ? null : i == 1 ? new IntBloomFilter(d.size(), 0.01) : RangesProbeFilter.exact(d.size())));
+        }
+        return new IntStarJoinOperator(new IntScanOperator(fact), list);
+    }
+
+    private static List<int[]> starJoin(List<int[]> fact, List<List<int[]>> dims) {
+        List<int[]> out = new ArrayList<>();
+        for (int[] f : fact) {
+            List<int[]> prefixes = new ArrayList<>();
+            prefixes.add(new int[0]);
+            for (int i = 0; i < dims.size(); i++) {
+                if (dims.get(i) == null) continue; // fact column i + 1 not joined
+                List<int[]> next = new ArrayList<>();
+                for (int[] p : prefixes) {
+                    for (int[] d : dims.get(i)) {
+                        if (d[0] != f[i + 1]) continue;
+                        int[] c = Arrays.copyOf(p, p.length + d.length);
+                        System.arraycopy(d, 0, c, p.length, d.length);
+                        next.add(c);
+                    }
+                }
+                prefixes = next;
+            }
+            for (int[] p : prefixes) {
+                int[] c = Arrays.copyOf(p, p.length + f.length);
+                System.arraycopy(f, 0, c, p.length, f.length);
+                out.add(c);
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,101 @@
+package com.tu.berlin.thesis;
+
+import com.tu.berlin.thesis.filter.IntXorFilter;
+import com.tu.berlin.thesis.operators.IntFilteredHashJoin;
+import com.tu.berlin.thesis.operators.IntScanOperator;
+
+import java.util.List;
+import java.util.Random;
+
+import static com.tu.berlin.thesis.TinyChecks.check;
+
+public class IntXorFilterTinyTest {
+
+    public static void main(String[] args) {
+        Random rnd = new Random(210);
+
+        // -----------------------------
+        // Peeling succeeds for tiny, sequential, negative and random key sets; no false negatives
+        // -----------------------------
+        boolean peeled = true;
+        for (int n : new int[]{1, 2, 3, 10, 1000, 200_000}) {
+            for (int shape = 0; shape < 3; shape++) {
+                int[] keys = new int[n];
+                for (int i = 0; i < n; i++) {
+                    keys[i] = shape == 0 ? i : shape == 1 ? -3 * i : rnd.nextInt();
+                }
+                for (int bits : new int[]{8, 16}) {
+                    IntXorFilter xor = new IntXorFilter(n, bits);
+                    for (int key : keys) xor.add(key);
+                    xor.build();
+                    for (int key : keys) peeled &= xor.mightContain(key);
+                }
+            }
+        }
+        check("peels and has no false negatives (1 .. 200k keys, 3 shapes, 8 / 16 bits)", peeled);
+
+        IntXorFilter empty = new IntXorFilter(0, 8);
+        empty.build();
+        check("empty filter builds", empty.getDistinctKeys() == 0 && empty.approxBytesUsed() > 0);
+
+        // -----------------------------
+        // Duplicates are removed before peeling (a repeated key would never peel)
+        // -----------------------------
+        IntXorFilter dups = new IntXorFilter(16, 8);
+        for (int i = 0; i < 30_000; i++) dups.add(i % 1000);
+        dups.build();
+        boolean dupsOk = dups.getDistinctKeys() == 1000;
+        for (int k = 0; k < 1000; k++) dupsOk &= dups.mightContain(k);
+        check("30k adds of 1000 keys -> 1000 distinct, all found", dupsOk);
+
+        // -----------------------------
+        // FPR ~ 2^-bits, ~1.23 * bits per key, immutable after build
+        // -----------------------------
+        int n = 100_000;
+        IntXorFilter x8 = new IntXorFilter(n, 8);
+        IntXorFilter x16 = new IntXorFilter(n, 16);
+        for (int i = 0; i < n; i++) {
+            int key = rnd.nextInt() & ~1; // even keys only: odd probes are certain misses
+            x8.add(key);
+            x16.add(key);
+        }
+        x8.build();
+        x16.build();
+        int probes = 2_000_000;
+        int fp8 = 0;
+        int fp16 = 0;
+        for (int i = 0; i < probes; i++) {
+            int key = rnd.nextInt() | 1;
+            if (x8.mightContain(key)) fp8++;
+            if (x16.mightContain(key)) fp16++;
+        }
+        double r8 = fp8 / (double) probes;
+        double r16 = fp16 / (double) probes;
+        System.out.println("  xor FPR measured 8-bit=" + r8 + " 16-bit=" + r16);
+        check("8-bit FPR within 10% of 2^-8", Math.abs(r8 - x8.estimateFalsePositiveRate()) < 0.1 / 256);
+        check("16-bit FPR below 2 * 2^-16", r16 < 2.0 / 65536);
+        check("about 1.23 * bits per key", Math.abs(x8.getBitsPerKey() - 1.23 * 8) < 0.2
+                && Math.abs(x16.getBitsPerKey() - 1.23 * 16) < 0.4);
+
+        boolean immutable;
+        try {
+            x8.add(1);
+            immutable = false;
+        } catch (IllegalStateException e) {
+            immutable = true;
+        }
+        check("add after build() rejected", immutable);
+
+        // -----------------------------
+        // As a join prefilter
+        // -----------------------------
+        List<int[]> build = TinyChecks.randomRows(211, 3000, 0, 6000);
+        List<int[]> probe = TinyChecks.randomProbe(212, 10000, -2000, 10000);
+        IntFilteredHashJoin join = new IntFilteredHashJoin(new IntScanOperator(build), new IntScanOperator(probe),
+                0, 1, build.size(), new IntXorFilter(build.size(), 8));
+        check("xor-filtered join == nested loop",
+                TinyChecks.sameRows(TinyChecks.drain(join), TinyChecks.nestedLoopJoin(build, probe, 0, 1)));
+
+        TinyChecks.done("IntXorFilterTinyTest");
+    }
+}
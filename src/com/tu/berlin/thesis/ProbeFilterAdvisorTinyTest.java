@@ -0,0 +1,164 @@
+package com.tu.berlin.thesis;
+
+import com.tu.berlin.thesis.filter.ProbeFilter;
+import com.tu.berlin.thesis.filter.ProbeFilterAdvisor;
+import com.tu.berlin.thesis.rangetree.LongRangeApproximator;
+import com.tu.berlin.thesis.rangetree.LongRangeExtractor;
+import com.tu.berlin.thesis.rangetree.RangeApproximator;
+import com.tu.berlin.thesis.rangetree.RangeExtractor;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+
+import static com.tu.berlin.thesis.TinyChecks.check;
+
+public class ProbeFilterAdvisorTinyTest {
+
+    public static void main(String[] args) {
+        Random rnd = new Random(160);
+
+        // -----------------------------
+        // Sort-based approximator == the greedy smallest-gap merge (ties included)
+        // -----------------------------
+        boolean sameAsGreedy = true;
+        boolean longSameAsGreedy = true;
+        for (int round = 0; round < 200; round++) {
+            RangeExtractor.Ranges exact = randomRanges(rnd, 1 + rnd.nextInt(60));
+            int target = 1 + rnd.nextInt(exact.count + 2);
+            RangeExtractor.Ranges fast = RangeApproximator.approximate(exact, target);
+            RangeExtractor.Ranges slow = greedy(exact, target);
+            sameAsGreedy &= fast.count == slow.count
+                    && Arrays.equals(Arrays.copyOf(fast.starts, fast.count), Arrays.copyOf(slow.starts, slow.count))
+                    && Arrays.equals(Arrays.copyOf(fast.ends, fast.count), Arrays.copyOf(slow.ends, slow.count));
+
+            long[] ls = new long[exact.count];
+            long[] le = new long[exact.count];
+            for (int i = 0; i < exact.count; i++) {
+                ls[i] = (long) exact.starts[i] << 20;
+                le[i] = ((long) exact.ends[i] << 20) + 7;
+            }
+            LongRangeExtractor.Ranges lf = LongRangeApproximator.approximate(
+                    new LongRangeExtractor.Ranges(ls, le, exact.count), target);
+            boolean same = lf.count == slow.count;
+            for (int i = 0; same && i < lf.count; i++) {
+                same = lf.starts[i] == (long) slow.starts[i] << 20 && lf.ends[i] == ((long) slow.ends[i] << 20) + 7;
+            }
+            longSameAsGreedy &= same;
+        }
+        check("RangeApproximator == greedy merge", sameAsGreedy);
+        check("LongRangeApproximator == greedy merge", longSameAsGreedy);
+
+        // gap widths beyond Integer.MAX_VALUE do not overflow
+        RangeExtractor.Ranges wide = new RangeExtractor.Ranges(
+                new int[]{Integer.MIN_VALUE, -5, Integer.MAX_VALUE - 1}, new int[]{Integer.MIN_VALUE, 5, Integer.MAX_VALUE}, 3);
+        RangeExtractor.Ranges merged = RangeApproximator.approximate(wide, 2);
+        check("widest gap kept without overflow", merged.count == 2
+                && merged.ends[0] == Integer.MIN_VALUE && merged.starts[1] == -5);
+
+        // 200k ranges down to 100 (the quadratic merge took ~10^10 steps here)
+        int big = 200_000;
+        int[] bs = new int[big];
+        int[] be = new int[big];
+        for (int i = 0; i < big; i++) {
+            bs[i] = i * 10;
+            be[i] = i * 10 + 1 + (i % 3);
+        }
+        RangeExtractor.Ranges bigApprox = RangeApproximator.approximate(new RangeExtractor.Ranges(bs, be, big), 100);
+        check("200k ranges -> 100", bigApprox.count == 100 && bigApprox.starts[0] == 0
+                && bigApprox.ends[99] == be[big - 1]);
+
+        // -----------------------------
+        // Advisor: grouped candidates, predictions match the sample, build cost matters
+        // -----------------------------
+        // 64 dense clusters of 100 keys, 1000 apart; probes uniform over the whole span
+        int buildKeys = 64 * 100;
+        int[] keys = new int[buildKeys];
+        for (int i = 0; i < buildKeys; i++) keys[i] = (i / 100) * 1000 + i % 100;
+        int sampleCount = 4000;
+        int[] sample = new int[sampleCount];
+        for (int s = 0; s < sampleCount; s++) sample[s] = rnd.nextInt(64 * 1000);
+
+        ProbeFilterAdvisor many = new ProbeFilterAdvisor(keys, buildKeys, sample, sampleCount, 1 << 20, 100_000_000L);
+        boolean hasGrouped = false;
+        boolean predictionsExact = true;
+        for (ProbeFilterAdvisor.Choice c : many.getCandidates()) {
+            if (c.description.startsWith("grouped_ranges")) hasGrouped = true;
+            // range filters have no hash false positives: the predicted pass rate is the sample's
+            if (c.hasFilter() && c.description.contains("ranges")) {
+                ProbeFilter f = c.newFilter();
+                for (int k : keys) f.add(k);
+                f.build();
+                int passes = 0;
+                for (int key : sample) if (f.mightContain(key)) passes++;
+                predictionsExact &= Math.abs(passes / (double) sampleCount - c.predictedPassRate) < 1e-9;
+            }
+        }
+        check("grouped_ranges candidates offered", hasGrouped);
+        check("range pass rates predicted exactly on the sample", predictionsExact);
+        check("large probe side: a filter rejecting ~90% wins",
+                many.getBest().hasFilter() && many.getBest().predictedPassRate < 0.2);
+
+        ProbeFilterAdvisor few = new ProbeFilterAdvisor(keys, buildKeys, sample, 10, 1 << 20, 10);
+        check("10 probe rows: building a filter does not pay off", !few.getBest().hasFilter() && few.getBest().newFilter() == null);
+        boolean costSplit = true;
+        for (ProbeFilterAdvisor.Choice c : few.getCandidates()) {
+            costSplit &= Math.abs(c.predictedCostNs - (c.predictedProbeNs + c.predictedBuildNs / 10)) < 1e-6
+                    && !c.hasFilter() == (c.predictedBuildNs == 0);
+        }
+        check("cost = probe + build / probe rows, only filters pay a build", costSplit);
+
+        // -----------------------------
+        // Advisor: candidates are priced, not built; only the picked one is allocated
+        // -----------------------------
+        // 1M build keys: every range / xor candidate would buffer 4 bytes per key on its own
+        int hugeKeys = 1 << 20;
+        int[] huge = new int[hugeKeys];
+        for (int i = 0; i < hugeKeys; i++) huge[i] = (i / 100) * 1000 + i % 100;
+        com.sun.management.ThreadMXBean mx =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+        long before = mx.getThreadAllocatedBytes(tid);
+        ProbeFilterAdvisor lazy = new ProbeFilterAdvisor(huge, hugeKeys, sample, sampleCount, 1 << 24, 100_000_000L);
+        long allocated = mx.getThreadAllocatedBytes(tid) - before;
+        // the exact ranges of the build keys take 8 bytes per key; all candidates built would be > 100
+        check("losing candidates are never built (" + lazy.getCandidates().size() + " candidates, "
+                + allocated / hugeKeys + " bytes/key)", lazy.getCandidates().size() > 20 && allocated < 16L * hugeKeys);
+
+        ProbeFilter first = lazy.getBest().newFilter();
+        ProbeFilter second = lazy.getBest().newFilter();
+        check("newFilter() gives a fresh filter per call", first != null && second != null && first != second);
+
+        TinyChecks.done("ProbeFilterAdvisorTinyTest");
+    }
+
+    private static RangeExtractor.Ranges randomRanges(Random rnd, int n) {
+        int[] starts = new int[n];
+        int[] ends = new int[n];
+        int at = rnd.nextInt(100) - 50;
+        for (int i = 0; i < n; i++) {
+            starts[i] = at;
+            ends[i] = at + rnd.nextInt(4);
+            at = ends[i] + 2 + rnd.nextInt(6); // narrow gap widths: many ties
+        }
+        return new RangeExtractor.Ranges(starts, ends, n);
+    }
+
+    // the original O(n * (n - T)) merge
+    private static RangeExtractor.Ranges greedy(RangeExtractor.Ranges exact, int target) {
+        int[] starts = Arrays.copyOf(exact.starts, exact.count);
+        int[] ends = Arrays.copyOf(exact.ends, exact.count);
+        int count = exact.count;
+        while (count > target) {
+            int best = 0;
+            for (int i = 1; i < count - 1; i++) {
+                if (starts[i + 1] - ends[i] < starts[best + 1] - ends[best]) best = i;
+            }
+            ends[best] = ends[best + 1];
+            System.arraycopy(starts, best + 2, starts, best + 1, count - best - 2);
+            System.arraycopy(ends, best + 2, ends, best + 1, count - best - 2);
+            count--;
+        }
+        return new RangeExtractor.Ranges(starts, ends, count);
+    }
+}
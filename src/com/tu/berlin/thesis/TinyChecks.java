@@ -0,0 +1,155 @@
+package com.tu.berlin.thesis;
+
+import com.tu.berlin.thesis.filter.RangesProbeFilter;
+import com.tu.berlin.thesis.operators.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Shared helpers for the *TinyTest mains: each check prints OK / FAIL,
+ * done() throws if any check failed (non-zero exit).
+ */
+final class TinyChecks {
+
+    private static int checks = 0;
+    private static int failures = 0;
+
+    private TinyChecks() {}
+
+    static void check(String name, boolean ok) {
+        checks++;
+        if (!ok) failures++;
+        System.out.println((ok ? "OK   " : "FAIL ") + name);
+    }
+
+    static void done(String test) {
+        System.out.println("=== " + test + ": " + (checks - failures) + "/" + checks + " checks passed ===");
+        if (failures > 0) {
+            throw new AssertionError(test + ": " + failures + " check(s) failed");
+        }
+    }
+
+    /** open / next until null / close. */
+    static List<int[]> drain(IntOperator op) {
+        List<int[]> out = new ArrayList<>();
+        op.open();
+        int[] row;
+        while ((row = op.next()) != null) out.add(row);
+        op.close();
+        return out;
+    }
+
+    /** open / nextBatch until null / close; selected rows only. */
+    static List<int[]> drainBatches(IntBatchOperator op) {
+        List<int[]> out = new ArrayList<>();
+        op.open();
+        IntBatch b;
+        while ((b = op.nextBatch()) != null) {
+            for (int i = 0; i < b.size; i++) out.add(b.materializeRow(i));
+        }
+        op.close();
+        return out;
+    }
+
+    /** One instance of every hash join that has parallel build / probe modes, keyed by name. */
+    static Map<String, IntOperator> parallelJoins(List<int[]> build, List<int[]> probe) {
+        Map<String, IntOperator> joins = new LinkedHashMap<>();
+        joins.put("plain", new IntHashJoinOperator(new IntScanOperator(build), new IntScanOperator(probe), 0, 1));
+        joins.put("bloom", new IntHashJoinWithBloomFilter(
+                new IntScanOperator(build), new IntScanOperator(probe), 0, 1, 1 << 14, 3));
+        joins.put("exact", new IntHashJoinWithExactRanges(
+                new IntScanOperator(build), new IntScanOperator(probe), 0, 1, build.size(), 8));
+        joins.put("approx", new IntHashJoinWithApproximateRanges(
+                new IntScanOperator(build), new IntScanOperator(probe), 0, 1, build.size(), 16, 4));
+        joins.put("streamed", new IntHashJoinWithApproximateRangesStreamed(
+                new IntScanOperator(build), new IntScanOperator(probe), 0, 1, build.size(), 16, 4));
+        joins.put("filtered", new IntFilteredHashJoin(new IntScanOperator(build), new IntScanOperator(probe),
+                0, 1, build.size(), new RangesProbeFilter(build.size(), 16, 4)));
+        return joins;
+    }
+
+    /** setBuildParallelism / setProbeParallelism on any join from parallelJoins(). */
+    static void setParallelism(IntOperator join, int buildWorkers, int probeWorkers, int morselSize, boolean ordered) {
+        if (join instanceof IntHashJoinOperator) {
+            ((IntHashJoinOperator) join).setBuildParallelism(buildWorkers, morselSize);
+            ((IntHashJoinOperator) join).setProbeParallelism(probeWorkers, morselSize, ordered);
+        } else if (join instanceof IntHashJoinWithBloomFilter) {
+            ((IntHashJoinWithBloomFilter) join).setBuildParallelism(buildWorkers, morselSize);
+            ((IntHashJoinWithBloomFilter) join).setProbeParallelism(probeWorkers, morselSize, ordered);
+        } else if (join instanceof IntHashJoinWithExactRanges) {
+            ((IntHashJoinWithExactRanges) join).setBuildParallelism(buildWorkers, morselSize);
+            ((IntHashJoinWithExactRanges) join).setProbeParallelism(probeWorkers, morselSize, ordered);
+        } else if (join instanceof IntHashJoinWithApproximateRanges) {
+            ((IntHashJoinWithApproximateRanges) join).setBuildParallelism(buildWorkers, morselSize);
+            ((IntHashJoinWithApproximateRanges) join).setProbeParallelism(probeWorkers, morselSize, ordered);
+        } else if (join instanceof IntHashJoinWithApproximateRangesStreamed) {
+            ((IntHashJoinWithApproximateRangesStreamed) join).setBuildParallelism(buildWorkers, morselSize);
+            ((IntHashJoinWithApproximateRangesStreamed) join).setProbeParallelism(probeWorkers, morselSize, ordered);
+        } else if (join instanceof IntFilteredHashJoin) {
+            ((IntFilteredHashJoin) join).setBuildParallelism(buildWorkers, morselSize);
+            ((IntFilteredHashJoin) join).setProbeParallelism(probeWorkers, morselSize, ordered);
+        } else {
+            throw new IllegalArgumentException("no parallel mode: " + join.getClass().getSimpleName());
+        }
+    }
+
+    /** Same rows in the same order. */
+    static boolean sameSequence(List<int[]> a, List<int[]> b) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (!Arrays.equals(a.get(i), b.get(i))) return false;
+        }
+        return true;
+    }
+
+    /** Reference join: build row ++ probe row for every key match. */
+    static List<int[]> nestedLoopJoin(List<int[]> build, List<int[]> probe, int buildKey, int probeKey) {
+        List<int[]> out = new ArrayList<>();
+        for (int[] p : probe) {
+            for (int[] b : build) {
+                if (b[buildKey] != p[probeKey]) continue;
+                int[] r = Arrays.copyOf(b, b.length + p.length);
+                System.arraycopy(p, 0, r, b.length, p.length);
+                out.add(r);
+            }
+        }
+        return out;
+    }
+
+    /** Same rows, any order. */
+    static boolean sameRows(List<int[]> a, List<int[]> b) {
+        return canonical(a).equals(canonical(b));
+    }
+
+    static List<String> canonical(List<int[]> rows) {
+        List<String> s = new ArrayList<>(rows.size());
+        for (int[] r : rows) s.add(Arrays.toString(r));
+        s.sort(null);
+        return s;
+    }
+
+    /** n rows {key, i, payload} with keys in [keyLow, keyLow + keySpan). */
+    static List<int[]> randomRows(long seed, int n, int keyLow, int keySpan) {
+        Random r = new Random(seed);
+        List<int[]> rows = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            rows.add(new int[]{keyLow + r.nextInt(keySpan), i, r.nextInt(100)});
+        }
+        return rows;
+    }
+
+    /** n probe rows {i, key, payload}: key at column 1. */
+    static List<int[]> randomProbe(long seed, int n, int keyLow, int keySpan) {
+        Random r = new Random(seed);
+        List<int[]> rows = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            rows.add(new int[]{i, keyLow + r.nextInt(keySpan), r.nextInt(100)});
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,199 @@
+package com.tu.berlin.thesis.data;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Versioned binary file for prebuilt probe filters (Bloom bitsets, range arrays).
+ *
+ * Layout (little-endian):
+ *   int  magic      "DEPF"
+ *   int  version    VERSION
+ *   int  type       TYPE_BLOOM, TYPE_RANGES
+ *   int  fieldCount
+ *   long field[fieldCount]   type-specific scalars (sizes, counts, parameters)
+ *   sections                 int[] / long[] arrays, each starting on an 8-byte boundary
+ *
+ * Reader maps the sections read-only (FileChannel.map) instead of copying them into
+ * arrays, so opening a file costs a header read; pages are loaded on first probe.
+ * A mapping stays valid after the Reader is closed.
+ *
+ * Versions: 1 = range sections always sorted starts, ends; 2 = ranges in the index's
+ * Eytzinger order (see ExactRangesIndex). Readers accept every version up to VERSION.
+ */
+public final class FilterFile {
+
+    public static final int MAGIC = 0x46504544; // "DEPF" in little-endian byte order
+    public static final int VERSION = 2;
+
+    public static final int TYPE_BLOOM = 1;
+    public static final int TYPE_RANGES = 2;
+
+    private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+    private static final int HEADER_BYTES = 16;
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+
+    private FilterFile() {}
+
+    public static Writer create(Path path, int type, long... fields) throws IOException {
+        return new Writer(path, type, fields);
+    }
+
+    /** Opens path and checks magic, version and type. */
+    public static Reader open(Path path, int expectedType) throws IOException {
+        return new Reader(path, expectedType);
+    }
+
+    public static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ORDER);
+        private long written = 0; // bytes already handed to the channel
+
+        private Writer(Path path, int type, long[] fields) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            buf.putInt(MAGIC).putInt(VERSION).putInt(type).putInt(fields.length);
+            for (long f : fields) buf.putLong(f);
+        }
+
+        public void writeInts(int[] a, int n) throws IOException {
+            align();
+            int off = 0;
+            while (off < n) {
+                if (buf.remaining() < 4) flush();
+                int len = Math.min(n - off, buf.remaining() / 4);
+                buf.asIntBuffer().put(a, off, len);
+                buf.position(buf.position() + len * 4);
+                off += len;
+            }
+        }
+
+        public void writeLongs(long[] a, int n) throws IOException {
+            align();
+            int off = 0;
+            while (off < n) {
+                if (buf.remaining() < 8) flush();
+                int len = Math.min(n - off, buf.remaining() / 8);
+                buf.asLongBuffer().put(a, off, len);
+                buf.position(buf.position() + len * 8);
+                off += len;
+            }
+        }
+
+        private void align() throws IOException {
+            while (((written + buf.position()) & 7) != 0) {
+                if (!buf.hasRemaining()) flush();
+                buf.put((byte) 0);
+            }
+        }
+
+        private void flush() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) {
+                written += channel.write(buf);
+            }
+            buf.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    public static final class Reader implements Closeable {
+        private final Path path;
+        private final FileChannel channel;
+        private final int version;
+        private final long[] fields;
+        private long position;
+
+        private Reader(Path path, int expectedType) throws IOException {
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                ByteBuffer header = read(0, HEADER_BYTES);
+                if (header.getInt() != MAGIC) {
+                    throw new IOException(path + ": not a filter file");
+                }
+                this.version = header.getInt();
+                if (version < 1 || version > VERSION) {
+                    throw new IOException(path + ": unsupported filter file version " + version);
+                }
+                int type = header.getInt();
+                if (type != expectedType) {
+                    throw new IOException(path + ": filter file type " + type + ", expected " + expectedType);
+                }
+                int fieldCount = header.getInt();
+                if (fieldCount < 0 || fieldCount > 1024) {
+                    throw new IOException(path + ": corrupt header (fieldCount=" + fieldCount + ")");
+                }
+                ByteBuffer f = read(HEADER_BYTES, fieldCount * 8);
+                this.fields = new long[fieldCount];
+                for (int i = 0; i < fieldCount; i++) fields[i] = f.getLong();
+                this.position = HEADER_BYTES + fieldCount * 8L;
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        public int version() { return version; }
+
+        public int fieldCount() { return fields.length; }
+
+        public long field(int i) throws IOException {
+            if (i >= fields.length) {
+                throw new IOException(path + ": missing header field " + i);
+            }
+            return fields[i];
+        }
+
+        /** Maps the next n ints read-only (no copy). */
+        public IntBuffer mapInts(int n) throws IOException {
+            return map(n * 4L).asIntBuffer();
+        }
+
+        /** Maps the next n longs read-only (no copy); n * 8 must fit one mapping (< 2 GiB). */
+        public LongBuffer mapLongs(int n) throws IOException {
+            return map(n * 8L).asLongBuffer();
+        }
+
+        private ByteBuffer map(long bytes) throws IOException {
+            position = (position + 7) & ~7L;
+            if (position + bytes > channel.size()) {
+                throw new IOException(path + ": truncated filter file");
+            }
+            ByteBuffer b = channel.map(FileChannel.MapMode.READ_ONLY, position, bytes).order(ORDER);
+            position += bytes;
+            return b;
+        }
+
+        private ByteBuffer read(long at, int bytes) throws IOException {
+            ByteBuffer b = ByteBuffer.allocate(bytes).order(ORDER);
+            while (b.hasRemaining()) {
+                if (channel.read(b, at + b.position()) < 0) {
+                    throw new IOException(path + ": truncated filter file");
+                }
+            }
+            b.flip();
+            return b;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -19,4 +19,56 @@ public class IntCSVReader {
         }
         return result;
     }
+
+    /**
+     * Loads the CSV straight into one int[] per column (no per-row arrays).
+     * Column count is taken from the header line.
+     */
+    public static IntColumnarTable readColumnar(String filename) throws IOException {
+        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
+            String header = br.readLine();
+            if (header == null) {
+                return new IntColumnarTable(new int[0][], 0);
+            }
+            int width = header.split(",").length;
+
+            int[][] columns = new int[width][1024];
+            int rows = 0;
+
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                if (rows == columns[0].length) {
+                    for (int c = 0; c < width; c++) {
+                        columns[c] = Arrays.copyOf(columns[c], rows * 2);
+                    }
+                }
+                parseLine(line, columns, rows, width);
+                rows++;
+            }
+            return new IntColumnarTable(columns, rows);
+        }
+    }
+
+    // Parses "a,b,c" into columns[*][row] without String.split / substring allocations.
+    // Fields parse with IntFields.parseInt; the line must have exactly width columns.
+    private static void parseLine(String line, int[][] columns, int row, int width) {
+        int pos = 0;
+        int len = line.length();
+        for (int c = 0; c < width; c++) {
+            if (c > 0) {
+                if (pos >= len) {
+                    throw IntFields.badLine("too few columns", line, 0, len);
+                }
+                pos++; // skip ','
+            }
+            int end = pos;
+            while (end < len && line.charAt(end) != ',') end++;
+            columns[c][row] = IntFields.parseInt(line, pos, end, 0, len);
+            pos = end;
+        }
+        if (pos < len) {
+            throw IntFields.badLine("too many columns", line, 0, len);
+        }
+    }
 }
@@ -0,0 +1,61 @@
+package com.tu.berlin.thesis.data;
+
+import java.util.List;
+
+/**
+ * Column-major int table: one contiguous int[] per column + a row count.
+ *
+ * columns[c][r] = value of column c in row r, for r in [0..rowCount-1].
+ * Column arrays may be longer than rowCount (loader slack); only the
+ * first rowCount entries are valid.
+ */
+public final class IntColumnarTable {
+
+    private final int[][] columns;
+    private final int rowCount;
+
+    public IntColumnarTable(int[][] columns, int rowCount) {
+        for (int[] col : columns) {
+            if (col.length < rowCount) {
+                throw new IllegalArgumentException("column shorter than rowCount");
+            }
+        }
+        this.columns = columns;
+        this.rowCount = rowCount;
+    }
+
+    /** Transposes a row list (e.g. from IntCSVReader.readCSV) into columns. */
+    public static IntColumnarTable fromRows(List<int[]> rows) {
+        int n = rows.size();
+        int width = n == 0 ? 0 : rows.get(0).length;
+        int[][] columns = new int[width][n];
+        for (int r = 0; r < n; r++) {
+            int[] row = rows.get(r);
+            for (int c = 0; c < width; c++) {
+                columns[c][r] = row[c];
+            }
+        }
+        return new IntColumnarTable(columns, n);
+    }
+
+    public int getRowCount() { return rowCount; }
+    public int getColumnCount() { return columns.length; }
+
+    /** Shared column array, not a copy. */
+    public int[] column(int c) { return columns[c]; }
+
+    public int get(int row, int c) { return columns[c][row]; }
+
+    /** Materializes one row as int[] (row-interface boundary). */
+    public int[] row(int r) {
+        int[] out = new int[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            out[c] = columns[c][r];
+        }
+        return out;
+    }
+
+    public long approxBytesUsed() {
+        return (long) columns.length * rowCount * 4L;
+    }
+}
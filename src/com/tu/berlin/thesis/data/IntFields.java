@@ -0,0 +1,42 @@
+package com.tu.berlin.thesis.data;
+
+/**
+ * Strict int field parsing shared by IntCSVReader and IntCSVScanOperator.
+ *
+ * A field parses like Integer.parseInt (optional sign, at least one digit, no overflow)
+ * but straight from the line's characters, without a substring. Errors are
+ * NumberFormatExceptions that quote the whole line.
+ */
+public final class IntFields {
+
+    private IntFields() { }
+
+    /**
+     * Integer.parseInt on text[from, to), a field of the line text[lineStart, lineEnd).
+     * Accumulates negatively so MIN_VALUE parses and overflow is caught before it wraps.
+     */
+    public static int parseInt(CharSequence text, int from, int to, int lineStart, int lineEnd) {
+        int p = from;
+        boolean negative = false;
+        if (p < to && (text.charAt(p) == '-' || text.charAt(p) == '+')) {
+            negative = text.charAt(p) == '-';
+            p++;
+        }
+        if (p == to) throw badLine("missing int", text, lineStart, lineEnd);
+        int bound = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int multmin = bound / 10;
+        int result = 0;
+        for (; p < to; p++) {
+            int digit = text.charAt(p) - '0';
+            if (digit < 0 || digit > 9) throw badLine("bad int", text, lineStart, lineEnd);
+            if (result < multmin || result * 10 < bound + digit) throw badLine("int overflow", text, lineStart, lineEnd);
+            result = result * 10 - digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /** "what in line: ..." for the line text[lineStart, lineEnd). */
+    public static NumberFormatException badLine(String what, CharSequence text, int lineStart, int lineEnd) {
+        return new NumberFormatException(what + " in line: " + text.subSequence(lineStart, lineEnd));
+    }
+}
@@ -0,0 +1,114 @@
+package com.tu.berlin.thesis.filter;
+
+/**
+ * Ordered cascade of probe filters, e.g. a cheap approximate-range check
+ * followed by a Bloom check: a key passes only if every stage passes, and
+ * stages after the first reject are not evaluated.
+ *
+ * Every stage sees every build key. Per-stage counters show where keys are
+ * rejected; a parallel probe counts per worker (newWorkerProbe) and merges
+ * the counts when the worker finishes.
+ */
+public class CascadeProbeFilter implements ProbeFilter {
+
+    private final ProbeFilter[] stages;
+    private final int[] stagePasses;
+    private final int[] stageRejects;
+
+    public CascadeProbeFilter(ProbeFilter... stages) {
+        if (stages.length == 0) {
+            throw new IllegalArgumentException("cascade needs at least one stage");
+        }
+        this.stages = stages.clone();
+        this.stagePasses = new int[stages.length];
+        this.stageRejects = new int[stages.length];
+    }
+
+    @Override
+    public void add(int key) {
+        for (ProbeFilter stage : stages) {
+            stage.add(key);
+        }
+    }
+
+    @Override
+    public void build() {
+        for (ProbeFilter stage : stages) {
+            stage.build();
+        }
+    }
+
+    @Override
+    public boolean mightContain(int key) {
+        for (int i = 0; i < stages.length; i++) {
+            if (!stages[i].mightContain(key)) {
+                stageRejects[i]++;
+                return false;
+            }
+            stagePasses[i]++;
+        }
+        return true;
+    }
+
+    @Override
+    public WorkerProbe newWorkerProbe() {
+        int[] passes = new int[stages.length];
+        int[] rejects = new int[stages.length];
+        return new WorkerProbe() {
+            @Override
+            public boolean test(int key) {
+                for (int i = 0; i < stages.length; i++) {
+                    if (!stages[i].mightContain(key)) {
+                        rejects[i]++;
+                        return false;
+                    }
+                    passes[i]++;
+                }
+                return true;
+            }
+
+            @Override
+            public void finish() {
+                synchronized (CascadeProbeFilter.this) {
+                    for (int i = 0; i < stages.length; i++) {
+                        stagePasses[i] += passes[i];
+                        stageRejects[i] += rejects[i];
+                    }
+                }
+            }
+        };
+    }
+
+    @Override
+    public String name() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < stages.length; i++) {
+            if (i > 0) sb.append('>');
+            sb.append(stages[i].name());
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public long approxBytesUsed() {
+        long sum = 0;
+        for (ProbeFilter stage : stages) {
+            sum += stage.approxBytesUsed();
+        }
+        return sum;
+    }
+
+    @Override
+    public long buildBytesUsed() {
+        long sum = 0;
+        for (ProbeFilter stage : stages) {
+            sum += stage.buildBytesUsed();
+        }
+        return sum;
+    }
+
+    public int getStageCount() { return stages.length; }
+    public ProbeFilter getStage(int i) { return stages[i]; }
+    public synchronized int getStagePasses(int i) { return stagePasses[i]; }
+    public synchronized int getStageRejects(int i) { return stageRejects[i]; }
+}
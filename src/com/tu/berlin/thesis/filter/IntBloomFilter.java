@@ -0,0 +1,245 @@
+package com.tu.berlin.thesis.filter;
+
+import com.tu.berlin.thesis.data.FilterFile;
+
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.nio.file.Path;
+
+/**
+ * Classic int Bloom filter: k probes into a long[] bitset (addressable beyond 2^31 bits).
+ * (was the inner Bloom class of IntHashJoinWithBloomFilter)
+ *
+ * Two hashing schemes:
+ *  - IntBloomFilter(sizeBits, k): the original k multiplicative hashes modulo size
+ *    (at most 10 distinct hashes), kept so earlier experiment results stay comparable
+ *  - IntBloomFilter(expectedKeys, targetFpr) / withDoubleHashing(sizeBits, k): one fmix64
+ *    hash per key split into h1, h2; bit i = h1 + i * h2 mapped to [0, m) by a
+ *    multiply-high instead of a modulo, so any k works and m is a long
+ *
+ * Sizing for n keys and false-positive rate p: m = -n ln p / (ln 2)^2, k = round(m / n * ln 2).
+ *
+ * save(path) writes the bitset as FilterFile TYPE_BLOOM (fields: m, k, double hashing, word count);
+ * map(path) returns a read-only filter probing the mapped file in 1 GiB chunks.
+ */
+public class IntBloomFilter implements ProbeFilter {
+    private static final int[] multipliers = {31, 37, 41, 43, 47, 53, 59, 61, 67, 71};
+    private static final long MAX_BITS = (long) Integer.MAX_VALUE * 64L;
+    private static final int MAPPED_CHUNK_SHIFT = 27; // 2^27 longs = 1 GiB per mapping
+    private static final long MAPPED_CHUNK_MASK = (1L << MAPPED_CHUNK_SHIFT) - 1;
+
+    private final long[] bits;         // null = mapped, read-only
+    private final LongBuffer[] mapped;
+    private final long size;
+    private final int k;
+    private final boolean doubleHashing;
+
+    public IntBloomFilter(int sizeBits, int numHashFunctions) {
+        this(sizeBits, numHashFunctions, false);
+    }
+
+    /** Optimal m and k for expectedKeys keys at targetFpr false positives; double hashing. */
+    public IntBloomFilter(long expectedKeys, double targetFpr) {
+        this(optimalBits(expectedKeys, targetFpr),
+                optimalHashFunctions(expectedKeys, optimalBits(expectedKeys, targetFpr)), true);
+    }
+
+    /** Explicit m (may exceed 2^31) and any k, with double hashing. */
+    public static IntBloomFilter withDoubleHashing(long sizeBits, int numHashFunctions) {
+        return new IntBloomFilter(sizeBits, numHashFunctions, true);
+    }
+
+    private IntBloomFilter(long sizeBits, int numHashFunctions, boolean doubleHashing) {
+        checkConfig(sizeBits, numHashFunctions);
+        this.size = sizeBits;
+        this.k = numHashFunctions;
+        this.doubleHashing = doubleHashing;
+        this.bits = new long[(int) ((sizeBits + 63) >>> 6)];
+        this.mapped = null;
+    }
+
+    private IntBloomFilter(long sizeBits, int numHashFunctions, boolean doubleHashing, LongBuffer[] mapped) {
+        this.size = sizeBits;
+        this.k = numHashFunctions;
+        this.doubleHashing = doubleHashing;
+        this.bits = null;
+        this.mapped = mapped;
+    }
+
+    private static void checkConfig(long sizeBits, int numHashFunctions) {
+        if (sizeBits <= 0 || sizeBits > MAX_BITS) {
+            throw new IllegalArgumentException("sizeBits must be in [1, " + MAX_BITS + "]: " + sizeBits);
+        }
+        if (numHashFunctions < 1) {
+            throw new IllegalArgumentException("numHashFunctions must be >= 1");
+        }
+    }
+
+    public void save(Path path) throws IOException {
+        if (bits == null) {
+            throw new IllegalStateException("mapped Bloom filter is already on disk");
+        }
+        try (FilterFile.Writer w = FilterFile.create(path, FilterFile.TYPE_BLOOM,
+                size, k, doubleHashing ? 1 : 0, bits.length)) {
+            w.writeLongs(bits, bits.length);
+        }
+    }
+
+    public static IntBloomFilter map(Path path) throws IOException {
+        try (FilterFile.Reader r = FilterFile.open(path, FilterFile.TYPE_BLOOM)) {
+            long sizeBits = r.field(0);
+            long k = r.field(1);
+            long words = r.field(3);
+            if (sizeBits <= 0 || sizeBits > MAX_BITS || k < 1 || k > Integer.MAX_VALUE
+                    || words != (sizeBits + 63) >>> 6) {
+                throw new IOException(path + ": corrupt Bloom header (m=" + sizeBits + ", k=" + k + ")");
+            }
+            LongBuffer[] chunks = new LongBuffer[(int) ((words + MAPPED_CHUNK_MASK) >>> MAPPED_CHUNK_SHIFT)];
+            for (int c = 0; c < chunks.length; c++) {
+                long remaining = words - ((long) c << MAPPED_CHUNK_SHIFT);
+                chunks[c] = r.mapLongs((int) Math.min(remaining, 1L << MAPPED_CHUNK_SHIFT));
+            }
+            return new IntBloomFilter(sizeBits, (int) k, r.field(2) != 0, chunks);
+        }
+    }
+
+    public boolean isMapped() { return bits == null; }
+
+    /** m = -n ln p / (ln 2)^2 bits for n keys at false-positive rate p. */
+    public static long optimalBits(long expectedKeys, double targetFpr) {
+        if (expectedKeys < 1) {
+            throw new IllegalArgumentException("expectedKeys must be >= 1");
+        }
+        if (!(targetFpr > 0.0 && targetFpr < 1.0)) {
+            throw new IllegalArgumentException("targetFpr must be in (0, 1)");
+        }
+        double m = -expectedKeys * Math.log(targetFpr) / (Math.log(2) * Math.log(2));
+        return Math.max(64L, (long) Math.ceil(m));
+    }
+
+    /** k = round(m / n * ln 2), at least 1. */
+    public static int optimalHashFunctions(long expectedKeys, long sizeBits) {
+        return Math.max(1, (int) Math.round((double) sizeBits / expectedKeys * Math.log(2)));
+    }
+
+    public long getSizeBits() { return size; }
+    public int getNumHashFunctions() { return k; }
+    public boolean isDoubleHashing() { return doubleHashing; }
+
+    /** Empty filter with the same m, k and hashing scheme (e.g. one per build worker). */
+    public IntBloomFilter emptyCopy() {
+        return new IntBloomFilter(size, k, doubleHashing);
+    }
+
+    /** ORs other's bits into this filter (same m and k), e.g. per-thread filters after a parallel build. */
+    public void merge(IntBloomFilter other) {
+        if (bits == null || other.bits == null) {
+            throw new IllegalStateException("cannot merge mapped Bloom filters");
+        }
+        if (other.size != size || other.k != k || other.doubleHashing != doubleHashing) {
+            throw new IllegalArgumentException("cannot merge Bloom filters with different m, k or hashing");
+        }
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] |= other.bits[i];
+        }
+    }
+
+    @Override
+    public void add(int key) {
+        if (bits == null) {
+            throw new IllegalStateException("mapped Bloom filter is read-only");
+        }
+        if (doubleHashing) {
+            long h1 = fmix64(key);
+            long h2 = fmix64(h1 + 0x9E3779B97F4A7C15L) | 1L;
+            for (int i = 0; i < k; i++) {
+                long b = reduce(h1 + i * h2);
+                bits[(int) (b >>> 6)] |= 1L << b;
+            }
+            return;
+        }
+        for (int i = 0; i < k; i++) {
+            int h = computeHash(key, i);
+            bits[h >>> 6] |= 1L << h;
+        }
+    }
+
+    @Override
+    public boolean mightContain(int key) {
+        if (bits == null) return mightContainMapped(key);
+        if (doubleHashing) {
+            long h1 = fmix64(key);
+            long h2 = fmix64(h1 + 0x9E3779B97F4A7C15L) | 1L;
+            for (int i = 0; i < k; i++) {
+                long b = reduce(h1 + i * h2);
+                if ((bits[(int) (b >>> 6)] & (1L << b)) == 0) return false;
+            }
+            return true;
+        }
+        for (int i = 0; i < k; i++) {
+            int h = computeHash(key, i);
+            if ((bits[h >>> 6] & (1L << h)) == 0) return false;
+        }
+        return true;
+    }
+
+    private boolean mightContainMapped(int key) {
+        long h1 = fmix64(key);
+        long h2 = fmix64(h1 + 0x9E3779B97F4A7C15L) | 1L;
+        for (int i = 0; i < k; i++) {
+            long b = doubleHashing ? reduce(h1 + i * h2) : computeHash(key, i);
+            long w = b >>> 6;
+            long word = mapped[(int) (w >>> MAPPED_CHUNK_SHIFT)].get((int) (w & MAPPED_CHUNK_MASK));
+            if ((word & (1L << b)) == 0) return false;
+        }
+        return true;
+    }
+
+    // x (uniform over 64 bits) -> [0, size): high 64 bits of the unsigned 128-bit product x * size
+    private long reduce(long x) {
+        return Math.multiplyHigh(x, size) + ((x >> 63) & size);
+    }
+
+    private static long fmix64(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb9fe1a85ec53L;
+        x ^= x >>> 33;
+        return x;
+    }
+
+    private int computeHash(int key, int i) {
+        int hash = key;
+        hash = hash * multipliers[i % multipliers.length];  // ijust multiply it ny a cnst
+        return (int) ((hash & 0x7fffffff) % size); //modulo size, positive mask to avoid negative indices (01111111111111111111111111111111)LPB
+    }
+
+    /*
+    //Alternative hash function using kinda bit mixing function  for better distribution supposedlyyyyy:
+    private int computeHash(int key, int i) {
+        int hash = key ^ (i * 0x9e3779b9);  // seed differently per hash function to avoid any collisions, xoe,shift,mult,xor,shift,mult,xor thenn mod
+        hash ^= (hash >>> 16); //a ^ b xor ,shifting it improves the bit mixing i think
+        hash *= 0x85ebca6b;
+        hash ^= (hash >>> 13);
+        hash *= 0xc2b2ae35;
+        hash ^= (hash >>> 16);
+        return (hash & 0x7fffffff) % size;
+    } //teh constants from the MurmurHash3
+    */
+    //this one big nono
+
+    public double estimateFalsePositiveRate(long numInsertedKeys) {
+        double load = (double) numInsertedKeys / size;
+        return Math.pow(1 - Math.exp(-k * load), k);
+    }
+
+    @Override
+    public void build() { }
+
+    @Override
+    public String name() { return "bloom"; }
+
+    @Override
+    public long approxBytesUsed() { return (size + 7L) / 8L; }
+}
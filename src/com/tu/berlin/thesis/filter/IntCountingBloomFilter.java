@@ -0,0 +1,154 @@
+package com.tu.berlin.thesis.filter;
+
+/**
+ * Counting Bloom filter: m 4-bit counters (16 per long) instead of m bits, so keys
+ * can be removed again. Same double hashing as IntBloomFilter's FPR-sized variant
+ * (one fmix64 hash, counter i = h1 + i * h2 mapped to [0, m) by a multiply-high).
+ *
+ * - add(key): increments the key's k counters
+ * - remove(key): decrements them; only for keys that were added (the caller checks,
+ *   e.g. against the hash table), otherwise other keys can get false negatives
+ * - mightContain(key): all k counters > 0
+ *
+ * A counter that reaches 15 sticks there (remove no longer decrements it): the filter
+ * stays free of false negatives, at the price of a bit that can never clear.
+ * With optimal k a counter exceeds 15 with probability about 1.4e-15 * m.
+ *
+ * Memory: 4x an IntBloomFilter with the same m and k.
+ */
+public class IntCountingBloomFilter implements ProbeFilter {
+
+    public static final int COUNTER_MAX = 15;
+    private static final long MAX_COUNTERS = (long) Integer.MAX_VALUE * 16L;
+
+    private final long[] counters; // counter c: bits 4 * (c & 15) .. +3 of counters[c >>> 4]
+    private final long size;
+    private final int k;
+
+    private int saturatedCounters = 0;
+
+    public IntCountingBloomFilter(long sizeCounters, int numHashFunctions) {
+        if (sizeCounters <= 0 || sizeCounters > MAX_COUNTERS) {
+            throw new IllegalArgumentException("sizeCounters must be in [1, " + MAX_COUNTERS + "]: " + sizeCounters);
+        }
+        if (numHashFunctions < 1) {
+            throw new IllegalArgumentException("numHashFunctions must be >= 1");
+        }
+        this.size = sizeCounters;
+        this.k = numHashFunctions;
+        this.counters = new long[(int) ((sizeCounters + 15) >>> 4)];
+    }
+
+    /** Optimal m and k for expectedKeys keys at targetFpr false positives (see IntBloomFilter). */
+    public IntCountingBloomFilter(long expectedKeys, double targetFpr) {
+        this(IntBloomFilter.optimalBits(expectedKeys, targetFpr),
+                IntBloomFilter.optimalHashFunctions(expectedKeys,
+                        IntBloomFilter.optimalBits(expectedKeys, targetFpr)));
+    }
+
+    public long getSizeCounters() { return size; }
+    public int getNumHashFunctions() { return k; }
+    /** Counters that reached COUNTER_MAX and stay set. */
+    public int getSaturatedCounters() { return saturatedCounters; }
+
+    /** Empty filter with the same m and k (e.g. one per build worker). */
+    public IntCountingBloomFilter emptyCopy() {
+        return new IntCountingBloomFilter(size, k);
+    }
+
+    /** Adds other's counters to this filter's (same m and k), saturating at COUNTER_MAX. */
+    public void merge(IntCountingBloomFilter other) {
+        if (other.size != size || other.k != k) {
+            throw new IllegalArgumentException("cannot merge counting Bloom filters with different m or k");
+        }
+        for (long c = 0; c < size; c++) {
+            int add = other.counter(c);
+            if (add == 0) continue;
+            int sum = counter(c);
+            if (sum == COUNTER_MAX) continue;
+            sum = Math.min(COUNTER_MAX, sum + add);
+            if (sum == COUNTER_MAX) saturatedCounters++;
+            setCounter(c, sum);
+        }
+    }
+
+    @Override
+    public void add(int key) {
+        long h1 = fmix64(key);
+        long h2 = fmix64(h1 + 0x9E3779B97F4A7C15L) | 1L;
+        for (int i = 0; i < k; i++) {
+            long c = reduce(h1 + i * h2);
+            int v = counter(c);
+            if (v == COUNTER_MAX) continue;
+            if (++v == COUNTER_MAX) saturatedCounters++;
+            setCounter(c, v);
+        }
+    }
+
+    /**
+     * Removes one occurrence of key. Returns false (and changes nothing) if some counter
+     * is already 0, i.e. key was certainly not added.
+     */
+    public boolean remove(int key) {
+        if (!mightContain(key)) return false;
+        long h1 = fmix64(key);
+        long h2 = fmix64(h1 + 0x9E3779B97F4A7C15L) | 1L;
+        for (int i = 0; i < k; i++) {
+            long c = reduce(h1 + i * h2);
+            int v = counter(c);
+            // 0 only if key was never added (a repeated position, counted once)
+            if (v == COUNTER_MAX || v == 0) continue;
+            setCounter(c, v - 1);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean mightContain(int key) {
+        long h1 = fmix64(key);
+        long h2 = fmix64(h1 + 0x9E3779B97F4A7C15L) | 1L;
+        for (int i = 0; i < k; i++) {
+            if (counter(reduce(h1 + i * h2)) == 0) return false;
+        }
+        return true;
+    }
+
+    private int counter(long c) {
+        return (int) (counters[(int) (c >>> 4)] >>> ((c & 15) << 2)) & 0xF;
+    }
+
+    private void setCounter(long c, int v) {
+        int w = (int) (c >>> 4);
+        int shift = (int) ((c & 15) << 2);
+        counters[w] = (counters[w] & ~(0xFL << shift)) | ((long) v << shift);
+    }
+
+    // x (uniform over 64 bits) -> [0, size): high 64 bits of the unsigned 128-bit product x * size
+    private long reduce(long x) {
+        return Math.multiplyHigh(x, size) + ((x >> 63) & size);
+    }
+
+    private static long fmix64(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb9fe1a85ec53L;
+        x ^= x >>> 33;
+        return x;
+    }
+
+    /** Same estimate as a Bloom filter with m bits and k hashes (a counter > 0 is a set bit). */
+    public double estimateFalsePositiveRate(long numInsertedKeys) {
+        double load = (double) numInsertedKeys / size;
+        return Math.pow(1 - Math.exp(-k * load), k);
+    }
+
+    @Override
+    public void build() { }
+
+    @Override
+    public String name() { return "counting_bloom"; }
+
+    @Override
+    public long approxBytesUsed() { return (long) counters.length * 8L; }
+}
@@ -0,0 +1,181 @@
+package com.tu.berlin.thesis.filter;
+
+/**
+ * Split-block Bloom filter (as in Impala / Parquet): a block is 8 int words
+ * (256 bits, half a cache line) and a key sets exactly one bit in each word,
+ * the bit of word i chosen by (x * SALT[i]) >>> 27. Insert and test touch one
+ * block and need no branches per bit, so all 8 words can go through one
+ * 256-bit vector operation.
+ *
+ * - one fmix64 hash per key: upper 32 bits pick the block (power-of-two count, mask),
+ *   lower 32 bits (x) feed the 8 salted bit positions
+ * - vector kernel: IntSplitBlockBloomVectorKernel (jdk.incubator.vector) in the separate
+ *   src-vector source root, loaded reflectively; used if it is on the class path, the
+ *   module is resolved (--add-modules jdk.incubator.vector) and isSupported() reports a
+ *   256-bit vector unit, otherwise the scalar kernel is used (same bits, same answers)
+ * - mightContainAll / filterSelection: batch probe with branch-free selection output
+ */
+public class IntSplitBlockBloomFilter implements ProbeFilter {
+
+    static final int WORDS_PER_BLOCK = 8;
+    static final int BLOCK_BITS = WORDS_PER_BLOCK * 32;
+    private static final int MAX_BLOCKS = 1 << 28;
+
+    static final int[] SALT = {
+            0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d,
+            0x705495c7, 0x2df1424b, 0x9efc4947, 0x5c6bfb31
+    };
+
+    /** Insert / test of one block; implemented by the scalar and the vector kernel. */
+    interface Kernel {
+        void insert(int[] words, int base, int x);
+        boolean test(int[] words, int base, int x);
+    }
+
+    private static final String VECTOR_KERNEL = "com.tu.berlin.thesis.filter.IntSplitBlockBloomVectorKernel";
+
+    private final int[] words;
+    private final int blockMask;
+    private final Kernel kernel;
+
+    public IntSplitBlockBloomFilter(long sizeBits) {
+        this(sizeBits, true);
+    }
+
+    /** allowVector = false forces the scalar kernel (for comparisons). */
+    public IntSplitBlockBloomFilter(long sizeBits, boolean allowVector) {
+        if (sizeBits <= 0) {
+            throw new IllegalArgumentException("sizeBits must be > 0");
+        }
+        long blocks = (sizeBits + BLOCK_BITS - 1) / BLOCK_BITS;
+        if (blocks > MAX_BLOCKS) {
+            throw new IllegalArgumentException("sizeBits too large: " + sizeBits);
+        }
+        int pow2 = Integer.highestOneBit((int) blocks);
+        if (pow2 < blocks) pow2 <<= 1;
+
+        this.words = new int[pow2 * WORDS_PER_BLOCK];
+        this.blockMask = pow2 - 1;
+        this.kernel = allowVector ? loadKernel() : new ScalarKernel();
+    }
+
+    private static Kernel loadKernel() {
+        try {
+            Class<?> c = Class.forName(VECTOR_KERNEL);
+            if (!(Boolean) c.getDeclaredMethod("isSupported").invoke(null)) {
+                return new ScalarKernel();
+            }
+            return (Kernel) c.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // kernel not compiled (src-vector not on the class path) or module not resolved
+            return new ScalarKernel();
+        }
+    }
+
+    public long getSizeBits() { return (long) words.length * 32L; }
+    public int getBlockCount() { return blockMask + 1; }
+    public boolean isVectorized() { return !(kernel instanceof ScalarKernel); }
+
+    /** ORs other's bits into this filter (same size), e.g. per-thread filters after a parallel build. */
+    public void merge(IntSplitBlockBloomFilter other) {
+        if (other.words.length != words.length) {
+            throw new IllegalArgumentException("cannot merge split-block Bloom filters of different size");
+        }
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    @Override
+    public void add(int key) {
+        long h = fmix64(key);
+        kernel.insert(words, ((int) (h >>> 32) & blockMask) * WORDS_PER_BLOCK, (int) h);
+    }
+
+    @Override
+    public boolean mightContain(int key) {
+        long h = fmix64(key);
+        return kernel.test(words, ((int) (h >>> 32) & blockMask) * WORDS_PER_BLOCK, (int) h);
+    }
+
+    /**
+     * Batch probe: writes the positions i (in keys[0..n-1]) of keys that might be
+     * contained to selectionOut, returns how many. No branch on the test result.
+     */
+    public int mightContainAll(int[] keys, int n, int[] selectionOut) {
+        int out = 0;
+        for (int i = 0; i < n; i++) {
+            long h = fmix64(keys[i]);
+            selectionOut[out] = i;
+            out += kernel.test(words, ((int) (h >>> 32) & blockMask) * WORDS_PER_BLOCK, (int) h) ? 1 : 0;
+        }
+        return out;
+    }
+
+    /**
+     * Selection-vector form (as IntBatchKeyFilterOperator.filterSelection): compacts
+     * sel[0..n-1] in place to the rows whose keys[row] might be contained.
+     */
+    @Override
+    public int filterSelection(int[] keys, int[] sel, int n) {
+        int out = 0;
+        for (int i = 0; i < n; i++) {
+            int row = sel[i];
+            long h = fmix64(keys[row]);
+            sel[out] = row;
+            out += kernel.test(words, ((int) (h >>> 32) & blockMask) * WORDS_PER_BLOCK, (int) h) ? 1 : 0;
+        }
+        return out;
+    }
+
+    /** Expected false-positive rate: Poisson(n / blocks) block loads, one bit per word per key. */
+    public double estimateFalsePositiveRate(long numInsertedKeys) {
+        double lambda = (double) numInsertedKeys / getBlockCount();
+        int maxLoad = (int) Math.ceil(lambda + 10 * Math.sqrt(lambda) + 10);
+
+        double fpr = 0.0;
+        double logP = -lambda; // log P(load = 0), kept in log space for large lambda
+        for (int load = 0; load <= maxLoad; load++) {
+            if (load > 0) logP += Math.log(lambda / load);
+            double wordFill = 1.0 - Math.pow(1.0 - 1.0 / 32, load);
+            fpr += Math.exp(logP) * Math.pow(wordFill, WORDS_PER_BLOCK);
+        }
+        return Math.min(1.0, fpr);
+    }
+
+    @Override
+    public void build() { }
+
+    @Override
+    public String name() { return "split_block_bloom"; }
+
+    @Override
+    public long approxBytesUsed() { return (long) words.length * 4L; }
+
+    static long fmix64(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb9fe1a85ec53L;
+        x ^= x >>> 33;
+        return x;
+    }
+
+    static final class ScalarKernel implements Kernel {
+        @Override
+        public void insert(int[] words, int base, int x) {
+            for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+                words[base + i] |= 1 << ((x * SALT[i]) >>> 27);
+            }
+        }
+
+        @Override
+        public boolean test(int[] words, int base, int x) {
+            int missing = 0;
+            for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+                missing |= ~words[base + i] & (1 << ((x * SALT[i]) >>> 27));
+            }
+            return missing == 0;
+        }
+    }
+}
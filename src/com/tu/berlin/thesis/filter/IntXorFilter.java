@@ -0,0 +1,193 @@
+package com.tu.berlin.thesis.filter;
+
+import java.util.Arrays;
+
+/**
+ * Immutable xor filter (Graf & Lemire) over the distinct build keys, with
+ * 8- or 16-bit fingerprints.
+ *
+ * Each key maps to 3 slots, one per third of the table; build() solves
+ *   fp[h0] ^ fp[h1] ^ fp[h2] == fingerprint(key)
+ * for every key by peeling (retrying with a new seed if the hypergraph does not peel).
+ *
+ * Space: about 1.23 * fingerprintBits per key (Bloom needs about 1.44 * log2(1/fpr)).
+ * False-positive rate: about 2^-fingerprintBits. Lookup: 3 independent accesses, no branches.
+ * Keys can only be added before build(); duplicates are removed.
+ */
+public class IntXorFilter implements ProbeFilter {
+
+    private static final int MAX_ATTEMPTS = 100;
+
+    private final int fingerprintBits;
+    private int[] keys;
+    private int keyCount = 0;
+
+    private long seed;
+    private int blockLength;
+    private byte[] fp8;   // fingerprintBits == 8
+    private short[] fp16; // fingerprintBits == 16
+    private int distinctKeys = 0;
+    private boolean built = false;
+
+    public IntXorFilter(int expectedKeys, int fingerprintBits) {
+        if (fingerprintBits != 8 && fingerprintBits != 16) {
+            throw new IllegalArgumentException("fingerprintBits must be 8 or 16");
+        }
+        this.fingerprintBits = fingerprintBits;
+        this.keys = new int[Math.max(16, expectedKeys)];
+    }
+
+    public int getFingerprintBits() { return fingerprintBits; }
+    public int getDistinctKeys() { return distinctKeys; }
+    public double getBitsPerKey() { return distinctKeys == 0 ? 0 : approxBytesUsed() * 8.0 / distinctKeys; }
+
+    @Override
+    public void add(int key) {
+        if (built) {
+            throw new IllegalStateException("xor filter is immutable after build()");
+        }
+        if (keyCount == keys.length) {
+            keys = Arrays.copyOf(keys, keys.length * 2);
+        }
+        keys[keyCount++] = key;
+    }
+
+    @Override
+    public void build() {
+        if (built) return;
+
+        // peeling needs distinct keys
+        Arrays.sort(keys, 0, keyCount);
+        int n = 0;
+        for (int i = 0; i < keyCount; i++) {
+            if (i == 0 || keys[i] != keys[i - 1]) keys[n++] = keys[i];
+        }
+        distinctKeys = n;
+
+        int capacity = 32 + (int) Math.ceil(1.23 * n);
+        blockLength = capacity / 3 + 1;
+        capacity = blockLength * 3;
+
+        long[] stackHash = new long[n];
+        int[] stackSlot = new int[n];
+        long[] slotHashXor = new long[capacity];
+        int[] slotCount = new int[capacity];
+        int[] queue = new int[capacity];
+
+        seed = 0x9E3779B97F4A7C15L;
+        for (int attempt = 0; ; attempt++) {
+            if (attempt == MAX_ATTEMPTS) {
+                throw new IllegalStateException("xor filter construction failed for " + n + " keys");
+            }
+            seed = fmix64(seed + attempt);
+            Arrays.fill(slotHashXor, 0L);
+            Arrays.fill(slotCount, 0);
+
+            for (int i = 0; i < n; i++) {
+                long h = hash(keys[i]);
+                for (int j = 0; j < 3; j++) {
+                    int s = slot(h, j);
+                    slotHashXor[s] ^= h;
+                    slotCount[s]++;
+                }
+            }
+
+            // peel slots holding exactly one key
+            int qn = 0;
+            for (int s = 0; s < capacity; s++) {
+                if (slotCount[s] == 1) queue[qn++] = s;
+            }
+            int stackSize = 0;
+            while (qn > 0) {
+                int s = queue[--qn];
+                if (slotCount[s] != 1) continue;
+                long h = slotHashXor[s];
+                stackHash[stackSize] = h;
+                stackSlot[stackSize++] = s;
+                for (int j = 0; j < 3; j++) {
+                    int t = slot(h, j);
+                    slotHashXor[t] ^= h;
+                    if (--slotCount[t] == 1) queue[qn++] = t;
+                }
+            }
+            if (stackSize == n) break;
+        }
+
+        // assign fingerprints in reverse peeling order
+        int[] fp = new int[capacity];
+        for (int i = n - 1; i >= 0; i--) {
+            long h = stackHash[i];
+            int s = stackSlot[i];
+            int v = fingerprint(h);
+            for (int j = 0; j < 3; j++) {
+                int t = slot(h, j);
+                if (t != s) v ^= fp[t];
+            }
+            fp[s] = v;
+        }
+
+        if (fingerprintBits == 8) {
+            fp8 = new byte[capacity];
+            for (int s = 0; s < capacity; s++) fp8[s] = (byte) fp[s];
+        } else {
+            fp16 = new short[capacity];
+            for (int s = 0; s < capacity; s++) fp16[s] = (short) fp[s];
+        }
+        keys = null;
+        built = true;
+    }
+
+    @Override
+    public boolean mightContain(int key) {
+        long h = hash(key);
+        int f = fingerprint(h);
+        int s0 = slot(h, 0);
+        int s1 = slot(h, 1);
+        int s2 = slot(h, 2);
+        if (fp8 != null) {
+            return f == ((fp8[s0] ^ fp8[s1] ^ fp8[s2]) & 0xFF);
+        }
+        return f == ((fp16[s0] ^ fp16[s1] ^ fp16[s2]) & 0xFFFF);
+    }
+
+    private long hash(int key) {
+        return fmix64(key + seed);
+    }
+
+    private int slot(long h, int j) {
+        int r = (int) Long.rotateLeft(h, 21 * j);
+        return (int) (((r & 0xFFFFFFFFL) * blockLength) >>> 32) + j * blockLength;
+    }
+
+    private int fingerprint(long h) {
+        return (int) (h ^ (h >>> 32)) & ((1 << fingerprintBits) - 1);
+    }
+
+    public double estimateFalsePositiveRate() {
+        return 1.0 / (1 << fingerprintBits);
+    }
+
+    @Override
+    public String name() { return "xor" + fingerprintBits; }
+
+    @Override
+    public long approxBytesUsed() {
+        if (fp8 != null) return fp8.length;
+        if (fp16 != null) return fp16.length * 2L;
+        return 0;
+    }
+
+    @Override
+    public long buildBytesUsed() {
+        return (keys == null ? 0 : keys.length * 4L) + approxBytesUsed();
+    }
+
+    private static long fmix64(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb9fe1a85ec53L;
+        x ^= x >>> 33;
+        return x;
+    }
+}
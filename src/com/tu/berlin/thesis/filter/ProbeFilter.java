@@ -0,0 +1,61 @@
+package com.tu.berlin.thesis.filter;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Build-side key summary consulted before a hash lookup.
+ *
+ * Lifecycle: add(key) for every build key, then build() once,
+ * then mightContain(key) per probe key.
+ *
+ * No false negatives: mightContain(k) == false means k is not a build key.
+ */
+public interface ProbeFilter {
+
+    /** Build phase: called once per build key (duplicates allowed). */
+    void add(int key);
+
+    /** End of build phase: turns the collected keys into the probe structure. */
+    void build();
+
+    boolean mightContain(int key);
+
+    /** Short label for logs / CSV output ("bloom", "exact_ranges", ...). */
+    String name();
+
+    long approxBytesUsed();
+
+    /**
+     * Memory held while keys are being added, including keys collected for build()
+     * (ranges, xor). Defaults to approxBytesUsed() for fixed-size filters (Bloom).
+     */
+    default long buildBytesUsed() { return approxBytesUsed(); }
+
+    /**
+     * Batch form of mightContain (as IntBatchKeyFilterOperator.filterSelection): compacts
+     * sel[0..n-1] in place to the rows whose keys[row] might be contained, returns the new size.
+     * Filters with a vectorized batch probe (IntSplitBlockBloomFilter) override it.
+     */
+    default int filterSelection(int[] keys, int[] sel, int n) {
+        int out = 0;
+        for (int i = 0; i < n; i++) {
+            int row = sel[i];
+            sel[out] = row;
+            out += mightContain(keys[row]) ? 1 : 0;
+        }
+        return out;
+    }
+
+    /**
+     * Probe view for one thread of a parallel probe. A filter whose mightContain
+     * updates counters returns a view with counters of its own, merged back by
+     * WorkerProbe.finish(). Defaults to mightContain, with nothing to merge.
+     */
+    default WorkerProbe newWorkerProbe() { return this::mightContain; }
+
+    /** Per-thread probe predicate, see newWorkerProbe(). */
+    interface WorkerProbe extends IntPredicate {
+        /** Called once by the probing thread when it is done. */
+        default void finish() { }
+    }
+}
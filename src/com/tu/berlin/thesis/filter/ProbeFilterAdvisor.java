@@ -0,0 +1,273 @@
+package com.tu.berlin.thesis.filter;
+
+import com.tu.berlin.thesis.rangetree.RangeExtractor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Cost-based choice of a ProbeFilter at the end of the build phase.
+ *
+ * Build statistics: distinct key count, key span, exact range count
+ * (RangeExtractor) and the gap distribution between the exact ranges.
+ * A small sample of probe keys gives the pass rate of every candidate:
+ *  - none                                 : 1
+ *  - exact ranges                         : sample hit rate (no false positives)
+ *  - approximate ranges, T ranges         : hits + sample keys in the gaps merged away;
+ *                                           merging smallest gaps first keeps the T-1 largest gaps
+ *  - grouped ranges, C clusters           : hits + sample keys in the gaps inside a cluster;
+ *                                           regroupToTargetClusters keeps the gaps between equal-count groups
+ *  - Bloom, 4..16 bits per distinct key   : hits + misses * theoretical false-positive rate
+ *  - xor filter, 8 / 16-bit fingerprints  : hits + misses * 2^-bits (3 accesses per probe)
+ *
+ * Expected probe cost per row = filter check + pass rate * hash lookup, where each
+ * random access costs a latency depending on the cache level the structure fits in.
+ * Building the filter is paid once and spread over the expected probe rows:
+ *  - ranges : sort the build keys (n log n), plus the gap sort for approximate ranges
+ *  - Bloom  : k accesses per build key
+ *  - xor    : hashing every key into 3 slots, peeling, assigning (about 6 accesses per key)
+ * so a small probe side favours cheap builds (or none).
+ * The latencies are rough defaults, not measured on the running machine.
+ * Candidates are only described and priced; newFilter() allocates the picked one.
+ */
+public final class ProbeFilterAdvisor {
+
+    // rough per-access latencies (ns) by working-set size
+    static final long L1_BYTES = 32L << 10;
+    static final long L2_BYTES = 1L << 20;
+    static final long L3_BYTES = 32L << 20;
+    static final double L1_NS = 1.0;
+    static final double L2_NS = 4.0;
+    static final double L3_NS = 15.0;
+    static final double DRAM_NS = 80.0;
+    static final double HASH_NS = 2.0;
+
+    static final int[] BLOOM_BITS_PER_KEY = {4, 8, 12, 16};
+    static final int[] XOR_FINGERPRINT_BITS = {8, 16};
+
+    /**
+     * One evaluated filter option; no filter is allocated until newFilter() is called.
+     * predictedCostNs = predictedProbeNs + predictedBuildNs / expected probe rows.
+     */
+    public static final class Choice {
+        private final Supplier<ProbeFilter> factory;
+        public final String description;
+        public final double predictedPassRate;
+        public final double predictedProbeNs;
+        public final double predictedBuildNs;
+        public final double predictedCostNs;
+        public final long predictedBytes;
+
+        Choice(Supplier<ProbeFilter> factory, String description, double predictedPassRate,
+               double predictedProbeNs, double predictedBuildNs, long probeRows, long predictedBytes) {
+            this.factory = factory;
+            this.description = description;
+            this.predictedPassRate = predictedPassRate;
+            this.predictedProbeNs = predictedProbeNs;
+            this.predictedBuildNs = predictedBuildNs;
+            this.predictedCostNs = predictedProbeNs + predictedBuildNs / Math.max(1, probeRows);
+            this.predictedBytes = predictedBytes;
+        }
+
+        /** false for the "none" option. */
+        public boolean hasFilter() {
+            return factory != null;
+        }
+
+        /** A fresh filter of this option (not yet fed / built) on every call; null = no filter. */
+        public ProbeFilter newFilter() {
+            return factory == null ? null : factory.get();
+        }
+
+        @Override
+        public String toString() {
+            return description + " (pass=" + String.format("%.4f", predictedPassRate)
+                    + ", cost=" + String.format("%.2f", predictedCostNs) + "ns/row, bytes=" + predictedBytes + ")";
+        }
+    }
+
+    private final int distinctKeys;
+    private final long keySpan;
+    private final int exactRangeCount;
+    private final long medianGap;
+    private final long maxGap;
+    private final int sampleSize;
+    private final double sampleHitRate;
+    private final long expectedProbeRows;
+    private final List<Choice> candidates = new ArrayList<>();
+
+    public int getDistinctKeys() { return distinctKeys; }
+    public long getKeySpan() { return keySpan; }
+    public int getExactRangeCount() { return exactRangeCount; }
+    public long getMedianGap() { return medianGap; }
+    public long getMaxGap() { return maxGap; }
+    public int getSampleSize() { return sampleSize; }
+    public double getSampleHitRate() { return sampleHitRate; }
+    public long getExpectedProbeRows() { return expectedProbeRows; }
+    /** All evaluated options, cheapest first. */
+    public List<Choice> getCandidates() { return Collections.unmodifiableList(candidates); }
+    public Choice getBest() { return candidates.get(0); }
+
+    /** Probe side of unknown size: assumes at least as many probe rows as build keys. */
+    public ProbeFilterAdvisor(int[] sortedBuildKeys, int buildKeyCount,
+                              int[] probeSample, int sampleCount, long hashTableBytes) {
+        this(sortedBuildKeys, buildKeyCount, probeSample, sampleCount, hashTableBytes,
+                Math.max(buildKeyCount, sampleCount));
+    }
+
+    /**
+     * @param sortedBuildKeys   build keys in ascending order (duplicates allowed), first buildKeyCount used
+     * @param probeSample       probe keys, first sampleCount used
+     * @param hashTableBytes    size of the built hash table (IntHashTable.approxBytesUsed())
+     * @param expectedProbeRows probe rows the filter's build cost is spread over
+     */
+    public ProbeFilterAdvisor(int[] sortedBuildKeys, int buildKeyCount,
+                              int[] probeSample, int sampleCount, long hashTableBytes, long expectedProbeRows) {
+        if (expectedProbeRows < 1) {
+            throw new IllegalArgumentException("expectedProbeRows must be >= 1");
+        }
+        RangeExtractor.Ranges exact = RangeExtractor.exactRangesOfSorted(sortedBuildKeys, buildKeyCount);
+        int count = exact.count;
+
+        int distinct = 0;
+        for (int r = 0; r < count; r++) {
+            distinct += exact.ends[r] - exact.starts[r] + 1;
+        }
+        this.distinctKeys = distinct;
+        this.keySpan = count == 0 ? 0 : (long) exact.ends[count - 1] - exact.starts[0] + 1;
+        this.exactRangeCount = count;
+        this.sampleSize = sampleCount;
+        this.expectedProbeRows = expectedProbeRows;
+
+        // gap ranks: rank 0 = widest gap, survives longest when approximating
+        int gapCount = Math.max(0, count - 1);
+        long[] packed = new long[gapCount];
+        for (int g = 0; g < gapCount; g++) {
+            long gap = (long) exact.starts[g + 1] - exact.ends[g] - 1;
+            packed[g] = (gap << 31) | g;
+        }
+        Arrays.sort(packed);
+        int[] gapRank = new int[gapCount];
+        for (int p = 0; p < gapCount; p++) {
+            gapRank[(int) (packed[p] & Integer.MAX_VALUE)] = gapCount - 1 - p;
+        }
+        this.medianGap = gapCount == 0 ? 0 : packed[gapCount / 2] >>> 31;
+        this.maxGap = gapCount == 0 ? 0 : packed[gapCount - 1] >>> 31;
+
+        // sample: hits, misses outside [min, max], misses per gap (by index and by rank)
+        int hits = 0;
+        int gapMisses = 0;
+        int[] missesAtGap = new int[gapCount + 1];
+        int[] missesAtRank = new int[gapCount + 1];
+        for (int s = 0; s < sampleCount; s++) {
+            int key = probeSample[s];
+            int pos = Arrays.binarySearch(exact.starts, 0, count, key);
+            int i = pos >= 0 ? pos : -pos - 2;
+            if (i < 0 || (i == count - 1 && key > exact.ends[i])) continue;
+            if (key <= exact.ends[i]) {
+                hits++;
+            } else {
+                missesAtGap[i]++;
+                missesAtRank[gapRank[i]]++;
+                gapMisses++;
+            }
+        }
+        double n = Math.max(1, sampleCount);
+        this.sampleHitRate = sampleCount == 0 ? 1.0 : hits / n;
+
+        double lookupNs = HASH_NS + 2 * latency(hashTableBytes);
+        long rows = expectedProbeRows;
+
+        // no filter
+        candidates.add(new Choice(null, "none", 1.0, lookupNs, 0, rows, 0));
+
+        if (sampleCount > 0) {
+            // every range filter sorts the build keys and builds an index over its ranges
+            double sortNs = (double) buildKeyCount * (levels(buildKeyCount) + 1) * L1_NS
+                    + buildKeyCount * latency(buildKeyCount * 4L);
+
+            // exact ranges
+            long exactBytes = (long) count * 8L;
+            candidates.add(new Choice(() -> RangesProbeFilter.exact(buildKeyCount), "exact_ranges(" + count + ")",
+                    sampleHitRate, rangeCheckNs(count, exactBytes) + sampleHitRate * lookupNs,
+                    sortNs + count * L1_NS, rows, exactBytes));
+
+            // grouped ranges: C equal-count groups keep the gaps after ranges (g + 1) * count / C - 1
+            for (int c = 1; c < count; c *= 2) {
+                int clusters = c;
+                int keptMisses = 0;
+                for (int g = 0; g < c - 1; g++) {
+                    keptMisses += missesAtGap[(int) ((long) (g + 1) * count / c) - 1];
+                }
+                double pass = (hits + gapMisses - keptMisses) / n;
+                long bytes = (long) c * 8L;
+                candidates.add(new Choice(() -> RangesProbeFilter.grouped(buildKeyCount, clusters),
+                        "grouped_ranges(" + c + ")", pass, rangeCheckNs(c, bytes) + pass * lookupNs,
+                        sortNs + (count + c) * L1_NS, rows, bytes));
+            }
+
+            // approximate ranges: T ranges keep gap ranks 0..T-2, keys in ranks >= T-1 pass
+            int[] passesFromRank = new int[gapCount + 2];
+            for (int r = gapCount; r >= 0; r--) {
+                passesFromRank[r] = passesFromRank[r + 1] + missesAtRank[r];
+            }
+            // RangeApproximator sorts the gap widths once: O(count log count)
+            double gapSortNs = (double) gapCount * (levels(gapCount) + 2) * L1_NS;
+            for (int t = 1; t < count; t *= 2) {
+                int target = t;
+                double pass = (hits + passesFromRank[t - 1]) / n;
+                long bytes = (long) t * 8L;
+                candidates.add(new Choice(() -> RangesProbeFilter.approximate(buildKeyCount, Integer.MAX_VALUE, target),
+                        "approx_ranges(" + t + ")", pass, rangeCheckNs(t, bytes) + pass * lookupNs,
+                        sortNs + gapSortNs + t * L1_NS, rows, bytes));
+            }
+
+            // Bloom
+            for (int bitsPerKey : BLOOM_BITS_PER_KEY) {
+                long m = Math.max(64L, (long) bitsPerKey * distinct);
+                int k = IntBloomFilter.optimalHashFunctions(Math.max(1, distinct), m);
+                double fill = 1.0 - Math.exp(-(double) k * distinct / m);
+                double fpr = Math.pow(fill, k);
+                double pass = sampleHitRate + (1.0 - sampleHitRate) * fpr;
+                // members test all k bits; a non-member stops at the first unset bit
+                double missProbes = fill >= 1.0 ? k : (1.0 - Math.pow(fill, k)) / (1.0 - fill);
+                double probes = sampleHitRate * k + (1.0 - sampleHitRate) * missProbes;
+                long bytes = (m + 7) / 8;
+                candidates.add(new Choice(() -> IntBloomFilter.withDoubleHashing(m, k),
+                        "bloom(" + bitsPerKey + " bits/key, k=" + k + ")", pass,
+                        HASH_NS + probes * latency(bytes) + pass * lookupNs,
+                        buildKeyCount * (HASH_NS + k * latency(bytes)), rows, bytes));
+            }
+
+            // xor filter
+            for (int bits : XOR_FINGERPRINT_BITS) {
+                double pass = sampleHitRate + (1.0 - sampleHitRate) / (1 << bits);
+                long bytes = (32L + (long) Math.ceil(1.23 * distinct)) * bits / 8;
+                candidates.add(new Choice(() -> new IntXorFilter(buildKeyCount, bits), "xor" + bits, pass,
+                        HASH_NS + 3 * latency(bytes) + pass * lookupNs,
+                        buildKeyCount * (HASH_NS + 6 * latency(bytes + buildKeyCount * 12L)), rows, bytes));
+            }
+        }
+
+        candidates.sort((a, b) -> Double.compare(a.predictedCostNs, b.predictedCostNs));
+    }
+
+    // binary search over starts/ends: upper levels stay cached, the last access pays the structure's latency
+    private static double rangeCheckNs(int rangeCount, long bytes) {
+        return levels(rangeCount) * L1_NS + latency(bytes);
+    }
+
+    private static int levels(int n) {
+        return 32 - Integer.numberOfLeadingZeros(Math.max(1, n));
+    }
+
+    static double latency(long bytes) {
+        if (bytes <= L1_BYTES) return L1_NS;
+        if (bytes <= L2_BYTES) return L2_NS;
+        if (bytes <= L3_BYTES) return L3_NS;
+        return DRAM_NS;
+    }
+}
@@ -0,0 +1,138 @@
+package com.tu.berlin.thesis.filter;
+
+import com.tu.berlin.thesis.data.FilterFile;
+import com.tu.berlin.thesis.rangetree.ExactRangesIndex;
+import com.tu.berlin.thesis.rangetree.RangeApproximator;
+import com.tu.berlin.thesis.rangetree.RangeExtractor;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Range prefilter over the build keys:
+ * RangeExtractor -> regroupToTargetClusters -> (optional) RangeApproximator -> ExactRangesIndex.
+ *
+ * clusterCount = Integer.MAX_VALUE     : no regrouping
+ * targetRangeCount = Integer.MAX_VALUE : no approximation (exact / grouped ranges)
+ *
+ * build() releases the collected keys; add() after build() is rejected.
+ *
+ * save(path) writes the built ranges (FilterFile TYPE_RANGES, fields: count, clusterCount,
+ * targetRangeCount, exactRangeCount, groupedRangeCount); map(path) returns a read-only,
+ * already built filter over the mapped file.
+ */
+public class RangesProbeFilter implements ProbeFilter {
+
+    private RangeExtractor extractor; // null once built (or mapped)
+    private final boolean mapped;
+    private final ExactRangesIndex ranges;
+    private final int clusterCount;
+    private final int targetRangeCount;
+
+    private int exactRangeCount = 0;
+    private int groupedRangeCount = 0;
+
+    public RangesProbeFilter(int expectedBuildKeys, int clusterCount, int targetRangeCount) {
+        this.extractor = new RangeExtractor(expectedBuildKeys);
+        this.mapped = false;
+        this.ranges = new ExactRangesIndex();
+        this.clusterCount = clusterCount;
+        this.targetRangeCount = targetRangeCount;
+    }
+
+    private RangesProbeFilter(ExactRangesIndex mapped, int clusterCount, int targetRangeCount,
+                              int exactRangeCount, int groupedRangeCount) {
+        this.extractor = null;
+        this.mapped = true;
+        this.ranges = mapped;
+        this.clusterCount = clusterCount;
+        this.targetRangeCount = targetRangeCount;
+        this.exactRangeCount = exactRangeCount;
+        this.groupedRangeCount = groupedRangeCount;
+    }
+
+    public void save(Path path) throws IOException {
+        try (FilterFile.Writer w = FilterFile.create(path, FilterFile.TYPE_RANGES,
+                ranges.getRangeCount(), clusterCount, targetRangeCount, exactRangeCount, groupedRangeCount)) {
+            ranges.writeTo(w);
+        }
+    }
+
+    /** Files written by ExactRangesIndex.save (count only) load as exact ranges. */
+    public static RangesProbeFilter map(Path path) throws IOException {
+        try (FilterFile.Reader r = FilterFile.open(path, FilterFile.TYPE_RANGES)) {
+            ExactRangesIndex index = ExactRangesIndex.mapFrom(r);
+            int n = index.getRangeCount();
+            if (r.fieldCount() < 5) {
+                return new RangesProbeFilter(index, Integer.MAX_VALUE, Integer.MAX_VALUE, n, n);
+            }
+            return new RangesProbeFilter(index, (int) r.field(1), (int) r.field(2),
+                    (int) r.field(3), (int) r.field(4));
+        }
+    }
+
+    public boolean isMapped() { return mapped; }
+
+    public static RangesProbeFilter exact(int expectedBuildKeys) {
+        return new RangesProbeFilter(expectedBuildKeys, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    public static RangesProbeFilter grouped(int expectedBuildKeys, int clusterCount) {
+        return new RangesProbeFilter(expectedBuildKeys, clusterCount, Integer.MAX_VALUE);
+    }
+
+    public static RangesProbeFilter approximate(int expectedBuildKeys, int clusterCount, int targetRangeCount) {
+        return new RangesProbeFilter(expectedBuildKeys, clusterCount, targetRangeCount);
+    }
+
+    @Override
+    public void add(int key) {
+        if (extractor == null) {
+            throw new IllegalStateException(mapped ? "mapped range filter is read-only"
+                    : "range filter already built; add() must come before build()");
+        }
+        extractor.add(key);
+    }
+
+    @Override
+    public void build() {
+        if (extractor == null) return;
+        RangeExtractor.Ranges exact = extractor.buildExactRanges();
+        exactRangeCount = exact.count;
+
+        RangeExtractor.Ranges grouped = RangeExtractor.regroupToTargetClusters(exact, clusterCount);
+        groupedRangeCount = grouped.count;
+
+        RangeExtractor.Ranges result = targetRangeCount == Integer.MAX_VALUE
+                ? grouped
+                : RangeApproximator.approximate(grouped, targetRangeCount);
+
+        ranges.build(result.starts, result.ends, result.count);
+        extractor = null;
+    }
+
+    @Override
+    public boolean mightContain(int key) {
+        return ranges.contains(key);
+    }
+
+    @Override
+    public String name() {
+        if (targetRangeCount != Integer.MAX_VALUE) return "approx_ranges";
+        if (clusterCount != Integer.MAX_VALUE) return "grouped_ranges";
+        return "exact_ranges";
+    }
+
+    @Override
+    public long approxBytesUsed() { return ranges.approxBytesUsed(); }
+
+    @Override
+    public long buildBytesUsed() {
+        return (extractor == null ? 0 : extractor.approxBytesUsed()) + ranges.approxBytesUsed();
+    }
+
+    public int getExactRangeCount() { return exactRangeCount; }
+    public int getGroupedRangeCount() { return groupedRangeCount; }
+    public int getRangeCount() { return ranges.getRangeCount(); }
+    public ExactRangesIndex getIndex() { return ranges; }
+}
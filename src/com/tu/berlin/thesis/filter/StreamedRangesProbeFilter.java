@@ -0,0 +1,37 @@
+package com.tu.berlin.thesis.filter;
+
+import com.tu.berlin.thesis.operators.IntStreamingApproximateRangeSet;
+
+/**
+ * Range prefilter maintained online during the build phase
+ * (greedy IntStreamingApproximateRangeSet, at most targetRangeCount ranges).
+ */
+public class StreamedRangesProbeFilter implements ProbeFilter {
+
+    private final IntStreamingApproximateRangeSet ranges;
+
+    public StreamedRangesProbeFilter(int targetRangeCount) {
+        this.ranges = new IntStreamingApproximateRangeSet(targetRangeCount);
+    }
+
+    @Override
+    public void add(int key) {
+        ranges.insert(key);
+    }
+
+    @Override
+    public void build() { }
+
+    @Override
+    public boolean mightContain(int key) {
+        return ranges.contains(key);
+    }
+
+    @Override
+    public String name() { return "streamed_ranges"; }
+
+    @Override
+    public long approxBytesUsed() { return ranges.getRangeBytes(); }
+
+    public int getRangeCount() { return ranges.getRangeCount(); }
+}
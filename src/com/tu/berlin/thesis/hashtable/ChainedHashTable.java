@@ -0,0 +1,122 @@
+package com.tu.berlin.thesis.hashtable;
+
+import java.util.Arrays;
+
+/**
+ * Entry and chain storage shared by IntHashTable and LongHashTable.
+ *
+ * Entries: one per inserted build row (rows[e], next[e]), ids in insertion order.
+ * Per slot: head / tail / count of the chain of entries under the slot's key, so
+ * duplicates keep their insertion order. The subclass owns the slot keys and
+ * the probing; it calls chain() once it found the slot for a key.
+ */
+abstract class ChainedHashTable {
+
+    static final int EMPTY = -1; // == NO_ENTRY of the public tables
+    static final float MAX_LOAD = 0.7f;
+
+    // chains, one per slot
+    int[] slotHeads;   // EMPTY = empty slot
+    int[] slotTails;
+    int[] slotCounts;
+    int distinctKeys;
+
+    // entries (one per build row)
+    int[][] rows;
+    int[] next;
+    int entryCount;
+
+    ChainedHashTable(int[][] rows, int entryCount) {
+        this.rows = rows;
+        this.next = new int[Math.max(16, rows.length)];
+        this.entryCount = entryCount;
+    }
+
+    public final int firstEntry(int slot) { return slotHeads[slot]; }
+    public final int matchCount(int slot) { return slotCounts[slot]; }
+    public final int nextEntry(int entry) { return next[entry]; }
+    public final int[] row(int entry) { return rows[entry]; }
+
+    public int size() { return entryCount; }
+    public final int distinctKeys() { return distinctKeys; }
+
+    /** Appends a new entry for row and returns its id. */
+    final int newEntry(int[] row) {
+        if (entryCount == rows.length) {
+            int newLength = rows.length * 2;
+            rows = Arrays.copyOf(rows, newLength);
+            next = Arrays.copyOf(next, newLength);
+        }
+        rows[entryCount] = row;
+        return entryCount++;
+    }
+
+    /**
+     * Appends entry e to slot's chain. Returns true if the slot was empty: the
+     * caller then stores the key and counts a new distinct key.
+     */
+    final boolean chain(int slot, int e) {
+        next[e] = EMPTY;
+        if (slotHeads[slot] == EMPTY) {
+            slotHeads[slot] = e;
+            slotTails[slot] = e;
+            slotCounts[slot] = 1;
+            return true;
+        }
+        next[slotTails[slot]] = e;
+        slotTails[slot] = e;
+        slotCounts[slot]++;
+        return false;
+    }
+
+    void allocateChains(int capacity) {
+        slotHeads = new int[capacity];
+        slotTails = new int[capacity];
+        slotCounts = new int[capacity];
+        Arrays.fill(slotHeads, EMPTY);
+    }
+
+    /** Moves the chain of slot from (in the given old arrays) to slot to. */
+    final void moveChain(int[] heads, int[] tails, int[] counts, int from, int to) {
+        slotHeads[to] = heads[from];
+        slotTails[to] = tails[from];
+        slotCounts[to] = counts[from];
+    }
+
+    void clearEntries() {
+        Arrays.fill(slotHeads, EMPTY);
+        Arrays.fill(rows, 0, entryCount, null);
+        distinctKeys = 0;
+        entryCount = 0;
+    }
+
+    /** Power-of-two slot count keeping expectedKeys below MAX_LOAD (at most 2^30). */
+    static int slotCapacityFor(long expectedKeys) {
+        return tableSizeFor((int) Math.min(1 << 30, (long) (expectedKeys / MAX_LOAD) + 1));
+    }
+
+    static int tableSizeFor(int n) {
+        int cap = Integer.highestOneBit(Math.max(16, n - 1)) << 1;
+        return cap < 0 ? 1 << 30 : cap;
+    }
+
+    /** MurmurHash3 fmix32. */
+    static int fmix32(int h) {
+        h ^= (h >>> 16);
+        h *= 0x85ebca6b;
+        h ^= (h >>> 13);
+        h *= 0xc2b2ae35;
+        h ^= (h >>> 16);
+        return h;
+    }
+
+    /** MurmurHash3 fmix64. */
+    static long fmix64(long h) {
+        h ^= (h >>> 33);
+        h *= 0xff51afd7ed558ccdL;
+        h ^= (h >>> 33);
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= (h >>> 33);
+        return h;
+    }
+}
@@ -0,0 +1,303 @@
+package com.tu.berlin.thesis.hashtable;
+
+import java.util.Arrays;
+
+/**
+ * Primitive int-keyed hash table for the join build side.
+ *
+ * Slots: open addressing with linear probing over int[] key slots.
+ * Entries: one per inserted build row, ids assigned in insertion order.
+ * Rows with the same key are chained through next[] (head/tail per slot, see
+ * ChainedHashTable), so duplicates keep their insertion order and cost 4 bytes
+ * of chain each.
+ *
+ * No Integer boxing, no HashMap.Node, no ArrayList per key.
+ *
+ * Probe:
+ *  - slot = findSlot(key)            (NO_SLOT if the key is absent)
+ *  - e = firstEntry(slot), e = nextEntry(e) ... until NO_ENTRY
+ *
+ * The slot array can be split into 2^segmentBits segments picked by the top
+ * hash bits (linear probing wraps inside a segment). A single-threaded table
+ * has one segment; forBulkLoad() uses several so that threads can fill
+ * disjoint segments without locking.
+ *
+ * Removal (removeKey / removeRow) unlinks entries and frees emptied slots by
+ * backward-shift deletion (no tombstones). Removed entry ids go on a free list
+ * (linked through next[]) that later inserts take from first, so insert / delete
+ * churn does not grow rows[] / next[]. row(e) of a free entry is null; size() is
+ * the number of entry ids in use or free, liveSize() the rows in the table.
+ */
+public final class IntHashTable extends ChainedHashTable {
+
+    public static final int NO_SLOT = -1;
+    public static final int NO_ENTRY = EMPTY;
+
+    public static final int MAX_SEGMENT_BITS = 8;
+
+    // slots: segmentCount segments of (mask + 1) slots each
+    private int[] slotKeys;
+    private int mask;          // in-segment mask
+    private int segmentShift;  // log2(slots per segment)
+    private final int segmentMask;
+    private int[] segmentKeys; // distinct keys per segment
+    private int resizeThreshold;
+    private int removedEntries; // entries on the free list
+    private int freeEntry = NO_ENTRY; // head of the free list
+
+    public IntHashTable(int expectedKeys) {
+        super(new int[Math.max(16, expectedKeys)][], 0);
+        this.segmentMask = 0;
+        allocateSlots(slotCapacityFor(Math.max(16, expectedKeys)));
+    }
+
+    private IntHashTable(int[][] rows, int rowCount, int segmentBits, int maxKeysPerSegment) {
+        super(rows, rowCount);
+        this.segmentMask = (1 << segmentBits) - 1;
+        allocateSlots(tableSizeFor((int) Math.min(maxSegmentSlots(segmentBits), (long) (maxKeysPerSegment / MAX_LOAD) + 2)));
+    }
+
+    /**
+     * Slots one segment can have: in-segment bits must stay below the 8 segment-selector
+     * bits (hash bits 24..31), and all segments together at most 2^30 slots.
+     */
+    public static int maxSegmentSlots(int segmentBits) {
+        return segmentBits == 0 ? 1 << 30 : Math.min(1 << 24, (1 << 30) >>> segmentBits);
+    }
+
+    /** Distinct keys one segment holds at MAX_LOAD. */
+    public static int maxKeysPerSegment(int segmentBits) {
+        return (int) (maxSegmentSlots(segmentBits) * MAX_LOAD);
+    }
+
+    /**
+     * Segment bits for a bulk load of expectedKeys keys: at least minSegmentBits, and
+     * enough segments that an average one is at most half full at MAX_LOAD (room for
+     * uneven hashing). MAX_SEGMENT_BITS if even that is not enough.
+     */
+    public static int segmentBitsFor(long expectedKeys, int minSegmentBits) {
+        int bits = Math.min(MAX_SEGMENT_BITS, Math.max(0, minSegmentBits));
+        while (bits < MAX_SEGMENT_BITS && (expectedKeys >> bits) > maxKeysPerSegment(bits) / 2) {
+            bits++;
+        }
+        return bits;
+    }
+
+    /**
+     * Table over already collected build rows: entry id == row index.
+     * Fill it with insertEntry() (thread-safe for distinct segments), then finishBulkLoad().
+     * maxKeysPerSegment bounds the keys any one segment receives, so no resize happens.
+     */
+    public static IntHashTable forBulkLoad(int[][] rows, int rowCount, int segmentBits, int maxKeysPerSegment) {
+        if (segmentBits < 0 || segmentBits > MAX_SEGMENT_BITS) {
+            throw new IllegalArgumentException("segmentBits must be in [0.." + MAX_SEGMENT_BITS + "]");
+        }
+        return new IntHashTable(rows, rowCount, segmentBits, maxKeysPerSegment);
+    }
+
+    /** Segment a key lands in for a table with 2^segmentBits segments. */
+    public static int segmentOf(int key, int segmentBits) {
+        return (hash(key) >>> 24) & ((1 << segmentBits) - 1);
+    }
+
+    /** Add one build row under key (called during build phase). */
+    public void put(int key, int[] row) {
+        insert(key, row);
+    }
+
+    /** Key-only entry (row(e) stays null); returns its id, i.e. the insertion index without removals. */
+    public int add(int key) {
+        return insert(key, null);
+    }
+
+    private int insert(int key, int[] row) {
+        int e;
+        if (freeEntry != NO_ENTRY) {
+            e = freeEntry;
+            freeEntry = next[e];
+            rows[e] = row;
+            removedEntries--;
+        } else {
+            e = newEntry(row);
+        }
+        int segment = link(key, e);
+        if (segmentKeys[segment] > resizeThreshold) {
+            rehash((mask + 1) << 1);
+        }
+        return e;
+    }
+
+    /** Bulk load: chains existing entry e (row index) under key. No resize. */
+    public void insertEntry(int key, int e) {
+        link(key, e);
+    }
+
+    public void finishBulkLoad() {
+        int sum = 0;
+        for (int c : segmentKeys) sum += c;
+        distinctKeys = sum;
+    }
+
+    /** One hash lookup: slot holding key, or NO_SLOT. */
+    public int findSlot(int key) {
+        int h = hash(key);
+        int base = ((h >>> 24) & segmentMask) << segmentShift;
+        int i = h & mask;
+        while (true) {
+            int slot = base + i;
+            if (slotHeads[slot] == NO_ENTRY) return NO_SLOT;
+            if (slotKeys[slot] == key) return slot;
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * Removes every entry under key; returns how many were removed (0 if the key is absent).
+     */
+    public int removeKey(int key) {
+        int slot = findSlot(key);
+        if (slot == NO_SLOT) return 0;
+        int removed = slotCounts[slot];
+        int e = slotHeads[slot];
+        freeSlot(slot);
+        while (e != NO_ENTRY) {
+            int following = next[e];
+            freeEntry(e);
+            e = following;
+        }
+        return removed;
+    }
+
+    /**
+     * Removes the first entry under key whose row has the same content as row
+     * (Arrays.equals); returns false if there is none.
+     */
+    public boolean removeRow(int key, int[] row) {
+        int slot = findSlot(key);
+        if (slot == NO_SLOT) return false;
+        int prev = NO_ENTRY;
+        for (int e = slotHeads[slot]; e != NO_ENTRY; prev = e, e = next[e]) {
+            if (!Arrays.equals(rows[e], row)) continue;
+            if (slotCounts[slot] == 1) {
+                freeSlot(slot);
+            } else {
+                if (prev == NO_ENTRY) slotHeads[slot] = next[e];
+                else next[prev] = next[e];
+                if (slotTails[slot] == e) slotTails[slot] = prev;
+                slotCounts[slot]--;
+            }
+            freeEntry(e);
+            return true;
+        }
+        return false;
+    }
+
+    public int liveSize() { return entryCount - removedEntries; }
+
+    public long approxBytesUsed() {
+        // 4 int arrays per slot + next[] + row references, ignoring headers and the rows themselves
+        return (long) slotKeys.length * 4L * 4L + (long) next.length * 4L + (long) rows.length * 8L;
+    }
+
+    public void clear() {
+        clearEntries();
+        Arrays.fill(segmentKeys, 0);
+        removedEntries = 0;
+        freeEntry = NO_ENTRY;
+    }
+
+    // ------------------------------------------------------------
+    // internals
+    // ------------------------------------------------------------
+
+    /** Chains entry e under key; returns the segment it went to. */
+    private int link(int key, int e) {
+        int h = hash(key);
+        int segment = (h >>> 24) & segmentMask;
+        int slot = slotFor(key, h);
+        if (chain(slot, e)) {
+            slotKeys[slot] = key;
+            if (++segmentKeys[segment] > mask) {
+                throw new IllegalStateException("hash table segment full");
+            }
+            distinctKeys++;
+        }
+        return segment;
+    }
+
+    private void freeEntry(int e) {
+        rows[e] = null;
+        next[e] = freeEntry;
+        freeEntry = e;
+        removedEntries++;
+    }
+
+    /**
+     * Empties slot and shifts later slots of its probe run back into the hole,
+     * unless their home position lies cyclically in (hole, slot], so every key
+     * stays reachable by linear probing.
+     */
+    private void freeSlot(int slot) {
+        int segment = slot >>> segmentShift;
+        int base = segment << segmentShift;
+        int hole = slot - base;
+        int i = hole;
+        while (true) {
+            i = (i + 1) & mask;
+            int s = base + i;
+            if (slotHeads[s] == NO_ENTRY) break;
+            int home = hash(slotKeys[s]) & mask;
+            boolean stays = hole <= i ? (hole < home && home <= i) : (hole < home || home <= i);
+            if (stays) continue;
+            slotKeys[base + hole] = slotKeys[s];
+            moveChain(slotHeads, slotTails, slotCounts, s, base + hole);
+            hole = i;
+        }
+        slotHeads[base + hole] = NO_ENTRY;
+        segmentKeys[segment]--;
+        distinctKeys--;
+    }
+
+    /** Slot holding key, or the empty slot where key would go. */
+    private int slotFor(int key, int h) {
+        int base = ((h >>> 24) & segmentMask) << segmentShift;
+        int i = h & mask;
+        while (slotHeads[base + i] != NO_ENTRY && slotKeys[base + i] != key) {
+            i = (i + 1) & mask;
+        }
+        return base + i;
+    }
+
+    private void allocateSlots(int segmentCapacity) {
+        int capacity = segmentCapacity * (segmentMask + 1);
+        slotKeys = new int[capacity];
+        allocateChains(capacity);
+        segmentKeys = new int[segmentMask + 1];
+        mask = segmentCapacity - 1;
+        segmentShift = Integer.numberOfTrailingZeros(segmentCapacity);
+        resizeThreshold = (int) (segmentCapacity * MAX_LOAD);
+    }
+
+    private void rehash(int newSegmentCapacity) {
+        int[] oldKeys = slotKeys;
+        int[] oldHeads = slotHeads;
+        int[] oldTails = slotTails;
+        int[] oldCounts = slotCounts;
+
+        allocateSlots(newSegmentCapacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldHeads[i] == NO_ENTRY) continue;
+            int h = hash(oldKeys[i]);
+            int slot = slotFor(oldKeys[i], h);
+            slotKeys[slot] = oldKeys[i];
+            moveChain(oldHeads, oldTails, oldCounts, i, slot);
+            segmentKeys[(h >>> 24) & segmentMask]++;
+        }
+    }
+
+    /** MurmurHash3 fmix32: spreads sequential keys over the low bits we mask with. */
+    static int hash(int key) {
+        return fmix32(key);
+    }
+}
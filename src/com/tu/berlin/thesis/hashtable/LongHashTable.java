@@ -0,0 +1,109 @@
+package com.tu.berlin.thesis.hashtable;
+
+/**
+ * Primitive long-keyed hash table for the join build side: the 64-bit key
+ * counterpart of IntHashTable (64-bit surrogate keys, two int columns packed
+ * into one long).
+ *
+ * Same layout as IntHashTable (entries and chains come from ChainedHashTable):
+ * open addressing with linear probing over long[] key slots, one entry per
+ * build row, duplicates chained through next[] in insertion order.
+ * Single segment, no bulk-load mode.
+ *
+ * Probe:
+ *  - slot = findSlot(key)            (NO_SLOT if the key is absent)
+ *  - e = firstEntry(slot), e = nextEntry(e) ... until NO_ENTRY
+ */
+public final class LongHashTable extends ChainedHashTable {
+
+    public static final int NO_SLOT = -1;
+    public static final int NO_ENTRY = EMPTY;
+
+    private long[] slotKeys;
+    private int mask;
+    private int resizeThreshold;
+
+    public LongHashTable(int expectedKeys) {
+        super(new int[Math.max(16, expectedKeys)][], 0);
+        allocateSlots(slotCapacityFor(Math.max(16, expectedKeys)));
+    }
+
+    /** Add one build row under key (called during build phase). */
+    public void put(long key, int[] row) {
+        int e = newEntry(row);
+        int slot = slotFor(key);
+        if (chain(slot, e)) {
+            slotKeys[slot] = key;
+            if (++distinctKeys > resizeThreshold) {
+                rehash((mask + 1) << 1);
+            }
+        }
+    }
+
+    /** Key-only entry (row(e) stays null); returns its id, i.e. the insertion index. */
+    public int add(long key) {
+        put(key, null);
+        return entryCount - 1;
+    }
+
+    /** One hash lookup: slot holding key, or NO_SLOT. */
+    public int findSlot(long key) {
+        int i = hash(key) & mask;
+        while (true) {
+            if (slotHeads[i] == NO_ENTRY) return NO_SLOT;
+            if (slotKeys[i] == key) return i;
+            i = (i + 1) & mask;
+        }
+    }
+
+    public long approxBytesUsed() {
+        // long key + 3 int arrays per slot + next[] + row references, ignoring headers and the rows themselves
+        return (long) slotKeys.length * (8L + 3L * 4L) + (long) next.length * 4L + (long) rows.length * 8L;
+    }
+
+    public void clear() {
+        clearEntries();
+    }
+
+    // ------------------------------------------------------------
+    // internals
+    // ------------------------------------------------------------
+
+    /** Slot holding key, or the empty slot where key would go. */
+    private int slotFor(long key) {
+        int i = hash(key) & mask;
+        while (slotHeads[i] != NO_ENTRY && slotKeys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void allocateSlots(int capacity) {
+        slotKeys = new long[capacity];
+        allocateChains(capacity);
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * MAX_LOAD);
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = slotKeys;
+        int[] oldHeads = slotHeads;
+        int[] oldTails = slotTails;
+        int[] oldCounts = slotCounts;
+
+        allocateSlots(newCapacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldHeads[i] == NO_ENTRY) continue;
+            int slot = slotFor(oldKeys[i]);
+            slotKeys[slot] = oldKeys[i];
+            moveChain(oldHeads, oldTails, oldCounts, i, slot);
+        }
+    }
+
+    /** MurmurHash3 fmix64, folded to 32 bits. */
+    static int hash(long key) {
+        long h = fmix64(key);
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,92 @@
+package com.tu.berlin.thesis.operators;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Adaptive on/off switch around a probe prefilter.
+ *
+ * While enabled, the filter runs and its rejection rate is sampled over
+ * windows of windowSize probes. A window rejecting less than minRejectRate
+ * means the filter mostly costs time on top of the hash lookup, so it is
+ * disabled: the next bypassRows probes skip it (test() returns true and the
+ * hash lookup decides). Afterwards it is re-enabled for one window to re-check,
+ * since the probe key distribution may have changed.
+ *
+ * No false negatives: a bypassed key always passes.
+ * Not thread-safe: one gate per probe loop.
+ */
+final class AdaptiveFilterGate implements IntPredicate {
+
+    static final int DEFAULT_WINDOW_SIZE = 1024;
+    static final double DEFAULT_MIN_REJECT_RATE = 0.10;
+    static final int DEFAULT_BYPASS_WINDOWS = 16;
+
+    private final IntPredicate filter;
+    private final int windowSize;
+    private final double minRejectRate;
+    private final int bypassRows;
+
+    private boolean enabled = true;
+    private int windowProbes = 0;
+    private int windowRejects = 0;
+    private int bypassLeft = 0;
+    private double lastWindowRejectRate = -1;
+
+    // metrics
+    private int bypassedRows = 0;
+    private int disables = 0;
+    private int enables = 0;
+
+    int getBypassedRows() { return bypassedRows; }
+    int getDisables() { return disables; }
+    int getEnables() { return enables; }
+    boolean isEnabled() { return enabled; }
+    double getLastWindowRejectRate() { return lastWindowRejectRate; }
+
+    AdaptiveFilterGate(IntPredicate filter, int windowSize, double minRejectRate, int bypassWindows) {
+        checkConfig(windowSize, minRejectRate, bypassWindows);
+        this.filter = filter;
+        this.windowSize = windowSize;
+        this.minRejectRate = minRejectRate;
+        this.bypassRows = windowSize * bypassWindows;
+    }
+
+    static void checkConfig(int windowSize, double minRejectRate, int bypassWindows) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("windowSize must be >= 1");
+        }
+        if (!(minRejectRate >= 0.0 && minRejectRate <= 1.0)) {
+            throw new IllegalArgumentException("minRejectRate must be in [0, 1]");
+        }
+        if (bypassWindows < 1) {
+            throw new IllegalArgumentException("bypassWindows must be >= 1");
+        }
+    }
+
+    @Override
+    public boolean test(int key) {
+        if (!enabled) {
+            bypassedRows++;
+            if (--bypassLeft == 0) {
+                enabled = true;
+                enables++;
+            }
+            return true;
+        }
+
+        boolean pass = filter.test(key);
+        if (!pass) windowRejects++;
+
+        if (++windowProbes == windowSize) {
+            lastWindowRejectRate = (double) windowRejects / windowSize;
+            if (lastWindowRejectRate < minRejectRate) {
+                enabled = false;
+                bypassLeft = bypassRows;
+                disables++;
+            }
+            windowProbes = 0;
+            windowRejects = 0;
+        }
+        return pass;
+    }
+}
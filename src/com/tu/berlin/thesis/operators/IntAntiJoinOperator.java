@@ -0,0 +1,20 @@
+package com.tu.berlin.thesis.operators;
+
+/**
+ * Anti-join (NOT EXISTS): emits each probe row that has no build match.
+ * Only build keys are stored; see IntKeyOnlyJoin for the range-only / hash set choice.
+ */
+public class IntAntiJoinOperator extends IntKeyOnlyJoin {
+
+    public IntAntiJoinOperator(IntOperator left, IntOperator right, int leftKeyIndex, int rightKeyIndex,
+                               int expectedBuildKeys, int maxRangeCount) {
+        super(left, right, leftKeyIndex, rightKeyIndex, expectedBuildKeys, maxRangeCount, false);
+    }
+
+    public IntAntiJoinOperator(IntOperator left, IntOperator right, int leftKeyIndex, int rightKeyIndex) {
+        this(left, right, leftKeyIndex, rightKeyIndex, 1024, DEFAULT_MAX_RANGE_COUNT);
+    }
+
+    @Override
+    String name() { return "IntAntiJoin"; }
+}
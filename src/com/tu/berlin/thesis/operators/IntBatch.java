@@ -0,0 +1,51 @@
+package com.tu.berlin.thesis.operators;
+
+/**
+ * Column batch + selection vector for batch-at-a-time execution.
+ *
+ * Active rows are selection[0..size-1]; each entry is a row position
+ * into every columns[c] array. Consumers must only read rows through
+ * the selection vector: producers may hand out shared column arrays
+ * (e.g. a whole table column) and narrow the selection instead of copying.
+ *
+ * A batch returned by nextBatch() is owned by the producer and is only
+ * valid until the next call.
+ */
+public final class IntBatch {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    public int[][] columns;
+    public final int[] selection;
+    public int size;
+
+    /** Batch with its own column buffers of the given capacity. */
+    public IntBatch(int columnCount, int capacity) {
+        this.columns = new int[columnCount][capacity];
+        this.selection = new int[capacity];
+        this.size = 0;
+    }
+
+    /** Batch whose columns are set by the producer (shared arrays). */
+    public IntBatch(int capacity) {
+        this.columns = new int[0][];
+        this.selection = new int[capacity];
+        this.size = 0;
+    }
+
+    public int capacity() { return selection.length; }
+    public int columnCount() { return columns.length; }
+
+    /** Value of column c for the i-th active row. */
+    public int get(int c, int i) { return columns[c][selection[i]]; }
+
+    /** Copies the i-th active row out into a fresh int[] (row-interface boundary). */
+    public int[] materializeRow(int i) {
+        int row = selection[i];
+        int[] out = new int[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            out[c] = columns[c][row];
+        }
+        return out;
+    }
+}
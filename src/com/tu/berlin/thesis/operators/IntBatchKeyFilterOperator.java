@@ -0,0 +1,59 @@
+package com.tu.berlin.thesis.operators;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Batch prefilter: narrows the selection vector to rows whose key passes
+ * the filter (ExactRangesIndex::contains, a Bloom mightContain, ...).
+ * Only the key column is read; the child's batch is returned with the
+ * narrowed selection, nothing is copied.
+ */
+public class IntBatchKeyFilterOperator implements IntBatchOperator {
+
+    private final IntBatchOperator child;
+    private final int keyIndex;
+    private final IntPredicate filter;
+
+    private int passes = 0;
+    private int rejects = 0;
+
+    public int getPasses() { return passes; }
+    public int getRejects() { return rejects; }
+
+    public IntBatchKeyFilterOperator(IntBatchOperator child, int keyIndex, IntPredicate filter) {
+        this.child = child;
+        this.keyIndex = keyIndex;
+        this.filter = filter;
+    }
+
+    @Override public void open() { child.open(); }
+
+    @Override
+    public IntBatch nextBatch() {
+        IntBatch batch;
+        while ((batch = child.nextBatch()) != null) {
+            int before = batch.size;
+            batch.size = filterSelection(batch.columns[keyIndex], batch.selection, before, filter);
+            passes += batch.size;
+            rejects += before - batch.size;
+            if (batch.size > 0) return batch;
+        }
+        return null;
+    }
+
+    @Override public void close() { child.close(); }
+
+    /**
+     * Compacts sel[0..n-1] in place to the rows whose key passes filter.
+     * Returns the new selection size.
+     */
+    static int filterSelection(int[] keys, int[] sel, int n, IntPredicate filter) {
+        int out = 0;
+        for (int i = 0; i < n; i++) {
+            int row = sel[i];
+            sel[out] = row;
+            out += filter.test(keys[row]) ? 1 : 0;
+        }
+        return out;
+    }
+}
@@ -0,0 +1,11 @@
+package com.tu.berlin.thesis.operators;
+
+/**
+ * Batch-at-a-time counterpart of IntOperator.
+ * nextBatch() returns null at end of input; a returned batch never has size 0.
+ */
+public interface IntBatchOperator {
+    void open();
+    IntBatch nextBatch();
+    void close();
+}
@@ -0,0 +1,154 @@
+package com.tu.berlin.thesis.operators;
+
+import com.tu.berlin.thesis.hashtable.IntHashTable;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Batch probe loop shared by the hash join operators' nextBatch().
+ *
+ * Per probe batch:
+ *  1) prefilter pass over the key column only, compacting the selection vector
+ *  2) hash lookup for the survivors
+ *  3) output columns written for matches only (build row + probe row)
+ *
+ * A probe row whose matches do not fit into the output batch is resumed
+ * on the next call, so output batches are always full except the last one.
+ */
+final class IntBatchProbe {
+
+    /** Whole-batch prefilter: compacts sel[0..n-1] in place to the rows whose key passes, returns the new size. */
+    interface SelectionFilter {
+        int filterSelection(int[] keys, int[] sel, int n);
+    }
+
+    private final IntHashTable hashTable;
+    private final IntBatchOperator probeInput;
+    private final int probeKeyIndex;
+    private final SelectionFilter prefilter; // null = no prefilter
+    private final int batchSize;
+
+    private IntBatch out;
+
+    // row-mode state handed over from the operator (probe row already looked up)
+    private int[] carriedRow;
+    private int carriedEntry = IntHashTable.NO_ENTRY;
+
+    // current probe batch
+    private IntBatch in;
+    private int inPos;
+    private int inRow;
+    private int pendingEntry = IntHashTable.NO_ENTRY;
+
+    private int filterPasses = 0;
+    private int filterRejects = 0;
+    private int hashLookups = 0;
+    private int actualMatches = 0;
+
+    int getFilterPasses() { return filterPasses; }
+    int getFilterRejects() { return filterRejects; }
+    int getHashLookups() { return hashLookups; }
+    int getActualMatches() { return actualMatches; }
+
+    IntBatchProbe(IntHashTable hashTable, IntBatchOperator probeInput, int probeKeyIndex,
+                  IntPredicate prefilter, int batchSize) {
+        this(hashTable, probeInput, probeKeyIndex, batchSize, prefilter == null ? null
+                : (keys, sel, n) -> IntBatchKeyFilterOperator.filterSelection(keys, sel, n, prefilter));
+    }
+
+    /** Prefilter given in whole-batch form, e.g. a Bloom filter's batch probe. */
+    static IntBatchProbe withSelectionFilter(IntHashTable hashTable, IntBatchOperator probeInput, int probeKeyIndex,
+                                             SelectionFilter prefilter, int batchSize) {
+        return new IntBatchProbe(hashTable, probeInput, probeKeyIndex, batchSize, prefilter);
+    }
+
+    private IntBatchProbe(IntHashTable hashTable, IntBatchOperator probeInput, int probeKeyIndex,
+                          int batchSize, SelectionFilter prefilter) {
+        this.hashTable = hashTable;
+        this.probeInput = probeInput;
+        this.probeKeyIndex = probeKeyIndex;
+        this.prefilter = prefilter;
+        this.batchSize = batchSize;
+    }
+
+    /** Continue from a probe row the row interface already advanced to. */
+    void carry(int[] probeRow, int firstEntry) {
+        this.carriedRow = probeRow;
+        this.carriedEntry = probeRow == null ? IntHashTable.NO_ENTRY : firstEntry;
+    }
+
+    IntBatch nextBatch() {
+        int n = 0;
+
+        while (carriedEntry != IntHashTable.NO_ENTRY) {
+            if (n == batchSize) return emit(n);
+            int[] buildRow = hashTable.row(carriedEntry);
+            ensureOutput(buildRow.length, carriedRow.length);
+            writeBuildRow(buildRow, n);
+            int off = buildRow.length;
+            for (int c = 0; c < carriedRow.length; c++) {
+                out.columns[off + c][n] = carriedRow[c];
+            }
+            out.selection[n] = n;
+            n++;
+            carriedEntry = hashTable.nextEntry(carriedEntry);
+        }
+        carriedRow = null;
+
+        while (true) {
+            // drain matches of the current probe row
+            while (pendingEntry != IntHashTable.NO_ENTRY) {
+                if (n == batchSize) return emit(n);
+                int[] buildRow = hashTable.row(pendingEntry);
+                ensureOutput(buildRow.length, in.columns.length);
+                writeBuildRow(buildRow, n);
+                int off = buildRow.length;
+                for (int c = 0; c < in.columns.length; c++) {
+                    out.columns[off + c][n] = in.columns[c][inRow];
+                }
+                out.selection[n] = n;
+                n++;
+                pendingEntry = hashTable.nextEntry(pendingEntry);
+            }
+
+            if (in == null || inPos == in.size) {
+                in = probeInput.nextBatch();
+                inPos = 0;
+                if (in == null) return n == 0 ? null : emit(n);
+
+                if (prefilter != null) {
+                    int before = in.size;
+                    in.size = prefilter.filterSelection(in.columns[probeKeyIndex], in.selection, before);
+                    filterPasses += in.size;
+                    filterRejects += before - in.size;
+                }
+                continue;
+            }
+
+            inRow = in.selection[inPos++];
+            hashLookups++;
+            int slot = hashTable.findSlot(in.columns[probeKeyIndex][inRow]);
+            if (slot != IntHashTable.NO_SLOT) {
+                pendingEntry = hashTable.firstEntry(slot);
+                actualMatches += hashTable.matchCount(slot);
+            }
+        }
+    }
+
+    private IntBatch emit(int n) {
+        out.size = n;
+        return out;
+    }
+
+    private void writeBuildRow(int[] buildRow, int n) {
+        for (int c = 0; c < buildRow.length; c++) {
+            out.columns[c][n] = buildRow[c];
+        }
+    }
+
+    private void ensureOutput(int buildWidth, int probeWidth) {
+        if (out == null || out.columnCount() != buildWidth + probeWidth) {
+            out = new IntBatch(buildWidth + probeWidth, batchSize);
+        }
+    }
+}
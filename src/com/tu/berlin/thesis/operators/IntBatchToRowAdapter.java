@@ -0,0 +1,39 @@
+package com.tu.berlin.thesis.operators;
+
+/**
+ * Exposes an IntBatchOperator through the row interface so existing drivers
+ * and joins can consume it. Every returned row is a fresh int[].
+ */
+public class IntBatchToRowAdapter implements IntOperator {
+
+    private final IntBatchOperator child;
+    private IntBatch batch;
+    private int pos;
+
+    public IntBatchToRowAdapter(IntBatchOperator child) {
+        this.child = child;
+    }
+
+    @Override
+    public void open() {
+        child.open();
+        batch = null;
+        pos = 0;
+    }
+
+    @Override
+    public int[] next() {
+        while (batch == null || pos == batch.size) {
+            batch = child.nextBatch();
+            pos = 0;
+            if (batch == null) return null;
+        }
+        return batch.materializeRow(pos++);
+    }
+
+    @Override
+    public void close() {
+        child.close();
+        batch = null;
+    }
+}
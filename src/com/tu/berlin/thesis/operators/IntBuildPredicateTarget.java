@@ -0,0 +1,21 @@
+package com.tu.berlin.thesis.operators;
+
+/**
+ * A join that can evaluate a predicate on its build rows while building
+ * (implemented by the hash joins, used by IntSelectionOperator).
+ *
+ * The predicate uses joined-row columns (build columns first, so build
+ * columns keep their index). Conjuncts reading only build columns are applied
+ * to the build input before the hash table and the key filter see a row;
+ * the others stay in the residual for the operator above the join.
+ */
+public interface IntBuildPredicateTarget {
+
+    /** Called before open(); null removes a previously pushed predicate. */
+    void pushBuildPredicate(IntRowPredicate predicate);
+
+    /** Part of the pushed predicate not applied on the build side (TRUE = all of it was). */
+    IntRowPredicate getResidualPredicate();
+
+    int getBuildPredicateRejects();
+}
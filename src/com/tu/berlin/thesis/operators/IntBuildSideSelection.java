@@ -0,0 +1,65 @@
+package com.tu.berlin.thesis.operators;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Build input of a join with the pushed-down part of a joined-row predicate applied.
+ *
+ * The split happens at the first build row, once the build width is known:
+ * conjuncts with maxColumn() < width go below the join, the rest is the residual.
+ * Until then (and for an empty build side) the whole predicate is residual.
+ */
+final class IntBuildSideSelection implements IntOperator {
+
+    private final IntOperator child;
+    private final IntRowPredicate predicate;
+
+    private IntRowPredicate buildPart; // null = not split yet
+    private IntRowPredicate residual;
+    private int rejects = 0;
+
+    IntBuildSideSelection(IntOperator child, IntRowPredicate predicate) {
+        this.child = child;
+        this.predicate = predicate;
+        this.residual = predicate;
+    }
+
+    IntRowPredicate getResidual() { return residual; }
+    int getRejects() { return rejects; }
+
+    @Override
+    public void open() {
+        child.open();
+        buildPart = null;
+        residual = predicate;
+        rejects = 0;
+    }
+
+    @Override
+    public int[] next() {
+        int[] row;
+        while ((row = child.next()) != null) {
+            if (buildPart == null) split(row.length);
+            if (buildPart.test(row)) return row;
+            rejects++;
+        }
+        return null;
+    }
+
+    private void split(int buildWidth) {
+        List<IntRowPredicate> below = new ArrayList<>();
+        List<IntRowPredicate> above = new ArrayList<>();
+        for (IntRowPredicate c : predicate.conjuncts()) {
+            (c.maxColumn() < buildWidth ? below : above).add(c);
+        }
+        buildPart = IntRowPredicate.and(below);
+        residual = IntRowPredicate.and(above);
+        System.out.println("  Build predicate pushed down: " + buildPart + ", residual: " + residual);
+    }
+
+    @Override
+    public void close() {
+        child.close();
+    }
+}
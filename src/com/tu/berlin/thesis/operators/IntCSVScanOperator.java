@@ -0,0 +1,196 @@
+package com.tu.berlin.thesis.operators;
+
+import com.tu.berlin.thesis.data.IntFields;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Streaming scan over an int CSV file (header line skipped, column count taken from it).
+ *
+ * Lines are parsed straight from a char buffer: no String per line, no split.
+ * With a pushed-down runtime filter only the key field is parsed first, and a
+ * rejected line is skipped without allocating its int[] row.
+ *
+ * Fields parse with IntFields.parseInt and a line must have the header's column
+ * count (a line rejected by the runtime filter is only read up to its key field).
+ */
+public class IntCSVScanOperator implements IntOperator, IntRuntimeFilterTarget {
+
+    private static final int BUFFER_CHARS = 64 * 1024;
+
+    private final String filename;
+
+    private Reader reader;
+    private char[] buf;
+    private CharBuffer text; // view of buf for IntFields
+    private int pos;
+    private int limit;
+    private boolean eof;
+    private int width;
+
+    // current line = buf[lineStart, lineEnd)
+    private int lineStart;
+    private int lineEnd;
+
+    // runtime filter pushed down by a join (null = none)
+    private IntPredicate runtimeFilter;
+    private int runtimeKeyIndex;
+    private int runtimePasses;
+    private int runtimeRejects;
+
+    public IntCSVScanOperator(String filename) {
+        this.filename = filename;
+    }
+
+    @Override
+    public void open() {
+        try {
+            reader = new FileReader(filename);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buf = new char[BUFFER_CHARS];
+        text = CharBuffer.wrap(buf);
+        pos = 0;
+        limit = 0;
+        eof = false;
+
+        width = 0;
+        if (nextLine()) {
+            width = 1;
+            for (int i = lineStart; i < lineEnd; i++) {
+                if (buf[i] == ',') width++;
+            }
+        }
+    }
+
+    @Override
+    public int[] next() {
+        while (nextLine()) {
+            if (lineStart == lineEnd) continue; // empty line
+
+            if (runtimeFilter != null) {
+                if (!runtimeFilter.test(parseField(runtimeKeyIndex))) {
+                    runtimeRejects++;
+                    continue;
+                }
+                runtimePasses++;
+            }
+            return parseRow();
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (reader != null) reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        reader = null;
+        buf = null;
+        text = null;
+    }
+
+    @Override
+    public void pushRuntimeFilter(int keyIndex, IntPredicate filter) {
+        this.runtimeKeyIndex = keyIndex;
+        this.runtimeFilter = filter;
+        this.runtimePasses = 0;
+        this.runtimeRejects = 0;
+    }
+
+    @Override public void clearRuntimeFilter() { runtimeFilter = null; }
+    @Override public int getRuntimeFilterPasses() { return runtimePasses; }
+    @Override public int getRuntimeFilterRejects() { return runtimeRejects; }
+
+    // ------------------------------------------------------------
+    // parsing
+    // ------------------------------------------------------------
+
+    /** Advances to the next line (without its '\n' / "\r\n"); false at end of file. */
+    private boolean nextLine() {
+        int scan = pos;
+        while (true) {
+            for (; scan < limit; scan++) {
+                if (buf[scan] == '\n') {
+                    setLine(pos, scan);
+                    pos = scan + 1;
+                    return true;
+                }
+            }
+            if (eof) {
+                if (pos == limit) return false;
+                setLine(pos, limit); // last line without '\n'
+                pos = limit;
+                return true;
+            }
+            scan -= pos;
+            fill();
+        }
+    }
+
+    private void setLine(int start, int end) {
+        lineStart = start;
+        lineEnd = end > start && buf[end - 1] == '\r' ? end - 1 : end;
+    }
+
+    // moves the unread tail to the front (growing for very long lines) and reads more
+    private void fill() {
+        int remaining = limit - pos;
+        if (remaining == buf.length) {
+            buf = Arrays.copyOf(buf, buf.length * 2);
+            text = CharBuffer.wrap(buf);
+        }
+        System.arraycopy(buf, pos, buf, 0, remaining);
+        pos = 0;
+        limit = remaining;
+        try {
+            int n = reader.read(buf, limit, buf.length - limit);
+            if (n < 0) eof = true;
+            else limit += n;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int parseField(int field) {
+        int p = lineStart;
+        for (int f = 0; f < field; f++) {
+            while (p < lineEnd && buf[p] != ',') p++;
+            if (p == lineEnd) throw badLine("too few columns");
+            p++;
+        }
+        int end = p;
+        while (end < lineEnd && buf[end] != ',') end++;
+        return IntFields.parseInt(text, p, end, lineStart, lineEnd);
+    }
+
+    private int[] parseRow() {
+        int[] row = new int[width];
+        int p = lineStart;
+        for (int c = 0; c < width; c++) {
+            if (c > 0) {
+                if (p == lineEnd) throw badLine("too few columns");
+                p++; // skip ','
+            }
+            int end = p;
+            while (end < lineEnd && buf[end] != ',') end++;
+            row[c] = IntFields.parseInt(text, p, end, lineStart, lineEnd);
+            p = end;
+        }
+        if (p < lineEnd) throw badLine("too many columns");
+        return row;
+    }
+
+    private NumberFormatException badLine(String what) {
+        return IntFields.badLine(what, text, lineStart, lineEnd);
+    }
+}
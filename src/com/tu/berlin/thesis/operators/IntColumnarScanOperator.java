@@ -0,0 +1,132 @@
+package com.tu.berlin.thesis.operators;
+
+import com.tu.berlin.thesis.data.IntColumnarTable;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Scan over an IntColumnarTable, optionally projected to a subset of columns.
+ *
+ * Batch mode is zero-copy: the batch columns are the table's own column
+ * arrays and the selection vector holds absolute row positions, so filters
+ * read only the key column and joins gather payload columns only for matches.
+ * Row mode materializes one int[] per row for the existing operators.
+ * A pushed-down runtime filter reads only the key column, so rejected rows
+ * are neither materialized nor selected.
+ */
+public class IntColumnarScanOperator implements IntOperator, IntBatchOperator, IntRuntimeFilterTarget {
+
+    private final IntColumnarTable table;
+    private final int[] projection;
+    private final int batchSize;
+
+    private IntBatch batch;
+    private int pos;
+
+    // runtime filter pushed down by a join (null = none)
+    private IntPredicate runtimeFilter;
+    private int runtimeKeyIndex;
+    private int runtimePasses;
+    private int runtimeRejects;
+
+    public IntColumnarScanOperator(IntColumnarTable table, int[] projection, int batchSize) {
+        for (int c : projection) {
+            if (c < 0 || c >= table.getColumnCount()) {
+                throw new IllegalArgumentException("projected column out of range: " + c);
+            }
+        }
+        this.table = table;
+        this.projection = projection;
+        this.batchSize = batchSize;
+    }
+
+    public IntColumnarScanOperator(IntColumnarTable table, int[] projection) {
+        this(table, projection, IntBatch.DEFAULT_CAPACITY);
+    }
+
+    public IntColumnarScanOperator(IntColumnarTable table) {
+        this(table, allColumns(table.getColumnCount()));
+    }
+
+    @Override
+    public void open() {
+        pos = 0;
+        batch = new IntBatch(batchSize);
+        batch.columns = new int[projection.length][];
+        for (int i = 0; i < projection.length; i++) {
+            batch.columns[i] = table.column(projection[i]);
+        }
+    }
+
+    @Override
+    public int[] next() {
+        if (runtimeFilter != null) {
+            int[] keys = batch.columns[runtimeKeyIndex];
+            while (pos < table.getRowCount() && !runtimeFilter.test(keys[pos])) {
+                runtimeRejects++;
+                pos++;
+            }
+            if (pos < table.getRowCount()) runtimePasses++;
+        }
+        if (pos >= table.getRowCount()) return null;
+        int[] row = new int[projection.length];
+        for (int i = 0; i < projection.length; i++) {
+            row[i] = batch.columns[i][pos];
+        }
+        pos++;
+        return row;
+    }
+
+    // Shares pos with next(), so row and batch calls can be mixed.
+    @Override
+    public IntBatch nextBatch() {
+        int rowCount = table.getRowCount();
+        if (pos >= rowCount) return null;
+
+        int n = 0;
+        if (runtimeFilter == null) {
+            int end = Math.min(rowCount, pos + batchSize);
+            for (; pos < end; pos++, n++) {
+                batch.selection[n] = pos;
+            }
+        } else {
+            // keep scanning until the batch is full, so filtered batches stay dense
+            int[] keys = batch.columns[runtimeKeyIndex];
+            int scanned = 0;
+            for (; pos < rowCount && n < batchSize; pos++) {
+                batch.selection[n] = pos;
+                n += runtimeFilter.test(keys[pos]) ? 1 : 0;
+                scanned++;
+            }
+            runtimePasses += n;
+            runtimeRejects += scanned - n;
+            if (n == 0) return null;
+        }
+        batch.size = n;
+        return batch;
+    }
+
+    @Override
+    public void pushRuntimeFilter(int keyIndex, IntPredicate filter) {
+        if (keyIndex < 0 || keyIndex >= projection.length) {
+            throw new IllegalArgumentException("runtime filter column out of range: " + keyIndex);
+        }
+        this.runtimeKeyIndex = keyIndex;
+        this.runtimeFilter = filter;
+        this.runtimePasses = 0;
+        this.runtimeRejects = 0;
+    }
+
+    @Override public void clearRuntimeFilter() { runtimeFilter = null; }
+    @Override public int getRuntimeFilterPasses() { return runtimePasses; }
+    @Override public int getRuntimeFilterRejects() { return runtimeRejects; }
+
+    @Override
+    public void close() { }
+
+    private static int[] allColumns(int count) {
+        int[] cols = new int[count];
+        for (int i = 0; i < count; i++) cols[i] = i;
+        return cols;
+    }
+}
@@ -0,0 +1,217 @@
+package com.tu.berlin.thesis.operators;
+
+import com.tu.berlin.thesis.hashtable.LongHashTable;
+import com.tu.berlin.thesis.rangetree.LongExactRangesIndex;
+import com.tu.berlin.thesis.rangetree.LongRangeApproximator;
+import com.tu.berlin.thesis.rangetree.LongRangeExtractor;
+
+/**
+ * Hash join on a two-column key: (hi, lo) int columns are packed into one long
+ * (hi in the upper 32 bits, lo unsigned in the lower 32) and looked up in a
+ * LongHashTable, so no per-row key object is created.
+ *
+ * A 64-bit surrogate key stored as (high word, low word) columns packs back to
+ * exactly that long, so this is also the long-key join.
+ *
+ * Optional range prefilter over the packed keys (keys sharing hi and with
+ * consecutive lo form one range):
+ *  targetRangeCount = Integer.MAX_VALUE : exact ranges
+ *  otherwise                            : approximated to targetRangeCount ranges
+ * setStreamedRanges(true) builds the approximate ranges with a
+ * LongStreamingApproximateRangeSet while the build input streams (no key buffer,
+ * no sort, at most targetRangeCount ranges held at any time).
+ */
+public class IntCompositeKeyHashJoin implements IntOperator {
+
+    private final IntOperator leftOp;
+    private final IntOperator rightOp;
+    private final int leftHiIndex;
+    private final int leftLoIndex;
+    private final int rightHiIndex;
+    private final int rightLoIndex;
+    private final int expectedBuildKeys;
+    private final boolean useRanges;
+    private final int targetRangeCount;
+    private boolean streamedRanges = false;
+
+    private LongHashTable hashTable;
+    private final LongExactRangesIndex ranges = new LongExactRangesIndex();
+    private LongStreamingApproximateRangeSet streamed; // set when streamedRanges
+
+    private int[] currentRightRow;
+    private int matchEntry = LongHashTable.NO_ENTRY;
+
+    // metrics
+    private int rangePasses = 0;
+    private int rangeRejects = 0;
+    private int hashLookups = 0;
+    private int actualMatches = 0;
+
+    public int getRangePasses() { return rangePasses; }
+    public int getRangeRejects() { return rangeRejects; }
+    public int getHashLookups() { return hashLookups; }
+    public int getActualMatches() { return actualMatches; }
+    public int getRangeCount() { return streamed != null ? streamed.getRangeCount() : ranges.getRangeCount(); }
+    public long getRangeBytes() { return streamed != null ? streamed.getRangeBytes() : ranges.approxBytesUsed(); }
+
+    public IntCompositeKeyHashJoin(
+            IntOperator left,
+            IntOperator right,
+            int leftHiIndex,
+            int leftLoIndex,
+            int rightHiIndex,
+            int rightLoIndex,
+            int expectedBuildKeys,
+            int targetRangeCount
+    ) {
+        this(left, right, leftHiIndex, leftLoIndex, rightHiIndex, rightLoIndex, expectedBuildKeys, true, targetRangeCount);
+    }
+
+    // Without range prefilter
+    public IntCompositeKeyHashJoin(
+            IntOperator left,
+            IntOperator right,
+            int leftHiIndex,
+            int leftLoIndex,
+            int rightHiIndex,
+            int rightLoIndex,
+            int expectedBuildKeys
+    ) {
+        this(left, right, leftHiIndex, leftLoIndex, rightHiIndex, rightLoIndex, expectedBuildKeys, false, Integer.MAX_VALUE);
+    }
+
+    private IntCompositeKeyHashJoin(
+            IntOperator left,
+            IntOperator right,
+            int leftHiIndex,
+            int leftLoIndex,
+            int rightHiIndex,
+            int rightLoIndex,
+            int expectedBuildKeys,
+            boolean useRanges,
+            int targetRangeCount
+    ) {
+        this.leftOp = left;
+        this.rightOp = right;
+        this.leftHiIndex = leftHiIndex;
+        this.leftLoIndex = leftLoIndex;
+        this.rightHiIndex = rightHiIndex;
+        this.rightLoIndex = rightLoIndex;
+        this.expectedBuildKeys = expectedBuildKeys;
+        this.useRanges = useRanges;
+        this.targetRangeCount = targetRangeCount;
+    }
+
+    /**
+     * Builds the approximate range prefilter with LongStreamingApproximateRangeSet
+     * (greedy smallest-gap merge per insert) instead of extracting and approximating
+     * the sorted keys after the build. Needs a finite targetRangeCount.
+     */
+    public void setStreamedRanges(boolean enabled) {
+        if (enabled && (!useRanges || targetRangeCount == Integer.MAX_VALUE)) {
+            throw new IllegalStateException("streamed ranges need a range prefilter with a targetRangeCount");
+        }
+        this.streamedRanges = enabled;
+    }
+
+    /** (hi, lo) -> hi in the upper 32 bits, lo (unsigned) in the lower 32 bits. */
+    public static long packKey(int hi, int lo) {
+        return ((long) hi << 32) | (lo & 0xFFFFFFFFL);
+    }
+
+    @Override
+    public void open() {
+        System.out.println("IntCompositeKeyHashJoin: OPEN (ranges=" +
+                (!useRanges ? "none" : targetRangeCount == Integer.MAX_VALUE ? "exact" : targetRangeCount) +
+                (streamedRanges ? ", streamed" : "") + ")");
+
+        // BUILD
+        hashTable = new LongHashTable(expectedBuildKeys);
+        LongRangeExtractor extractor = useRanges && !streamedRanges ? new LongRangeExtractor(expectedBuildKeys) : null;
+        streamed = streamedRanges ? new LongStreamingApproximateRangeSet(targetRangeCount) : null;
+
+        leftOp.open();
+        int[] leftRow;
+        while ((leftRow = leftOp.next()) != null) {
+            long key = packKey(leftRow[leftHiIndex], leftRow[leftLoIndex]);
+            hashTable.put(key, leftRow);
+            if (extractor != null) extractor.add(key);
+            if (streamed != null) streamed.insert(key);
+        }
+        leftOp.close();
+        if (streamed != null) {
+            System.out.println("  Streamed ranges=" + streamed.getRangeCount());
+        }
+
+        if (extractor != null) {
+            LongRangeExtractor.Ranges exact = extractor.buildExactRanges();
+            LongRangeExtractor.Ranges result = targetRangeCount == Integer.MAX_VALUE
+                    ? exact
+                    : LongRangeApproximator.approximate(exact, targetRangeCount);
+            ranges.build(result.starts, result.ends, result.count);
+            System.out.println("  Exact ranges=" + exact.count + ", used ranges=" + result.count);
+        }
+
+        System.out.println("  Built hash table with " + hashTable.size() +
+                " rows (" + hashTable.distinctKeys() + " distinct keys)");
+
+        rightOp.open();
+        advanceToNextMatch();
+    }
+
+    private void advanceToNextMatch() {
+        matchEntry = LongHashTable.NO_ENTRY;
+
+        while (matchEntry == LongHashTable.NO_ENTRY) {
+            currentRightRow = rightOp.next();
+            if (currentRightRow == null) return;
+
+            long key = packKey(currentRightRow[rightHiIndex], currentRightRow[rightLoIndex]);
+
+            if (useRanges) {
+                if (!(streamed != null ? streamed.contains(key) : ranges.contains(key))) {
+                    rangeRejects++;
+                    continue;
+                }
+                rangePasses++;
+            }
+
+            hashLookups++;
+            int slot = hashTable.findSlot(key);
+
+            if (slot != LongHashTable.NO_SLOT) {
+                matchEntry = hashTable.firstEntry(slot);
+                actualMatches += hashTable.matchCount(slot);
+            }
+        }
+    }
+
+    @Override
+    public int[] next() {
+        while (true) {
+            if (currentRightRow == null) return null;
+
+            if (matchEntry != LongHashTable.NO_ENTRY) {
+                int[] leftRow = hashTable.row(matchEntry);
+                matchEntry = hashTable.nextEntry(matchEntry);
+
+                int[] out = new int[leftRow.length + currentRightRow.length];
+                System.arraycopy(leftRow, 0, out, 0, leftRow.length);
+                System.arraycopy(currentRightRow, 0, out, leftRow.length, currentRightRow.length);
+
+                if (matchEntry == LongHashTable.NO_ENTRY) advanceToNextMatch();
+                return out;
+            }
+
+            advanceToNextMatch();
+        }
+    }
+
+    @Override
+    public void close() {
+        rightOp.close();
+        hashTable = null;
+        currentRightRow = null;
+        System.out.println("IntCompositeKeyHashJoin: CLOSE");
+    }
+}
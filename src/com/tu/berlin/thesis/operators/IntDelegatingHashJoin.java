@@ -0,0 +1,70 @@
+package com.tu.berlin.thesis.operators;
+
+/**
+ * Shared shell of the hash joins that predate IntFilteredHashJoin (plain, Bloom,
+ * exact / approximate / streamed ranges). Each one picks its ProbeFilter and keeps
+ * its constructors and metric names; build, probe, parallelism, batches and pushdown
+ * all run in one IntFilteredHashJoin. The filtered joins make it with a filter
+ * factory, so every open() builds a new filter from the current build input.
+ */
+abstract class IntDelegatingHashJoin implements IntOperator, IntBatchOperator, IntBuildPredicateTarget {
+
+    final IntFilteredHashJoin join;
+
+    IntDelegatingHashJoin(IntFilteredHashJoin join) {
+        this.join = join;
+    }
+
+    public int getHashLookups() { return join.getHashLookups(); }
+    public int getActualMatches() { return join.getActualMatches(); }
+
+    /**
+     * Parallel build: the build input is split into morsels of morselSize rows
+     * that a pool of worker threads inserts (1 = single-threaded, the default).
+     */
+    public void setBuildParallelism(int workers, int morselSize) {
+        join.setBuildParallelism(workers, morselSize);
+    }
+
+    /**
+     * Parallel probe: morsels of morselSize probe rows are filtered and looked up
+     * by a pool of worker threads against the read-only build state (1 = single-threaded,
+     * the default). ordered = true keeps probe input order, false emits morsels as they finish.
+     */
+    public void setProbeParallelism(int workers, int morselSize, boolean ordered) {
+        join.setProbeParallelism(workers, morselSize, ordered);
+    }
+
+    @Override
+    public void pushBuildPredicate(IntRowPredicate predicate) {
+        join.pushBuildPredicate(predicate);
+    }
+
+    @Override
+    public IntRowPredicate getResidualPredicate() { return join.getResidualPredicate(); }
+
+    @Override
+    public int getBuildPredicateRejects() { return join.getBuildPredicateRejects(); }
+
+    @Override
+    public void open() {
+        join.open();
+    }
+
+    @Override
+    public int[] next() {
+        return join.next();
+    }
+
+    // Batch probe: continues from where open()/next() left the probe side.
+    // Switching from next() to nextBatch() is fine; do not call next() after nextBatch().
+    @Override
+    public IntBatch nextBatch() {
+        return join.nextBatch();
+    }
+
+    @Override
+    public void close() {
+        join.close();
+    }
+}
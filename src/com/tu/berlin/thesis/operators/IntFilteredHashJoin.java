@@ -0,0 +1,613 @@
+package com.tu.berlin.thesis.operators;
+
+import com.tu.berlin.thesis.filter.IntCountingBloomFilter;
+import com.tu.berlin.thesis.filter.ProbeFilter;
+import com.tu.berlin.thesis.filter.ProbeFilterAdvisor;
+import com.tu.berlin.thesis.hashtable.IntHashTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Hash join with a pluggable ProbeFilter consulted before every hash lookup.
+ *
+ * One build/probe loop for every prefilter strategy:
+ *  - null                              : no prefilter
+ *  - IntBloomFilter                    : Bloom
+ *  - RangesProbeFilter.exact/grouped/approximate : exact, grouped, bulk approximate ranges
+ *  - StreamedRangesProbeFilter         : streamed approximate ranges
+ *  - CascadeProbeFilter                : any ordered combination of the above
+ *
+ * Metrics use the same names for every strategy (filter passes / rejects,
+ * hash lookups, matches), so runs with different filters compare directly.
+ *
+ * Adaptive mode (setAdaptiveFilter) switches the filter off while it rejects
+ * too little to pay for itself and periodically back on to re-check.
+ *
+ * Auto mode (setAutoFilter) picks the filter itself after the build:
+ * ProbeFilterAdvisor estimates every filter type and size from build-key
+ * statistics and a sample of the first probe rows, and the cheapest is built.
+ *
+ * Prebuilt mode (setPrebuiltFilter) probes a filter built offline, e.g.
+ * IntBloomFilter.map / RangesProbeFilter.map; the build only fills the hash table.
+ *
+ * Retained mode (setRetainBuild) keeps hash table and filter across close() / open(),
+ * maintained in between with insertBuildRow / deleteBuildRow / deleteBuildKey.
+ *
+ * Re-opening: a filter passed to the constructor is fed and built by the first
+ * open() only; later opens check that it still covers every build key (a rescan of
+ * the same input). For build inputs that change between opens, withFilterFactory
+ * creates a fresh filter on every open().
+ *
+ * IntHashJoinOperator and the Bloom / ranges joins are thin wrappers around this
+ * class (see IntDelegatingHashJoin).
+ */
+public class IntFilteredHashJoin implements IntOperator, IntBatchOperator, IntBuildPredicateTarget {
+
+    private final IntOperator leftOp;
+    private final IntOperator rightOp;
+    private final int leftKeyIndex;
+    private final int rightKeyIndex;
+    private final int expectedBuildKeys;
+    private ProbeFilter filter; // null = no prefilter
+    private final Supplier<ProbeFilter> filterFactory; // null = the constructor's filter instance
+    private boolean filterBuilt = false; // the current filter was fed and built by an open()
+
+    private IntHashTable hashTable;
+    private int buildWorkers = 1;
+    private int buildMorselSize = IntParallelHashBuild.DEFAULT_MORSEL_SIZE;
+    private int probeWorkers = 1;
+    private int probeMorselSize = IntParallelHashBuild.DEFAULT_MORSEL_SIZE;
+    private boolean probeOrdered = true;
+    private boolean filterPushdown = false;
+    private IntRuntimeFilterTarget pushedTo;
+    private IntParallelProbe parallelProbe;
+    private IntBatchOperator parallelBatches;
+    private IntRowPredicate buildPredicate;
+    private IntBuildSideSelection buildSelection;
+    private boolean adaptive = false;
+    private int adaptiveWindowSize = AdaptiveFilterGate.DEFAULT_WINDOW_SIZE;
+    private double adaptiveMinRejectRate = AdaptiveFilterGate.DEFAULT_MIN_REJECT_RATE;
+    private int adaptiveBypassWindows = AdaptiveFilterGate.DEFAULT_BYPASS_WINDOWS;
+    private AdaptiveFilterGate gate;
+    private IntPredicate probeFilter; // filter as used by the probe loop (null = none)
+    private int autoSampleSize = 0; // 0 = filter given by the constructor
+    private long autoExpectedProbeRows = 0; // 0 = unknown
+    private boolean prebuiltFilter = false;
+    private ProbeFilterAdvisor advisor;
+    private IntOperator probeInput; // rightOp, or sampled rows replayed in front of it
+    private boolean retainBuild = false;
+    private boolean buildComplete = false; // hash table and filter hold the build side
+
+    // probe state
+    private int[] currentRightRow;
+    private int matchEntry = IntHashTable.NO_ENTRY;
+    private IntBatchProbe batchProbe;
+
+    // metrics
+    private int buildRows = 0;
+    private int buildDistinctKeys = 0;
+    private int filterPasses = 0;
+    private int filterRejects = 0;
+    private int hashLookups = 0;
+    private int actualMatches = 0;
+    private int buildInserts = 0;
+    private int buildDeletes = 0;
+
+    // bypassed rows reach the probe loop as passes but never ran the filter
+    public int getFilterPasses() { return filterPasses + (batchProbe == null ? 0 : batchProbe.getFilterPasses())
+            + (pushedTo == null ? 0 : pushedTo.getRuntimeFilterPasses()) - getFilterBypassedRows(); }
+    public int getFilterRejects() { return filterRejects + (batchProbe == null ? 0 : batchProbe.getFilterRejects())
+            + (pushedTo == null ? 0 : pushedTo.getRuntimeFilterRejects()); }
+    public int getHashLookups() { return hashLookups + (batchProbe == null ? 0 : batchProbe.getHashLookups()); }
+    public int getActualMatches() { return actualMatches + (batchProbe == null ? 0 : batchProbe.getActualMatches()); }
+    public int getBuildRows() { return buildRows; }
+    public int getBuildDistinctKeys() { return buildDistinctKeys; }
+    public int getBuildInserts() { return buildInserts; }
+    public int getBuildDeletes() { return buildDeletes; }
+    public String getFilterName() { return filter == null ? "none" : filter.name(); }
+    public long getFilterBytes() { return filter == null ? 0 : filter.approxBytesUsed(); }
+    public ProbeFilter getFilter() { return filter; }
+    public int getFilterBypassedRows() { return gate == null ? 0 : gate.getBypassedRows(); }
+    public int getFilterDisables() { return gate == null ? 0 : gate.getDisables(); }
+    public int getFilterEnables() { return gate == null ? 0 : gate.getEnables(); }
+    public boolean isFilterEnabled() { return filter != null && (gate == null || gate.isEnabled()); }
+    public double getLastWindowRejectRate() { return gate == null ? -1 : gate.getLastWindowRejectRate(); }
+    /** Auto mode: the chosen option (e.g. "approx_ranges(64)"), null before open() or without auto mode. */
+    public String getChosenFilter() { return advisor == null ? null : advisor.getBest().description; }
+    public double getPredictedPassRate() { return advisor == null ? -1 : advisor.getBest().predictedPassRate; }
+    public ProbeFilterAdvisor getAdvisor() { return advisor; }
+
+    public IntFilteredHashJoin(
+            IntOperator left,
+            IntOperator right,
+            int leftKeyIndex,
+            int rightKeyIndex,
+            int expectedBuildKeys,
+            ProbeFilter filter
+    ) {
+        this(left, right, leftKeyIndex, rightKeyIndex, expectedBuildKeys, filter, null);
+    }
+
+    private IntFilteredHashJoin(
+            IntOperator left,
+            IntOperator right,
+            int leftKeyIndex,
+            int rightKeyIndex,
+            int expectedBuildKeys,
+            ProbeFilter filter,
+            Supplier<ProbeFilter> filterFactory
+    ) {
+        this.leftOp = left;
+        this.rightOp = right;
+        this.leftKeyIndex = leftKeyIndex;
+        this.rightKeyIndex = rightKeyIndex;
+        this.expectedBuildKeys = expectedBuildKeys;
+        this.filter = filter;
+        this.filterFactory = filterFactory;
+        this.hashTable = new IntHashTable(expectedBuildKeys);
+    }
+
+    /** Join that takes a new, empty filter from filterFactory on every open(). */
+    public static IntFilteredHashJoin withFilterFactory(
+            IntOperator left,
+            IntOperator right,
+            int leftKeyIndex,
+            int rightKeyIndex,
+            int expectedBuildKeys,
+            Supplier<ProbeFilter> filterFactory
+    ) {
+        return new IntFilteredHashJoin(left, right, leftKeyIndex, rightKeyIndex, expectedBuildKeys,
+                filterFactory.get(), filterFactory);
+    }
+
+    /** withFilterFactory joins: replaces a filter no open() has built yet by a new one from the factory. */
+    void refreshFilter() {
+        if (filterFactory != null && !filterBuilt) {
+            filter = filterFactory.get();
+        }
+    }
+
+    /**
+     * Parallel build: the build input is split into morsels of morselSize rows
+     * that a pool of worker threads inserts (1 = single-threaded, the default).
+     * The filter is then fed from the built table on the calling thread.
+     */
+    public void setBuildParallelism(int workers, int morselSize) {
+        IntParallelHashBuild.checkConfig(workers, morselSize);
+        this.buildWorkers = workers;
+        this.buildMorselSize = morselSize;
+    }
+
+    /**
+     * Parallel probe: morsels of morselSize probe rows are filtered and looked up
+     * by a pool of worker threads against the read-only build state (1 = single-threaded,
+     * the default). ordered = true keeps probe input order, false emits morsels as they finish.
+     */
+    public void setProbeParallelism(int workers, int morselSize, boolean ordered) {
+        IntParallelHashBuild.checkConfig(workers, morselSize);
+        this.probeWorkers = workers;
+        this.probeMorselSize = morselSize;
+        this.probeOrdered = ordered;
+    }
+
+    /**
+     * Sideways filter pushdown: after the build and before the probe scan is opened,
+     * the filter is handed to the scan (when it is an IntRuntimeFilterTarget), which
+     * drops misses while scanning. The join then skips its own filter check, and the
+     * scan's passes / rejects are the filter metrics. In auto mode the filter is pushed
+     * once chosen, so the sampled probe rows go to the hash table unfiltered.
+     */
+    public void setFilterPushdown(boolean enabled) {
+        this.filterPushdown = enabled;
+    }
+
+    /**
+     * The constructor's filter is already built (typically mapped from a file written
+     * by save()): open() neither feeds it the build keys nor calls build() on it.
+     * It must cover every build key, or probes miss matches.
+     */
+    public void setPrebuiltFilter(boolean prebuilt) {
+        this.prebuiltFilter = prebuilt;
+    }
+
+    /**
+     * Auto filter choice from the build keys and the first probeSampleSize probe rows
+     * (replayed afterwards, so nothing is lost). Replaces the constructor's filter.
+     * The probe side size is unknown: the advisor assumes at least as many probe rows
+     * as build rows (or exactly the sample, if the probe side ended within it).
+     */
+    public void setAutoFilter(int probeSampleSize) {
+        setAutoFilter(probeSampleSize, 0);
+    }
+
+    /** Auto filter choice, spreading each filter's build cost over expectedProbeRows (0 = unknown). */
+    public void setAutoFilter(int probeSampleSize, long expectedProbeRows) {
+        if (probeSampleSize < 1) {
+            throw new IllegalArgumentException("probeSampleSize must be >= 1");
+        }
+        if (expectedProbeRows < 0) {
+            throw new IllegalArgumentException("expectedProbeRows must be >= 0");
+        }
+        this.autoSampleSize = probeSampleSize;
+        this.autoExpectedProbeRows = expectedProbeRows;
+    }
+
+    /** Adaptive filter bypass with the default window (1024 probes), threshold (10%) and bypass length (16 windows). */
+    public void setAdaptiveFilter(boolean enabled) {
+        this.adaptive = enabled;
+    }
+
+    /**
+     * Adaptive filter bypass: the filter's rejection rate is sampled over windows of
+     * windowSize probes; a window below minRejectRate disables it for the next
+     * bypassWindows windows, after which it runs again for one window to re-check.
+     * Applies to the row and batch probe; the parallel probe and a pushed-down
+     * scan filter always run it.
+     */
+    public void setAdaptiveFilter(int windowSize, double minRejectRate, int bypassWindows) {
+        AdaptiveFilterGate.checkConfig(windowSize, minRejectRate, bypassWindows);
+        this.adaptive = true;
+        this.adaptiveWindowSize = windowSize;
+        this.adaptiveMinRejectRate = minRejectRate;
+        this.adaptiveBypassWindows = bypassWindows;
+    }
+
+    /**
+     * Keep the hash table and filter across close() / open(): the next open() skips the
+     * build and only reopens the probe side. Between query batches (after close()) the
+     * build side is then maintained with insertBuildRow / deleteBuildRow / deleteBuildKey
+     * instead of being rebuilt. Turning it off drops the retained state at the next open().
+     *
+     * A retained build serves queries with different predicates, so it holds every build
+     * row: pushed-down build predicates are not applied (getResidualPredicate returns all
+     * of it). A build filtered by an earlier open() without retaining is not kept.
+     */
+    public void setRetainBuild(boolean retain) {
+        this.retainBuild = retain;
+    }
+
+    /**
+     * Incremental build-side insert (retained build, between query batches): the row goes
+     * into the hash table and its key into the filter, which must still accept add() after
+     * build() (the Bloom layouts do, built range filters do not).
+     */
+    public void insertBuildRow(int[] row) {
+        checkRetainedBuild();
+        int key = row[leftKeyIndex];
+        if (filter != null) filter.add(key);
+        hashTable.put(key, row);
+        buildRows++;
+        buildInserts++;
+    }
+
+    /**
+     * Incremental build-side delete of one row with the same content (Arrays.equals) as row.
+     * Returns false if no such row is in the hash table. An IntCountingBloomFilter drops
+     * the key as well; any other filter keeps it (a false positive, never a false negative).
+     * An update is deleteBuildRow(old) + insertBuildRow(new).
+     */
+    public boolean deleteBuildRow(int[] row) {
+        checkRetainedBuild();
+        int key = row[leftKeyIndex];
+        if (!hashTable.removeRow(key, row)) return false;
+        removeFromFilter(key, 1);
+        buildRows--;
+        buildDeletes++;
+        return true;
+    }
+
+    /** Incremental build-side delete of all rows with key; returns how many. Filter as in deleteBuildRow. */
+    public int deleteBuildKey(int key) {
+        checkRetainedBuild();
+        int removed = hashTable.removeKey(key);
+        removeFromFilter(key, removed);
+        buildRows -= removed;
+        buildDeletes += removed;
+        return removed;
+    }
+
+    private void checkRetainedBuild() {
+        if (!retainBuild || !buildComplete) {
+            throw new IllegalStateException("incremental build updates need setRetainBuild(true) and a completed open()");
+        }
+    }
+
+    private void removeFromFilter(int key, int times) {
+        if (!(filter instanceof IntCountingBloomFilter)) return;
+        for (int i = 0; i < times; i++) {
+            ((IntCountingBloomFilter) filter).remove(key);
+        }
+    }
+
+    @Override
+    public void pushBuildPredicate(IntRowPredicate predicate) {
+        this.buildPredicate = predicate;
+    }
+
+    @Override
+    public IntRowPredicate getResidualPredicate() {
+        if (buildPredicate == null) return IntRowPredicate.TRUE;
+        return buildSelection == null ? buildPredicate : buildSelection.getResidual();
+    }
+
+    @Override
+    public int getBuildPredicateRejects() { return buildSelection == null ? 0 : buildSelection.getRejects(); }
+
+    @Override
+    public void open() {
+        System.out.println("IntFilteredHashJoin: OPEN (filter=" + (autoSampleSize > 0 ? "auto" : getFilterName()) + ")");
+        if (buildComplete && retainBuild) {
+            System.out.println("  Reusing retained build: " + hashTable.liveSize() + " rows (" +
+                    hashTable.distinctKeys() + " distinct keys), " + buildInserts + " inserts, " +
+                    buildDeletes + " deletes applied");
+            openProbe(false);
+            return;
+        }
+        if (buildComplete) {
+            // retained state from before setRetainBuild(false)
+            hashTable.clear();
+            buildComplete = false;
+        }
+
+        // a retained build keeps every row; the predicate then stays residual
+        buildSelection = buildPredicate == null || retainBuild ? null : new IntBuildSideSelection(leftOp, buildPredicate);
+        IntOperator buildSide = buildSelection == null ? leftOp : buildSelection;
+        if (autoSampleSize > 0) {
+            filter = null;
+        } else if (filterFactory != null && filterBuilt) {
+            filter = filterFactory.get(); // the first open() uses the one made by withFilterFactory
+        }
+        // the constructor's filter is fed once; re-opens only check it still covers the build keys
+        boolean reuse = filterBuilt && autoSampleSize == 0 && filterFactory == null;
+        ProbeFilter feed = prebuiltFilter || reuse ? null : filter; // filter that takes the build keys
+        ProbeFilter covers = reuse && !prebuiltFilter ? filter : null;
+
+        // BUILD
+        buildRows = 0;
+        buildSide.open();
+        if (buildWorkers > 1) {
+            hashTable = IntParallelHashBuild.build(buildSide, leftKeyIndex, expectedBuildKeys,
+                    buildWorkers, buildMorselSize, null, null, null).table;
+            buildRows = hashTable.size();
+            if (feed != null || covers != null) {
+                for (int e = 0; e < buildRows; e++) {
+                    int key = hashTable.row(e)[leftKeyIndex];
+                    if (feed != null) feed.add(key);
+                    else checkCovered(covers, key);
+                }
+            }
+        } else {
+            int[] leftRow;
+            while ((leftRow = buildSide.next()) != null) {
+                int key = leftRow[leftKeyIndex];
+                if (feed != null) feed.add(key);
+                if (covers != null) checkCovered(covers, key);
+                hashTable.put(key, leftRow);
+                buildRows++;
+            }
+        }
+        buildSide.close();
+        if (feed != null) {
+            feed.build();
+            filterBuilt = true;
+        }
+
+        buildDistinctKeys = hashTable.distinctKeys();
+        System.out.println("  Built hash table with " + buildRows +
+                " rows (" + hashTable.distinctKeys() + " distinct keys), filter bytes=" + getFilterBytes());
+        buildComplete = true;
+
+        openProbe(autoSampleSize > 0);
+    }
+
+    // PROBE prepare: a pushed-down filter runs in the scan only, not again here
+    private void openProbe(boolean chooseFilter) {
+        if (!chooseFilter) pushFilterDown();
+        rightOp.open();
+        probeInput = rightOp;
+        if (chooseFilter) {
+            chooseFilter();
+            pushFilterDown();
+        }
+        gate = null;
+        probeFilter = filter == null || pushedTo != null ? null : filter::mightContain;
+        if (adaptive && probeFilter != null) {
+            gate = new AdaptiveFilterGate(probeFilter, adaptiveWindowSize,
+                    adaptiveMinRejectRate, adaptiveBypassWindows);
+            probeFilter = gate;
+        }
+        if (probeWorkers > 1) {
+            parallelProbe = IntParallelProbe.withFilter(hashTable, probeInput, rightKeyIndex,
+                    pushedTo != null ? null : filter, probeWorkers, probeMorselSize, probeOrdered);
+            parallelProbe.open();
+            currentRightRow = null;
+        } else {
+            advanceToNextMatch();
+        }
+    }
+
+    private void pushFilterDown() {
+        if (filterPushdown && filter != null && rightOp instanceof IntRuntimeFilterTarget) {
+            pushedTo = (IntRuntimeFilterTarget) rightOp;
+            pushedTo.pushRuntimeFilter(rightKeyIndex, filter::mightContain);
+        }
+    }
+
+    private static void checkCovered(ProbeFilter filter, int key) {
+        if (!filter.mightContain(key)) {
+            throw new IllegalStateException("filter built by an earlier open() misses build key " + key +
+                    "; use IntFilteredHashJoin.withFilterFactory for build inputs that change");
+        }
+    }
+
+    // Auto mode: sample the probe side, let the advisor pick, then allocate, feed and build only the picked filter.
+    private void chooseFilter() {
+        int[] keys = new int[buildRows];
+        for (int e = 0; e < buildRows; e++) {
+            keys[e] = hashTable.row(e)[leftKeyIndex];
+        }
+        Arrays.sort(keys);
+
+        List<int[]> sampleRows = new ArrayList<>(autoSampleSize);
+        int[] sampleKeys = new int[autoSampleSize];
+        int[] row;
+        while (sampleRows.size() < autoSampleSize && (row = rightOp.next()) != null) {
+            sampleKeys[sampleRows.size()] = row[rightKeyIndex];
+            sampleRows.add(row);
+        }
+        probeInput = new ReplayOperator(sampleRows, rightOp);
+
+        int sampled = sampleRows.size();
+        long probeRows = sampled < autoSampleSize ? sampled
+                : autoExpectedProbeRows > 0 ? autoExpectedProbeRows : Math.max(buildRows, sampled);
+        advisor = new ProbeFilterAdvisor(keys, buildRows, sampleKeys, sampled, hashTable.approxBytesUsed(),
+                Math.max(1, probeRows));
+        filter = advisor.getBest().newFilter();
+        if (filter != null) {
+            for (int key : keys) filter.add(key);
+            filter.build();
+        }
+        System.out.println("  Auto filter: " + advisor.getBest() + " from " + advisor.getCandidates().size() +
+                " candidates (exact ranges=" + advisor.getExactRangeCount() + ", sample=" + advisor.getSampleSize() + ")");
+    }
+
+    // per-worker counters are merged once the parallel probe has ended
+    private void finishParallelProbe() {
+        if (parallelProbe == null) return;
+        parallelProbe.close();
+        filterPasses += parallelProbe.getFilterPasses();
+        filterRejects += parallelProbe.getFilterRejects();
+        hashLookups += parallelProbe.getHashLookups();
+        actualMatches += parallelProbe.getActualMatches();
+        parallelProbe = null;
+        parallelBatches = null;
+    }
+
+    private void advanceToNextMatch() {
+        matchEntry = IntHashTable.NO_ENTRY;
+
+        while (matchEntry == IntHashTable.NO_ENTRY) {
+            currentRightRow = probeInput.next();
+            if (currentRightRow == null) return;
+
+            int key = currentRightRow[rightKeyIndex];
+
+            if (probeFilter != null) {
+                if (!probeFilter.test(key)) {
+                    filterRejects++;
+                    continue;
+                }
+                filterPasses++;
+            }
+
+            hashLookups++;
+            int slot = hashTable.findSlot(key);
+
+            if (slot != IntHashTable.NO_SLOT) {
+                matchEntry = hashTable.firstEntry(slot);
+                actualMatches += hashTable.matchCount(slot);
+            }
+        }
+    }
+
+    @Override
+    public int[] next() {
+        if (parallelProbe != null) {
+            int[] out = parallelProbe.next();
+            if (out == null) finishParallelProbe();
+            return out;
+        }
+        while (true) {
+            if (currentRightRow == null) return null;
+
+            if (matchEntry != IntHashTable.NO_ENTRY) {
+                int[] leftRow = hashTable.row(matchEntry);
+                matchEntry = hashTable.nextEntry(matchEntry);
+
+                int[] out = new int[leftRow.length + currentRightRow.length];
+                System.arraycopy(leftRow, 0, out, 0, leftRow.length);
+                System.arraycopy(currentRightRow, 0, out, leftRow.length, currentRightRow.length);
+
+                if (matchEntry == IntHashTable.NO_ENTRY) advanceToNextMatch();
+                return out;
+            }
+
+            advanceToNextMatch();
+        }
+    }
+
+    // Batch probe: continues from where open()/next() left the probe side.
+    // Switching from next() to nextBatch() is fine; do not call next() after nextBatch().
+    @Override
+    public IntBatch nextBatch() {
+        if (parallelProbe != null) {
+            if (parallelBatches == null) parallelBatches = new IntRowToBatchAdapter(parallelProbe);
+            IntBatch batch = parallelBatches.nextBatch();
+            if (batch == null) finishParallelProbe();
+            return batch;
+        }
+        if (batchProbe == null) {
+            // without a gate the filter takes whole selection vectors (vectorized for the split-block Bloom)
+            IntBatchOperator batches = IntRowToBatchAdapter.of(probeInput);
+            batchProbe = probeFilter != null && gate == null
+                    ? IntBatchProbe.withSelectionFilter(hashTable, batches, rightKeyIndex,
+                            filter::filterSelection, IntBatch.DEFAULT_CAPACITY)
+                    : new IntBatchProbe(hashTable, batches, rightKeyIndex, probeFilter, IntBatch.DEFAULT_CAPACITY);
+            batchProbe.carry(currentRightRow, matchEntry);
+            currentRightRow = null;
+        }
+        return batchProbe.nextBatch();
+    }
+
+    @Override
+    public void close() {
+        finishParallelProbe();
+        rightOp.close();
+        if (pushedTo != null) {
+            filterPasses += pushedTo.getRuntimeFilterPasses();
+            filterRejects += pushedTo.getRuntimeFilterRejects();
+            pushedTo.clearRuntimeFilter();
+            pushedTo = null;
+        }
+        if (batchProbe != null) {
+            filterPasses += batchProbe.getFilterPasses();
+            filterRejects += batchProbe.getFilterRejects();
+            hashLookups += batchProbe.getHashLookups();
+            actualMatches += batchProbe.getActualMatches();
+            batchProbe = null;
+        }
+        if (!retainBuild || buildSelection != null) {
+            hashTable.clear();
+            buildComplete = false;
+        }
+        if (gate != null) {
+            System.out.println("  Adaptive filter: disables=" + gate.getDisables() + ", enables=" + gate.getEnables() +
+                    ", bypassed rows=" + gate.getBypassedRows());
+        }
+        System.out.println("IntFilteredHashJoin: CLOSE");
+    }
+
+    // Probe rows consumed for the auto-filter sample, returned again before the rest of the input.
+    private static final class ReplayOperator implements IntOperator {
+        private final List<int[]> rows;
+        private final IntOperator rest;
+        private int pos = 0;
+
+        ReplayOperator(List<int[]> rows, IntOperator rest) {
+            this.rows = rows;
+            this.rest = rest;
+        }
+
+        @Override public void open() { }
+
+        @Override public int[] next() {
+            return pos < rows.size() ? rows.get(pos++) : rest.next();
+        }
+
+        @Override public void close() { }
+    }
+}
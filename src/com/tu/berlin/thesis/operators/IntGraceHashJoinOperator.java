@@ -0,0 +1,564 @@
+package com.tu.berlin.thesis.operators;
+
+import com.tu.berlin.thesis.filter.ProbeFilter;
+import com.tu.berlin.thesis.hashtable.IntHashTable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Hybrid / Grace hash join with a memory budget for the build side.
+ *
+ * Build rows are kept in memory while their estimated footprint (plus the keys the
+ * prefilter collects, ProbeFilter.buildBytesUsed) stays within memoryBudgetBytes;
+ * the join then runs like IntHashJoinOperator. Once the budget is exceeded, build
+ * and probe rows are hash-partitioned into 2^partitionBits temp files:
+ *  - partition 0 stays resident while it fits (hybrid): its probe rows are joined
+ *    while the probe input is read, and only the other partitions reach disk
+ *  - the spilled partitions are then joined one at a time; a partition whose build
+ *    side exceeds the budget is repartitioned with a new hash seed (up to
+ *    MAX_REPARTITION_DEPTH levels; a partition that does not shrink, e.g. one
+ *    heavy key, is joined as is)
+ *
+ * The optional ProbeFilter (exact / approximate ranges, Bloom) is fed all build
+ * keys and applied to probe rows BEFORE they are written, so misses never reach disk.
+ * It is fed by the first open() only; withFilterFactory takes a new filter on every
+ * open() for build inputs that change between opens.
+ *
+ * Spilled output follows the resident rows, grouped by partition (not in probe input order).
+ */
+public class IntGraceHashJoinOperator implements IntOperator {
+
+    public static final int DEFAULT_PARTITION_BITS = 6;
+    public static final int MAX_REPARTITION_DEPTH = 3;
+
+    // per build row on top of its ints: array header, row reference, chain and slot share
+    private static final int ROW_OVERHEAD_BYTES = 52;
+    private static final int IO_BUFFER_BYTES = 16 * 1024;
+
+    private final IntOperator leftOp;
+    private final IntOperator rightOp;
+    private final int leftKeyIndex;
+    private final int rightKeyIndex;
+    private final long memoryBudgetBytes;
+    private final int partitionBits;
+    private final ProbeFilterFeed prefilterFeed;
+    private ProbeFilter prefilter;       // this open()'s filter, null = no prefilter
+    private Path spillDirectoryParent;   // null = java.io.tmpdir
+
+    // resident build rows: all of them in memory, partition 0 once spilling
+    private int[][] buffered;
+    private int bufferedCount;
+    private long bufferedBytes;
+    private boolean partition0Resident;
+
+    // spill state
+    private Path spillDir;
+    private Partition[] partitions;        // level 0, written while reading the inputs
+    private ArrayDeque<Partition> pending; // spilled partitions not yet joined
+    private Partition current;
+    private int partitionFiles;
+    private boolean probeStreaming;        // probe input still being read
+    private DataInputStream probeIn;
+    private int probeRemaining;
+
+    // join state
+    private IntHashTable hashTable;
+    private int[] currentRightRow;
+    private int matchEntry = IntHashTable.NO_ENTRY;
+
+    // metrics
+    private int filterPasses = 0;
+    private int filterRejects = 0;
+    private int hashLookups = 0;
+    private int actualMatches = 0;
+    private long spilledBuildRows = 0;
+    private long spilledProbeRows = 0;
+    private long spilledBytes = 0;
+    private int repartitions = 0;
+
+    public int getFilterPasses() { return filterPasses; }
+    public int getFilterRejects() { return filterRejects; }
+    public int getHashLookups() { return hashLookups; }
+    public int getActualMatches() { return actualMatches; }
+    public boolean isSpilled() { return spilledBuildRows > 0; }
+    public long getSpilledBuildRows() { return spilledBuildRows; }
+    public long getSpilledProbeRows() { return spilledProbeRows; }
+    public long getSpilledBytes() { return spilledBytes; }
+    public int getPartitionCount() { return 1 << partitionBits; }
+    /** Spilled partitions that were split again because their build side exceeded the budget. */
+    public int getRepartitions() { return repartitions; }
+    /** Spilled, and partition 0 was still joined in memory. */
+    public boolean isPartition0Resident() { return partitions != null && partition0Resident; }
+
+    public IntGraceHashJoinOperator(
+            IntOperator left,
+            IntOperator right,
+            int leftKeyIndex,
+            int rightKeyIndex,
+            long memoryBudgetBytes,
+            int partitionBits,
+            ProbeFilter prefilter
+    ) {
+        this(left, right, leftKeyIndex, rightKeyIndex, memoryBudgetBytes, partitionBits, new ProbeFilterFeed(prefilter));
+    }
+
+    private IntGraceHashJoinOperator(
+            IntOperator left,
+            IntOperator right,
+            int leftKeyIndex,
+            int rightKeyIndex,
+            long memoryBudgetBytes,
+            int partitionBits,
+            ProbeFilterFeed prefilterFeed
+    ) {
+        if (memoryBudgetBytes <= 0) {
+            throw new IllegalArgumentException("memoryBudgetBytes must be > 0");
+        }
+        if (partitionBits < 1 || partitionBits > IntHashTable.MAX_SEGMENT_BITS) {
+            throw new IllegalArgumentException("partitionBits must be in [1.." + IntHashTable.MAX_SEGMENT_BITS + "]");
+        }
+        this.leftOp = left;
+        this.rightOp = right;
+        this.leftKeyIndex = leftKeyIndex;
+        this.rightKeyIndex = rightKeyIndex;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.partitionBits = partitionBits;
+        this.prefilterFeed = prefilterFeed;
+    }
+
+    public IntGraceHashJoinOperator(
+            IntOperator left,
+            IntOperator right,
+            int leftKeyIndex,
+            int rightKeyIndex,
+            long memoryBudgetBytes,
+            ProbeFilter prefilter
+    ) {
+        this(left, right, leftKeyIndex, rightKeyIndex, memoryBudgetBytes, DEFAULT_PARTITION_BITS, prefilter);
+    }
+
+    /** Default partition bits; takes a new, empty prefilter from filterFactory on every open(). */
+    public static IntGraceHashJoinOperator withFilterFactory(
+            IntOperator left,
+            IntOperator right,
+            int leftKeyIndex,
+            int rightKeyIndex,
+            long memoryBudgetBytes,
+            Supplier<ProbeFilter> filterFactory
+    ) {
+        return new IntGraceHashJoinOperator(left, right, leftKeyIndex, rightKeyIndex, memoryBudgetBytes,
+                DEFAULT_PARTITION_BITS, new ProbeFilterFeed(filterFactory));
+    }
+
+    /** Directory the per-join spill directory is created in (default: java.io.tmpdir). */
+    public void setSpillDirectory(Path parent) {
+        this.spillDirectoryParent = parent;
+    }
+
+    @Override
+    public void open() {
+        prefilterFeed.beginBuild();
+        prefilter = prefilterFeed.filter();
+        System.out.println("IntGraceHashJoin: OPEN (budget=" + memoryBudgetBytes + " bytes, partitions=" +
+                getPartitionCount() + ", prefilter=" + (prefilter == null ? "none" : prefilter.name()) + ")");
+
+        // BUILD: buffer until the budget is exceeded, then spill all but partition 0
+        buffered = new int[1024][];
+        bufferedCount = 0;
+        bufferedBytes = 0;
+        partition0Resident = true;
+
+        leftOp.open();
+        int[] leftRow;
+        while ((leftRow = leftOp.next()) != null) {
+            int key = leftRow[leftKeyIndex];
+            prefilterFeed.add(key);
+
+            if (partitions != null) {
+                int part = partitionOf(key, 0);
+                if (part != 0 || !partition0Resident) {
+                    spillBuild(partitions[part], leftRow);
+                    continue;
+                }
+            }
+            if (bufferedCount == buffered.length) buffered = Arrays.copyOf(buffered, bufferedCount * 2);
+            buffered[bufferedCount++] = leftRow;
+            bufferedBytes += rowBytes(leftRow);
+            if (overBudget()) {
+                if (partitions == null) startSpilling();
+                else spillPartition0();
+            }
+        }
+        leftOp.close();
+        prefilterFeed.endBuild();
+
+        // resident rows (everything, or partition 0) go into the hash table
+        hashTable = new IntHashTable(bufferedCount);
+        for (int i = 0; i < bufferedCount; i++) {
+            hashTable.put(buffered[i][leftKeyIndex], buffered[i]);
+        }
+        buffered = null;
+        if (partitions != null) {
+            pending = new ArrayDeque<>(Arrays.asList(partitions));
+        }
+
+        // PROBE: streamed through nextProbeRow; rows of spilled partitions are written out
+        rightOp.open();
+        probeStreaming = true;
+        advanceToNextMatch();
+    }
+
+    private boolean overBudget() {
+        long prefilterBytes = prefilter == null ? 0 : prefilter.buildBytesUsed();
+        return bufferedBytes + prefilterBytes > memoryBudgetBytes;
+    }
+
+    private static long rowBytes(int[] row) {
+        return ROW_OVERHEAD_BYTES + 4L * row.length;
+    }
+
+    // level 0: the hash table's segment bits; deeper levels re-seed the key so a
+    // partition splits again (fmix32 is a bijection, so no two keys merge)
+    private int partitionOf(int key, int level) {
+        return IntHashTable.segmentOf(level == 0 ? key : key ^ (level * 0x9E3779B9), partitionBits);
+    }
+
+    private boolean passesPrefilter(int key) {
+        if (prefilter == null) return true;
+        if (!prefilter.mightContain(key)) {
+            filterRejects++;
+            return false;
+        }
+        filterPasses++;
+        return true;
+    }
+
+    private void advanceToNextMatch() {
+        matchEntry = IntHashTable.NO_ENTRY;
+
+        while (matchEntry == IntHashTable.NO_ENTRY) {
+            currentRightRow = nextProbeRow();
+            if (currentRightRow == null) return;
+
+            hashLookups++;
+            int slot = hashTable.findSlot(currentRightRow[rightKeyIndex]);
+
+            if (slot != IntHashTable.NO_SLOT) {
+                matchEntry = hashTable.firstEntry(slot);
+                actualMatches += hashTable.matchCount(slot);
+            }
+        }
+    }
+
+    // While the probe input lasts: next row passing the prefilter that belongs to the
+    // resident rows (others are spilled on the way). Then: next row of the current partition.
+    private int[] nextProbeRow() {
+        if (probeStreaming) {
+            int[] row;
+            while ((row = rightOp.next()) != null) {
+                int key = row[rightKeyIndex];
+                if (!passesPrefilter(key)) continue;
+                if (partitions == null) return row;
+
+                int part = partitionOf(key, 0);
+                if (part == 0 && partition0Resident) return row;
+                Partition p = partitions[part];
+                writeRow(p.probeOut, row);
+                p.probeRows++;
+                spilledProbeRows++;
+            }
+            finishProbeInput();
+            if (partitions == null) return null;
+        }
+        while (probeRemaining == 0) {
+            if (!nextPartition()) return null;
+        }
+        probeRemaining--;
+        return readRow(probeIn);
+    }
+
+    private void finishProbeInput() {
+        rightOp.close();
+        probeStreaming = false;
+        if (partitions == null) return;
+        for (Partition p : partitions) {
+            p.closeWriters();
+        }
+        System.out.println("  Spilled build=" + spilledBuildRows + " rows, probe=" + spilledProbeRows +
+                " rows, " + spilledBytes + " bytes" + (partition0Resident ? " (partition 0 resident)" : ""));
+    }
+
+    // Loads the build side of the next partition that has rows on both sides,
+    // splitting partitions that do not fit the budget first.
+    private boolean nextPartition() {
+        closeProbeReader();
+        if (current != null) current.delete();
+        current = null;
+        hashTable = null;
+        Partition p;
+        while ((p = pending.poll()) != null) {
+            if (p.buildRows == 0 || p.probeRows == 0) {
+                p.delete();
+                continue;
+            }
+            if (p.buildBytes > memoryBudgetBytes && p.level < MAX_REPARTITION_DEPTH) {
+                repartition(p);
+                continue;
+            }
+            current = p;
+            hashTable = new IntHashTable(p.buildRows);
+            try (DataInputStream in = reader(p.buildFile)) {
+                for (int i = 0; i < p.buildRows; i++) {
+                    int[] row = readRow(in);
+                    hashTable.put(row[leftKeyIndex], row);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            probeIn = reader(p.probeFile);
+            probeRemaining = p.probeRows;
+            return true;
+        }
+        return false;
+    }
+
+    // Splits p into 2^partitionBits children with the next level's hash seed; the
+    // children are joined next (in place of p).
+    private void repartition(Partition p) {
+        int level = p.level + 1;
+        Partition[] children = new Partition[getPartitionCount()];
+        try {
+            for (int i = 0; i < children.length; i++) {
+                children[i] = new Partition(spillDir, partitionFiles++, level);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try (DataInputStream in = reader(p.buildFile)) {
+            for (int i = 0; i < p.buildRows; i++) {
+                int[] row = readRow(in);
+                Partition c = children[partitionOf(row[leftKeyIndex], level)];
+                writeRow(c.buildOut, row);
+                c.buildRows++;
+                c.buildBytes += rowBytes(row);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try (DataInputStream in = reader(p.probeFile)) {
+            for (int i = 0; i < p.probeRows; i++) {
+                int[] row = readRow(in);
+                Partition c = children[partitionOf(row[rightKeyIndex], level)];
+                writeRow(c.probeOut, row);
+                c.probeRows++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        p.delete();
+        repartitions++;
+
+        for (int i = children.length - 1; i >= 0; i--) {
+            Partition c = children[i];
+            c.closeWriters();
+            // nothing split off (one heavy key): another seed will not help either
+            if (c.buildRows == p.buildRows) c.level = MAX_REPARTITION_DEPTH;
+            pending.addFirst(c);
+        }
+    }
+
+    @Override
+    public int[] next() {
+        while (true) {
+            if (currentRightRow == null) return null;
+
+            if (matchEntry != IntHashTable.NO_ENTRY) {
+                int[] leftRow = hashTable.row(matchEntry);
+                matchEntry = hashTable.nextEntry(matchEntry);
+
+                int[] out = new int[leftRow.length + currentRightRow.length];
+                System.arraycopy(leftRow, 0, out, 0, leftRow.length);
+                System.arraycopy(currentRightRow, 0, out, leftRow.length, currentRightRow.length);
+
+                if (matchEntry == IntHashTable.NO_ENTRY) advanceToNextMatch();
+                return out;
+            }
+
+            advanceToNextMatch();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (probeStreaming) {
+            rightOp.close();
+            probeStreaming = false;
+        }
+        if (partitions != null) {
+            closeProbeReader();
+            for (Partition p : partitions) {
+                p.closeWriters();
+                p.delete();
+            }
+            for (Partition p : pending) {
+                p.closeWriters();
+                p.delete();
+            }
+            if (current != null) current.delete();
+            try {
+                Files.deleteIfExists(spillDir);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            partitions = null;
+            pending = null;
+            current = null;
+        }
+        hashTable = null;
+        buffered = null;
+        currentRightRow = null;
+        System.out.println("IntGraceHashJoin: CLOSE");
+    }
+
+    // ============================================================
+    // SPILLING
+    // ============================================================
+
+    private void startSpilling() {
+        try {
+            spillDir = spillDirectoryParent == null
+                    ? Files.createTempDirectory("grace-join")
+                    : Files.createTempDirectory(spillDirectoryParent, "grace-join");
+            partitionFiles = 0;
+            partitions = new Partition[getPartitionCount()];
+            for (int i = 0; i < partitions.length; i++) {
+                partitions[i] = new Partition(spillDir, partitionFiles++, 0);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // keep partition 0's rows, spill the rest
+        int kept = 0;
+        bufferedBytes = 0;
+        for (int i = 0; i < bufferedCount; i++) {
+            int[] row = buffered[i];
+            int part = partitionOf(row[leftKeyIndex], 0);
+            if (part == 0) {
+                buffered[kept++] = row;
+                bufferedBytes += rowBytes(row);
+            } else {
+                spillBuild(partitions[part], row);
+            }
+        }
+        Arrays.fill(buffered, kept, bufferedCount, null);
+        bufferedCount = kept;
+        if (overBudget()) spillPartition0();
+    }
+
+    // partition 0 alone (plus the prefilter) no longer fits: spill it like the others
+    private void spillPartition0() {
+        for (int i = 0; i < bufferedCount; i++) {
+            spillBuild(partitions[0], buffered[i]);
+        }
+        buffered = new int[0][];
+        bufferedCount = 0;
+        bufferedBytes = 0;
+        partition0Resident = false;
+    }
+
+    private void spillBuild(Partition p, int[] row) {
+        writeRow(p.buildOut, row);
+        p.buildRows++;
+        p.buildBytes += rowBytes(row);
+        spilledBuildRows++;
+    }
+
+    // row format: width, then the ints
+    private void writeRow(DataOutputStream out, int[] row) {
+        try {
+            out.writeInt(row.length);
+            for (int v : row) out.writeInt(v);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        spilledBytes += 4L * (row.length + 1);
+    }
+
+    private static int[] readRow(DataInputStream in) {
+        try {
+            int[] row = new int[in.readInt()];
+            for (int c = 0; c < row.length; c++) row[c] = in.readInt();
+            return row;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static DataInputStream reader(Path file) {
+        try {
+            return new DataInputStream(new BufferedInputStream(Files.newInputStream(file), IO_BUFFER_BYTES));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closeProbeReader() {
+        if (probeIn == null) return;
+        try {
+            probeIn.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        probeIn = null;
+        probeRemaining = 0;
+    }
+
+    private static final class Partition {
+        final Path buildFile;
+        final Path probeFile;
+        DataOutputStream buildOut;
+        DataOutputStream probeOut;
+        int buildRows;
+        int probeRows;
+        long buildBytes; // estimated in-memory size of the build rows
+        int level;       // repartitioning depth (0 = first split)
+
+        Partition(Path dir, int index, int level) throws IOException {
+            this.level = level;
+            this.buildFile = dir.resolve("build-" + index + ".bin");
+            this.probeFile = dir.resolve("probe-" + index + ".bin");
+            this.buildOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(buildFile), IO_BUFFER_BYTES));
+            this.probeOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(probeFile), IO_BUFFER_BYTES));
+        }
+
+        void closeWriters() {
+            try {
+                if (buildOut != null) buildOut.close();
+                if (probeOut != null) probeOut.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buildOut = null;
+            probeOut = null;
+        }
+
+        void delete() {
+            try {
+                Files.deleteIfExists(buildFile);
+                Files.deleteIfExists(probeFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
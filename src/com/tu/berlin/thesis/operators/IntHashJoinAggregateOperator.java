@@ -0,0 +1,333 @@
+package com.tu.berlin.thesis.operators;
+
+import com.tu.berlin.thesis.hashtable.IntHashTable;
+import com.tu.berlin.thesis.hashtable.LongHashTable;
+
+import java.util.Arrays;
+
+/**
+ * Hash join fused with a hash aggregation: every match updates primitive
+ * aggregate state directly, no joined int[] row is ever built.
+ *
+ * Column indices (group columns, aggregate inputs) refer to the joined row as the
+ * plain join would produce it: build columns first, then probe columns.
+ *
+ * Grouping: 0, 1 or 2 columns from either side (two are packed into one long key
+ * in a LongHashTable that maps group key -> group id).
+ * Aggregates: COUNT, SUM, MIN, MAX with an int or a long accumulator.
+ *
+ * Fast paths:
+ *  - group and aggregate columns all on the probe side: one update per probe row,
+ *    weighted by the match count (SUM += v * matches, COUNT += matches)
+ *  - group columns all on the build side: the group id of every build row is
+ *    resolved once after the build
+ *
+ * The aggregation runs in open(); next() returns one row per group that had at
+ * least one match (so an empty join yields no row, also without grouping):
+ *   group columns, then per aggregate one int column (int accumulator)
+ *   or two (long accumulator: high word, low word; see readLong).
+ */
+public class IntHashJoinAggregateOperator implements IntOperator {
+
+    public enum Function { COUNT, SUM, MIN, MAX }
+
+    /** One aggregate: function, input column of the joined row (-1 for COUNT) and accumulator width. */
+    public static final class Aggregate {
+        final Function function;
+        final int column;
+        final boolean longAccumulator;
+
+        public Aggregate(Function function, int column, boolean longAccumulator) {
+            if (function != Function.COUNT && column < 0) {
+                throw new IllegalArgumentException(function + " needs an input column");
+            }
+            this.function = function;
+            this.column = function == Function.COUNT ? -1 : column;
+            this.longAccumulator = longAccumulator;
+        }
+
+        public static Aggregate count() { return new Aggregate(Function.COUNT, -1, true); }
+        public static Aggregate sum(int column) { return new Aggregate(Function.SUM, column, true); }
+        public static Aggregate min(int column) { return new Aggregate(Function.MIN, column, false); }
+        public static Aggregate max(int column) { return new Aggregate(Function.MAX, column, false); }
+    }
+
+    private static final int BUILD = 0;
+    private static final int PROBE = 1;
+
+    private final IntOperator leftOp;
+    private final IntOperator rightOp;
+    private final int leftKeyIndex;
+    private final int rightKeyIndex;
+    private final int expectedBuildKeys;
+    private final int[] groupColumns;
+    private final Aggregate[] aggregates;
+
+    private IntHashTable hashTable;
+
+    // resolved column references (side + index within that side's row)
+    private int[] groupSide;
+    private int[] groupIndex;
+    private int[] aggSide;
+    private int[] aggIndex;
+
+    // group state: group id = entry id in groupMap
+    private LongHashTable groupMap;
+    private int[] entryGroup; // build entry -> group id (build-side grouping only)
+    private long[] groupKeys;
+    private long[] groupRows;
+    private int[][] intState;
+    private long[][] longState;
+    private int groupCount;
+
+    private int outputGroup;
+
+    // metrics
+    private int buildRows = 0;
+    private int hashLookups = 0;
+    private int actualMatches = 0;
+    private int emittedGroups = 0;
+
+    public int getBuildRows() { return buildRows; }
+    public int getHashLookups() { return hashLookups; }
+    public int getActualMatches() { return actualMatches; }
+    public int getGroupCount() { return emittedGroups; }
+
+    public IntHashJoinAggregateOperator(
+            IntOperator left,
+            IntOperator right,
+            int leftKeyIndex,
+            int rightKeyIndex,
+            int expectedBuildKeys,
+            int[] groupColumns,
+            Aggregate... aggregates
+    ) {
+        if (groupColumns.length > 2) {
+            throw new IllegalArgumentException("at most 2 group columns supported");
+        }
+        if (aggregates.length == 0) {
+            throw new IllegalArgumentException("at least one aggregate required");
+        }
+        this.leftOp = left;
+        this.rightOp = right;
+        this.leftKeyIndex = leftKeyIndex;
+        this.rightKeyIndex = rightKeyIndex;
+        this.expectedBuildKeys = expectedBuildKeys;
+        this.groupColumns = groupColumns.clone();
+        this.aggregates = aggregates.clone();
+    }
+
+    /** Long aggregate value stored at row[hiIndex] (high word), row[hiIndex + 1] (low word). */
+    public static long readLong(int[] row, int hiIndex) {
+        return IntCompositeKeyHashJoin.packKey(row[hiIndex], row[hiIndex + 1]);
+    }
+
+    @Override
+    public void open() {
+        System.out.println("IntHashJoinAggregateOperator: OPEN (groups by " + groupColumns.length +
+                " columns, " + aggregates.length + " aggregates)");
+
+        // BUILD
+        hashTable = new IntHashTable(expectedBuildKeys);
+        buildRows = 0;
+        int buildWidth = -1;
+        leftOp.open();
+        int[] leftRow;
+        while ((leftRow = leftOp.next()) != null) {
+            if (buildWidth < 0) buildWidth = leftRow.length;
+            hashTable.put(leftRow[leftKeyIndex], leftRow);
+            buildRows++;
+        }
+        leftOp.close();
+
+        System.out.println("  Built hash table with " + buildRows +
+                " rows (" + hashTable.distinctKeys() + " distinct keys)");
+
+        groupMap = new LongHashTable(64);
+        groupKeys = new long[64];
+        groupRows = new long[64];
+        intState = new int[aggregates.length][];
+        longState = new long[aggregates.length][];
+        for (int a = 0; a < aggregates.length; a++) {
+            if (aggregates[a].longAccumulator) longState[a] = new long[64];
+            else intState[a] = new int[64];
+        }
+        groupCount = 0;
+        outputGroup = 0;
+        emittedGroups = 0;
+        entryGroup = null;
+
+        rightOp.open();
+        if (buildRows > 0) {
+            resolveColumns(buildWidth);
+            aggregate();
+        }
+    }
+
+    private void resolveColumns(int buildWidth) {
+        groupSide = new int[groupColumns.length];
+        groupIndex = new int[groupColumns.length];
+        for (int c = 0; c < groupColumns.length; c++) {
+            groupSide[c] = groupColumns[c] < buildWidth ? BUILD : PROBE;
+            groupIndex[c] = groupColumns[c] < buildWidth ? groupColumns[c] : groupColumns[c] - buildWidth;
+        }
+        aggSide = new int[aggregates.length];
+        aggIndex = new int[aggregates.length];
+        for (int a = 0; a < aggregates.length; a++) {
+            int col = aggregates[a].column;
+            aggSide[a] = col < 0 ? PROBE : col < buildWidth ? BUILD : PROBE;
+            aggIndex[a] = col < 0 ? -1 : col < buildWidth ? col : col - buildWidth;
+        }
+    }
+
+    private void aggregate() {
+        boolean groupsOnBuild = groupColumns.length > 0;
+        boolean buildRefs = false;
+        for (int side : groupSide) {
+            if (side == BUILD) buildRefs = true;
+            else groupsOnBuild = false;
+        }
+        for (int side : aggSide) {
+            if (side == BUILD) buildRefs = true;
+        }
+
+        if (groupsOnBuild) {
+            entryGroup = new int[buildRows];
+            for (int e = 0; e < buildRows; e++) {
+                entryGroup[e] = groupOf(hashTable.row(e), null);
+            }
+        }
+
+        int[] probeRow;
+        while ((probeRow = rightOp.next()) != null) {
+            hashLookups++;
+            int slot = hashTable.findSlot(probeRow[rightKeyIndex]);
+            if (slot == IntHashTable.NO_SLOT) continue;
+
+            int matches = hashTable.matchCount(slot);
+            actualMatches += matches;
+
+            if (!buildRefs) {
+                update(groupOf(null, probeRow), null, probeRow, matches);
+                continue;
+            }
+            for (int e = hashTable.firstEntry(slot); e != IntHashTable.NO_ENTRY; e = hashTable.nextEntry(e)) {
+                int[] buildRow = hashTable.row(e);
+                int g = entryGroup != null ? entryGroup[e] : groupOf(buildRow, probeRow);
+                update(g, buildRow, probeRow, 1);
+            }
+        }
+    }
+
+    private int groupOf(int[] buildRow, int[] probeRow) {
+        long key;
+        if (groupColumns.length == 0) {
+            key = 0;
+        } else {
+            int v0 = (groupSide[0] == BUILD ? buildRow : probeRow)[groupIndex[0]];
+            if (groupColumns.length == 1) {
+                key = v0;
+            } else {
+                int v1 = (groupSide[1] == BUILD ? buildRow : probeRow)[groupIndex[1]];
+                key = IntCompositeKeyHashJoin.packKey(v0, v1);
+            }
+        }
+
+        int slot = groupMap.findSlot(key);
+        if (slot != LongHashTable.NO_SLOT) return groupMap.firstEntry(slot);
+        return newGroup(key);
+    }
+
+    private int newGroup(long key) {
+        int g = groupMap.add(key);
+        if (g == groupKeys.length) {
+            int cap = g * 2;
+            groupKeys = Arrays.copyOf(groupKeys, cap);
+            groupRows = Arrays.copyOf(groupRows, cap);
+            for (int a = 0; a < aggregates.length; a++) {
+                if (longState[a] != null) longState[a] = Arrays.copyOf(longState[a], cap);
+                else intState[a] = Arrays.copyOf(intState[a], cap);
+            }
+        }
+        groupKeys[g] = key;
+        for (int a = 0; a < aggregates.length; a++) {
+            Function fn = aggregates[a].function;
+            if (fn == Function.MIN) {
+                if (longState[a] != null) longState[a][g] = Long.MAX_VALUE;
+                else intState[a][g] = Integer.MAX_VALUE;
+            } else if (fn == Function.MAX) {
+                if (longState[a] != null) longState[a][g] = Long.MIN_VALUE;
+                else intState[a][g] = Integer.MIN_VALUE;
+            }
+        }
+        groupCount = g + 1;
+        return g;
+    }
+
+    // matches > 1 only on the probe-only path, where every match carries the same values
+    private void update(int g, int[] buildRow, int[] probeRow, int matches) {
+        groupRows[g] += matches;
+        for (int a = 0; a < aggregates.length; a++) {
+            if (aggIndex[a] < 0) continue; // COUNT is read from groupRows
+            int v = (aggSide[a] == BUILD ? buildRow : probeRow)[aggIndex[a]];
+            switch (aggregates[a].function) {
+                case SUM:
+                    if (longState[a] != null) longState[a][g] += (long) v * matches;
+                    else intState[a][g] += v * matches;
+                    break;
+                case MIN:
+                    if (longState[a] != null) { if (v < longState[a][g]) longState[a][g] = v; }
+                    else if (v < intState[a][g]) intState[a][g] = v;
+                    break;
+                case MAX:
+                    if (longState[a] != null) { if (v > longState[a][g]) longState[a][g] = v; }
+                    else if (v > intState[a][g]) intState[a][g] = v;
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public int[] next() {
+        while (outputGroup < groupCount) {
+            int g = outputGroup++;
+            if (groupRows[g] == 0) continue; // build-side group without a match
+
+            int width = groupColumns.length;
+            for (Aggregate agg : aggregates) width += agg.longAccumulator ? 2 : 1;
+            int[] out = new int[width];
+
+            int c = 0;
+            if (groupColumns.length == 1) {
+                out[c++] = (int) groupKeys[g];
+            } else if (groupColumns.length == 2) {
+                out[c++] = (int) (groupKeys[g] >>> 32);
+                out[c++] = (int) groupKeys[g];
+            }
+            for (int a = 0; a < aggregates.length; a++) {
+                boolean count = aggregates[a].function == Function.COUNT;
+                if (aggregates[a].longAccumulator) {
+                    long v = count ? groupRows[g] : longState[a][g];
+                    out[c++] = (int) (v >>> 32);
+                    out[c++] = (int) v;
+                } else {
+                    out[c++] = count ? (int) groupRows[g] : intState[a][g];
+                }
+            }
+            emittedGroups++;
+            return out;
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        rightOp.close();
+        if (hashTable != null) hashTable.clear();
+        groupMap = null;
+        entryGroup = null;
+        System.out.println("IntHashJoinAggregateOperator: CLOSE");
+    }
+}
@@ -1,35 +1,73 @@
 package com.tu.berlin.thesis.operators;
 
-import java.util.*;
-import java.util.BitSet;
+import com.tu.berlin.thesis.filter.IntBlockedBloomFilter;
+import com.tu.berlin.thesis.filter.IntBloomFilter;
+import com.tu.berlin.thesis.filter.IntCountingBloomFilter;
+import com.tu.berlin.thesis.filter.IntSplitBlockBloomFilter;
+import com.tu.berlin.thesis.filter.ProbeFilter;
 
-public class IntHashJoinWithBloomFilter implements IntOperator {
+/**
+ * Hash join with a Bloom prefilter: IntFilteredHashJoin + one of the Bloom layouts
+ * (plain, blocked, split-block, counting), all sized from the plain Bloom's m and k.
+ */
+public class IntHashJoinWithBloomFilter extends IntDelegatingHashJoin {
 
-    private final IntOperator leftOp;
-    private final IntOperator rightOp;
+    private final Layout layout;
 
-    private final int leftKeyIndex;
-    private final int rightKeyIndex;
-
-    private final Bloom bloom;
-    private final Map<Integer, List<int[]>> hashTable = new HashMap<>();
+    // getters
+    public int getBloomPasses()   { return join.getFilterPasses(); }
+    public int getBloomRejects()  { return join.getFilterRejects(); }
+    public boolean isBlockedBloom() { return layout.blocked; }
+    public boolean isSplitBlockBloom() { return layout.splitBlock; }
+    public boolean isCountingBloom() { return layout.counting; }
+    public int getBuildInserts() { return join.getBuildInserts(); }
+    public int getBuildDeletes() { return join.getBuildDeletes(); }
+    public int getBuildRows() { return join.getBuildRows(); }
+    public long getBloomBytes() { return join.getFilterBytes(); }
 
-    // probe state
-    private int[] currentRightRow;
-    private Iterator<int[]> matchIterator;
+    public IntHashJoinWithBloomFilter(
+            IntOperator left,
+            IntOperator right,
+            int leftKeyIndex,
+            int rightKeyIndex,
+            int filterSizeBits,
+            int numHashFunctions,
+            int expectedBuildKeys
+    ) {
+        this(left, right, leftKeyIndex, rightKeyIndex,
+                new Layout(new IntBloomFilter(filterSizeBits, numHashFunctions)), expectedBuildKeys);
+    }
 
-    // metrics
-    private int bloomPasses = 0;
-    private int bloomRejects = 0;
-    private int hashLookups = 0;
-    private int actualMatches = 0;
+    /**
+     * Bloom filter sized for expectedBuildKeys at targetFpr false positives:
+     * optimal m (long, may exceed 2^31 bits) and k, double hashing (no cap on k).
+     */
+    public IntHashJoinWithBloomFilter(
+            IntOperator left,
+            IntOperator right,
+            int leftKeyIndex,
+            int rightKeyIndex,
+            int expectedBuildKeys,
+            double targetFpr
+    ) {
+        this(left, right, leftKeyIndex, rightKeyIndex,
+                new Layout(new IntBloomFilter(Math.max(1, expectedBuildKeys), targetFpr)), expectedBuildKeys);
+    }
 
-    // getters
-    public int getBloomPasses()   { return bloomPasses; }
-    public int getBloomRejects()  { return bloomRejects; }
-    public int getHashLookups()   { return hashLookups; }
-    public int getActualMatches() { return actualMatches; }
+    private IntHashJoinWithBloomFilter(
+            IntOperator left,
+            IntOperator right,
+            int leftKeyIndex,
+            int rightKeyIndex,
+            Layout layout,
+            int expectedBuildKeys
+    ) {
+        super(IntFilteredHashJoin.withFilterFactory(left, right, leftKeyIndex, rightKeyIndex, expectedBuildKeys,
+                layout::newFilter));
+        this.layout = layout;
+    }
 
+    // Backward-compatible old constructor (table grows on demand)
     public IntHashJoinWithBloomFilter(
             IntOperator left,
             IntOperator right,
@@ -38,163 +76,115 @@ public class IntHashJoinWithBloomFilter implements IntOperator {
             int filterSizeBits,
             int numHashFunctions
     ) {
-        this.leftOp = left;
-        this.rightOp = right;
-        this.leftKeyIndex = leftKeyIndex;
-        this.rightKeyIndex = rightKeyIndex;
-        this.bloom = new Bloom(filterSizeBits, numHashFunctions);
+        this(left, right, leftKeyIndex, rightKeyIndex, filterSizeBits, numHashFunctions, 1024);
     }
 
-    @Override
-    public void open() {
-        System.out.println("IntHashJoin WITH Bloom: OPEN");
-        System.out.println("  Bloom(m=" + bloom.size + ", k=" + bloom.k + ")");
-
-        // ------------------------
-        // BUILD PHASE
-        // ------------------------
-        leftOp.open();
-        int[] leftRow;
-        int leftCount = 0;
-
-        while ((leftRow = leftOp.next()) != null) {
-            int key = leftRow[leftKeyIndex];
-
-            // add key to Bloom
-            bloom.add(key);
-
-            // add row to hash table
-            List<int[]> tmp = hashTable.get(key);
-            if (tmp == null) {
-                tmp = new ArrayList<>();
-                hashTable.put(key, tmp);
-            }
-            tmp.add(leftRow);
-
-            leftCount++;
+    /**
+     * Blocked layout: IntBlockedBloomFilter with the same m (rounded up to a power of two
+     * of 512-bit blocks) and k (at most 16), one cache line per probe instead of k scattered bits.
+     */
+    public void setBlockedBloom(boolean blocked) {
+        layout.blocked = blocked;
+        if (blocked) {
+            layout.splitBlock = false;
+            layout.counting = false;
         }
-        leftOp.close();
-
-        System.out.println("  Built hash table with " +
-                leftCount + " rows (" + hashTable.size() + " distinct keys)");
-
-        double fp = bloom.estimateFalsePositiveRate(leftCount);
-        System.out.printf("  Estimated Bloom false-positive rate: %.3f%%%n", fp * 100);
-
-        // prepare probe
-        rightOp.open();
-        advanceToNextMatch();
+        join.refreshFilter();
     }
 
-    private void advanceToNextMatch() {
-        matchIterator = null;
-
-        while (matchIterator == null || !matchIterator.hasNext()) {
-
-            currentRightRow = rightOp.next();
-            if (currentRightRow == null) return;
-
-            int key = currentRightRow[rightKeyIndex];
-
-            // bloom test
-            if (!bloom.mightContain(key)) {
-                bloomRejects++;
-                continue;
-            }
-            bloomPasses++;
-
-            // hash lookup
-            hashLookups++;
-            List<int[]> matches = hashTable.get(key);
-
-            if (matches != null) {
-                matchIterator = matches.iterator();
-                actualMatches += matches.size();
-            }
+    /**
+     * Split-block layout: IntSplitBlockBloomFilter with the same m (rounded up to a power of two
+     * of 256-bit blocks, k fixed at 8), one vector op per key when jdk.incubator.vector is available.
+     * The batch probe (nextBatch) filters whole selection vectors with it.
+     */
+    public void setSplitBlockBloom(boolean split) {
+        layout.splitBlock = split;
+        if (split) {
+            layout.blocked = false;
+            layout.counting = false;
         }
+        join.refreshFilter();
     }
 
-    @Override
-    public int[] next() {
-        while (true) {
-            if (currentRightRow == null) return null;
-
-            if (matchIterator != null && matchIterator.hasNext()) {
-                int[] leftRow = matchIterator.next();
-
-                int[] out = new int[leftRow.length + currentRightRow.length];
-                System.arraycopy(leftRow, 0, out, 0, leftRow.length);
-                System.arraycopy(currentRightRow, 0, out, leftRow.length, currentRightRow.length);
-
-                if (!matchIterator.hasNext()) advanceToNextMatch();
-                return out;
-            }
-
-            advanceToNextMatch();
+    /**
+     * Counting layout: IntCountingBloomFilter with the same m (4-bit counters instead of bits)
+     * and k. Needed for deleteBuildRow / deleteBuildKey; 4x the memory of the plain Bloom.
+     */
+    public void setCountingBloom(boolean counting) {
+        layout.counting = counting;
+        if (counting) {
+            layout.blocked = false;
+            layout.splitBlock = false;
         }
+        join.refreshFilter();
     }
 
-    @Override
-    public void close() {
-        rightOp.close();
-        hashTable.clear();
-        System.out.println("IntHashJoin WITH Bloom: CLOSE");
+    /** See IntFilteredHashJoin.setRetainBuild. */
+    public void setRetainBuild(boolean retain) {
+        join.setRetainBuild(retain);
     }
 
-    // ============================================================
-    // INNER BLOOM FILTER CLASS (INT) — FAST
-    // ============================================================
-    private static class Bloom {
-        static int[] multipliers = {31, 37, 41, 43, 47, 53, 59, 61, 67, 71};
+    /**
+     * Incremental build-side insert (retained build, between query batches): the row goes
+     * into the hash table and its key into the filter. Works with every layout.
+     */
+    public void insertBuildRow(int[] row) {
+        join.insertBuildRow(row);
+    }
 
-        private final BitSet bits;
-        private final int size;
-        private final int k;
+    /**
+     * Incremental build-side delete of one row with the same content (Arrays.equals) as row.
+     * Needs the counting layout. Returns false if no such row is in the hash table.
+     * An update is deleteBuildRow(old) + insertBuildRow(new).
+     */
+    public boolean deleteBuildRow(int[] row) {
+        checkCounting();
+        return join.deleteBuildRow(row);
+    }
 
-        Bloom(int sizeBits, int numHashFunctions) {
-            this.size = sizeBits;
-            this.k = numHashFunctions;
-            this.bits = new BitSet(sizeBits);
-        }
+    /** Incremental build-side delete of all rows with key; returns how many. Needs the counting layout. */
+    public int deleteBuildKey(int key) {
+        checkCounting();
+        return join.deleteBuildKey(key);
+    }
 
-        void add(int key) {
-            for (int i = 0; i < k; i++) {
-                int h = computeHash(key, i);
-                bits.set(h);
-            }
+    private void checkCounting() {
+        if (!layout.counting) {
+            throw new IllegalStateException("deletes need the counting Bloom layout (setCountingBloom(true))");
         }
+    }
 
-        boolean mightContain(int key) {
-            for (int i = 0; i < k; i++) {
-                int h = computeHash(key, i);
-                if (!bits.get(h)) return false;
-            }
-            return true;
-        }
+    /**
+     * Sideways filter pushdown: after the build, the build-side filter is handed to the
+     * probe scan (when it is an IntRuntimeFilterTarget), which drops misses while scanning.
+     * Rows the scan dropped are counted in getBloomRejects().
+     */
+    public void setFilterPushdown(boolean enabled) {
+        join.setFilterPushdown(enabled);
+    }
 
-        private int computeHash(int key, int i) {
-            int hash = key;
-            hash = hash * multipliers[i % multipliers.length];  // ijust multiply it ny a cnst
-            return (hash & 0x7fffffff) % size; //modulo size, positive mask to avoid negative indices (01111111111111111111111111111111)LPB
+    // Selected layout; every open() gets a new, empty filter of it. The plain Bloom given
+    // to the constructor is the first plain filter handed out and the size template after.
+    private static final class Layout {
+        private final IntBloomFilter bloom;
+        private boolean bloomHandedOut = false;
+        boolean blocked = false;
+        boolean splitBlock = false;
+        boolean counting = false;
+
+        Layout(IntBloomFilter bloom) {
+            this.bloom = bloom;
         }
 
-        /*
-        //Alternative hash function using kinda bit mixing function  for better distribution supposedlyyyyy:
-    private int computeHash(int key, int i) {
-        int hash = key ^ (i * 0x9e3779b9);  // seed differently per hash function to avoid any collisions, xoe,shift,mult,xor,shift,mult,xor thenn mod
-        hash ^= (hash >>> 16); //a ^ b xor ,shifting it improves the bit mixing i think
-        hash *= 0x85ebca6b;
-        hash ^= (hash >>> 13);
-        hash *= 0xc2b2ae35;
-        hash ^= (hash >>> 16);
-        return (hash & 0x7fffffff) % size;
-    } //teh constants from the MurmurHash3
-*/
- //this one big nono
-
-        double estimateFalsePositiveRate(int numInsertedKeys) {
-            double load = (double) numInsertedKeys / size;
-            return Math.pow(1 - Math.exp(-k * load), k);
+        ProbeFilter newFilter() {
+            if (splitBlock) return new IntSplitBlockBloomFilter(bloom.getSizeBits());
+            if (blocked) return new IntBlockedBloomFilter(bloom.getSizeBits(), Math.min(16, bloom.getNumHashFunctions()));
+            if (counting) return new IntCountingBloomFilter(bloom.getSizeBits(), bloom.getNumHashFunctions());
+            if (!bloomHandedOut) {
+                bloomHandedOut = true;
+                return bloom;
+            }
+            return bloom.emptyCopy();
         }
     }
 }
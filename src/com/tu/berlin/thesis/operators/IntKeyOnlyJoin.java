@@ -0,0 +1,140 @@
+package com.tu.berlin.thesis.operators;
+
+import com.tu.berlin.thesis.hashtable.IntHashTable;
+import com.tu.berlin.thesis.rangetree.ExactRangesIndex;
+import com.tu.berlin.thesis.rangetree.RangeExtractor;
+
+/**
+ * Shared build/probe logic of the semi- and anti-join: only build keys are kept.
+ *
+ * Build keys are compressed into exact ranges. With at most maxRangeCount ranges
+ * (dense keys) membership is answered by ExactRangesIndex alone, with no hash table
+ * and zero hash lookups. Otherwise the distinct keys go into a key-only IntHashTable.
+ *
+ * Output rows are probe rows as they are (no concatenation), in probe order.
+ */
+abstract class IntKeyOnlyJoin implements IntOperator, IntBatchOperator {
+
+    public static final int DEFAULT_MAX_RANGE_COUNT = 4096;
+
+    private final IntOperator leftOp;
+    private final IntOperator rightOp;
+    private final int leftKeyIndex;
+    private final int rightKeyIndex;
+    private final int expectedBuildKeys;
+    private final int maxRangeCount;
+    private final boolean keepMatches; // true = semi, false = anti
+
+    private final ExactRangesIndex ranges = new ExactRangesIndex();
+    private IntHashTable keySet; // null = ranges only
+    private boolean rangeOnly;
+    private IntBatchOperator batchInput;
+
+    // metrics
+    private int hashLookups = 0;
+    private int rangeLookups = 0;
+    private int emitted = 0;
+
+    public int getHashLookups() { return hashLookups; }
+    public int getRangeLookups() { return rangeLookups; }
+    public int getEmittedRows() { return emitted; }
+    public int getRangeCount() { return ranges.getRangeCount(); }
+    public boolean isRangeOnly() { return rangeOnly; }
+
+    IntKeyOnlyJoin(IntOperator left, IntOperator right, int leftKeyIndex, int rightKeyIndex,
+                   int expectedBuildKeys, int maxRangeCount, boolean keepMatches) {
+        this.leftOp = left;
+        this.rightOp = right;
+        this.leftKeyIndex = leftKeyIndex;
+        this.rightKeyIndex = rightKeyIndex;
+        this.expectedBuildKeys = expectedBuildKeys;
+        this.maxRangeCount = maxRangeCount;
+        this.keepMatches = keepMatches;
+    }
+
+    abstract String name();
+
+    @Override
+    public void open() {
+        // BUILD: keys only
+        RangeExtractor extractor = new RangeExtractor(expectedBuildKeys);
+        leftOp.open();
+        int[] leftRow;
+        while ((leftRow = leftOp.next()) != null) {
+            extractor.add(leftRow[leftKeyIndex]);
+        }
+        leftOp.close();
+
+        RangeExtractor.Ranges exact = extractor.buildExactRanges();
+        ranges.build(exact.starts, exact.ends, exact.count);
+
+        keySet = null;
+        if (exact.count > maxRangeCount) {
+            // sparse: distinct keys (bounded by the build row count) into a key-only table
+            int distinct = 0;
+            for (int i = 0; i < exact.count; i++) distinct += exact.ends[i] - exact.starts[i] + 1;
+            keySet = new IntHashTable(distinct);
+            for (int i = 0; i < exact.count; i++) {
+                for (int k = exact.starts[i]; ; k++) {
+                    keySet.add(k);
+                    if (k == exact.ends[i]) break;
+                }
+            }
+        }
+
+        rangeOnly = keySet == null;
+        System.out.println(name() + ": OPEN (" + exact.count + " exact ranges, " +
+                (keySet == null ? "range-only" : "hash set of " + keySet.distinctKeys() + " keys") + ")");
+
+        rightOp.open();
+        batchInput = null;
+    }
+
+    /** True if the probe key has a build match. */
+    public boolean hasMatch(int key) {
+        if (keySet == null) {
+            rangeLookups++;
+            return ranges.contains(key);
+        }
+        hashLookups++;
+        return keySet.findSlot(key) != IntHashTable.NO_SLOT;
+    }
+
+    private boolean keep(int key) {
+        return hasMatch(key) == keepMatches;
+    }
+
+    @Override
+    public int[] next() {
+        int[] rightRow;
+        while ((rightRow = rightOp.next()) != null) {
+            if (keep(rightRow[rightKeyIndex])) {
+                emitted++;
+                return rightRow;
+            }
+        }
+        return null;
+    }
+
+    // Batch mode: narrows the probe batch's selection vector, nothing is copied.
+    @Override
+    public IntBatch nextBatch() {
+        if (batchInput == null) batchInput = IntRowToBatchAdapter.of(rightOp);
+        IntBatch batch;
+        while ((batch = batchInput.nextBatch()) != null) {
+            batch.size = IntBatchKeyFilterOperator.filterSelection(
+                    batch.columns[rightKeyIndex], batch.selection, batch.size, this::keep);
+            emitted += batch.size;
+            if (batch.size > 0) return batch;
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        rightOp.close();
+        keySet = null;
+        batchInput = null;
+        System.out.println(name() + ": CLOSE");
+    }
+}
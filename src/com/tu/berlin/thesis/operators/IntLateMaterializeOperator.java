@@ -0,0 +1,88 @@
+package com.tu.berlin.thesis.operators;
+
+import com.tu.berlin.thesis.data.IntColumnarTable;
+
+/**
+ * Gathers the requested columns for the row id pairs of an IntRowIdPairOperator.
+ *
+ * Output columns = buildColumns (from the build table) followed by probeColumns
+ * (from the probe table). Gathering runs column at a time into one reusable
+ * IntBatch, so no per-match int[] is allocated and unrequested columns are never read.
+ * next() materializes rows from that batch for row-at-a-time consumers.
+ */
+public class IntLateMaterializeOperator implements IntOperator, IntBatchOperator {
+
+    private final IntRowIdPairOperator join;
+    private final IntColumnarTable build;
+    private final int[] buildColumns;
+    private final IntColumnarTable probe;
+    private final int[] probeColumns;
+
+    private IntBatch out;
+    private int pos;
+
+    public IntLateMaterializeOperator(
+            IntRowIdPairOperator join,
+            IntColumnarTable build,
+            int[] buildColumns,
+            IntColumnarTable probe,
+            int[] probeColumns
+    ) {
+        this.join = join;
+        this.build = build;
+        this.buildColumns = buildColumns;
+        this.probe = probe;
+        this.probeColumns = probeColumns;
+    }
+
+    @Override
+    public void open() {
+        join.open();
+        out = null;
+        pos = 0;
+    }
+
+    @Override
+    public IntBatch nextBatch() {
+        IntRowIdPairs pairs = join.nextPairs();
+        if (pairs == null) return null;
+
+        if (out == null) {
+            out = new IntBatch(buildColumns.length + probeColumns.length, pairs.capacity());
+        }
+        int n = pairs.size;
+        for (int c = 0; c < buildColumns.length; c++) {
+            gather(build.column(buildColumns[c]), pairs.buildIds, n, out.columns[c]);
+        }
+        for (int c = 0; c < probeColumns.length; c++) {
+            gather(probe.column(probeColumns[c]), pairs.probeIds, n, out.columns[buildColumns.length + c]);
+        }
+        for (int i = 0; i < n; i++) {
+            out.selection[i] = i;
+        }
+        out.size = n;
+        return out;
+    }
+
+    @Override
+    public int[] next() {
+        if (out == null || pos == out.size) {
+            if (nextBatch() == null) return null;
+            pos = 0;
+        }
+        return out.materializeRow(pos++);
+    }
+
+    @Override
+    public void close() {
+        join.close();
+        out = null;
+    }
+
+    /** dst[i] = src[ids[i]] for i in [0..n-1]. */
+    public static void gather(int[] src, int[] ids, int n, int[] dst) {
+        for (int i = 0; i < n; i++) {
+            dst[i] = src[ids[i]];
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.tu.berlin.thesis.operators;
+
+import com.tu.berlin.thesis.hashtable.IntHashTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Morsel-driven parallel build of an IntHashTable plus a build-side key summary
+ * (RangeExtractor, Bloom, streamed range set, ...).
+ *
+ * The build input is drained once (pull interface), then:
+ *  1) workers take morsels, read the keys, feed their own summary and
+ *     count rows per hash-table segment
+ *  2) workers scatter row ids into per-segment runs (morsel order kept)
+ *  3) workers fill disjoint table segments (no locks, duplicates keep input order)
+ *  4) the per-worker summaries are merged into the first one
+ *
+ * The segment count grows with the row count, so no segment needs more slots than
+ * IntHashTable.maxSegmentSlots allows. If a segment still gets more rows than it can
+ * hold keys (heavy skew), steps 2-3 fall back to a single-threaded insert.
+ */
+final class IntParallelHashBuild {
+
+    static final int DEFAULT_MORSEL_SIZE = 16384;
+
+    static final class Result<S> {
+        final IntHashTable table;
+        final S summary;
+        final int rows;
+
+        Result(IntHashTable table, S summary, int rows) {
+            this.table = table;
+            this.summary = summary;
+            this.rows = rows;
+        }
+    }
+
+    private IntParallelHashBuild() {}
+
+    static void checkConfig(int workers, int morselSize) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers must be >= 1");
+        }
+        if (morselSize < 1) {
+            throw new IllegalArgumentException("morselSize must be >= 1");
+        }
+    }
+
+    /**
+     * input must already be open; it is drained but not closed.
+     * newSummary/addKey/merge may be null when the join keeps no summary.
+     */
+    static <S> Result<S> build(
+            IntOperator input,
+            int keyIndex,
+            int expectedRows,
+            int workers,
+            int morselSize,
+            Supplier<S> newSummary,
+            ObjIntConsumer<S> addKey,
+            BiConsumer<S, S> merge
+    ) {
+        // drain (single producer)
+        int[][] rows = new int[Math.max(16, expectedRows)][];
+        int n = 0;
+        int[] row;
+        while ((row = input.next()) != null) {
+            if (n == rows.length) rows = Arrays.copyOf(rows, n * 2);
+            rows[n++] = row;
+        }
+
+        final int[][] buildRows = rows;
+        final int rowCount = n;
+        final int morsels = (rowCount + morselSize - 1) / morselSize;
+        final int segmentBits = segmentBitsFor(workers, rowCount);
+        final int segments = 1 << segmentBits;
+
+        final int[] keys = new int[rowCount];
+        final int[][] counts = new int[morsels][segments];
+        final List<S> summaries = new ArrayList<>(workers);
+        for (int w = 0; w < workers; w++) {
+            summaries.add(newSummary == null ? null : newSummary.get());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            // 1) keys, summaries, per-morsel segment histograms
+            runMorsels(pool, workers, morsels, (worker, m) -> {
+                S summary = summaries.get(worker);
+                int[] hist = counts[m];
+                int to = Math.min(rowCount, (m + 1) * morselSize);
+                for (int i = m * morselSize; i < to; i++) {
+                    int key = buildRows[i][keyIndex];
+                    keys[i] = key;
+                    hist[IntHashTable.segmentOf(key, segmentBits)]++;
+                    if (addKey != null) addKey.accept(summary, key);
+                }
+            });
+
+            // prefix sums: counts[m][s] becomes the write position of morsel m in segment s
+            int[] segmentStart = new int[segments + 1];
+            int maxPerSegment = 0;
+            for (int s = 0; s < segments; s++) {
+                int pos = segmentStart[s];
+                for (int m = 0; m < morsels; m++) {
+                    int c = counts[m][s];
+                    counts[m][s] = pos;
+                    pos += c;
+                }
+                segmentStart[s + 1] = pos;
+                maxPerSegment = Math.max(maxPerSegment, pos - segmentStart[s]);
+            }
+            if (maxPerSegment > IntHashTable.maxKeysPerSegment(segmentBits)) {
+                IntHashTable table = new IntHashTable(rowCount);
+                for (int i = 0; i < rowCount; i++) {
+                    table.put(keys[i], buildRows[i]);
+                }
+                return new Result<>(table, mergeSummaries(summaries, merge), rowCount);
+            }
+
+            // 2) scatter row ids by segment
+            final int[] order = new int[rowCount];
+            runMorsels(pool, workers, morsels, (worker, m) -> {
+                int[] pos = counts[m];
+                int to = Math.min(rowCount, (m + 1) * morselSize);
+                for (int i = m * morselSize; i < to; i++) {
+                    order[pos[IntHashTable.segmentOf(keys[i], segmentBits)]++] = i;
+                }
+            });
+
+            // 3) fill disjoint segments
+            IntHashTable table = IntHashTable.forBulkLoad(buildRows, rowCount, segmentBits, maxPerSegment);
+            runMorsels(pool, workers, segments, (worker, s) -> {
+                for (int j = segmentStart[s]; j < segmentStart[s + 1]; j++) {
+                    int e = order[j];
+                    table.insertEntry(keys[e], e);
+                }
+            });
+            table.finishBulkLoad();
+
+            // 4) merge summaries
+            return new Result<>(table, mergeSummaries(summaries, merge), rowCount);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static <S> S mergeSummaries(List<S> summaries, BiConsumer<S, S> merge) {
+        S merged = summaries.get(0);
+        if (merge != null) {
+            for (int w = 1; w < summaries.size(); w++) {
+                merge.accept(merged, summaries.get(w));
+            }
+        }
+        return merged;
+    }
+
+    // a few segments per worker so uneven segments still balance, more for large builds
+    private static int segmentBitsFor(int workers, int rows) {
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(1, workers * 4 - 1));
+        return IntHashTable.segmentBitsFor(rows, bits);
+    }
+
+    interface MorselTask {
+        void run(int worker, int morsel);
+    }
+
+    /** Runs task over morsels [0..morsels-1]; each worker grabs the next free morsel. */
+    static void runMorsels(ExecutorService pool, int workers, int morsels, MorselTask task) {
+        AtomicInteger nextMorsel = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>(workers);
+        for (int w = 0; w < workers; w++) {
+            final int worker = w;
+            futures.add(pool.submit(() -> {
+                int m;
+                while ((m = nextMorsel.getAndIncrement()) < morsels) {
+                    task.run(worker, m);
+                }
+            }));
+        }
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("parallel build interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("parallel build failed", e.getCause());
+            }
+        }
+    }
+}
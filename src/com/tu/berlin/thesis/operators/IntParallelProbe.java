@@ -0,0 +1,263 @@
+package com.tu.berlin.thesis.operators;
+
+import com.tu.berlin.thesis.filter.ProbeFilter;
+import com.tu.berlin.thesis.hashtable.IntHashTable;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.IntPredicate;
+
+/**
+ * Morsel-driven parallel probe shared by the hash join operators.
+ *
+ * Workers pull morsels of morselSize probe rows from the (already open) probe
+ * input, run prefilter check, hash lookup and output concatenation against the
+ * read-only build state, and hand finished morsels to the consuming thread:
+ *  - ordered   : morsels are delivered in probe input order
+ *  - unordered : morsels are delivered as soon as they finish
+ *
+ * At most 4 morsels per worker are in flight, so output is never buffered whole.
+ * Each worker counts into its own counters; they are merged when it exits.
+ * A ProbeFilter prefilter (withFilter) is probed through one
+ * ProbeFilter.newWorkerProbe() view per worker, finished when the worker exits.
+ */
+final class IntParallelProbe implements IntOperator {
+
+    private static final int IN_FLIGHT_PER_WORKER = 4;
+
+    private final IntHashTable hashTable;
+    private final IntOperator probeInput;
+    private final int probeKeyIndex;
+    private final IntPredicate prefilter; // null = no prefilter
+    private final ProbeFilter filter;     // non-null: per-worker views instead of prefilter
+    private final int workers;
+    private final int morselSize;
+    private final boolean ordered;
+
+    private ExecutorService pool;
+    private Semaphore inFlight;
+
+    // guarded by inputLock
+    private final Object inputLock = new Object();
+    private boolean inputDone;
+    private int morselsPulled;
+
+    // guarded by lock
+    private final Object lock = new Object();
+    private final TreeMap<Integer, Morsel> finished = new TreeMap<>();
+    private int nextSeq;
+    private int runningWorkers;
+    private Throwable failure;
+    private int filterPasses;
+    private int filterRejects;
+    private int hashLookups;
+    private int actualMatches;
+
+    // consumer state
+    private Morsel current;
+    private int pos;
+
+    IntParallelProbe(IntHashTable hashTable, IntOperator probeInput, int probeKeyIndex, IntPredicate prefilter,
+                     int workers, int morselSize, boolean ordered) {
+        this(hashTable, probeInput, probeKeyIndex, prefilter, null, workers, morselSize, ordered);
+    }
+
+    /** Prefilter = filter, probed through one newWorkerProbe() view per worker; null = no prefilter. */
+    static IntParallelProbe withFilter(IntHashTable hashTable, IntOperator probeInput, int probeKeyIndex,
+                                       ProbeFilter filter, int workers, int morselSize, boolean ordered) {
+        return new IntParallelProbe(hashTable, probeInput, probeKeyIndex, null, filter, workers, morselSize, ordered);
+    }
+
+    private IntParallelProbe(IntHashTable hashTable, IntOperator probeInput, int probeKeyIndex, IntPredicate prefilter,
+                             ProbeFilter filter, int workers, int morselSize, boolean ordered) {
+        this.hashTable = hashTable;
+        this.probeInput = probeInput;
+        this.probeKeyIndex = probeKeyIndex;
+        this.prefilter = prefilter;
+        this.filter = filter;
+        this.workers = workers;
+        this.morselSize = morselSize;
+        this.ordered = ordered;
+    }
+
+    int getFilterPasses() { synchronized (lock) { return filterPasses; } }
+    int getFilterRejects() { synchronized (lock) { return filterRejects; } }
+    int getHashLookups() { synchronized (lock) { return hashLookups; } }
+    int getActualMatches() { synchronized (lock) { return actualMatches; } }
+
+    /** Starts the workers; the probe input must already be open. */
+    @Override
+    public void open() {
+        pool = Executors.newFixedThreadPool(workers);
+        inFlight = new Semaphore(workers * IN_FLIGHT_PER_WORKER);
+        runningWorkers = workers;
+        for (int w = 0; w < workers; w++) {
+            pool.execute(this::work);
+        }
+    }
+
+    @Override
+    public int[] next() {
+        while (true) {
+            if (current != null && pos < current.count) {
+                return current.rows[pos++];
+            }
+            current = take();
+            pos = 0;
+            if (current == null) return null;
+        }
+    }
+
+    /** Stops the workers (if still running) and waits for their counters. */
+    @Override
+    public void close() {
+        if (pool == null) return;
+        pool.shutdownNow();
+        synchronized (lock) {
+            while (runningWorkers > 0) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        pool = null;
+        current = null;
+    }
+
+    // ------------------------------------------------------------
+    // consumer
+    // ------------------------------------------------------------
+
+    private Morsel take() {
+        synchronized (lock) {
+            while (true) {
+                if (failure != null) {
+                    throw new IllegalStateException("parallel probe failed", failure);
+                }
+                Map.Entry<Integer, Morsel> e = null;
+                if (!finished.isEmpty() && (!ordered || finished.firstKey() == nextSeq)) {
+                    e = finished.pollFirstEntry();
+                }
+                if (e != null) {
+                    nextSeq++;
+                    inFlight.release();
+                    return e.getValue();
+                }
+                if (runningWorkers == 0) return null;
+                try {
+                    lock.wait();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("parallel probe interrupted", ie);
+                }
+            }
+        }
+    }
+
+    // ------------------------------------------------------------
+    // workers
+    // ------------------------------------------------------------
+
+    private void work() {
+        int[] counters = new int[4]; // passes, rejects, lookups, matches
+        int[][] in = new int[morselSize][];
+        ProbeFilter.WorkerProbe view = filter == null ? null : filter.newWorkerProbe();
+        IntPredicate test = view != null ? view : prefilter;
+        try {
+            while (true) {
+                inFlight.acquire();
+                int n = 0;
+                int seq;
+                synchronized (inputLock) {
+                    if (inputDone) {
+                        inFlight.release();
+                        return;
+                    }
+                    int[] row;
+                    while (n < morselSize && (row = probeInput.next()) != null) {
+                        in[n++] = row;
+                    }
+                    if (n < morselSize) inputDone = true;
+                    if (n == 0) {
+                        inFlight.release();
+                        return;
+                    }
+                    seq = morselsPulled++;
+                }
+
+                Morsel out = probeMorsel(in, n, test, counters);
+                synchronized (lock) {
+                    finished.put(seq, out);
+                    lock.notifyAll();
+                }
+            }
+        } catch (InterruptedException e) {
+            // close() before the probe side was exhausted
+        } catch (Throwable t) {
+            synchronized (lock) {
+                if (failure == null) failure = t;
+            }
+        } finally {
+            if (view != null) view.finish();
+            synchronized (lock) {
+                filterPasses += counters[0];
+                filterRejects += counters[1];
+                hashLookups += counters[2];
+                actualMatches += counters[3];
+                runningWorkers--;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private Morsel probeMorsel(int[][] in, int n, IntPredicate prefilter, int[] counters) {
+        Morsel out = new Morsel(Math.max(16, n / 8));
+        for (int i = 0; i < n; i++) {
+            int[] probeRow = in[i];
+            int key = probeRow[probeKeyIndex];
+
+            if (prefilter != null) {
+                if (!prefilter.test(key)) {
+                    counters[1]++;
+                    continue;
+                }
+                counters[0]++;
+            }
+
+            counters[2]++;
+            int slot = hashTable.findSlot(key);
+            if (slot == IntHashTable.NO_SLOT) continue;
+            counters[3] += hashTable.matchCount(slot);
+
+            for (int e = hashTable.firstEntry(slot); e != IntHashTable.NO_ENTRY; e = hashTable.nextEntry(e)) {
+                int[] buildRow = hashTable.row(e);
+                int[] row = new int[buildRow.length + probeRow.length];
+                System.arraycopy(buildRow, 0, row, 0, buildRow.length);
+                System.arraycopy(probeRow, 0, row, buildRow.length, probeRow.length);
+                out.add(row);
+            }
+        }
+        return out;
+    }
+
+    private static final class Morsel {
+        int[][] rows;
+        int count;
+
+        Morsel(int capacity) {
+            rows = new int[capacity][];
+        }
+
+        void add(int[] row) {
+            if (count == rows.length) rows = Arrays.copyOf(rows, count * 2);
+            rows[count++] = row;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.tu.berlin.thesis.operators;
+
+/**
+ * Projection: output row = the child row's columns in the given order
+ * (columns may repeat or be dropped).
+ */
+public class IntProjectionOperator implements IntOperator {
+
+    private final IntOperator child;
+    private final int[] columns;
+
+    public IntProjectionOperator(IntOperator child, int... columns) {
+        for (int c : columns) {
+            if (c < 0) {
+                throw new IllegalArgumentException("column must be >= 0: " + c);
+            }
+        }
+        this.child = child;
+        this.columns = columns.clone();
+    }
+
+    @Override
+    public void open() {
+        child.open();
+    }
+
+    @Override
+    public int[] next() {
+        int[] row = child.next();
+        if (row == null) return null;
+
+        int[] out = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            out[i] = row[columns[i]];
+        }
+        return out;
+    }
+
+    @Override
+    public void close() {
+        child.close();
+    }
+}
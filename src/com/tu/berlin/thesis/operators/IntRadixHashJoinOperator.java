@@ -0,0 +1,347 @@
+package com.tu.berlin.thesis.operators;
+
+import com.tu.berlin.thesis.filter.ProbeFilter;
+import com.tu.berlin.thesis.hashtable.IntHashTable;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Radix-partitioned hash join.
+ *
+ * Both inputs are partitioned on the low radixBitsPerPass * passes bits of the
+ * join key (stable counting-sort passes, fanout 2^radixBitsPerPass per pass),
+ * then joined partition by partition with a small IntHashTable that fits in cache.
+ *
+ * The optional ProbeFilter (Bloom / ranges) is built from the build keys and
+ * applied to the probe side BEFORE partitioning, so rejected probe rows are
+ * never copied. It is fed by the first open() only; withFilterFactory takes a
+ * new filter on every open() for build inputs that change between opens.
+ *
+ * Output is grouped by partition (not in probe input order).
+ */
+public class IntRadixHashJoinOperator implements IntOperator {
+
+    /** Build keys per partition the default fanout aims for (~256KB of hash table). */
+    public static final int TARGET_PARTITION_KEYS = 8192;
+
+    private static final int MAX_TOTAL_BITS = 20;
+
+    private final IntOperator leftOp;
+    private final IntOperator rightOp;
+    private final int leftKeyIndex;
+    private final int rightKeyIndex;
+    private final int expectedBuildKeys;
+    private final int radixBitsPerPass;
+    private final int passes;
+    private final ProbeFilterFeed prefilterFeed;
+
+    private Partitioned build;
+    private Partitioned probe;
+
+    // join state
+    private int partition;
+    private IntHashTable partitionTable;
+    private int probePos;
+    private int probeEnd;
+    private int[] currentRightRow;
+    private int matchEntry = IntHashTable.NO_ENTRY;
+
+    // metrics
+    private int filterPasses = 0;
+    private int filterRejects = 0;
+    private int hashLookups = 0;
+    private int actualMatches = 0;
+
+    public int getFilterPasses() { return filterPasses; }
+    public int getFilterRejects() { return filterRejects; }
+    public int getHashLookups() { return hashLookups; }
+    public int getActualMatches() { return actualMatches; }
+    public int getPartitionCount() { return 1 << (radixBitsPerPass * passes); }
+    public int getRadixBitsPerPass() { return radixBitsPerPass; }
+    public int getPasses() { return passes; }
+
+    public IntRadixHashJoinOperator(
+            IntOperator left,
+            IntOperator right,
+            int leftKeyIndex,
+            int rightKeyIndex,
+            int expectedBuildKeys,
+            int radixBitsPerPass,
+            int passes,
+            ProbeFilter prefilter
+    ) {
+        this(left, right, leftKeyIndex, rightKeyIndex, expectedBuildKeys, radixBitsPerPass, passes,
+                new ProbeFilterFeed(prefilter));
+    }
+
+    private IntRadixHashJoinOperator(
+            IntOperator left,
+            IntOperator right,
+            int leftKeyIndex,
+            int rightKeyIndex,
+            int expectedBuildKeys,
+            int radixBitsPerPass,
+            int passes,
+            ProbeFilterFeed prefilterFeed
+    ) {
+        if (radixBitsPerPass < 0 || passes < 0 || radixBitsPerPass * passes > MAX_TOTAL_BITS) {
+            throw new IllegalArgumentException(
+                    "radixBitsPerPass * passes must be in [0.." + MAX_TOTAL_BITS + "]");
+        }
+        this.leftOp = left;
+        this.rightOp = right;
+        this.leftKeyIndex = leftKeyIndex;
+        this.rightKeyIndex = rightKeyIndex;
+        this.expectedBuildKeys = expectedBuildKeys;
+        this.radixBitsPerPass = radixBitsPerPass;
+        this.passes = passes;
+        this.prefilterFeed = prefilterFeed;
+    }
+
+    // Fanout picked from expectedBuildKeys so partitions hold ~TARGET_PARTITION_KEYS keys
+    public IntRadixHashJoinOperator(
+            IntOperator left,
+            IntOperator right,
+            int leftKeyIndex,
+            int rightKeyIndex,
+            int expectedBuildKeys,
+            ProbeFilter prefilter
+    ) {
+        this(left, right, leftKeyIndex, rightKeyIndex, expectedBuildKeys,
+                defaultBitsPerPass(expectedBuildKeys), defaultPasses(expectedBuildKeys), prefilter);
+    }
+
+    /** Default fanout; takes a new, empty prefilter from filterFactory on every open(). */
+    public static IntRadixHashJoinOperator withFilterFactory(
+            IntOperator left,
+            IntOperator right,
+            int leftKeyIndex,
+            int rightKeyIndex,
+            int expectedBuildKeys,
+            Supplier<ProbeFilter> filterFactory
+    ) {
+        return new IntRadixHashJoinOperator(left, right, leftKeyIndex, rightKeyIndex, expectedBuildKeys,
+                defaultBitsPerPass(expectedBuildKeys), defaultPasses(expectedBuildKeys), new ProbeFilterFeed(filterFactory));
+    }
+
+    public static int defaultTotalBits(int expectedBuildKeys) {
+        int bits = 0;
+        while (bits < MAX_TOTAL_BITS && ((long) TARGET_PARTITION_KEYS << bits) < expectedBuildKeys) {
+            bits++;
+        }
+        return bits;
+    }
+
+    // one pass up to 256-way fanout (TLB-friendly), two passes beyond that
+    public static int defaultPasses(int expectedBuildKeys) {
+        return defaultTotalBits(expectedBuildKeys) > 8 ? 2 : 1;
+    }
+
+    public static int defaultBitsPerPass(int expectedBuildKeys) {
+        int total = defaultTotalBits(expectedBuildKeys);
+        int passes = defaultPasses(expectedBuildKeys);
+        return (total + passes - 1) / passes;
+    }
+
+    @Override
+    public void open() {
+        prefilterFeed.beginBuild();
+        ProbeFilter filter = prefilterFeed.filter();
+        System.out.println("IntRadixHashJoin: OPEN (bitsPerPass=" + radixBitsPerPass +
+                ", passes=" + passes + ", prefilter=" + (filter == null ? "none" : filter.name()) + ")");
+
+        // BUILD: drain, feed prefilter (first open only), partition
+        Partitioned in = new Partitioned(Math.max(16, expectedBuildKeys));
+        leftOp.open();
+        int[] leftRow;
+        while ((leftRow = leftOp.next()) != null) {
+            int key = leftRow[leftKeyIndex];
+            prefilterFeed.add(key);
+            in.append(leftRow, key);
+        }
+        leftOp.close();
+        prefilterFeed.endBuild();
+
+        build = in.partition(radixBitsPerPass, passes);
+
+        // PROBE: drain, prefilter before partitioning, partition survivors
+        in = new Partitioned(1024);
+        rightOp.open();
+        int[] rightRow;
+        while ((rightRow = rightOp.next()) != null) {
+            int key = rightRow[rightKeyIndex];
+            if (filter != null) {
+                if (!filter.mightContain(key)) {
+                    filterRejects++;
+                    continue;
+                }
+                filterPasses++;
+            }
+            in.append(rightRow, key);
+        }
+        rightOp.close();
+
+        probe = in.partition(radixBitsPerPass, passes);
+
+        System.out.println("  Partitioned build=" + build.size + " rows, probe=" + probe.size +
+                " rows into " + getPartitionCount() + " partitions");
+
+        partition = -1;
+        probePos = 0;
+        probeEnd = 0;
+        advanceToNextMatch();
+    }
+
+    private void advanceToNextMatch() {
+        matchEntry = IntHashTable.NO_ENTRY;
+
+        while (matchEntry == IntHashTable.NO_ENTRY) {
+            if (probePos == probeEnd && !nextPartition()) {
+                currentRightRow = null;
+                return;
+            }
+
+            currentRightRow = probe.rows[probePos];
+            int key = probe.keys[probePos];
+            probePos++;
+
+            hashLookups++;
+            int slot = partitionTable.findSlot(key);
+
+            if (slot != IntHashTable.NO_SLOT) {
+                matchEntry = partitionTable.firstEntry(slot);
+                actualMatches += partitionTable.matchCount(slot);
+            }
+        }
+    }
+
+    // Builds the hash table of the next partition that has rows on both sides.
+    private boolean nextPartition() {
+        int partitionCount = getPartitionCount();
+        while (++partition < partitionCount) {
+            int bFrom = build.bounds[partition];
+            int bTo = build.bounds[partition + 1];
+            int pFrom = probe.bounds[partition];
+            int pTo = probe.bounds[partition + 1];
+            if (bFrom == bTo || pFrom == pTo) continue;
+
+            partitionTable = new IntHashTable(bTo - bFrom);
+            for (int i = bFrom; i < bTo; i++) {
+                partitionTable.put(build.keys[i], build.rows[i]);
+            }
+            probePos = pFrom;
+            probeEnd = pTo;
+            return true;
+        }
+        partitionTable = null;
+        return false;
+    }
+
+    @Override
+    public int[] next() {
+        while (true) {
+            if (currentRightRow == null) return null;
+
+            if (matchEntry != IntHashTable.NO_ENTRY) {
+                int[] leftRow = partitionTable.row(matchEntry);
+                matchEntry = partitionTable.nextEntry(matchEntry);
+
+                int[] out = new int[leftRow.length + currentRightRow.length];
+                System.arraycopy(leftRow, 0, out, 0, leftRow.length);
+                System.arraycopy(currentRightRow, 0, out, leftRow.length, currentRightRow.length);
+
+                if (matchEntry == IntHashTable.NO_ENTRY) advanceToNextMatch();
+                return out;
+            }
+
+            advanceToNextMatch();
+        }
+    }
+
+    @Override
+    public void close() {
+        build = null;
+        probe = null;
+        partitionTable = null;
+        currentRightRow = null;
+        System.out.println("IntRadixHashJoin: CLOSE");
+    }
+
+    // ============================================================
+    // PARTITIONED INPUT (rows + keys, grouped by low key bits)
+    // ============================================================
+    private static final class Partitioned {
+        int[][] rows;
+        int[] keys;
+        int size;
+        int[] bounds; // partition p = [bounds[p], bounds[p+1])
+
+        Partitioned(int capacity) {
+            this.rows = new int[capacity][];
+            this.keys = new int[capacity];
+        }
+
+        void append(int[] row, int key) {
+            if (size == keys.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            rows[size] = row;
+            keys[size] = key;
+            size++;
+        }
+
+        /**
+         * LSD radix partitioning: pass i is a stable counting sort on key bits
+         * [i*bitsPerPass, (i+1)*bitsPerPass). After all passes rows are grouped
+         * by their low bitsPerPass*passes key bits, in input order within a group.
+         */
+        Partitioned partition(int bitsPerPass, int passes) {
+            int[][] srcRows = rows;
+            int[] srcKeys = keys;
+            int[][] dstRows = new int[size][];
+            int[] dstKeys = new int[size];
+
+            int fanout = 1 << bitsPerPass;
+            int mask = fanout - 1;
+            int[] offsets = new int[fanout + 1];
+
+            for (int pass = 0; pass < passes; pass++) {
+                int shift = pass * bitsPerPass;
+                Arrays.fill(offsets, 0);
+
+                for (int i = 0; i < size; i++) {
+                    offsets[((srcKeys[i] >>> shift) & mask) + 1]++;
+                }
+                for (int d = 0; d < fanout; d++) {
+                    offsets[d + 1] += offsets[d];
+                }
+                for (int i = 0; i < size; i++) {
+                    int dst = offsets[(srcKeys[i] >>> shift) & mask]++;
+                    dstRows[dst] = srcRows[i];
+                    dstKeys[dst] = srcKeys[i];
+                }
+
+                int[][] tr = srcRows; srcRows = dstRows; dstRows = tr;
+                int[] tk = srcKeys; srcKeys = dstKeys; dstKeys = tk;
+            }
+
+            Partitioned out = new Partitioned(0);
+            out.rows = srcRows;
+            out.keys = srcKeys;
+            out.size = size;
+
+            int partitionCount = 1 << (bitsPerPass * passes);
+            int totalMask = partitionCount - 1;
+            out.bounds = new int[partitionCount + 1];
+            for (int i = 0; i < size; i++) {
+                out.bounds[(srcKeys[i] & totalMask) + 1]++;
+            }
+            for (int p = 0; p < partitionCount; p++) {
+                out.bounds[p + 1] += out.bounds[p];
+            }
+            return out;
+        }
+    }
+}
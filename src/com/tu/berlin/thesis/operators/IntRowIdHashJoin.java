@@ -0,0 +1,136 @@
+package com.tu.berlin.thesis.operators;
+
+import com.tu.berlin.thesis.data.IntColumnarTable;
+import com.tu.berlin.thesis.filter.ProbeFilter;
+import com.tu.berlin.thesis.hashtable.IntHashTable;
+
+/**
+ * Hash join over two IntColumnarTables that emits (buildRowId, probeRowId)
+ * pairs instead of concatenated rows.
+ *
+ * The hash table holds key-only entries whose ids are the build row ids, and
+ * the probe loop reads only the probe key column, so neither side is
+ * materialized. Payload columns are gathered afterwards, for matches only,
+ * by IntLateMaterializeOperator.
+ *
+ * Pairs come out in probe row order (build rows of one key in row order).
+ *
+ * The optional prefilter is fed by the first open() only; later opens reuse it
+ * (the build table is the same, so it still covers every build key).
+ */
+public class IntRowIdHashJoin implements IntRowIdPairOperator {
+
+    private final IntColumnarTable build;
+    private final IntColumnarTable probe;
+    private final int buildKeyColumn;
+    private final int probeKeyColumn;
+    private final ProbeFilterFeed prefilterFeed;
+    private ProbeFilter prefilter;       // this open()'s filter, null = no prefilter
+    private final int pairCapacity;
+
+    private IntHashTable hashTable;
+    private IntRowIdPairs pairs;
+
+    // probe state (a probe row whose matches did not fit is resumed)
+    private int probeRow;
+    private int pendingEntry = IntHashTable.NO_ENTRY;
+
+    // metrics
+    private int filterPasses = 0;
+    private int filterRejects = 0;
+    private int hashLookups = 0;
+    private int actualMatches = 0;
+
+    public int getFilterPasses() { return filterPasses; }
+    public int getFilterRejects() { return filterRejects; }
+    public int getHashLookups() { return hashLookups; }
+    public int getActualMatches() { return actualMatches; }
+
+    public IntRowIdHashJoin(
+            IntColumnarTable build,
+            int buildKeyColumn,
+            IntColumnarTable probe,
+            int probeKeyColumn,
+            ProbeFilter prefilter,
+            int pairCapacity
+    ) {
+        this.build = build;
+        this.probe = probe;
+        this.buildKeyColumn = buildKeyColumn;
+        this.probeKeyColumn = probeKeyColumn;
+        this.prefilterFeed = new ProbeFilterFeed(prefilter);
+        this.pairCapacity = pairCapacity;
+    }
+
+    public IntRowIdHashJoin(IntColumnarTable build, int buildKeyColumn, IntColumnarTable probe, int probeKeyColumn) {
+        this(build, buildKeyColumn, probe, probeKeyColumn, null, IntBatch.DEFAULT_CAPACITY);
+    }
+
+    @Override
+    public void open() {
+        // BUILD: entry id == build row id
+        int[] keys = build.column(buildKeyColumn);
+        int n = build.getRowCount();
+        hashTable = new IntHashTable(n);
+        prefilterFeed.beginBuild();
+        prefilter = prefilterFeed.filter();
+        for (int r = 0; r < n; r++) {
+            hashTable.add(keys[r]);
+            prefilterFeed.add(keys[r]);
+        }
+        prefilterFeed.endBuild();
+
+        pairs = new IntRowIdPairs(pairCapacity);
+        probeRow = 0;
+        pendingEntry = IntHashTable.NO_ENTRY;
+    }
+
+    @Override
+    public IntRowIdPairs nextPairs() {
+        int[] keys = probe.column(probeKeyColumn);
+        int probeRows = probe.getRowCount();
+        int[] buildIds = pairs.buildIds;
+        int[] probeIds = pairs.probeIds;
+        int n = 0;
+
+        while (true) {
+            // matches of the current probe row (probeRow - 1)
+            while (pendingEntry != IntHashTable.NO_ENTRY) {
+                if (n == buildIds.length) return emit(n);
+                buildIds[n] = pendingEntry;
+                probeIds[n] = probeRow - 1;
+                n++;
+                pendingEntry = hashTable.nextEntry(pendingEntry);
+            }
+
+            if (probeRow == probeRows) return n == 0 ? null : emit(n);
+
+            int key = keys[probeRow++];
+            if (prefilter != null) {
+                if (!prefilter.mightContain(key)) {
+                    filterRejects++;
+                    continue;
+                }
+                filterPasses++;
+            }
+
+            hashLookups++;
+            int slot = hashTable.findSlot(key);
+            if (slot != IntHashTable.NO_SLOT) {
+                pendingEntry = hashTable.firstEntry(slot);
+                actualMatches += hashTable.matchCount(slot);
+            }
+        }
+    }
+
+    private IntRowIdPairs emit(int n) {
+        pairs.size = n;
+        return pairs;
+    }
+
+    @Override
+    public void close() {
+        hashTable = null;
+        pairs = null;
+    }
+}
@@ -0,0 +1,11 @@
+package com.tu.berlin.thesis.operators;
+
+/**
+ * Join producing row id pairs instead of concatenated rows (late materialization).
+ * nextPairs() returns null when exhausted; the returned buffer is reused.
+ */
+public interface IntRowIdPairOperator {
+    void open();
+    IntRowIdPairs nextPairs();
+    void close();
+}
@@ -0,0 +1,22 @@
+package com.tu.berlin.thesis.operators;
+
+/**
+ * Reusable buffer of join results as (buildRowId, probeRowId) pairs.
+ *
+ * Pair i = (buildIds[i], probeIds[i]) for i in [0..size-1]. The producer
+ * refills the same arrays on every call, so consumers must finish with a
+ * buffer before asking for the next one.
+ */
+public final class IntRowIdPairs {
+
+    public final int[] buildIds;
+    public final int[] probeIds;
+    public int size;
+
+    public IntRowIdPairs(int capacity) {
+        this.buildIds = new int[capacity];
+        this.probeIds = new int[capacity];
+    }
+
+    public int capacity() { return buildIds.length; }
+}
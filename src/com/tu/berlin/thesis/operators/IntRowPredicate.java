@@ -0,0 +1,201 @@
+package com.tu.berlin.thesis.operators;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Predicate over int[] rows, composed once from small final node classes
+ * (no per-row interpretation of an expression).
+ *
+ * Every comparison compiles to a closed interval [low, high] on one column and
+ * is tested with a single unsigned compare: (v - low) <= (high - low).
+ *  eq(c, x) = [x, x]   lt(c, x) = [MIN, x-1]   ge(c, x) = [x, MAX]   between(c, a, b) = [a, b]
+ * An empty interval (e.g. lt(c, Integer.MIN_VALUE)) compiles to FALSE.
+ *
+ * Conjuncts of and(...) are kept flat, so each one can be pushed down on its own.
+ */
+public abstract class IntRowPredicate {
+
+    public static final IntRowPredicate TRUE = new Constant(true);
+    public static final IntRowPredicate FALSE = new Constant(false);
+
+    public abstract boolean test(int[] row);
+
+    /** Highest column index read (-1 = none); decides which side of a join can evaluate it. */
+    public abstract int maxColumn();
+
+    /** Top-level AND parts (the predicate itself if it is not an AND). */
+    public List<IntRowPredicate> conjuncts() {
+        return Collections.singletonList(this);
+    }
+
+    // ------------------------------------------------------------
+    // factories
+    // ------------------------------------------------------------
+
+    public static IntRowPredicate eq(int column, int value) { return range(column, value, value); }
+    public static IntRowPredicate ne(int column, int value) { return not(eq(column, value)); }
+    public static IntRowPredicate ge(int column, int value) { return range(column, value, Integer.MAX_VALUE); }
+    public static IntRowPredicate le(int column, int value) { return range(column, Integer.MIN_VALUE, value); }
+
+    public static IntRowPredicate gt(int column, int value) {
+        return value == Integer.MAX_VALUE ? FALSE : range(column, value + 1, Integer.MAX_VALUE);
+    }
+
+    public static IntRowPredicate lt(int column, int value) {
+        return value == Integer.MIN_VALUE ? FALSE : range(column, Integer.MIN_VALUE, value - 1);
+    }
+
+    /** low <= row[column] <= high (inclusive, as SQL BETWEEN). */
+    public static IntRowPredicate between(int column, int low, int high) {
+        return range(column, low, high);
+    }
+
+    private static IntRowPredicate range(int column, int low, int high) {
+        if (column < 0) {
+            throw new IllegalArgumentException("column must be >= 0");
+        }
+        return low > high ? FALSE : new ColumnRange(column, low, high);
+    }
+
+    public static IntRowPredicate and(IntRowPredicate... parts) {
+        return and(Arrays.asList(parts));
+    }
+
+    /** AND of parts, flattened; TRUE for no parts. */
+    public static IntRowPredicate and(List<IntRowPredicate> parts) {
+        List<IntRowPredicate> flat = new ArrayList<>();
+        for (IntRowPredicate p : parts) {
+            if (p == FALSE) return FALSE;
+            if (p != TRUE) flat.addAll(p.conjuncts());
+        }
+        if (flat.isEmpty()) return TRUE;
+        if (flat.size() == 1) return flat.get(0);
+        return new And(flat.toArray(new IntRowPredicate[0]));
+    }
+
+    public static IntRowPredicate or(IntRowPredicate... parts) {
+        List<IntRowPredicate> kept = new ArrayList<>();
+        for (IntRowPredicate p : parts) {
+            if (p == TRUE) return TRUE;
+            if (p != FALSE) kept.add(p);
+        }
+        if (kept.isEmpty()) return FALSE;
+        if (kept.size() == 1) return kept.get(0);
+        return new Or(kept.toArray(new IntRowPredicate[0]));
+    }
+
+    public static IntRowPredicate not(IntRowPredicate p) {
+        if (p == TRUE) return FALSE;
+        if (p == FALSE) return TRUE;
+        return new Not(p);
+    }
+
+    // ------------------------------------------------------------
+    // nodes
+    // ------------------------------------------------------------
+
+    private static final class Constant extends IntRowPredicate {
+        private final boolean value;
+
+        Constant(boolean value) { this.value = value; }
+
+        @Override public boolean test(int[] row) { return value; }
+        @Override public int maxColumn() { return -1; }
+        @Override public String toString() { return String.valueOf(value).toUpperCase(); }
+    }
+
+    private static final class ColumnRange extends IntRowPredicate {
+        private final int column;
+        private final int low;
+        private final int width; // high - low, compared unsigned
+
+        ColumnRange(int column, int low, int high) {
+            this.column = column;
+            this.low = low;
+            this.width = high - low;
+        }
+
+        @Override
+        public boolean test(int[] row) {
+            return Integer.compareUnsigned(row[column] - low, width) <= 0;
+        }
+
+        @Override public int maxColumn() { return column; }
+
+        @Override
+        public String toString() {
+            return "$" + column + " in [" + low + ", " + (low + width) + "]";
+        }
+    }
+
+    private static final class And extends IntRowPredicate {
+        private final IntRowPredicate[] parts;
+
+        And(IntRowPredicate[] parts) { this.parts = parts; }
+
+        @Override
+        public boolean test(int[] row) {
+            for (IntRowPredicate p : parts) {
+                if (!p.test(row)) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public int maxColumn() {
+            int max = -1;
+            for (IntRowPredicate p : parts) max = Math.max(max, p.maxColumn());
+            return max;
+        }
+
+        @Override public List<IntRowPredicate> conjuncts() { return Arrays.asList(parts); }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("(");
+            for (int i = 0; i < parts.length; i++) sb.append(i == 0 ? "" : " AND ").append(parts[i]);
+            return sb.append(")").toString();
+        }
+    }
+
+    private static final class Or extends IntRowPredicate {
+        private final IntRowPredicate[] parts;
+
+        Or(IntRowPredicate[] parts) { this.parts = parts; }
+
+        @Override
+        public boolean test(int[] row) {
+            for (IntRowPredicate p : parts) {
+                if (p.test(row)) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int maxColumn() {
+            int max = -1;
+            for (IntRowPredicate p : parts) max = Math.max(max, p.maxColumn());
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("(");
+            for (int i = 0; i < parts.length; i++) sb.append(i == 0 ? "" : " OR ").append(parts[i]);
+            return sb.append(")").toString();
+        }
+    }
+
+    private static final class Not extends IntRowPredicate {
+        private final IntRowPredicate inner;
+
+        Not(IntRowPredicate inner) { this.inner = inner; }
+
+        @Override public boolean test(int[] row) { return !inner.test(row); }
+        @Override public int maxColumn() { return inner.maxColumn(); }
+        @Override public String toString() { return "NOT " + inner; }
+    }
+}
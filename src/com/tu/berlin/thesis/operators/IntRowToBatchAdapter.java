@@ -0,0 +1,63 @@
+package com.tu.berlin.thesis.operators;
+
+/**
+ * Pulls rows from an IntOperator and transposes them into column batches.
+ */
+public class IntRowToBatchAdapter implements IntBatchOperator {
+
+    private final IntOperator child;
+    private final int batchSize;
+    private IntBatch batch;
+
+    public IntRowToBatchAdapter(IntOperator child, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be > 0");
+        }
+        this.child = child;
+        this.batchSize = batchSize;
+    }
+
+    public IntRowToBatchAdapter(IntOperator child) {
+        this(child, IntBatch.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Batch view of op: op itself if it already is batch-capable, otherwise an adapter.
+     * The view shares op's position, so it can continue after rows were pulled with next().
+     */
+    public static IntBatchOperator of(IntOperator op) {
+        if (op instanceof IntBatchOperator) {
+            return (IntBatchOperator) op;
+        }
+        return new IntRowToBatchAdapter(op);
+    }
+
+    @Override public void open() { child.open(); }
+
+    @Override
+    public IntBatch nextBatch() {
+        int[] row = child.next();
+        if (row == null) return null;
+
+        if (batch == null || batch.columnCount() != row.length) {
+            batch = new IntBatch(row.length, batchSize);
+        }
+
+        int n = 0;
+        while (true) {
+            for (int c = 0; c < row.length; c++) {
+                batch.columns[c][n] = row[c];
+            }
+            batch.selection[n] = n;
+            n++;
+            if (n == batchSize) break;
+
+            row = child.next();
+            if (row == null) break;
+        }
+        batch.size = n;
+        return batch;
+    }
+
+    @Override public void close() { child.close(); }
+}
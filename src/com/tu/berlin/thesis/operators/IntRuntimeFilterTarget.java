@@ -0,0 +1,19 @@
+package com.tu.berlin.thesis.operators;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Probe-side scan that accepts a join's build-side filter at runtime
+ * (sideways information passing): rows whose key fails the filter are
+ * dropped inside the scan, before they are materialized or handed upward.
+ */
+public interface IntRuntimeFilterTarget {
+
+    /** From now on, only emit rows whose column keyIndex passes filter. Resets the counters. */
+    void pushRuntimeFilter(int keyIndex, IntPredicate filter);
+
+    void clearRuntimeFilter();
+
+    int getRuntimeFilterPasses();
+    int getRuntimeFilterRejects();
+}
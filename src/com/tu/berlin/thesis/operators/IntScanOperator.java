@@ -1,17 +1,78 @@
 package com.tu.berlin.thesis.operators;
 
 import java.util.List;
+import java.util.function.IntPredicate;
 
-public class IntScanOperator implements IntOperator {
+public class IntScanOperator implements IntOperator, IntBatchOperator, IntRuntimeFilterTarget {
     private final List<int[]> data;
+    private final int batchSize;
     private int pos;
+    private IntBatch batch;
 
-    public IntScanOperator(List<int[]> data) { this.data = data; }
+    // runtime filter pushed down by a join (null = none)
+    private IntPredicate runtimeFilter;
+    private int runtimeKeyIndex;
+    private int runtimePasses;
+    private int runtimeRejects;
+
+    public IntScanOperator(List<int[]> data) { this(data, IntBatch.DEFAULT_CAPACITY); }
+
+    public IntScanOperator(List<int[]> data, int batchSize) {
+        this.data = data;
+        this.batchSize = batchSize;
+    }
 
     @Override public void open() { pos = 0; }
 
     @Override public int[] next() {
-        return (pos < data.size()) ? data.get(pos++) : null;
+        while (pos < data.size()) {
+            int[] row = data.get(pos++);
+            if (passes(row)) return row;
+        }
+        return null;
+    }
+
+    private boolean passes(int[] row) {
+        if (runtimeFilter == null) return true;
+        if (runtimeFilter.test(row[runtimeKeyIndex])) {
+            runtimePasses++;
+            return true;
+        }
+        runtimeRejects++;
+        return false;
+    }
+
+    @Override public void pushRuntimeFilter(int keyIndex, IntPredicate filter) {
+        this.runtimeKeyIndex = keyIndex;
+        this.runtimeFilter = filter;
+        this.runtimePasses = 0;
+        this.runtimeRejects = 0;
+    }
+
+    @Override public void clearRuntimeFilter() { runtimeFilter = null; }
+    @Override public int getRuntimeFilterPasses() { return runtimePasses; }
+    @Override public int getRuntimeFilterRejects() { return runtimeRejects; }
+
+    // Shares pos with next(), so row and batch calls can be mixed.
+    // Rows failing the runtime filter are skipped before they are copied into the batch.
+    @Override public IntBatch nextBatch() {
+        int n = 0;
+        while (n < batchSize && pos < data.size()) {
+            int[] row = data.get(pos++);
+            if (!passes(row)) continue;
+
+            if (n == 0 && (batch == null || batch.columnCount() != row.length)) {
+                batch = new IntBatch(row.length, batchSize);
+            }
+            for (int c = 0; c < batch.columns.length; c++) {
+                batch.columns[c][n] = row[c];
+            }
+            batch.selection[n] = n;
+            n++;
+        }
+        if (n == 0) return null;
+        batch.size = n;
+        return batch;
     }
 
     @Override public void close() { }
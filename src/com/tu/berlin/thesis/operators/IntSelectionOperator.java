@@ -0,0 +1,69 @@
+package com.tu.berlin.thesis.operators;
+
+/**
+ * Selection (WHERE): passes on the child rows satisfying predicate.
+ *
+ * Over a join that is an IntBuildPredicateTarget, conjuncts reading only build
+ * columns are pushed below the join (smaller hash table, tighter key ranges);
+ * only the residual is evaluated here. setPushdown(false) keeps everything here.
+ */
+public class IntSelectionOperator implements IntOperator {
+
+    private final IntOperator child;
+    private final IntRowPredicate predicate;
+    private boolean pushdown = true;
+
+    private IntRowPredicate residual;
+    private IntBuildPredicateTarget pushedTo;
+
+    // metrics
+    private int passes = 0;
+    private int rejects = 0;
+
+    public int getPasses() { return passes; }
+    public int getRejects() { return rejects; }
+    /** Rows removed below the join by the pushed-down conjuncts. */
+    public int getPushedRejects() { return pushedTo == null ? 0 : pushedTo.getBuildPredicateRejects(); }
+    public IntRowPredicate getResidualPredicate() { return residual; }
+
+    public IntSelectionOperator(IntOperator child, IntRowPredicate predicate) {
+        this.child = child;
+        this.predicate = predicate;
+    }
+
+    public void setPushdown(boolean enabled) {
+        this.pushdown = enabled;
+    }
+
+    @Override
+    public void open() {
+        passes = 0;
+        rejects = 0;
+        pushedTo = null;
+        if (pushdown && child instanceof IntBuildPredicateTarget) {
+            pushedTo = (IntBuildPredicateTarget) child;
+            pushedTo.pushBuildPredicate(predicate);
+        }
+        child.open();
+        residual = pushedTo == null ? predicate : pushedTo.getResidualPredicate();
+    }
+
+    @Override
+    public int[] next() {
+        int[] row;
+        while ((row = child.next()) != null) {
+            if (residual.test(row)) {
+                passes++;
+                return row;
+            }
+            rejects++;
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        child.close();
+        if (pushedTo != null) pushedTo.pushBuildPredicate(null);
+    }
+}
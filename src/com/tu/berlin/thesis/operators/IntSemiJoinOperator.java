@@ -0,0 +1,20 @@
+package com.tu.berlin.thesis.operators;
+
+/**
+ * Semi-join (EXISTS): emits each probe row that has at least one build match, once.
+ * Only build keys are stored; see IntKeyOnlyJoin for the range-only / hash set choice.
+ */
+public class IntSemiJoinOperator extends IntKeyOnlyJoin {
+
+    public IntSemiJoinOperator(IntOperator left, IntOperator right, int leftKeyIndex, int rightKeyIndex,
+                               int expectedBuildKeys, int maxRangeCount) {
+        super(left, right, leftKeyIndex, rightKeyIndex, expectedBuildKeys, maxRangeCount, true);
+    }
+
+    public IntSemiJoinOperator(IntOperator left, IntOperator right, int leftKeyIndex, int rightKeyIndex) {
+        this(left, right, leftKeyIndex, rightKeyIndex, 1024, DEFAULT_MAX_RANGE_COUNT);
+    }
+
+    @Override
+    String name() { return "IntSemiJoin"; }
+}
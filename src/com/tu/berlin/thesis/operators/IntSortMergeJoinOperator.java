@@ -0,0 +1,243 @@
+package com.tu.berlin.thesis.operators;
+
+import com.tu.berlin.thesis.rangetree.RangeExtractor;
+
+import java.util.Arrays;
+
+/**
+ * Sort-merge join that keeps the sorted build side and skips key gaps with
+ * the exact build ranges.
+ *
+ * Both sides are drained and sorted on the join key (stable: equal keys keep
+ * input order), unless the caller declares a side as already sorted, in which
+ * case its order is only verified. The exact ranges are computed from the
+ * sorted build keys in one pass (no second sort).
+ *
+ * Merge: a probe key before the next build range starts a gap; the whole gap
+ * is skipped with one galloping search on the probe keys. A probe key inside
+ * a range is guaranteed to match (ranges are exact), so there is no failed lookup.
+ *
+ * Output is in join key order.
+ */
+public class IntSortMergeJoinOperator implements IntOperator {
+
+    private final IntOperator leftOp;
+    private final IntOperator rightOp;
+    private final int leftKeyIndex;
+    private final int rightKeyIndex;
+    private final int expectedBuildKeys;
+    private final boolean buildSorted;
+    private final boolean probeSorted;
+
+    // sorted sides
+    private int[] buildKeys;
+    private int[][] buildRows;
+    private int buildCount;
+    private int[] probeKeys;
+    private int[][] probeRows;
+    private int probeCount;
+    private RangeExtractor.Ranges ranges;
+
+    // merge state
+    private int probePos;
+    private int rangePos;
+    private int runKey;
+    private int runFrom;   // build rows of runKey = [runFrom, runTo)
+    private int runTo;
+    private int[] currentRightRow;
+    private int matchPos;
+
+    // metrics
+    private int rangePasses = 0;
+    private int rangeRejects = 0;
+    private int gapSkips = 0;
+    private int actualMatches = 0;
+
+    public int getRangePasses() { return rangePasses; }
+    public int getRangeRejects() { return rangeRejects; }
+    public int getGapSkips() { return gapSkips; }
+    public int getActualMatches() { return actualMatches; }
+    public int getRangeCount() { return ranges == null ? 0 : ranges.count; }
+
+    public IntSortMergeJoinOperator(
+            IntOperator left,
+            IntOperator right,
+            int leftKeyIndex,
+            int rightKeyIndex,
+            int expectedBuildKeys,
+            boolean buildSorted,
+            boolean probeSorted
+    ) {
+        this.leftOp = left;
+        this.rightOp = right;
+        this.leftKeyIndex = leftKeyIndex;
+        this.rightKeyIndex = rightKeyIndex;
+        this.expectedBuildKeys = expectedBuildKeys;
+        this.buildSorted = buildSorted;
+        this.probeSorted = probeSorted;
+    }
+
+    public IntSortMergeJoinOperator(IntOperator left, IntOperator right, int leftKeyIndex, int rightKeyIndex) {
+        this(left, right, leftKeyIndex, rightKeyIndex, 1024, false, false);
+    }
+
+    @Override
+    public void open() {
+        System.out.println("IntSortMergeJoin: OPEN (buildSorted=" + buildSorted + ", probeSorted=" + probeSorted + ")");
+
+        // BUILD
+        SortedSide build = SortedSide.drain(leftOp, leftKeyIndex, expectedBuildKeys, buildSorted, "build");
+        buildKeys = build.keys;
+        buildRows = build.rows;
+        buildCount = build.size;
+        ranges = RangeExtractor.exactRangesOfSorted(buildKeys, buildCount);
+
+        // PROBE
+        SortedSide probe = SortedSide.drain(rightOp, rightKeyIndex, 1024, probeSorted, "probe");
+        probeKeys = probe.keys;
+        probeRows = probe.rows;
+        probeCount = probe.size;
+
+        System.out.println("  Sorted build=" + buildCount + " rows (" + ranges.count + " exact ranges), probe=" +
+                probeCount + " rows");
+
+        probePos = 0;
+        rangePos = 0;
+        runFrom = 0;
+        runTo = 0;
+        advanceToNextMatch();
+    }
+
+    private void advanceToNextMatch() {
+        while (probePos < probeCount) {
+            int key = probeKeys[probePos];
+
+            while (rangePos < ranges.count && ranges.ends[rangePos] < key) rangePos++;
+            if (rangePos == ranges.count) {
+                // past the last build key
+                rangeRejects += probeCount - probePos;
+                gapSkips++;
+                probePos = probeCount;
+                break;
+            }
+
+            if (key < ranges.starts[rangePos]) {
+                // in a gap: skip every probe row up to the next range start
+                int to = lowerBound(probeKeys, probePos, probeCount, ranges.starts[rangePos]);
+                rangeRejects += to - probePos;
+                gapSkips++;
+                probePos = to;
+                continue;
+            }
+
+            rangePasses++;
+            if (runTo == runFrom || key != runKey) {
+                runFrom = lowerBound(buildKeys, runTo, buildCount, key);
+                runTo = lowerBound(buildKeys, runFrom, buildCount, key + 1);
+                if (key == Integer.MAX_VALUE) runTo = buildCount;
+                runKey = key;
+            }
+            actualMatches += runTo - runFrom;
+            currentRightRow = probeRows[probePos++];
+            matchPos = runFrom;
+            return;
+        }
+        currentRightRow = null;
+    }
+
+    @Override
+    public int[] next() {
+        if (currentRightRow == null) return null;
+
+        int[] leftRow = buildRows[matchPos++];
+        int[] out = new int[leftRow.length + currentRightRow.length];
+        System.arraycopy(leftRow, 0, out, 0, leftRow.length);
+        System.arraycopy(currentRightRow, 0, out, leftRow.length, currentRightRow.length);
+
+        if (matchPos == runTo) advanceToNextMatch();
+        return out;
+    }
+
+    @Override
+    public void close() {
+        buildKeys = null;
+        buildRows = null;
+        probeKeys = null;
+        probeRows = null;
+        currentRightRow = null;
+        System.out.println("IntSortMergeJoin: CLOSE");
+    }
+
+    /** First index in [from, to) with a[i] >= key (galloping from 'from', then binary search). */
+    static int lowerBound(int[] a, int from, int to, int key) {
+        if (from >= to || a[from] >= key) return from;
+        int lo = from;
+        int step = 1;
+        int hi = from + 1;
+        while (hi < to && a[hi] < key) {
+            lo = hi;
+            step <<= 1;
+            hi = from + step;
+        }
+        hi = Math.min(hi, to);
+        // a[lo] < key, a[hi] >= key (or hi == to)
+        while (lo + 1 < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) lo = mid;
+            else hi = mid;
+        }
+        return hi;
+    }
+
+    // ============================================================
+    // SORTED INPUT (keys + rows, ascending by key, stable)
+    // ============================================================
+    private static final class SortedSide {
+        int[] keys;
+        int[][] rows;
+        int size;
+
+        static SortedSide drain(IntOperator op, int keyIndex, int expected, boolean presorted, String side) {
+            SortedSide s = new SortedSide();
+            s.keys = new int[Math.max(16, expected)];
+            s.rows = new int[s.keys.length][];
+
+            op.open();
+            int[] row;
+            while ((row = op.next()) != null) {
+                if (s.size == s.keys.length) {
+                    s.keys = Arrays.copyOf(s.keys, s.size * 2);
+                    s.rows = Arrays.copyOf(s.rows, s.size * 2);
+                }
+                int key = row[keyIndex];
+                if (presorted && s.size > 0 && key < s.keys[s.size - 1]) {
+                    throw new IllegalStateException(side + " input declared sorted but key " + key +
+                            " follows " + s.keys[s.size - 1]);
+                }
+                s.keys[s.size] = key;
+                s.rows[s.size] = row;
+                s.size++;
+            }
+            op.close();
+
+            if (!presorted) s.sort();
+            return s;
+        }
+
+        // (key, input position) packed into one long: a primitive sort that is stable on ties
+        private void sort() {
+            long[] packed = new long[size];
+            for (int i = 0; i < size; i++) {
+                packed[i] = ((long) keys[i] << 32) | i;
+            }
+            Arrays.sort(packed);
+
+            int[][] sortedRows = new int[size][];
+            for (int i = 0; i < size; i++) {
+                keys[i] = (int) (packed[i] >> 32);
+                sortedRows[i] = rows[(int) packed[i]];
+            }
+            rows = sortedRows;
+        }
+    }
+}
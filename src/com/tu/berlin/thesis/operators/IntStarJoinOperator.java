@@ -0,0 +1,250 @@
+package com.tu.berlin.thesis.operators;
+
+import com.tu.berlin.thesis.filter.ProbeFilter;
+import com.tu.berlin.thesis.hashtable.IntHashTable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Multi-way star join: one fact (probe) input against several dimension (build) inputs.
+ *
+ * Per dimension: one IntHashTable plus an optional ProbeFilter summary (ranges / Bloom),
+ * fed by the first open() only (Dimension.withFilterFactory: a new filter per open()).
+ * Per fact row:
+ *  1) all dimension filters are checked first, cheapest-to-reject first, stopping at
+ *     the first reject, so a rejected row costs no hash lookup at all
+ *  2) then one hash lookup per dimension, stopping at the first miss
+ *
+ * The filter order adapts: every ADAPT_INTERVAL fact rows the filters are re-sorted
+ * by their observed rejection rate (counts of the last interval weigh the most).
+ *
+ * Output row = matched dimension rows in declaration order, then the fact row.
+ * Duplicate dimension keys produce every combination.
+ */
+public class IntStarJoinOperator implements IntOperator {
+
+    public static final int ADAPT_INTERVAL = 1024;
+
+    /** One dimension: build input, its key, and the fact column it joins on. */
+    public static final class Dimension {
+        final IntOperator input;
+        final int keyIndex;
+        final int factKeyIndex;
+        final int expectedKeys;
+        final ProbeFilterFeed filterFeed;
+        ProbeFilter filter; // this open()'s filter, null = hash lookup only
+
+        public Dimension(IntOperator input, int keyIndex, int factKeyIndex, int expectedKeys, ProbeFilter filter) {
+            this(input, keyIndex, factKeyIndex, expectedKeys, new ProbeFilterFeed(filter));
+        }
+
+        private Dimension(IntOperator input, int keyIndex, int factKeyIndex, int expectedKeys, ProbeFilterFeed filterFeed) {
+            this.input = input;
+            this.keyIndex = keyIndex;
+            this.factKeyIndex = factKeyIndex;
+            this.expectedKeys = expectedKeys;
+            this.filterFeed = filterFeed;
+        }
+
+        /** Dimension that takes a new, empty filter from filterFactory on every open(). */
+        public static Dimension withFilterFactory(IntOperator input, int keyIndex, int factKeyIndex, int expectedKeys,
+                                                  Supplier<ProbeFilter> filterFactory) {
+            return new Dimension(input, keyIndex, factKeyIndex, expectedKeys, new ProbeFilterFeed(filterFactory));
+        }
+    }
+
+    private final IntOperator factOp;
+    private final Dimension[] dims;
+
+    private IntHashTable[] tables;
+    private int[] filterOrder;     // dimension ids with a filter, most selective first
+    private int filterCount;
+    private long[] windowTested;   // decayed per-dimension counts used for ordering
+    private long[] windowRejected;
+    private int sinceAdapt;
+
+    // current fact row and its match combination (odometer over the dimensions' chains)
+    private int[] currentFactRow;
+    private int[] firstEntries;
+    private int[] entries;
+    private int outWidth;
+
+    // metrics
+    private long[] filterTests;
+    private long[] filterRejects;
+    private int hashLookups = 0;
+    private int actualMatches = 0;
+    private int reorders = 0;
+
+    public IntStarJoinOperator(IntOperator fact, List<Dimension> dimensions) {
+        if (dimensions.isEmpty()) {
+            throw new IllegalArgumentException("star join needs at least one dimension");
+        }
+        this.factOp = fact;
+        this.dims = dimensions.toArray(new Dimension[0]);
+    }
+
+    public int getDimensionCount() { return dims.length; }
+    public long getFilterTests(int dim) { return filterTests[dim]; }
+    public long getFilterRejects(int dim) { return filterRejects[dim]; }
+    public int getHashLookups() { return hashLookups; }
+    public int getActualMatches() { return actualMatches; }
+    public int getReorderCount() { return reorders; }
+
+    public long getFilterRejects() {
+        long sum = 0;
+        for (long r : filterRejects) sum += r;
+        return sum;
+    }
+
+    /** Current filter evaluation order (dimension ids), most selective first. */
+    public int[] getFilterOrder() {
+        return Arrays.copyOf(filterOrder, filterCount);
+    }
+
+    @Override
+    public void open() {
+        int d = dims.length;
+        tables = new IntHashTable[d];
+        filterOrder = new int[d];
+        filterCount = 0;
+        windowTested = new long[d];
+        windowRejected = new long[d];
+        filterTests = new long[d];
+        filterRejects = new long[d];
+        firstEntries = new int[d];
+        entries = new int[d];
+        sinceAdapt = 0;
+
+        // BUILD: one hash table + summary per dimension
+        outWidth = 0;
+        for (int i = 0; i < d; i++) {
+            Dimension dim = dims[i];
+            IntHashTable table = new IntHashTable(dim.expectedKeys);
+            int width = 0;
+            dim.filterFeed.beginBuild();
+            dim.filter = dim.filterFeed.filter();
+            dim.input.open();
+            int[] row;
+            while ((row = dim.input.next()) != null) {
+                int key = row[dim.keyIndex];
+                table.put(key, row);
+                dim.filterFeed.add(key);
+                width = row.length;
+            }
+            dim.input.close();
+            dim.filterFeed.endBuild();
+            if (dim.filter != null) {
+                filterOrder[filterCount++] = i;
+            }
+            tables[i] = table;
+            outWidth += width;
+        }
+
+        System.out.println("IntStarJoin: OPEN (" + d + " dimensions, " + filterCount + " filters)");
+
+        factOp.open();
+        advanceToNextMatch();
+    }
+
+    private void advanceToNextMatch() {
+        while ((currentFactRow = factOp.next()) != null) {
+            if (++sinceAdapt == ADAPT_INTERVAL) adaptFilterOrder();
+            if (passesFilters(currentFactRow) && lookupAll(currentFactRow)) return;
+        }
+    }
+
+    // 1) all filters before any lookup, stop at the first reject
+    private boolean passesFilters(int[] factRow) {
+        for (int f = 0; f < filterCount; f++) {
+            int d = filterOrder[f];
+            filterTests[d]++;
+            windowTested[d]++;
+            if (!dims[d].filter.mightContain(factRow[dims[d].factKeyIndex])) {
+                filterRejects[d]++;
+                windowRejected[d]++;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 2) hash lookups, stop at the first miss
+    private boolean lookupAll(int[] factRow) {
+        int combinations = 1;
+        for (int d = 0; d < dims.length; d++) {
+            hashLookups++;
+            int slot = tables[d].findSlot(factRow[dims[d].factKeyIndex]);
+            if (slot == IntHashTable.NO_SLOT) return false;
+            firstEntries[d] = tables[d].firstEntry(slot);
+            entries[d] = firstEntries[d];
+            combinations *= tables[d].matchCount(slot);
+        }
+        actualMatches += combinations;
+        return true;
+    }
+
+    // insertion sort by rejection rate (descending); then halve the window counts
+    private void adaptFilterOrder() {
+        sinceAdapt = 0;
+        boolean changed = false;
+        for (int i = 1; i < filterCount; i++) {
+            int d = filterOrder[i];
+            int j = i - 1;
+            while (j >= 0 && rejectsMore(d, filterOrder[j])) {
+                filterOrder[j + 1] = filterOrder[j];
+                j--;
+                changed = true;
+            }
+            filterOrder[j + 1] = d;
+        }
+        if (changed) reorders++;
+        for (int i = 0; i < filterCount; i++) {
+            int d = filterOrder[i];
+            windowTested[d] >>= 1;
+            windowRejected[d] >>= 1;
+        }
+    }
+
+    // rate(a) > rate(b) without division; an untested filter counts as rate 0
+    private boolean rejectsMore(int a, int b) {
+        if (windowTested[a] == 0) return false;
+        if (windowTested[b] == 0) return true;
+        return windowRejected[a] * windowTested[b] > windowRejected[b] * windowTested[a];
+    }
+
+    @Override
+    public int[] next() {
+        if (currentFactRow == null) return null;
+
+        int[] out = new int[outWidth + currentFactRow.length];
+        int off = 0;
+        for (int d = 0; d < dims.length; d++) {
+            int[] dimRow = tables[d].row(entries[d]);
+            System.arraycopy(dimRow, 0, out, off, dimRow.length);
+            off += dimRow.length;
+        }
+        System.arraycopy(currentFactRow, 0, out, off, currentFactRow.length);
+
+        // odometer: advance the last dimension first, wrap to its first entry
+        int d = dims.length - 1;
+        while (d >= 0) {
+            entries[d] = tables[d].nextEntry(entries[d]);
+            if (entries[d] != IntHashTable.NO_ENTRY) break;
+            entries[d] = firstEntries[d];
+            d--;
+        }
+        if (d < 0) advanceToNextMatch();
+        return out;
+    }
+
+    @Override
+    public void close() {
+        factOp.close();
+        tables = null;
+        currentFactRow = null;
+        System.out.println("IntStarJoin: CLOSE");
+    }
+}
@@ -68,6 +68,40 @@ public class IntStreamingApproximateRangeSet {
         }
     }
 
+    /**
+     * Inserts the whole range [start, end], absorbing every range it overlaps or touches.
+     */
+    public void insertRange(int start, int end) {
+        int s = start;
+        int e = end;
+
+        Map.Entry<Integer, Range> entry = rangesByStart.floorEntry(end == Integer.MAX_VALUE ? end : end + 1);
+        while (entry != null && (long) entry.getValue().end + 1 >= start) {
+            Range r = entry.getValue();
+            s = Math.min(s, r.start);
+            e = Math.max(e, r.end);
+            rangesByStart.remove(r.start);
+            entry = rangesByStart.lowerEntry(r.start);
+        }
+
+        Range merged = new Range(s, e);
+        rangesByStart.put(merged.start, merged);
+
+        while (rangesByStart.size() > targetRangeCount) {
+            mergeBestAdjacentPair();
+        }
+    }
+
+    /**
+     * Adds every range of other (e.g. per-thread sets after a parallel build).
+     * The result still covers all keys inserted into either set.
+     */
+    public void mergeFrom(IntStreamingApproximateRangeSet other) {
+        for (Range r : other.rangesByStart.values()) {
+            insertRange(r.start, r.end);
+        }
+    }
+
     /**
      * Greedily merges the adjacent pair with the smallest gap.
      */
@@ -0,0 +1,156 @@
+package com.tu.berlin.thesis.operators;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Greedy streaming approximate range set over long keys
+ * (64-bit counterpart of IntStreamingApproximateRangeSet).
+ *
+ * Keeps at most targetRangeCount ranges at any time.
+ * When a new key causes the range count to exceed the target,
+ * it greedily merges the adjacent pair with the smallest gap.
+ */
+public class LongStreamingApproximateRangeSet {
+
+    private final int targetRangeCount;
+    private final TreeMap<Long, Range> rangesByStart = new TreeMap<>();
+
+    public LongStreamingApproximateRangeSet(int targetRangeCount) {
+        if (targetRangeCount <= 0) {
+            throw new IllegalArgumentException("targetRangeCount must be > 0");
+        }
+        this.targetRangeCount = targetRangeCount;
+    }
+
+    public void insert(long x) {
+        Map.Entry<Long, Range> leftEntry = rangesByStart.floorEntry(x);
+        Map.Entry<Long, Range> rightEntry = rangesByStart.ceilingEntry(x);
+
+        Range left = leftEntry != null ? leftEntry.getValue() : null;
+        Range right = rightEntry != null ? rightEntry.getValue() : null;
+
+        // Already covered by an existing range
+        if (left != null && x >= left.start && x <= left.end) {
+            return;
+        }
+
+        boolean touchesLeft = left != null && x != Long.MIN_VALUE && left.end == x - 1;
+        boolean touchesRight = right != null && x != Long.MAX_VALUE && x + 1 == right.start;
+
+        if (touchesLeft && touchesRight) {
+            rangesByStart.remove(left.start);
+            rangesByStart.remove(right.start);
+            rangesByStart.put(left.start, new Range(left.start, right.end));
+
+        } else if (touchesLeft) {
+            rangesByStart.put(left.start, new Range(left.start, x));
+
+        } else if (touchesRight) {
+            rangesByStart.remove(right.start);
+            rangesByStart.put(x, new Range(x, right.end));
+
+        } else {
+            rangesByStart.put(x, new Range(x, x));
+        }
+
+        while (rangesByStart.size() > targetRangeCount) {
+            mergeBestAdjacentPair();
+        }
+    }
+
+    /**
+     * Inserts the whole range [start, end], absorbing every range it overlaps or touches.
+     */
+    public void insertRange(long start, long end) {
+        long s = start;
+        long e = end;
+
+        Map.Entry<Long, Range> entry = rangesByStart.floorEntry(end == Long.MAX_VALUE ? end : end + 1);
+        while (entry != null && (start == Long.MIN_VALUE || entry.getValue().end >= start - 1)) {
+            Range r = entry.getValue();
+            s = Math.min(s, r.start);
+            e = Math.max(e, r.end);
+            rangesByStart.remove(r.start);
+            entry = rangesByStart.lowerEntry(r.start);
+        }
+
+        rangesByStart.put(s, new Range(s, e));
+
+        while (rangesByStart.size() > targetRangeCount) {
+            mergeBestAdjacentPair();
+        }
+    }
+
+    /** Adds every range of other; the result still covers all keys inserted into either set. */
+    public void mergeFrom(LongStreamingApproximateRangeSet other) {
+        for (Range r : other.rangesByStart.values()) {
+            insertRange(r.start, r.end);
+        }
+    }
+
+    private void mergeBestAdjacentPair() {
+        if (rangesByStart.size() <= 1) {
+            return;
+        }
+
+        Range bestLeft = null;
+        Range bestRight = null;
+        long bestGap = Long.MAX_VALUE;
+
+        Range prev = null;
+        for (Range curr : rangesByStart.values()) {
+            if (prev != null) {
+                long gap = curr.start - prev.end - 1;
+                if (gap < 0) gap = Long.MAX_VALUE; // gap wider than 2^63
+                if (bestLeft == null || gap < bestGap) {
+                    bestGap = gap;
+                    bestLeft = prev;
+                    bestRight = curr;
+                }
+            }
+            prev = curr;
+        }
+
+        rangesByStart.remove(bestLeft.start);
+        rangesByStart.remove(bestRight.start);
+        rangesByStart.put(bestLeft.start, new Range(bestLeft.start, bestRight.end));
+    }
+
+    public boolean contains(long x) {
+        Map.Entry<Long, Range> e = rangesByStart.floorEntry(x);
+        if (e == null) {
+            return false;
+        }
+        Range r = e.getValue();
+        return x >= r.start && x <= r.end;
+    }
+
+    public int getRangeCount() {
+        return rangesByStart.size();
+    }
+
+    public long getRangeBytes() {
+        return (long) rangesByStart.size() * 16L;
+    }
+
+    public List<long[]> materializeRanges() {
+        List<long[]> out = new ArrayList<>(rangesByStart.size());
+        for (Range r : rangesByStart.values()) {
+            out.add(new long[]{r.start, r.end});
+        }
+        return out;
+    }
+
+    private static final class Range {
+        final long start;
+        final long end;
+
+        Range(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
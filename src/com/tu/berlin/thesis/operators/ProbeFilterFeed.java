@@ -0,0 +1,68 @@
+package com.tu.berlin.thesis.operators;
+
+import com.tu.berlin.thesis.filter.ProbeFilter;
+
+import java.util.function.Supplier;
+
+/**
+ * How a join's ProbeFilter gets the build keys across open() calls, the same in every join:
+ *  - a filter instance is fed and built by the first open() only; later opens check that it
+ *    still covers every build key (a rescan of the same input) and throw if not
+ *  - a filter factory hands every open() a new, empty filter
+ *  - a prebuilt filter (e.g. mapped from a file) is never fed
+ *
+ * Per open(): beginBuild(), add(key) per build key, endBuild(), then probe filter().
+ */
+final class ProbeFilterFeed {
+
+    private final Supplier<ProbeFilter> factory; // null = one filter instance for every open()
+    private ProbeFilter filter;                  // null = no prefilter
+    private boolean prebuilt = false;
+    private boolean built = false;               // filter was fed and built by an open()
+    private boolean feeding = false;             // the current open() adds keys (else checks them)
+
+    ProbeFilterFeed(ProbeFilter filter) {
+        this.factory = null;
+        this.filter = filter;
+    }
+
+    ProbeFilterFeed(Supplier<ProbeFilter> factory) {
+        this.factory = factory;
+        this.filter = factory.get();
+    }
+
+    ProbeFilter filter() { return filter; }
+
+    void setPrebuilt(boolean prebuilt) { this.prebuilt = prebuilt; }
+
+    /** Start of an open()'s build phase; the first open() uses the factory's first filter. */
+    void beginBuild() {
+        if (factory != null && built) {
+            filter = factory.get();
+            built = false;
+        }
+        feeding = filter != null && !prebuilt && !built;
+    }
+
+    /** Does the current open() read the build keys at all (feed or check)? */
+    boolean wantsKeys() {
+        return filter != null && !prebuilt;
+    }
+
+    void add(int key) {
+        if (feeding) {
+            filter.add(key);
+        } else if (filter != null && !prebuilt && !filter.mightContain(key)) {
+            throw new IllegalStateException("filter built by an earlier open() misses build key " + key +
+                    "; pass a filter factory for build inputs that change between opens");
+        }
+    }
+
+    void endBuild() {
+        if (feeding) {
+            filter.build();
+            built = true;
+            feeding = false;
+        }
+    }
+}
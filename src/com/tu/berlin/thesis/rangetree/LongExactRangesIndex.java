@@ -0,0 +1,40 @@
+package com.tu.berlin.thesis.rangetree;
+
+import java.util.Arrays;
+
+/**
+ * Exact membership for long keys using only two arrays (starts[], ends[]).
+ * Ranges must be sorted and non-overlapping (LongRangeExtractor guarantees this).
+ *
+ * contains(key):
+ *  - find i = last index where starts[i] <= key
+ *  - check key <= ends[i]
+ */
+public final class LongExactRangesIndex {
+
+    private long[] starts = new long[0];
+    private long[] ends = new long[0];
+    private int count = 0;
+
+    public void build(long[] starts, long[] ends, int count) {
+        this.starts = starts;
+        this.ends = ends;
+        this.count = count;
+    }
+
+    public boolean contains(long key) {
+        if (count == 0) return false;
+
+        int pos = Arrays.binarySearch(starts, 0, count, key);
+        int i = pos >= 0 ? pos : -pos - 2;
+
+        return i >= 0 && key <= ends[i];
+    }
+
+    public int getRangeCount() { return count; }
+
+    public long approxBytesUsed() {
+        // starts + ends arrays(longs), ignoring object headers
+        return (long) count * 2L * 8L;
+    }
+}
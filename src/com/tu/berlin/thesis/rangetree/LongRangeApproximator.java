@@ -0,0 +1,73 @@
+package com.tu.berlin.thesis.rangetree;
+
+import java.util.Arrays;
+
+/**
+ * 64-bit key counterpart of RangeApproximator: greedily merges the adjacent
+ * ranges with the smallest gap until targetRangeCount is reached, in
+ * O(n log n) the same way (sort the gap widths, merge below the cut-off).
+ *
+ * No false negatives.
+ * False positives are allowed.
+ */
+public final class LongRangeApproximator {
+
+    private LongRangeApproximator() {}
+
+    public static LongRangeExtractor.Ranges approximate(
+            LongRangeExtractor.Ranges exact,
+            int targetRangeCount
+    ) {
+        if (exact == null) {
+            throw new IllegalArgumentException("exact must not be null");
+        }
+
+        int n = exact.count;
+
+        if (n == 0) {
+            return new LongRangeExtractor.Ranges(new long[0], new long[0], 0);
+        }
+
+        if (targetRangeCount < 1) {
+            throw new IllegalArgumentException("targetRangeCount must be >= 1");
+        }
+
+        if (targetRangeCount >= n) {
+            return new LongRangeExtractor.Ranges(
+                    Arrays.copyOf(exact.starts, n),
+                    Arrays.copyOf(exact.ends, n),
+                    n
+            );
+        }
+
+        long[] gaps = new long[n - 1];
+        for (int i = 0; i < n - 1; i++) {
+            long gap = exact.starts[i + 1] - exact.ends[i] - 1;
+            gaps[i] = gap < 0 ? Long.MAX_VALUE : gap; // gap wider than 2^63
+        }
+
+        // merges = n - T: every gap narrower than the cut-off, then the first cut-off-wide ones
+        int merges = n - targetRangeCount;
+        long[] sorted = gaps.clone();
+        Arrays.sort(sorted);
+        long cutoff = sorted[merges - 1];
+        int narrower = 0;
+        while (sorted[narrower] < cutoff) narrower++;
+        int cutoffMerges = merges - narrower;
+
+        long[] starts = new long[targetRangeCount];
+        long[] ends = new long[targetRangeCount];
+        int count = 0;
+        starts[0] = exact.starts[0];
+        for (int i = 0; i < n - 1; i++) {
+            boolean merge = gaps[i] < cutoff || (gaps[i] == cutoff && cutoffMerges-- > 0);
+            if (!merge) {
+                ends[count++] = exact.ends[i];
+                starts[count] = exact.starts[i + 1];
+            }
+        }
+        ends[count++] = exact.ends[n - 1];
+
+        return new LongRangeExtractor.Ranges(starts, ends, count);
+    }
+}
@@ -0,0 +1,128 @@
+package com.tu.berlin.thesis.rangetree;
+
+import java.util.Arrays;
+
+/**
+ * 64-bit key counterpart of RangeExtractor: collects long build keys, sorts
+ * them, and compresses them into exact consecutive ranges [start,end].
+ *
+ * Output ranges are sorted by start.
+ */
+public final class LongRangeExtractor {
+
+    /** Result container: ranges[i] = [starts[i], ends[i]] for i in [0..count-1] */
+    public static final class Ranges {
+        public final long[] starts;
+        public final long[] ends;
+        public final int count;
+
+        public Ranges(long[] starts, long[] ends, int count) {
+            this.starts = starts;
+            this.ends = ends;
+            this.count = count;
+        }
+    }
+
+    private long[] keys;
+    private int n;
+
+    public LongRangeExtractor(int expectedKeys) {
+        this.keys = new long[Math.max(16, expectedKeys)];
+        this.n = 0;
+    }
+
+    /** Add one build-side key (called during build phase). */
+    public void add(long key) {
+        if (n == keys.length) {
+            keys = Arrays.copyOf(keys, keys.length * 2);
+        }
+        keys[n++] = key;
+    }
+
+    /** Appends all keys collected by other. */
+    public void merge(LongRangeExtractor other) {
+        if (n + other.n > keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(keys.length * 2, n + other.n));
+        }
+        System.arraycopy(other.keys, 0, keys, n, other.n);
+        n += other.n;
+    }
+
+    /** Build exact ranges from the collected keys. */
+    public Ranges buildExactRanges() {
+        Arrays.sort(keys, 0, n);
+        return exactRangesOfSorted(keys, n);
+    }
+
+    /** Exact ranges of n keys that are already sorted ascending (duplicates allowed). */
+    public static Ranges exactRangesOfSorted(long[] keys, int n) {
+        if (n == 0) {
+            return new Ranges(new long[0], new long[0], 0);
+        }
+
+        long[] starts = new long[n];
+        long[] ends = new long[n];
+        int r = 0;
+
+        long start = keys[0];
+        long prev = keys[0];
+
+        for (int i = 1; i < n; i++) {
+            long x = keys[i];
+
+            if (x == prev) {
+                continue; // duplicate
+            }
+
+            if (x == prev + 1) {
+                prev = x;
+            } else {
+                starts[r] = start;
+                ends[r] = prev;
+                r++;
+
+                start = x;
+                prev = x;
+            }
+        }
+
+        starts[r] = start;
+        ends[r] = prev;
+        r++;
+
+        if (r < n) {
+            starts = Arrays.copyOf(starts, r);
+            ends = Arrays.copyOf(ends, r);
+        }
+
+        return new Ranges(starts, ends, r);
+    }
+
+    /** Regroup adjacent exact ranges into targetClusters groups (see RangeExtractor). */
+    public static Ranges regroupToTargetClusters(Ranges exact, int targetClusters) {
+        if (exact.count == 0) {
+            return exact;
+        }
+
+        if (targetClusters <= 0) {
+            throw new IllegalArgumentException("targetClusters must be > 0");
+        }
+
+        if (targetClusters >= exact.count) {
+            return exact;
+        }
+
+        long[] starts = new long[targetClusters];
+        long[] ends = new long[targetClusters];
+
+        for (int g = 0; g < targetClusters; g++) {
+            int from = (int) (((long) g * exact.count) / targetClusters);
+            int toExclusive = (int) (((long) (g + 1) * exact.count) / targetClusters);
+
+            starts[g] = exact.starts[from];
+            ends[g] = exact.ends[toExclusive - 1];
+        }
+
+        return new Ranges(starts, ends, targetClusters);
+    }
+}
@@ -6,6 +6,10 @@ import java.util.Arrays;
  * Approximates exact sorted non-overlapping ranges by greedily merging
  * adjacent ranges with the smallest gap until targetRangeCount is reached.
  *
+ * A merge never changes the other gaps, so the greedy result is: merge the
+ * n - targetRangeCount smallest gaps (ties: lowest index first). One sort of
+ * the gap widths finds the cut-off width, one pass merges: O(n log n).
+ *
  * No false negatives.
  * False positives are allowed.
  */
@@ -39,38 +43,34 @@ public final class RangeApproximator {
             );
         }
 
-        int[] starts = Arrays.copyOf(exact.starts, n);
-        int[] ends = Arrays.copyOf(exact.ends, n);
-        int count = n;
-
-        while (count > targetRangeCount) {
-            int bestIdx = -1;
-            int bestGap = Integer.MAX_VALUE;
-
-            for (int i = 0; i < count - 1; i++) {
-                int gap = starts[i + 1] - ends[i] - 1;
-                if (gap < bestGap) {
-                    bestGap = gap;
-                    bestIdx = i;
-                }
-            }
-
-            // merge bestIdx and bestIdx + 1
-            ends[bestIdx] = ends[bestIdx + 1];
+        long[] gaps = new long[n - 1];
+        for (int i = 0; i < n - 1; i++) {
+            gaps[i] = (long) exact.starts[i + 1] - exact.ends[i] - 1;
+        }
 
-            for (int j = bestIdx + 1; j < count - 1; j++) {
-                starts[j] = starts[j + 1];
-                ends[j] = ends[j + 1];
+        // merges = n - T: every gap narrower than the cut-off, then the first cut-off-wide ones
+        int merges = n - targetRangeCount;
+        long[] sorted = gaps.clone();
+        Arrays.sort(sorted);
+        long cutoff = sorted[merges - 1];
+        int narrower = 0;
+        while (sorted[narrower] < cutoff) narrower++;
+        int cutoffMerges = merges - narrower;
+
+        int[] starts = new int[targetRangeCount];
+        int[] ends = new int[targetRangeCount];
+        int count = 0;
+        starts[0] = exact.starts[0];
+        for (int i = 0; i < n - 1; i++) {
+            boolean merge = gaps[i] < cutoff || (gaps[i] == cutoff && cutoffMerges-- > 0);
+            if (!merge) {
+                ends[count++] = exact.ends[i];
+                starts[count] = exact.starts[i + 1];
             }
-
-            count--;
         }
+        ends[count++] = exact.ends[n - 1];
 
-        return new RangeExtractor.Ranges(
-                Arrays.copyOf(starts, count),
-                Arrays.copyOf(ends, count),
-                count
-        );
+        return new RangeExtractor.Ranges(starts, ends, count);
     }
 
     // ============================================================
@@ -41,6 +41,18 @@ public final class RangeExtractor {
         keys[n++] = key;
     }
 
+    /** Bytes of the collected-keys buffer. */
+    public long approxBytesUsed() { return keys.length * 4L; }
+
+    /** Appends all keys collected by other (merging per-thread extractors after a parallel build). */
+    public void merge(RangeExtractor other) {
+        if (n + other.n > keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(keys.length * 2, n + other.n));
+        }
+        System.arraycopy(other.keys, 0, keys, n, other.n);
+        n += other.n;
+    }
+
     /**
      * Build exact ranges from the collected keys.
      * After calling this, you typically don't add more keys.
@@ -51,6 +63,14 @@ public final class RangeExtractor {
         }
 
         Arrays.sort(keys, 0, n);
+        return exactRangesOfSorted(keys, n);
+    }
+
+    /** Exact ranges of n keys that are already sorted ascending (duplicates allowed). */
+    public static Ranges exactRangesOfSorted(int[] keys, int n) {
+        if (n == 0) {
+            return new Ranges(new int[0], new int[0], 0);
+        }
 
         int[] starts = new int[n];
         int[] ends = new int[n];